@@ -0,0 +1,153 @@
+package org.opentripplanner.ext.legacygraphqlapi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import graphql.ExecutionInput;
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import graphql.scalars.ExtendedScalars;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.ext.legacygraphqlapi.datafetchers.LegacyGraphQLStopImpl;
+import org.opentripplanner.transit.model._data.TransitModelForTest;
+import org.opentripplanner.transit.model.site.RegularStop;
+import org.opentripplanner.transit.model.site.StopLocation;
+import org.opentripplanner.transit.service.TransitService;
+
+class LegacyGraphQLDataLoadersTest {
+
+  private static final String SCHEMA =
+    """
+    type Query { stops: [Stop] }
+    type Stop { name: String, routes: [String] }
+    """;
+
+  private static final String STOP_TIMES_SCHEMA =
+    """
+    scalar Long
+    type Query { stops: [Stop] }
+    type Stop {
+      stoptimesForPatterns(
+        startTime: Long = 0
+        timeRange: Int = 86400
+        numberOfDepartures: Int = 5
+        omitNonPickups: Boolean = false
+        omitCanceled: Boolean = true
+      ): [String]
+    }
+    """;
+
+  private static final Instant REQUEST_TIME = Instant.parse("2022-11-01T12:00:00Z");
+
+  private static final RegularStop STOP_A = TransitModelForTest.stopForTest("A", 60.0, 10.0);
+  private static final RegularStop STOP_B = TransitModelForTest.stopForTest("B", 60.1, 10.1);
+
+  @Test
+  void loadRoutesForStopOncePerStop() {
+    var transitService = mock(TransitService.class);
+    when(transitService.getRoutesForStop(any()))
+      .thenAnswer(invocation -> {
+        StopLocation stop = invocation.getArgument(0);
+        return Set.of(TransitModelForTest.route("R" + stop.getId().getId()).build());
+      });
+
+    var wiring = RuntimeWiring
+      .newRuntimeWiring()
+      .type("Query", b -> b.dataFetcher("stops", env -> List.of(STOP_A, STOP_B, STOP_A)))
+      .type(
+        "Stop",
+        b ->
+          b
+            .dataFetcher("name", env -> env.<StopLocation>getSource().getId().getId())
+            .dataFetcher(
+              "routes",
+              env ->
+                LegacyGraphQLDataLoaders
+                  .routesForStop(env, env.getSource())
+                  .thenApply(routes -> routes.stream().map(r -> r.getId().getId()).toList())
+            )
+      )
+      .build();
+    var schema = new SchemaGenerator()
+      .makeExecutableSchema(new SchemaParser().parse(SCHEMA), wiring);
+
+    ExecutionResult result = GraphQL
+      .newGraphQL(schema)
+      .build()
+      .execute(
+        ExecutionInput
+          .newExecutionInput()
+          .query("{ stops { name routes } }")
+          .dataLoaderRegistry(LegacyGraphQLDataLoaders.createRegistry(transitService))
+          .build()
+      );
+
+    assertTrue(result.getErrors().isEmpty(), () -> result.getErrors().toString());
+    assertEquals(
+      Map.of(
+        "stops",
+        List.of(
+          Map.of("name", "A", "routes", List.of("RA")),
+          Map.of("name", "B", "routes", List.of("RB")),
+          Map.of("name", "A", "routes", List.of("RA"))
+        )
+      ),
+      result.getData()
+    );
+    verify(transitService, times(1)).getRoutesForStop(STOP_A);
+    verify(transitService, times(1)).getRoutesForStop(STOP_B);
+  }
+
+  @Test
+  void loadStopTimesForStopOncePerStopAtTheTimeOfTheRequest() {
+    var transitService = mock(TransitService.class);
+    when(transitService.stopTimesForStop(any(), any(), any(), anyInt(), any(), anyBoolean()))
+      .thenReturn(List.of());
+
+    var wiring = RuntimeWiring
+      .newRuntimeWiring()
+      .scalar(ExtendedScalars.GraphQLLong)
+      .type("Query", b -> b.dataFetcher("stops", env -> List.of(STOP_A, STOP_B, STOP_A)))
+      .type(
+        "Stop",
+        b ->
+          b.dataFetcher("stoptimesForPatterns", new LegacyGraphQLStopImpl().stoptimesForPatterns())
+      )
+      .build();
+    var schema = new SchemaGenerator()
+      .makeExecutableSchema(new SchemaParser().parse(STOP_TIMES_SCHEMA), wiring);
+
+    ExecutionResult result = GraphQL
+      .newGraphQL(schema)
+      .build()
+      .execute(
+        ExecutionInput
+          .newExecutionInput()
+          .query("{ stops { stoptimesForPatterns } }")
+          .context(new LegacyGraphQLRequestContext(null, null, transitService, null, REQUEST_TIME))
+          .dataLoaderRegistry(LegacyGraphQLDataLoaders.createRegistry(transitService))
+          .build()
+      );
+
+    assertTrue(result.getErrors().isEmpty(), () -> result.getErrors().toString());
+    verify(transitService, times(1))
+      .stopTimesForStop(eq(STOP_A), eq(REQUEST_TIME), any(), eq(5), any(), eq(false));
+    verify(transitService, times(1))
+      .stopTimesForStop(eq(STOP_B), eq(REQUEST_TIME), any(), eq(5), any(), eq(false));
+  }
+}
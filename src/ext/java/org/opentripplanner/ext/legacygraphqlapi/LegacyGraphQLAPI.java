@@ -23,6 +23,7 @@ import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import org.opentripplanner.api.json.GraphQLResponseSerializer;
 import org.opentripplanner.standalone.api.OtpServerRequestContext;
+import org.opentripplanner.util.GraphQLDocumentCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -57,7 +58,13 @@ public class LegacyGraphQLAPI {
     @HeaderParam("OTPMaxResolves") @DefaultValue("1000000") int maxResolves,
     @Context HttpHeaders headers
   ) {
-    if (queryParameters == null || !queryParameters.containsKey("query")) {
+    if (
+      queryParameters == null ||
+      (
+        !queryParameters.containsKey("query") &&
+        !GraphQLDocumentCache.isPersistedQuery(extensions(queryParameters))
+      )
+    ) {
       LOG.debug("No query found in body");
       return Response
         .status(Response.Status.BAD_REQUEST)
@@ -95,6 +102,7 @@ public class LegacyGraphQLAPI {
       serverContext,
       variables,
       operationName,
+      extensions(queryParameters),
       maxResolves,
       timeout,
       locale
@@ -117,6 +125,7 @@ public class LegacyGraphQLAPI {
       serverContext,
       null,
       null,
+      null,
       maxResolves,
       timeout,
       locale
@@ -164,6 +173,7 @@ public class LegacyGraphQLAPI {
           serverContext,
           variables,
           operationName,
+          extensions(query),
           maxResolves,
           timeout,
           locale
@@ -172,7 +182,9 @@ public class LegacyGraphQLAPI {
     }
 
     try {
-      List<Future<ExecutionResult>> results = LegacyGraphQLIndex.threadPool.invokeAll(futures);
+      List<Future<ExecutionResult>> results = serverContext
+        .graphQLScheduler()
+        .invokeAll(LegacyGraphQLIndex.API_NAME, futures);
       return Response
         .status(Response.Status.OK)
         .entity(GraphQLResponseSerializer.serializeBatch(queries, results))
@@ -182,4 +194,11 @@ public class LegacyGraphQLAPI {
       throw new RuntimeException(e);
     }
   }
+
+  @SuppressWarnings("unchecked")
+  private static Map<String, Object> extensions(Map<String, Object> queryParameters) {
+    return queryParameters.get("extensions") instanceof Map
+      ? (Map<String, Object>) queryParameters.get("extensions")
+      : null;
+  }
 }
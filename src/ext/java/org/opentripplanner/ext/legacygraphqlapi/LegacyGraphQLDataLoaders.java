@@ -0,0 +1,156 @@
+package org.opentripplanner.ext.legacygraphqlapi;
+
+import graphql.schema.DataFetcher;
+import graphql.schema.DataFetchingEnvironment;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+import org.dataloader.BatchLoader;
+import org.dataloader.DataLoader;
+import org.dataloader.DataLoaderFactory;
+import org.dataloader.DataLoaderRegistry;
+import org.opentripplanner.model.StopTimesInPattern;
+import org.opentripplanner.routing.stoptimes.ArrivalDeparture;
+import org.opentripplanner.transit.model.network.Route;
+import org.opentripplanner.transit.model.network.TripPattern;
+import org.opentripplanner.transit.model.site.StopLocation;
+import org.opentripplanner.transit.model.timetable.Trip;
+import org.opentripplanner.transit.service.TransitService;
+
+/**
+ * The data loaders used to look up related entities, like the routes of a stop. Without them, a
+ * query like {@code stops { routes { patterns { trips } } }} does one lookup per node in the
+ * result. With them, the keys of each level of the query are collected, and a key requested many
+ * times, like the same stop in many patterns, is only looked up once. The transit service has no
+ * bulk lookups, so each distinct key is still looked up on its own.
+ * <p>
+ * A new registry is created for each request, so the loaded values are not cached across requests
+ * and always reflect the transit service of the request.
+ */
+public class LegacyGraphQLDataLoaders {
+
+  public static final String ROUTES_FOR_STOP = "routesForStop";
+  public static final String PATTERNS_FOR_STOP = "patternsForStop";
+  public static final String PATTERNS_FOR_ROUTE = "patternsForRoute";
+  public static final String PATTERN_FOR_TRIP = "patternForTrip";
+  public static final String STOP_TIMES_FOR_STOP = "stopTimesForStop";
+
+  private LegacyGraphQLDataLoaders() {}
+
+  public static DataLoaderRegistry createRegistry(TransitService transitService) {
+    return new DataLoaderRegistry()
+      .register(ROUTES_FOR_STOP, loader(transitService::getRoutesForStop))
+      .register(
+        PATTERNS_FOR_STOP,
+        loader((StopLocation stop) -> transitService.getPatternsForStop(stop, true))
+      )
+      .register(PATTERNS_FOR_ROUTE, loader(transitService::getPatternsForRoute))
+      .register(PATTERN_FOR_TRIP, loader((Trip trip) -> transitService.getPatternForTrip(trip)))
+      .register(
+        STOP_TIMES_FOR_STOP,
+        loader((StopTimesForStopKey key) ->
+          transitService.stopTimesForStop(
+            key.stop(),
+            key.startTime(),
+            key.timeRange(),
+            key.numberOfDepartures(),
+            key.arrivalDeparture(),
+            key.includeCancelledTrips()
+          )
+        )
+      );
+  }
+
+  public static CompletableFuture<Collection<Route>> routesForStop(
+    DataFetchingEnvironment environment,
+    StopLocation stop
+  ) {
+    DataLoader<StopLocation, Collection<Route>> loader = get(environment, ROUTES_FOR_STOP);
+    return loader.load(stop);
+  }
+
+  public static CompletableFuture<Collection<TripPattern>> patternsForStop(
+    DataFetchingEnvironment environment,
+    StopLocation stop
+  ) {
+    DataLoader<StopLocation, Collection<TripPattern>> loader = get(environment, PATTERNS_FOR_STOP);
+    return loader.load(stop);
+  }
+
+  public static CompletableFuture<Collection<TripPattern>> patternsForRoute(
+    DataFetchingEnvironment environment,
+    Route route
+  ) {
+    DataLoader<Route, Collection<TripPattern>> loader = get(environment, PATTERNS_FOR_ROUTE);
+    return loader.load(route);
+  }
+
+  public static CompletableFuture<TripPattern> patternForTrip(
+    DataFetchingEnvironment environment,
+    Trip trip
+  ) {
+    DataLoader<Trip, TripPattern> loader = get(environment, PATTERN_FOR_TRIP);
+    return loader.load(trip);
+  }
+
+  /**
+   * Load the stop times of all the given stops, the result is in the same order as the keys.
+   */
+  public static CompletableFuture<List<List<StopTimesInPattern>>> stopTimesForStops(
+    DataFetchingEnvironment environment,
+    List<StopTimesForStopKey> keys
+  ) {
+    DataLoader<StopTimesForStopKey, List<StopTimesInPattern>> loader = get(
+      environment,
+      STOP_TIMES_FOR_STOP
+    );
+    return loader.loadMany(keys);
+  }
+
+  /**
+   * The generated data fetcher interfaces are typed with the resolved value, but graphql-java
+   * resolves a {@link CompletionStage} returned by any data fetcher, the type parameter of the data
+   * fetcher is not used at runtime. This returns a data fetcher of a future value as the type of
+   * the generated interface.
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> DataFetcher<T> deferred(
+    DataFetcher<? extends CompletionStage<? extends T>> fetcher
+  ) {
+    return (DataFetcher<T>) (DataFetcher<?>) fetcher;
+  }
+
+  private static <K, V> DataLoader<K, V> get(DataFetchingEnvironment environment, String name) {
+    DataLoader<K, V> loader = environment.getDataLoader(name);
+    if (loader == null) {
+      throw new IllegalStateException("The data loader " + name + " is not registered.");
+    }
+    return loader;
+  }
+
+  /**
+   * The keys are looked up one by one. The lookups are in-memory, so the batch is resolved
+   * synchronously in the thread dispatching it.
+   */
+  private static <K, V> DataLoader<K, V> loader(Function<K, V> lookup) {
+    BatchLoader<K, V> batchLoader = keys ->
+      CompletableFuture.completedFuture(keys.stream().map(lookup).toList());
+    return DataLoaderFactory.newDataLoader(batchLoader);
+  }
+
+  /**
+   * The arguments of a stop times for stop lookup.
+   */
+  public record StopTimesForStopKey(
+    StopLocation stop,
+    Instant startTime,
+    Duration timeRange,
+    int numberOfDepartures,
+    ArrivalDeparture arrivalDeparture,
+    boolean includeCancelledTrips
+  ) {}
+}
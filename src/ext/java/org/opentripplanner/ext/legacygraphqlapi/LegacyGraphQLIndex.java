@@ -1,7 +1,6 @@
 package org.opentripplanner.ext.legacygraphqlapi;
 
 import com.google.common.io.Resources;
-import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import graphql.ExecutionInput;
 import graphql.ExecutionResult;
 import graphql.GraphQL;
@@ -16,15 +15,15 @@ import graphql.schema.idl.SchemaGenerator;
 import graphql.schema.idl.SchemaParser;
 import graphql.schema.idl.TypeDefinitionRegistry;
 import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tag;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import javax.ws.rs.core.Response;
@@ -80,6 +79,7 @@ import org.opentripplanner.ext.legacygraphqlapi.datafetchers.LegacyGraphQLservic
 import org.opentripplanner.ext.legacygraphqlapi.datafetchers.LegacyGraphQLstepImpl;
 import org.opentripplanner.ext.legacygraphqlapi.datafetchers.LegacyGraphQLstopAtDistanceImpl;
 import org.opentripplanner.standalone.api.OtpServerRequestContext;
+import org.opentripplanner.util.GraphQLDocumentCache;
 import org.opentripplanner.util.OTPFeature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -90,8 +90,13 @@ class LegacyGraphQLIndex {
 
   private static final GraphQLSchema indexSchema = buildSchema();
 
-  static final ExecutorService threadPool = Executors.newCachedThreadPool(
-    new ThreadFactoryBuilder().setNameFormat("GraphQLExecutor-%d").build()
+  /** The name of the API, used by the scheduler and in the metrics. */
+  static final String API_NAME = "legacyGraphQL";
+
+  private static final GraphQLDocumentCache documentCache = new GraphQLDocumentCache(
+    GraphQLDocumentCache.DEFAULT_MAX_SIZE,
+    Metrics.globalRegistry,
+    List.of(Tag.of("api", API_NAME))
   );
 
   protected static GraphQLSchema buildSchema() {
@@ -172,6 +177,7 @@ class LegacyGraphQLIndex {
     OtpServerRequestContext serverContext,
     Map<String, Object> variables,
     String operationName,
+    Map<String, Object> extensions,
     int maxResolves,
     int timeoutMs,
     Locale locale
@@ -186,26 +192,38 @@ class LegacyGraphQLIndex {
         );
     }
 
-    GraphQL graphQL = GraphQL.newGraphQL(indexSchema).instrumentation(instrumentation).build();
+    GraphQL graphQL = GraphQL
+      .newGraphQL(indexSchema)
+      .instrumentation(instrumentation)
+      .preparsedDocumentProvider(documentCache)
+      .build();
 
     if (variables == null) {
       variables = new HashMap<>();
     }
+    if (extensions == null) {
+      extensions = new HashMap<>();
+    }
 
     LegacyGraphQLRequestContext requestContext = new LegacyGraphQLRequestContext(
       serverContext,
       serverContext.routingService(),
       serverContext.transitService(),
-      serverContext.graph().getFareService()
+      serverContext.graph().getFareService(),
+      Instant.now()
     );
 
     ExecutionInput executionInput = ExecutionInput
       .newExecutionInput()
-      .query(query)
+      .query(GraphQLDocumentCache.queryOrPersistedQueryMarker(query, extensions))
       .operationName(operationName)
       .context(requestContext)
       .root(serverContext)
       .variables(variables)
+      .extensions(extensions)
+      .dataLoaderRegistry(
+        LegacyGraphQLDataLoaders.createRegistry(requestContext.getTransitService())
+      )
       .locale(locale)
       .build();
     try {
@@ -220,19 +238,27 @@ class LegacyGraphQLIndex {
     OtpServerRequestContext serverContext,
     Map<String, Object> variables,
     String operationName,
+    Map<String, Object> extensions,
     int maxResolves,
     int timeoutMs,
     Locale locale
   ) {
-    ExecutionResult executionResult = getGraphQLExecutionResult(
-      query,
-      serverContext,
-      variables,
-      operationName,
-      maxResolves,
-      timeoutMs,
-      locale
-    );
+    ExecutionResult executionResult = serverContext
+      .graphQLScheduler()
+      .execute(
+        API_NAME,
+        () ->
+          getGraphQLExecutionResult(
+            query,
+            serverContext,
+            variables,
+            operationName,
+            extensions,
+            maxResolves,
+            timeoutMs,
+            locale
+          )
+      );
 
     return Response
       .status(Response.Status.OK)
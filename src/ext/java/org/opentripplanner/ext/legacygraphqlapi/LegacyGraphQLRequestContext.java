@@ -1,5 +1,6 @@
 package org.opentripplanner.ext.legacygraphqlapi;
 
+import java.time.Instant;
 import org.opentripplanner.routing.RoutingService;
 import org.opentripplanner.routing.fares.FareService;
 import org.opentripplanner.standalone.api.OtpServerRequestContext;
@@ -11,17 +12,20 @@ public class LegacyGraphQLRequestContext {
   private final RoutingService routingService;
   private final TransitService transitService;
   private final FareService fareService;
+  private final Instant requestTime;
 
   public LegacyGraphQLRequestContext(
     OtpServerRequestContext serverContext,
     RoutingService routingService,
     TransitService transitService,
-    FareService fareService
+    FareService fareService,
+    Instant requestTime
   ) {
     this.serverContext = serverContext;
     this.routingService = routingService;
     this.transitService = transitService;
     this.fareService = fareService;
+    this.requestTime = requestTime;
   }
 
   public OtpServerRequestContext getServerContext() {
@@ -39,4 +43,12 @@ public class LegacyGraphQLRequestContext {
   public FareService getFareService() {
     return fareService;
   }
+
+  /**
+   * The time the request is received. This is used as the current time by all the fields of the
+   * request, so the fields which default to now agree with each other.
+   */
+  public Instant getRequestTime() {
+    return requestTime;
+  }
 }
@@ -97,10 +97,12 @@ public class LegacyGraphQLUtils {
   }
 
   /**
-   * Convert the UNIX timestamp into an Instant, or return the current time if set to zero.
+   * Convert the UNIX timestamp into an Instant, or return the time of the request if set to zero.
    */
-  public static Instant getTimeOrNow(long epochSeconds) {
-    return epochSeconds != 0 ? Instant.ofEpochSecond(epochSeconds) : Instant.now();
+  public static Instant getTimeOrNow(long epochSeconds, DataFetchingEnvironment environment) {
+    return epochSeconds != 0
+      ? Instant.ofEpochSecond(epochSeconds)
+      : environment.<LegacyGraphQLRequestContext>getContext().getRequestTime();
   }
 
   public static boolean startsWith(String str, String name, Locale locale) {
@@ -53,7 +53,7 @@ public class LegacyGraphQLDepartureRowImpl
       return getSource(environment)
         .getStoptimes(
           getTransitService(environment),
-          LegacyGraphQLUtils.getTimeOrNow(args.getLegacyGraphQLStartTime()),
+          LegacyGraphQLUtils.getTimeOrNow(args.getLegacyGraphQLStartTime(), environment),
           Duration.ofSeconds(args.getLegacyGraphQLTimeRange()),
           args.getLegacyGraphQLNumberOfDepartures(),
           args.getLegacyGraphQLOmitNonPickups()
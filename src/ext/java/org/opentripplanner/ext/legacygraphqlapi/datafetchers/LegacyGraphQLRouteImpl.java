@@ -1,11 +1,15 @@
 package org.opentripplanner.ext.legacygraphqlapi.datafetchers;
 
+import static org.opentripplanner.ext.legacygraphqlapi.LegacyGraphQLDataLoaders.deferred;
+
 import graphql.relay.Relay;
 import graphql.schema.DataFetcher;
 import graphql.schema.DataFetchingEnvironment;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
+import org.opentripplanner.ext.legacygraphqlapi.LegacyGraphQLDataLoaders;
 import org.opentripplanner.ext.legacygraphqlapi.LegacyGraphQLRequestContext;
 import org.opentripplanner.ext.legacygraphqlapi.LegacyGraphQLUtils;
 import org.opentripplanner.ext.legacygraphqlapi.generated.LegacyGraphQLDataFetchers;
@@ -61,7 +65,7 @@ public class LegacyGraphQLRouteImpl implements LegacyGraphQLDataFetchers.LegacyG
               );
               break;
             case TRIPS:
-              getTrips(environment)
+              getTrips(getPatterns(environment))
                 .forEach(trip -> alerts.addAll(alertService.getTripAlerts(trip.getId(), null)));
               break;
             case STOPS_ON_ROUTE:
@@ -80,13 +84,13 @@ public class LegacyGraphQLRouteImpl implements LegacyGraphQLDataFetchers.LegacyG
                   )
                   .toList()
               );
-              getStops(environment)
+              getStops(getPatterns(environment))
                 .forEach(stop ->
                   alerts.addAll(alertService.getStopAlerts(((StopLocation) stop).getId()))
                 );
               break;
             case STOPS_ON_TRIPS:
-              Iterable<Trip> trips = getTrips(environment);
+              Iterable<Trip> trips = getTrips(getPatterns(environment));
               trips.forEach(trip ->
                 alerts.addAll(
                   alertService
@@ -172,8 +176,7 @@ public class LegacyGraphQLRouteImpl implements LegacyGraphQLDataFetchers.LegacyG
 
   @Override
   public DataFetcher<Iterable<TripPattern>> patterns() {
-    return environment ->
-      getTransitService(environment).getPatternsForRoute(getSource(environment));
+    return deferred(this::loadPatterns);
   }
 
   @Override
@@ -183,7 +186,7 @@ public class LegacyGraphQLRouteImpl implements LegacyGraphQLDataFetchers.LegacyG
 
   @Override
   public DataFetcher<Iterable<Object>> stops() {
-    return this::getStops;
+    return deferred(environment -> loadPatterns(environment).thenApply(this::getStops));
   }
 
   @Override
@@ -193,7 +196,7 @@ public class LegacyGraphQLRouteImpl implements LegacyGraphQLDataFetchers.LegacyG
 
   @Override
   public DataFetcher<Iterable<Trip>> trips() {
-    return this::getTrips;
+    return deferred(environment -> loadPatterns(environment).thenApply(this::getTrips));
   }
 
   @Override
@@ -206,23 +209,31 @@ public class LegacyGraphQLRouteImpl implements LegacyGraphQLDataFetchers.LegacyG
     return environment -> getSource(environment).getUrl();
   }
 
-  private Iterable<Object> getStops(DataFetchingEnvironment environment) {
-    return getTransitService(environment)
-      .getPatternsForRoute(getSource(environment))
+  private Iterable<Object> getStops(Collection<TripPattern> patterns) {
+    return patterns
       .stream()
       .map(TripPattern::getStops)
       .flatMap(Collection::stream)
       .collect(Collectors.toSet());
   }
 
-  private Iterable<Trip> getTrips(DataFetchingEnvironment environment) {
-    return getTransitService(environment)
-      .getPatternsForRoute(getSource(environment))
+  private Iterable<Trip> getTrips(Collection<TripPattern> patterns) {
+    return patterns
       .stream()
       .flatMap(TripPattern::scheduledTripsAsStream)
       .collect(Collectors.toSet());
   }
 
+  private Collection<TripPattern> getPatterns(DataFetchingEnvironment environment) {
+    return getTransitService(environment).getPatternsForRoute(getSource(environment));
+  }
+
+  private CompletableFuture<Collection<TripPattern>> loadPatterns(
+    DataFetchingEnvironment environment
+  ) {
+    return LegacyGraphQLDataLoaders.patternsForRoute(environment, getSource(environment));
+  }
+
   private TransitAlertService getAlertService(DataFetchingEnvironment environment) {
     return getTransitService(environment).getTransitAlertService();
   }
@@ -1,5 +1,7 @@
 package org.opentripplanner.ext.legacygraphqlapi.datafetchers;
 
+import static org.opentripplanner.ext.legacygraphqlapi.LegacyGraphQLDataLoaders.deferred;
+
 import graphql.relay.Relay;
 import graphql.schema.DataFetcher;
 import graphql.schema.DataFetchingEnvironment;
@@ -12,9 +14,12 @@ import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import org.opentripplanner.ext.legacygraphqlapi.LegacyGraphQLDataLoaders;
+import org.opentripplanner.ext.legacygraphqlapi.LegacyGraphQLDataLoaders.StopTimesForStopKey;
 import org.opentripplanner.ext.legacygraphqlapi.LegacyGraphQLRequestContext;
 import org.opentripplanner.ext.legacygraphqlapi.LegacyGraphQLUtils;
 import org.opentripplanner.ext.legacygraphqlapi.generated.LegacyGraphQLDataFetchers;
@@ -213,7 +218,13 @@ public class LegacyGraphQLStopImpl implements LegacyGraphQLDataFetchers.LegacyGr
 
   @Override
   public DataFetcher<Iterable<TripPattern>> patterns() {
-    return this::getPatterns;
+    return deferred(environment ->
+      getValue(
+        environment,
+        stop -> LegacyGraphQLDataLoaders.patternsForStop(environment, stop),
+        station -> null
+      )
+    );
   }
 
   @Override
@@ -223,7 +234,13 @@ public class LegacyGraphQLStopImpl implements LegacyGraphQLDataFetchers.LegacyGr
 
   @Override
   public DataFetcher<Iterable<Route>> routes() {
-    return this::getRoutes;
+    return deferred(environment ->
+      getValue(
+        environment,
+        stop -> LegacyGraphQLDataLoaders.routesForStop(environment, stop),
+        station -> null
+      )
+    );
   }
 
   @Override
@@ -244,11 +261,17 @@ public class LegacyGraphQLStopImpl implements LegacyGraphQLDataFetchers.LegacyGr
             return null;
           }
 
+          Instant startTime = LegacyGraphQLUtils.getTimeOrNow(
+            args.getLegacyGraphQLStartTime(),
+            environment
+          );
+
           if (transitService.hasRealtimeAddedTripPatterns()) {
             return getTripTimeOnDatesForPatternAtStopIncludingTripsWithSkippedStops(
               pattern,
               stop,
               transitService,
+              startTime,
               args
             );
           }
@@ -256,7 +279,7 @@ public class LegacyGraphQLStopImpl implements LegacyGraphQLDataFetchers.LegacyGr
           return transitService.stopTimesForPatternAtStop(
             stop,
             pattern,
-            LegacyGraphQLUtils.getTimeOrNow(args.getLegacyGraphQLStartTime()),
+            startTime,
             Duration.ofSeconds(args.getLegacyGraphQLTimeRange()),
             args.getLegacyGraphQLNumberOfDepartures(),
             args.getLegacyGraphQLOmitNonPickups()
@@ -281,36 +304,12 @@ public class LegacyGraphQLStopImpl implements LegacyGraphQLDataFetchers.LegacyGr
 
   @Override
   public DataFetcher<Iterable<StopTimesInPattern>> stoptimesForPatterns() {
-    return environment -> {
-      TransitService transitService = getTransitService(environment);
-      var args = new LegacyGraphQLTypes.LegacyGraphQLStopStoptimesForPatternsArgs(
-        environment.getArguments()
-      );
-
-      Function<StopLocation, List<StopTimesInPattern>> stopTFunction = stop ->
-        transitService.stopTimesForStop(
-          stop,
-          LegacyGraphQLUtils.getTimeOrNow(args.getLegacyGraphQLStartTime()),
-          Duration.ofSeconds(args.getLegacyGraphQLTimeRange()),
-          args.getLegacyGraphQLNumberOfDepartures(),
-          args.getLegacyGraphQLOmitNonPickups()
-            ? ArrivalDeparture.DEPARTURES
-            : ArrivalDeparture.BOTH,
-          !args.getLegacyGraphQLOmitCanceled()
-        );
-
-      return getValue(
-        environment,
-        stopTFunction,
-        station ->
-          station
-            .getChildStops()
-            .stream()
-            .map(stopTFunction)
-            .flatMap(Collection::stream)
-            .collect(Collectors.toList())
-      );
-    };
+    return deferred(environment ->
+      loadStopTimesForStops(environment)
+        .thenApply(stopTimes ->
+          stopTimes.stream().flatMap(Collection::stream).collect(Collectors.toList())
+        )
+    );
   }
 
   @Override
@@ -353,38 +352,24 @@ public class LegacyGraphQLStopImpl implements LegacyGraphQLDataFetchers.LegacyGr
 
   @Override
   public DataFetcher<Iterable<TripTimeOnDate>> stoptimesWithoutPatterns() {
-    return environment -> {
-      TransitService transitService = getTransitService(environment);
+    return deferred(environment -> {
       var args = new LegacyGraphQLTypes.LegacyGraphQLStopStoptimesForPatternsArgs(
         environment.getArguments()
       );
 
-      Function<StopLocation, Stream<StopTimesInPattern>> stopTFunction = stop ->
-        transitService
-          .stopTimesForStop(
-            stop,
-            LegacyGraphQLUtils.getTimeOrNow(args.getLegacyGraphQLStartTime()),
-            Duration.ofSeconds(args.getLegacyGraphQLTimeRange()),
-            args.getLegacyGraphQLNumberOfDepartures(),
-            args.getLegacyGraphQLOmitNonPickups()
-              ? ArrivalDeparture.DEPARTURES
-              : ArrivalDeparture.BOTH,
-            !args.getLegacyGraphQLOmitCanceled()
-          )
-          .stream();
-
-      Stream<StopTimesInPattern> stream = getValue(
-        environment,
-        stopTFunction,
-        station -> station.getChildStops().stream().flatMap(stopTFunction)
-      );
-
-      return stream
-        .flatMap(stoptimesWithPattern -> stoptimesWithPattern.times.stream())
-        .sorted(Comparator.comparing(t -> t.getServiceDayMidnight() + t.getRealtimeDeparture()))
-        .limit(args.getLegacyGraphQLNumberOfDepartures())
-        .collect(Collectors.toList());
-    };
+      return loadStopTimesForStops(environment)
+        .thenApply(stopTimes ->
+          stopTimes
+            .stream()
+            .flatMap(Collection::stream)
+            .flatMap(stoptimesWithPattern -> stoptimesWithPattern.times.stream())
+            .sorted(
+              Comparator.comparing(t -> t.getServiceDayMidnight() + t.getRealtimeDeparture())
+            )
+            .limit(args.getLegacyGraphQLNumberOfDepartures())
+            .collect(Collectors.toList())
+        );
+    });
   }
 
   @Override
@@ -486,6 +471,44 @@ public class LegacyGraphQLStopImpl implements LegacyGraphQLDataFetchers.LegacyGr
       getValue(environment, StopLocation::getFirstZoneAsString, station -> null);
   }
 
+  /**
+   * Load the stop times of the stop, or of all the child stops of a station, using the arguments of
+   * the stoptimesForPatterns field. The stop times of a stop are only looked up once for each set
+   * of arguments in the query.
+   */
+  private CompletableFuture<List<List<StopTimesInPattern>>> loadStopTimesForStops(
+    DataFetchingEnvironment environment
+  ) {
+    var args = new LegacyGraphQLTypes.LegacyGraphQLStopStoptimesForPatternsArgs(
+      environment.getArguments()
+    );
+    Instant startTime = LegacyGraphQLUtils.getTimeOrNow(
+      args.getLegacyGraphQLStartTime(),
+      environment
+    );
+    Duration timeRange = Duration.ofSeconds(args.getLegacyGraphQLTimeRange());
+    ArrivalDeparture arrivalDeparture = args.getLegacyGraphQLOmitNonPickups()
+      ? ArrivalDeparture.DEPARTURES
+      : ArrivalDeparture.BOTH;
+
+    Function<StopLocation, StopTimesForStopKey> key = stop ->
+      new StopTimesForStopKey(
+        stop,
+        startTime,
+        timeRange,
+        args.getLegacyGraphQLNumberOfDepartures(),
+        arrivalDeparture,
+        !args.getLegacyGraphQLOmitCanceled()
+      );
+
+    List<StopTimesForStopKey> keys = getValue(
+      environment,
+      stop -> List.of(key.apply(stop)),
+      station -> station.getChildStops().stream().map(key).toList()
+    );
+    return LegacyGraphQLDataLoaders.stopTimesForStops(environment, keys == null ? List.of() : keys);
+  }
+
   private Collection<TripPattern> getPatterns(DataFetchingEnvironment environment) {
     return getValue(
       environment,
@@ -517,9 +540,9 @@ public class LegacyGraphQLStopImpl implements LegacyGraphQLDataFetchers.LegacyGr
     TripPattern originalPattern,
     StopLocation stop,
     TransitService transitService,
+    Instant startTime,
     LegacyGraphQLTypes.LegacyGraphQLStopStopTimesForPatternArgs args
   ) {
-    Instant startTime = LegacyGraphQLUtils.getTimeOrNow(args.getLegacyGraphQLStartTime());
     LocalDate date = startTime.atZone(transitService.getTimeZone()).toLocalDate();
 
     return Stream
@@ -1,5 +1,7 @@
 package org.opentripplanner.ext.legacygraphqlapi.datafetchers;
 
+import static org.opentripplanner.ext.legacygraphqlapi.LegacyGraphQLDataLoaders.deferred;
+
 import graphql.relay.Relay;
 import graphql.schema.DataFetcher;
 import graphql.schema.DataFetchingEnvironment;
@@ -16,6 +18,7 @@ import java.util.stream.Collectors;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.LineString;
 import org.opentripplanner.api.support.SemanticHash;
+import org.opentripplanner.ext.legacygraphqlapi.LegacyGraphQLDataLoaders;
 import org.opentripplanner.ext.legacygraphqlapi.LegacyGraphQLRequestContext;
 import org.opentripplanner.ext.legacygraphqlapi.LegacyGraphQLUtils;
 import org.opentripplanner.ext.legacygraphqlapi.generated.LegacyGraphQLDataFetchers;
@@ -258,7 +261,9 @@ public class LegacyGraphQLTripImpl implements LegacyGraphQLDataFetchers.LegacyGr
 
   @Override
   public DataFetcher<TripPattern> pattern() {
-    return this::getTripPattern;
+    return deferred(environment ->
+      LegacyGraphQLDataLoaders.patternForTrip(environment, getSource(environment))
+    );
   }
 
   @Override
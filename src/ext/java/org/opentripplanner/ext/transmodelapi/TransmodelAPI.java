@@ -3,6 +3,7 @@ package org.opentripplanner.ext.transmodelapi;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import graphql.ExecutionResult;
 import graphql.schema.GraphQLSchema;
+import io.micrometer.core.instrument.Metrics;
 import io.micrometer.core.instrument.Tag;
 import java.io.IOException;
 import java.util.ArrayList;
@@ -32,6 +33,7 @@ import org.opentripplanner.ext.transmodelapi.support.GqlUtil;
 import org.opentripplanner.routing.api.request.RouteRequest;
 import org.opentripplanner.standalone.api.OtpServerRequestContext;
 import org.opentripplanner.transit.service.TransitModel;
+import org.opentripplanner.util.GraphQLDocumentCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -46,6 +48,7 @@ public class TransmodelAPI {
   private static final Logger LOG = LoggerFactory.getLogger(TransmodelAPI.class);
 
   private static GraphQLSchema schema;
+  private static GraphQLDocumentCache documentCache;
   private static Collection<String> tracingHeaderTags;
 
   private final OtpServerRequestContext serverContext;
@@ -61,7 +64,7 @@ public class TransmodelAPI {
     @Deprecated @PathParam("ignoreRouterId") String ignoreRouterId
   ) {
     this.serverContext = serverContext;
-    this.index = new TransmodelGraph(schema);
+    this.index = new TransmodelGraph(schema, documentCache);
   }
 
   /**
@@ -80,6 +83,12 @@ public class TransmodelAPI {
     tracingHeaderTags = config.tracingHeaderTags();
     GqlUtil gqlUtil = new GqlUtil(transitModel.getTimeZone());
     schema = TransmodelGraphQLSchema.create(defaultRouteRequest, gqlUtil);
+    documentCache =
+      new GraphQLDocumentCache(
+        GraphQLDocumentCache.DEFAULT_MAX_SIZE,
+        Metrics.globalRegistry,
+        List.of(Tag.of("api", TransmodelGraph.API_NAME))
+      );
   }
 
   /**
@@ -99,7 +108,13 @@ public class TransmodelAPI {
     @HeaderParam("OTPMaxResolves") @DefaultValue("1000000") int maxResolves,
     @Context HttpHeaders headers
   ) {
-    if (queryParameters == null || !queryParameters.containsKey("query")) {
+    if (
+      queryParameters == null ||
+      (
+        !queryParameters.containsKey("query") &&
+        !GraphQLDocumentCache.isPersistedQuery(extensions(queryParameters))
+      )
+    ) {
       LOG.debug("No query found in body");
       throw new BadRequestException("No query found in body");
     }
@@ -124,6 +139,7 @@ public class TransmodelAPI {
       serverContext,
       variables,
       operationName,
+      extensions(queryParameters),
       maxResolves,
       getTagsFromHeaders(headers)
     );
@@ -142,6 +158,7 @@ public class TransmodelAPI {
       serverContext,
       null,
       null,
+      null,
       maxResolves,
       getTagsFromHeaders(headers)
     );
@@ -181,6 +198,7 @@ public class TransmodelAPI {
           serverContext,
           variables,
           operationName,
+          extensions(query),
           maxResolves,
           getTagsFromHeaders(headers)
         )
@@ -188,7 +206,9 @@ public class TransmodelAPI {
     }
 
     try {
-      List<Future<ExecutionResult>> results = index.threadPool.invokeAll(futures);
+      List<Future<ExecutionResult>> results = serverContext
+        .graphQLScheduler()
+        .invokeAll(TransmodelGraph.API_NAME, futures);
       return Response
         .status(Response.Status.OK)
         .entity(GraphQLResponseSerializer.serializeBatch(queries, results))
@@ -199,6 +219,13 @@ public class TransmodelAPI {
     }
   }
 
+  @SuppressWarnings("unchecked")
+  private static Map<String, Object> extensions(Map<String, Object> queryParameters) {
+    return queryParameters.get("extensions") instanceof Map
+      ? (Map<String, Object>) queryParameters.get("extensions")
+      : null;
+  }
+
   private static Iterable<Tag> getTagsFromHeaders(HttpHeaders headers) {
     return tracingHeaderTags
       .stream()
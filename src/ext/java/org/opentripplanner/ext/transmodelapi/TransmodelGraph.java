@@ -1,6 +1,5 @@
 package org.opentripplanner.ext.transmodelapi;
 
-import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import graphql.ExecutionInput;
 import graphql.ExecutionResult;
 import graphql.GraphQL;
@@ -12,12 +11,11 @@ import io.micrometer.core.instrument.Metrics;
 import io.micrometer.core.instrument.Tag;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import javax.ws.rs.core.Response;
 import org.opentripplanner.api.json.GraphQLResponseSerializer;
 import org.opentripplanner.ext.actuator.MicrometerGraphQLInstrumentation;
 import org.opentripplanner.standalone.api.OtpServerRequestContext;
+import org.opentripplanner.util.GraphQLDocumentCache;
 import org.opentripplanner.util.OTPFeature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -27,15 +25,14 @@ class TransmodelGraph {
   static final Logger LOG = LoggerFactory.getLogger(TransmodelGraph.class);
 
   private final GraphQLSchema indexSchema;
+  private final GraphQLDocumentCache documentCache;
 
-  final ExecutorService threadPool;
+  /** The name of the API, used by the scheduler and in the metrics. */
+  static final String API_NAME = "transmodel";
 
-  TransmodelGraph(GraphQLSchema schema) {
-    this.threadPool =
-      Executors.newCachedThreadPool(
-        new ThreadFactoryBuilder().setNameFormat("GraphQLExecutor-%d").build()
-      );
+  TransmodelGraph(GraphQLSchema schema, GraphQLDocumentCache documentCache) {
     this.indexSchema = schema;
+    this.documentCache = documentCache;
   }
 
   ExecutionResult getGraphQLExecutionResult(
@@ -43,6 +40,7 @@ class TransmodelGraph {
     OtpServerRequestContext serverContext,
     Map<String, Object> variables,
     String operationName,
+    Map<String, Object> extensions,
     int maxResolves,
     Iterable<Tag> tracingTags
   ) {
@@ -55,11 +53,18 @@ class TransmodelGraph {
         );
     }
 
-    GraphQL graphQL = GraphQL.newGraphQL(indexSchema).instrumentation(instrumentation).build();
+    GraphQL graphQL = GraphQL
+      .newGraphQL(indexSchema)
+      .instrumentation(instrumentation)
+      .preparsedDocumentProvider(documentCache)
+      .build();
 
     if (variables == null) {
       variables = new HashMap<>();
     }
+    if (extensions == null) {
+      extensions = new HashMap<>();
+    }
 
     TransmodelRequestContext transmodelRequestContext = new TransmodelRequestContext(
       serverContext,
@@ -69,11 +74,12 @@ class TransmodelGraph {
 
     ExecutionInput executionInput = ExecutionInput
       .newExecutionInput()
-      .query(query)
+      .query(GraphQLDocumentCache.queryOrPersistedQueryMarker(query, extensions))
       .operationName(operationName)
       .context(transmodelRequestContext)
       .root(serverContext)
       .variables(variables)
+      .extensions(extensions)
       .build();
     return graphQL.execute(executionInput);
   }
@@ -83,17 +89,25 @@ class TransmodelGraph {
     OtpServerRequestContext serverContext,
     Map<String, Object> variables,
     String operationName,
+    Map<String, Object> extensions,
     int maxResolves,
     Iterable<Tag> tracingTags
   ) {
-    ExecutionResult result = getGraphQLExecutionResult(
-      query,
-      serverContext,
-      variables,
-      operationName,
-      maxResolves,
-      tracingTags
-    );
+    ExecutionResult result = serverContext
+      .graphQLScheduler()
+      .execute(
+        API_NAME,
+        () ->
+          getGraphQLExecutionResult(
+            query,
+            serverContext,
+            variables,
+            operationName,
+            extensions,
+            maxResolves,
+            tracingTags
+          )
+      );
 
     return Response
       .status(Response.Status.OK)
@@ -0,0 +1,74 @@
+package org.opentripplanner.common.geometry;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.locationtech.jts.geom.Envelope;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compare the spatial index types used for the street edges, see {@link SpatialIndexType}. The
+ * items are short segments, dense in a city centre and sparse around it, and the queries are small
+ * envelopes like the ones used when linking a stop or a coordinate to the street graph.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SpatialIndexBenchmark {
+
+  private static final int NUMBER_OF_ITEMS = 200_000;
+  private static final int NUMBER_OF_QUERIES = 1_000;
+  private static final double CENTER_X = 10.75;
+  private static final double CENTER_Y = 59.91;
+  /** About 100 m at this latitude. */
+  private static final double QUERY_RADIUS = 0.001;
+
+  @Param({ "HASH_GRID", "HILBERT_R_TREE" })
+  public SpatialIndexType indexType;
+
+  private GeometrySpatialIndex<Integer> index;
+  private Envelope[] queries;
+
+  @Setup
+  public void setup() {
+    var random = new Random(42);
+    index = indexType.create();
+    for (int i = 0; i < NUMBER_OF_ITEMS; ++i) {
+      double x = CENTER_X + random.nextGaussian() * 0.1;
+      double y = CENTER_Y + random.nextGaussian() * 0.05;
+      index.insert(new Envelope(x, x + random.nextDouble() * 0.002, y, y + 0.0005), i);
+    }
+    index.compact();
+
+    queries = new Envelope[NUMBER_OF_QUERIES];
+    for (int i = 0; i < NUMBER_OF_QUERIES; ++i) {
+      double x = CENTER_X + random.nextGaussian() * 0.1;
+      double y = CENTER_Y + random.nextGaussian() * 0.05;
+      var envelope = new Envelope(x, x, y, y);
+      envelope.expandBy(QUERY_RADIUS);
+      queries[i] = envelope;
+    }
+  }
+
+  @Benchmark
+  public void query(Blackhole blackhole) {
+    for (Envelope it : queries) {
+      List<Integer> result = index.query(it);
+      blackhole.consume(result);
+    }
+  }
+}
@@ -0,0 +1,121 @@
+package org.opentripplanner.routing.algorithm.astar;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.opentripplanner.routing.algorithm.GraphRoutingTest;
+import org.opentripplanner.routing.algorithm.astar.landmark.LandmarkMetric;
+import org.opentripplanner.routing.algorithm.astar.landmark.LandmarkTableBuilder;
+import org.opentripplanner.routing.algorithm.astar.landmark.Landmarks;
+import org.opentripplanner.routing.algorithm.astar.strategies.EuclideanRemainingWeightHeuristic;
+import org.opentripplanner.routing.algorithm.astar.strategies.LandmarkRemainingWeightHeuristic;
+import org.opentripplanner.routing.algorithm.astar.strategies.RemainingWeightHeuristic;
+import org.opentripplanner.routing.api.request.RouteRequest;
+import org.opentripplanner.routing.api.request.StreetMode;
+import org.opentripplanner.routing.api.request.request.StreetRequest;
+import org.opentripplanner.routing.edgetype.StreetTraversalPermission;
+import org.opentripplanner.routing.spt.GraphPath;
+import org.opentripplanner.routing.vertextype.StreetVertex;
+
+/**
+ * Measure a point-to-point A* street search across a synthetic street grid, with the Euclidean and
+ * the landmark heuristic. The grid has streets of varying length and car speed, so the shortest
+ * path is not a straight line.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AStarBenchmark {
+
+  /** The number of intersections in each row and column of the grid. */
+  @Param({ "50", "150" })
+  public int gridSize;
+
+  @Param({ "BIKE", "CAR" })
+  public StreetMode mode;
+
+  @Param({ "EUCLIDEAN", "LANDMARKS" })
+  public HeuristicType heuristic;
+
+  private StreetVertex from;
+  private StreetVertex to;
+  private Landmarks landmarks;
+  private final RouteRequest request = new RouteRequest();
+
+  @Setup
+  public void setup() {
+    var builder = new GraphRoutingTest.Builder() {
+      @Override
+      public void build() {
+        StreetVertex[][] grid = new StreetVertex[gridSize][gridSize];
+        for (int i = 0; i < gridSize; ++i) {
+          for (int j = 0; j < gridSize; ++j) {
+            grid[i][j] = intersection("V" + i + "_" + j, 60.0 + i * 0.001, 10.0 + j * 0.002);
+          }
+        }
+        for (int i = 0; i < gridSize; ++i) {
+          for (int j = 0; j < gridSize; ++j) {
+            float carSpeed = 10f + 5f * ((i + j) % 3);
+            var p = StreetTraversalPermission.ALL;
+            if (i + 1 < gridSize) {
+              int length = 110 + 17 * ((i * 7 + j) % 5);
+              street(grid[i][j], grid[i + 1][j], length, p, p)
+                .forEach(it -> it.setCarSpeed(carSpeed));
+            }
+            if (j + 1 < gridSize) {
+              int length = 110 + 23 * ((i + j * 3) % 4);
+              street(grid[i][j], grid[i][j + 1], length, p, p)
+                .forEach(it -> it.setCarSpeed(carSpeed));
+            }
+          }
+        }
+        from = grid[0][0];
+        to = grid[gridSize - 1][gridSize - 1];
+      }
+    };
+    builder.build();
+
+    var vertices = builder.graph().getVertices();
+    landmarks =
+      new Landmarks(
+        List.of(
+          new LandmarkTableBuilder(vertices, LandmarkMetric.CAR).build(8),
+          new LandmarkTableBuilder(vertices, LandmarkMetric.BICYCLE).build(8)
+        )
+      );
+  }
+
+  @Benchmark
+  public List<GraphPath> route() {
+    return new AStarBuilder(heuristic.create(landmarks), null)
+      .setRequest(request)
+      .setStreetRequest(new StreetRequest(mode))
+      .setFrom(from)
+      .setTo(to)
+      .getPathsToTarget();
+  }
+
+  public enum HeuristicType {
+    EUCLIDEAN,
+    LANDMARKS;
+
+    RemainingWeightHeuristic create(Landmarks landmarks) {
+      return this == EUCLIDEAN
+        ? new EuclideanRemainingWeightHeuristic()
+        : new LandmarkRemainingWeightHeuristic(landmarks);
+    }
+  }
+}
@@ -0,0 +1,134 @@
+package org.opentripplanner.routing.algorithm.mapping;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.opentripplanner.model.PickDrop;
+import org.opentripplanner.model.StopTime;
+import org.opentripplanner.model.plan.Itinerary;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.cost.DefaultCostCalculator;
+import org.opentripplanner.routing.api.request.RouteRequest;
+import org.opentripplanner.routing.graph.Graph;
+import org.opentripplanner.transit.model.basic.TransitMode;
+import org.opentripplanner.transit.model.framework.FeedScopedId;
+import org.opentripplanner.transit.model.network.Route;
+import org.opentripplanner.transit.model.network.StopPattern;
+import org.opentripplanner.transit.model.network.TripPattern;
+import org.opentripplanner.transit.model.organization.Agency;
+import org.opentripplanner.transit.model.site.RegularStop;
+import org.opentripplanner.transit.raptor._data.api.TestPathBuilder;
+import org.opentripplanner.transit.raptor._data.transit.TestAccessEgress;
+import org.opentripplanner.transit.raptor._data.transit.TestTripPattern;
+import org.opentripplanner.transit.raptor._data.transit.TestTripSchedule;
+import org.opentripplanner.transit.raptor.api.path.Path;
+import org.opentripplanner.transit.service.DefaultTransitService;
+import org.opentripplanner.transit.service.TransitModel;
+import org.opentripplanner.util.TestUtils;
+import org.opentripplanner.util.time.TimeUtils;
+
+/**
+ * Measure the mapping of a Raptor path to an itinerary, done for each path returned by Raptor. The
+ * path is a single bus ride with zero duration access and egress, set up the same way as in the
+ * {@code RaptorPathToItineraryMapperTest}, so no street graph or transit layer is needed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RaptorPathToItineraryMapperBenchmark {
+
+  private static final String FEED_ID = "F";
+  private static final int NUMBER_OF_STOPS = 20;
+  private static final int DEPARTURE_TIME = TimeUtils.time("10:00");
+  private static final int TRAVEL_TIME_BETWEEN_STOPS = 120;
+
+  private RaptorPathToItineraryMapper<TestTripSchedule> mapper;
+  private Path<TestTripSchedule> path;
+
+  @Setup
+  public void setup() {
+    var dateTime = TestUtils.dateInstant("Europe/Oslo", 2022, 10, 10, 12, 0, 0);
+    mapper =
+      new RaptorPathToItineraryMapper<>(
+        new Graph(),
+        new DefaultTransitService(new TransitModel()),
+        null,
+        dateTime.atZone(ZoneId.of("CET")),
+        new RouteRequest()
+      );
+
+    var costCalculator = new DefaultCostCalculator<TestTripSchedule>(
+      60,
+      120,
+      0.8,
+      new double[] { 1.0 },
+      null
+    );
+    path =
+      new TestPathBuilder(0, costCalculator)
+        .access(DEPARTURE_TIME, TestAccessEgress.zeroDurationAccess(1, 0))
+        .bus(tripSchedule(), NUMBER_OF_STOPS)
+        .egress(TestAccessEgress.zeroDurationAccess(NUMBER_OF_STOPS, 0));
+  }
+
+  @Benchmark
+  public Itinerary createItinerary() {
+    return mapper.createItinerary(path);
+  }
+
+  private static TestTripSchedule tripSchedule() {
+    var agency = Agency
+      .of(new FeedScopedId(FEED_ID, "A1"))
+      .withName("Agency")
+      .withTimezone("Europe/Oslo")
+      .build();
+    var route = Route
+      .of(new FeedScopedId(FEED_ID, "L1"))
+      .withAgency(agency)
+      .withMode(TransitMode.BUS)
+      .withShortName("L1")
+      .build();
+
+    int[] stops = new int[NUMBER_OF_STOPS];
+    int[] times = new int[NUMBER_OF_STOPS];
+    var stopTimes = new ArrayList<StopTime>();
+    for (int i = 0; i < NUMBER_OF_STOPS; ++i) {
+      stops[i] = i + 1;
+      times[i] = DEPARTURE_TIME + i * TRAVEL_TIME_BETWEEN_STOPS;
+      var stopTime = new StopTime();
+      stopTime.setPickupType(PickDrop.SCHEDULED);
+      stopTime.setDropOffType(PickDrop.SCHEDULED);
+      stopTime.setStop(
+        RegularStop
+          .of(new FeedScopedId(FEED_ID, "S" + i))
+          .withCoordinate(60.0 + i * 0.002, 10.0)
+          .build()
+      );
+      stopTimes.add(stopTime);
+    }
+    var pattern = TestTripPattern.pattern("P1", stops).withRoute(route);
+    var originalPattern = TripPattern
+      .of(new FeedScopedId(FEED_ID, "P1"))
+      .withRoute(route)
+      .withStopPattern(new StopPattern(stopTimes))
+      .build();
+
+    return TestTripSchedule
+      .schedule(pattern)
+      .times(times)
+      .originalPattern(originalPattern)
+      .build();
+  }
+}
@@ -0,0 +1,88 @@
+package org.opentripplanner.routing.algorithm.raptoradapter.transit.request;
+
+import static org.opentripplanner.transit.raptor._data.transit.TestRoute.route;
+import static org.opentripplanner.transit.raptor._data.transit.TestTripPattern.pattern;
+import static org.opentripplanner.transit.raptor._data.transit.TestTripSchedule.schedule;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.opentripplanner.transit.raptor._data.transit.TestTripSchedule;
+import org.opentripplanner.transit.raptor._data.transit.TestTripSearchTimetable;
+
+/**
+ * Measure the trip search done each time Raptor boards a pattern. The binary search threshold is a
+ * parameter, so the linear and the binary search can be compared for the same timetable. A
+ * threshold larger than the number of trips disables the binary search.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TripScheduleBoardSearchBenchmark {
+
+  private static final int NUMBER_OF_STOPS = 20;
+  private static final int NUMBER_OF_SEARCHES = 1024;
+  private static final int FIRST_DEPARTURE = 5 * 3600;
+  private static final int TRAVEL_TIME_BETWEEN_STOPS = 90;
+
+  @Param({ "20", "100", "500" })
+  public int numberOfTrips;
+
+  @Param({ "50", "100000" })
+  public int binarySearchThreshold;
+
+  private TripScheduleBoardSearch<TestTripSchedule> search;
+  private int[] earliestBoardTimes;
+  private int[] stopPositions;
+
+  @Setup
+  public void setup() {
+    int[] stops = new int[NUMBER_OF_STOPS];
+    for (int i = 0; i < NUMBER_OF_STOPS; ++i) {
+      stops[i] = i + 1;
+    }
+    // Trips every 2 minutes, the search times cover the whole service period
+    int headway = 120;
+    var trips = new TestTripSchedule.Builder[numberOfTrips];
+    for (int t = 0; t < numberOfTrips; ++t) {
+      int[] times = new int[NUMBER_OF_STOPS];
+      for (int s = 0; s < NUMBER_OF_STOPS; ++s) {
+        times[s] = FIRST_DEPARTURE + t * headway + s * TRAVEL_TIME_BETWEEN_STOPS;
+      }
+      trips[t] = schedule().times(times);
+    }
+    var timetable = new TestTripSearchTimetable(route(pattern("R1", stops)).withTimetable(trips));
+    search = new TripScheduleBoardSearch<>(timetable, binarySearchThreshold);
+
+    var random = new Random(42);
+    earliestBoardTimes = new int[NUMBER_OF_SEARCHES];
+    stopPositions = new int[NUMBER_OF_SEARCHES];
+    for (int i = 0; i < NUMBER_OF_SEARCHES; ++i) {
+      stopPositions[i] = random.nextInt(NUMBER_OF_STOPS);
+      earliestBoardTimes[i] = FIRST_DEPARTURE + random.nextInt(numberOfTrips * headway);
+    }
+  }
+
+  @Benchmark
+  public void search(Blackhole blackhole) {
+    for (int i = 0; i < NUMBER_OF_SEARCHES; ++i) {
+      // The search returns itself as a fly-weight, so consume the trip index found
+      var result = search.search(earliestBoardTimes[i], stopPositions[i]);
+      blackhole.consume(result == null ? -1 : result.getTripIndex());
+    }
+  }
+}
@@ -0,0 +1,82 @@
+package org.opentripplanner.routing.edgetype;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+import org.opentripplanner.routing.api.request.StreetMode;
+import org.opentripplanner.routing.core.AStarRequest;
+import org.opentripplanner.routing.core.State;
+import org.opentripplanner.routing.graph.Graph;
+import org.opentripplanner.routing.vertextype.IntersectionVertex;
+import org.opentripplanner.util.geometry.GeometryUtils;
+
+/**
+ * Measure {@link StreetEdge#traverse(State)} along a path of street edges, each edge is traversed
+ * from the state created by the previous edge, like in a street search. The cost of creating the
+ * initial state is included, but is small compared to traversing the edges.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+public class StreetEdgeTraverseBenchmark {
+
+  private static final int NUMBER_OF_EDGES = 100;
+
+  @Param({ "WALK", "BIKE", "CAR" })
+  public StreetMode mode;
+
+  private IntersectionVertex origin;
+  private StreetEdge[] edges;
+  private AStarRequest request;
+
+  @Setup
+  public void setup() {
+    var graph = new Graph();
+    edges = new StreetEdge[NUMBER_OF_EDGES];
+    // A zig-zag path, so the turn cost is computed for each edge
+    var from = vertex(graph, 0);
+    origin = from;
+    for (int i = 0; i < NUMBER_OF_EDGES; ++i) {
+      var to = vertex(graph, i + 1);
+      edges[i] =
+        new StreetEdge(
+          from,
+          to,
+          GeometryUtils.makeLineString(from.getLat(), from.getLon(), to.getLat(), to.getLon()),
+          "street " + i,
+          80 + (i % 5) * 10,
+          StreetTraversalPermission.ALL,
+          false
+        );
+      edges[i].setCarSpeed(10f + (i % 3) * 5f);
+      from = to;
+    }
+    request = AStarRequest.of().withMode(mode).build();
+  }
+
+  @Benchmark
+  public State traverse() {
+    var state = new State(origin, request);
+    for (StreetEdge edge : edges) {
+      state = edge.traverse(state);
+    }
+    return state;
+  }
+
+  private static IntersectionVertex vertex(Graph graph, int i) {
+    double lat = 60.0 + i * 0.0007;
+    double lon = 10.0 + (i % 2) * 0.0012;
+    return new IntersectionVertex(graph, "V" + i, lon, lat);
+  }
+}
@@ -0,0 +1,118 @@
+package org.opentripplanner.transit.raptor;
+
+import static org.opentripplanner.transit.raptor._data.transit.TestTripPattern.pattern;
+import static org.opentripplanner.transit.raptor._data.transit.TestTripSchedule.schedule;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.opentripplanner.transit.raptor._data.transit.TestAccessEgress;
+import org.opentripplanner.transit.raptor._data.transit.TestRoute;
+import org.opentripplanner.transit.raptor._data.transit.TestTransitData;
+import org.opentripplanner.transit.raptor._data.transit.TestTripSchedule;
+import org.opentripplanner.transit.raptor.api.request.RaptorProfile;
+import org.opentripplanner.transit.raptor.api.request.RaptorRequest;
+import org.opentripplanner.transit.raptor.api.request.RaptorRequestBuilder;
+import org.opentripplanner.transit.raptor.api.response.RaptorResponse;
+import org.opentripplanner.transit.raptor.configure.RaptorConfig;
+
+/**
+ * Measure a complete Raptor search, all rounds and iterations, on a synthetic grid network. Each
+ * row and each column of the grid is served by a route in both directions, so most of the
+ * journeys need one or two transfers. This exercises the RangeRaptorWorker round loop, the
+ * trip search and the stop arrival state without the cost of the OTP transit layer.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RaptorBenchmark {
+
+  private static final int FIRST_DEPARTURE = 6 * 3600;
+  private static final int LAST_DEPARTURE = 9 * 3600;
+  private static final int HEADWAY = 5 * 60;
+  private static final int TRAVEL_TIME_BETWEEN_STOPS = 2 * 60;
+
+  /** The number of stops in each row and column of the grid. */
+  @Param({ "10", "30" })
+  public int gridSize;
+
+  @Param({ "STANDARD", "MULTI_CRITERIA" })
+  public RaptorProfile profile;
+
+  private TestTransitData data;
+  private RaptorRequest<TestTripSchedule> request;
+  private RaptorService<TestTripSchedule> service;
+
+  @Setup
+  public void setup() {
+    data = new TestTransitData();
+    for (int i = 0; i < gridSize; ++i) {
+      int[] row = new int[gridSize];
+      int[] column = new int[gridSize];
+      for (int j = 0; j < gridSize; ++j) {
+        row[j] = stop(i, j);
+        column[j] = stop(j, i);
+      }
+      data.withRoutes(
+        createRoute("R" + i, row),
+        createRoute("R" + i + "-R", reverse(row)),
+        createRoute("C" + i, column),
+        createRoute("C" + i + "-R", reverse(column))
+      );
+    }
+
+    var builder = new RaptorRequestBuilder<TestTripSchedule>();
+    builder
+      .profile(profile)
+      .searchParams()
+      .addAccessPaths(TestAccessEgress.walk(stop(0, 0), 60))
+      .addEgressPaths(TestAccessEgress.walk(stop(gridSize - 1, gridSize - 1), 60))
+      .earliestDepartureTime(FIRST_DEPARTURE)
+      .searchWindowInSeconds(3600)
+      .timetableEnabled(true);
+    request = builder.build();
+    service = new RaptorService<>(RaptorConfig.defaultConfigForTest());
+  }
+
+  @Benchmark
+  public RaptorResponse<TestTripSchedule> route() {
+    return service.route(request, data);
+  }
+
+  private int stop(int row, int column) {
+    // Stop index 0 is not used by the test data
+    return 1 + row * gridSize + column;
+  }
+
+  private static TestRoute createRoute(String name, int[] stops) {
+    var trips = new TestTripSchedule.Builder[(LAST_DEPARTURE - FIRST_DEPARTURE) / HEADWAY + 1];
+    for (int t = 0; t < trips.length; ++t) {
+      int[] times = new int[stops.length];
+      for (int s = 0; s < stops.length; ++s) {
+        times[s] = FIRST_DEPARTURE + t * HEADWAY + s * TRAVEL_TIME_BETWEEN_STOPS;
+      }
+      trips[t] = schedule().times(times);
+    }
+    return TestRoute.route(pattern(name, stops)).withTimetable(trips);
+  }
+
+  private static int[] reverse(int[] stops) {
+    int[] result = new int[stops.length];
+    for (int i = 0; i < stops.length; ++i) {
+      result[i] = stops[stops.length - 1 - i];
+    }
+    return result;
+  }
+}
@@ -0,0 +1,62 @@
+package org.opentripplanner.transit.raptor.util.paretoset;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measure {@link ParetoSet#add(Object)} with three criteria, like the arrival time, number of
+ * transfers and generalized cost used by the multi-criteria Raptor. The vectors are random, but the
+ * criteria are correlated the same way as for real stop arrivals: a later arrival usually has a
+ * lower cost. This keeps the size of the set realistic instead of collapsing to a single element.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParetoSetBenchmark {
+
+  private static final ParetoComparator<Vector> COMPARATOR = (l, r) ->
+    l.time < r.time || l.transfers < r.transfers || l.cost < r.cost;
+
+  /** The number of vectors added to the set in each invocation. */
+  @Param({ "10", "100", "1000" })
+  public int numberOfVectors;
+
+  private Vector[] vectors;
+
+  @Setup
+  public void setup() {
+    var random = new Random(42);
+    vectors = new Vector[numberOfVectors];
+    for (int i = 0; i < numberOfVectors; ++i) {
+      int time = random.nextInt(3600);
+      int transfers = random.nextInt(4);
+      int cost = 2 * (3600 - time) + 600 * transfers + random.nextInt(1200);
+      vectors[i] = new Vector(time, transfers, cost);
+    }
+  }
+
+  @Benchmark
+  public ParetoSet<Vector> add() {
+    var set = new ParetoSet<>(COMPARATOR);
+    for (Vector it : vectors) {
+      set.add(it);
+    }
+    return set;
+  }
+
+  record Vector(int time, int transfers, int cost) {}
+}
@@ -1,5 +1,6 @@
 package org.opentripplanner.api.common;
 
+import java.util.concurrent.RejectedExecutionException;
 import javax.ws.rs.BadRequestException;
 import javax.ws.rs.NotFoundException;
 import javax.ws.rs.WebApplicationException;
@@ -28,6 +29,13 @@ public class OTPExceptionMapper implements ExceptionMapper<Exception> {
         .entity(header + ex.getMessage())
         .build();
     }
+    if (ex instanceof RejectedExecutionException) {
+      return Response
+        .status(Response.Status.TOO_MANY_REQUESTS)
+        .entity("Too many requests: " + ex.getMessage())
+        .type("text/plain")
+        .build();
+    }
     if (ex instanceof OtpAppException) {
       return Response
         .status(Response.Status.INTERNAL_SERVER_ERROR)
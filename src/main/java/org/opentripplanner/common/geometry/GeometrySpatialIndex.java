@@ -0,0 +1,31 @@
+package org.opentripplanner.common.geometry;
+
+import java.util.List;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.index.SpatialIndex;
+
+/**
+ * A mutable spatial index of geometries. The implementations may return false positives when
+ * querying, so the client must filter the result with whatever knowledge it has on the location
+ * of the objects.
+ * <p>
+ * Write operations are not synchronized, it must be taken care by the client.
+ *
+ * @param <T> Type of objects to be spatial indexed.
+ * @see SpatialIndexType
+ */
+public interface GeometrySpatialIndex<T> extends SpatialIndex {
+  /**
+   * Insert an item along the given line string.
+   */
+  void insert(LineString geom, Object item);
+
+  @Override
+  List<T> query(Envelope envelope);
+
+  /**
+   * Optimize the index for reads, after inserting many items.
+   */
+  void compact();
+}
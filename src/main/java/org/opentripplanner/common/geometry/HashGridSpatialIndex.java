@@ -14,7 +14,6 @@ import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.LineString;
 import org.locationtech.jts.index.ItemVisitor;
-import org.locationtech.jts.index.SpatialIndex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -32,7 +31,7 @@ import org.slf4j.LoggerFactory;
  * @param <T> Type of objects to be spatial indexed.
  * @author laurent
  */
-public class HashGridSpatialIndex<T> implements SpatialIndex, Serializable {
+public class HashGridSpatialIndex<T> implements GeometrySpatialIndex<T>, Serializable {
 
   private static final long serialVersionUID = 1L;
 
@@ -146,6 +145,7 @@ public class HashGridSpatialIndex<T> implements SpatialIndex, Serializable {
     }
   }
 
+  @Override
   public final void insert(LineString geom, final Object item) {
     Coordinate[] coord = geom.getCoordinates();
     final TLongSet keys = new TLongHashSet(coord.length * 8);
@@ -175,6 +175,7 @@ public class HashGridSpatialIndex<T> implements SpatialIndex, Serializable {
    * Make each bin be exactly the required size. This is helpful for large indices, which are mostly
    * used for reads only.
    */
+  @Override
   public void compact() {
     bins.forEachValue(ts -> {
       ts.trimToSize();
@@ -0,0 +1,168 @@
+package org.opentripplanner.common.geometry;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.index.ItemVisitor;
+
+/**
+ * A spatial index where the bulk of the items are kept in an immutable {@link PackedHilbertRTree},
+ * and the changes since the last {@link #compact()} in a small mutable overlay. The overlay is a
+ * {@link HashGridSpatialIndex} for the inserted items, and a set of the items removed from the
+ * tree. {@link #compact()} packs the tree again with the overlay applied. The hash grid is only
+ * created when the index is queried, so inserting all items and then calling {@link #compact()}
+ * builds the tree directly. The hash grid is created once, by the first query, and safely published
+ * to the other threads querying the index.
+ * <p>
+ * This is meant for indexes which are built once and then changed little, like the permanent
+ * street edge index, which is only changed when linking during the graph build.
+ * <p>
+ * Note: For performance reasons, write operation are not synchronized, it must be taken care by the
+ * client. Read-only operation are multi-thread-safe though.
+ *
+ * @param <T> Type of objects to be spatial indexed.
+ */
+public class HilbertRTreeSpatialIndex<T> implements GeometrySpatialIndex<T> {
+
+  private PackedHilbertRTree<T> tree = PackedHilbertRTree.empty();
+
+  /** The envelope of each item inserted since the tree was packed. */
+  private final Map<Object, Envelope> insertedEnvelopes = new HashMap<>();
+
+  /**
+   * An index of {@link #insertedEnvelopes}, created on the first query. This is volatile, since
+   * the queries may run in parallel.
+   */
+  private volatile HashGridSpatialIndex<T> inserted = null;
+
+  /** Items removed from the tree since it was packed. */
+  private final Set<Object> removed = new HashSet<>();
+
+  @Override
+  public void insert(Envelope envelope, Object item) {
+    if (inserted != null) {
+      inserted.insert(envelope, item);
+    }
+    addInsertedEnvelope(envelope, item);
+  }
+
+  @Override
+  public void insert(LineString geom, Object item) {
+    if (inserted != null) {
+      inserted.insert(geom, item);
+    }
+    addInsertedEnvelope(geom.getEnvelopeInternal(), item);
+  }
+
+  @Override
+  public List<T> query(Envelope envelope) {
+    List<T> result = new ArrayList<>();
+    if (removed.isEmpty()) {
+      tree.query(envelope, result::add);
+    } else {
+      tree.query(
+        envelope,
+        it -> {
+          if (!removed.contains(it)) {
+            result.add(it);
+          }
+        }
+      );
+    }
+    if (!insertedEnvelopes.isEmpty()) {
+      result.addAll(insertedIndex().query(envelope));
+    }
+    return result;
+  }
+
+  @Override
+  public void query(Envelope envelope, ItemVisitor visitor) {
+    for (T it : query(envelope)) {
+      visitor.visitItem(it);
+    }
+  }
+
+  @Override
+  public boolean remove(Envelope envelope, Object item) {
+    boolean found = false;
+    Envelope insertedEnvelope = insertedEnvelopes.remove(item);
+    if (insertedEnvelope != null) {
+      if (inserted != null) {
+        inserted.remove(insertedEnvelope, item);
+      }
+      found = true;
+    }
+    if (!removed.contains(item) && tree.query(envelope).contains(item)) {
+      removed.add(item);
+      found = true;
+    }
+    return found;
+  }
+
+  /**
+   * Pack the tree again with the items inserted and removed since it was last packed.
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public void compact() {
+    if (insertedEnvelopes.isEmpty() && removed.isEmpty()) {
+      return;
+    }
+    PackedHilbertRTree.Builder<T> builder = PackedHilbertRTree.of();
+    tree.forEach((envelope, it) -> {
+      if (!removed.contains(it)) {
+        builder.add(envelope, it);
+      }
+    });
+    insertedEnvelopes.forEach((it, envelope) -> builder.add(envelope, (T) it));
+
+    tree = builder.build();
+    inserted = null;
+    insertedEnvelopes.clear();
+    removed.clear();
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+      "HilbertRTreeSpatialIndex %s, %d objs inserted and %d objs removed since packed",
+      tree,
+      insertedEnvelopes.size(),
+      removed.size()
+    );
+  }
+
+  private HashGridSpatialIndex<T> insertedIndex() {
+    var index = inserted;
+    if (index != null) {
+      return index;
+    }
+    synchronized (insertedEnvelopes) {
+      index = inserted;
+      if (index == null) {
+        index = new HashGridSpatialIndex<>();
+        for (Map.Entry<Object, Envelope> it : insertedEnvelopes.entrySet()) {
+          index.insert(it.getValue(), it.getKey());
+        }
+        inserted = index;
+      }
+      return index;
+    }
+  }
+
+  private void addInsertedEnvelope(Envelope envelope, Object item) {
+    insertedEnvelopes.merge(
+      item,
+      new Envelope(envelope),
+      (a, b) -> {
+        a.expandToInclude(b);
+        return a;
+      }
+    );
+  }
+}
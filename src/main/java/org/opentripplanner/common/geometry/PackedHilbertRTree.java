@@ -0,0 +1,332 @@
+package org.opentripplanner.common.geometry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import org.locationtech.jts.geom.Envelope;
+
+/**
+ * An immutable spatial index, packed into a few primitive arrays.
+ * <p>
+ * The items are sorted by the position of the center of their envelope along a Hilbert curve, and
+ * grouped into nodes of {@link #NODE_SIZE} items. The nodes are then grouped the same way, level by
+ * level, until there is one root node. Since the Hilbert curve keeps close items close in the
+ * order, the envelopes of the nodes overlap little. Unlike a grid, the tree adapts to the density
+ * of the data, so a query visits about the same number of nodes in a dense city centre as in a
+ * sparse rural area.
+ * <p>
+ * The envelopes of all nodes are stored in one {@code double} array, leaves first and the root
+ * last, so the index has no per-item object overhead except for the items themselves. Unlike the
+ * {@link HashGridSpatialIndex} the query does not return false positives, only items with an
+ * envelope intersecting the query envelope.
+ * <p>
+ * The tree is thread-safe, since it is immutable. Use the {@link Builder} to create it.
+ *
+ * @param <T> Type of objects to be spatial indexed.
+ */
+public final class PackedHilbertRTree<T> {
+
+  static final int NODE_SIZE = 16;
+
+  /** The number of cells of the grid used to compute the Hilbert value in each direction. */
+  private static final int HILBERT_MAX = (1 << 16) - 1;
+
+  private static final PackedHilbertRTree<?> EMPTY = new Builder<>().build();
+
+  /** minX, minY, maxX and maxY of each node. */
+  private final double[] boxes;
+
+  /**
+   * For each leaf the index of the item in {@link #items}, for each other node the position of
+   * its first child.
+   */
+  private final int[] indices;
+
+  /** The position after the last node of each level, the leaves are level 0. */
+  private final int[] levelBounds;
+
+  private final Object[] items;
+
+  private PackedHilbertRTree(double[] boxes, int[] indices, int[] levelBounds, Object[] items) {
+    this.boxes = boxes;
+    this.indices = indices;
+    this.levelBounds = levelBounds;
+    this.items = items;
+  }
+
+  @SuppressWarnings("unchecked")
+  public static <T> PackedHilbertRTree<T> empty() {
+    return (PackedHilbertRTree<T>) EMPTY;
+  }
+
+  public static <T> Builder<T> of() {
+    return new Builder<>();
+  }
+
+  public int size() {
+    return items.length;
+  }
+
+  public boolean isEmpty() {
+    return items.length == 0;
+  }
+
+  /**
+   * Return all items with an envelope intersecting the given envelope.
+   */
+  public List<T> query(Envelope envelope) {
+    List<T> result = new ArrayList<>();
+    query(envelope, result::add);
+    return result;
+  }
+
+  /**
+   * Call the visitor for each item with an envelope intersecting the given envelope. Each item is
+   * visited once for each time it was added to the tree.
+   */
+  @SuppressWarnings("unchecked")
+  public void query(Envelope envelope, Consumer<? super T> visitor) {
+    if (items.length == 0 || envelope.isNull()) {
+      return;
+    }
+    final double minX = envelope.getMinX();
+    final double minY = envelope.getMinY();
+    final double maxX = envelope.getMaxX();
+    final double maxY = envelope.getMaxY();
+
+    // A stack of the nodes left to visit, and their level
+    int[] stack = new int[2 * NODE_SIZE * levelBounds.length];
+    int top = 0;
+    int root = levelBounds[levelBounds.length - 1] - 1;
+
+    if (!intersects(root, minX, minY, maxX, maxY)) {
+      return;
+    }
+    stack[top++] = root;
+    stack[top++] = levelBounds.length - 1;
+
+    while (top > 0) {
+      int level = stack[--top];
+      int node = stack[--top];
+      int start = indices[node];
+      int end = Math.min(start + NODE_SIZE, levelBounds[level - 1]);
+
+      for (int child = start; child < end; ++child) {
+        if (!intersects(child, minX, minY, maxX, maxY)) {
+          continue;
+        }
+        if (level == 1) {
+          visitor.accept((T) items[indices[child]]);
+        } else {
+          stack[top++] = child;
+          stack[top++] = level - 1;
+        }
+      }
+    }
+  }
+
+  /**
+   * Call the visitor for each item in the tree, with the envelope it was added with.
+   */
+  @SuppressWarnings("unchecked")
+  public void forEach(BiConsumer<Envelope, ? super T> visitor) {
+    for (int i = 0; i < items.length; ++i) {
+      int b = 4 * i;
+      visitor.accept(
+        new Envelope(boxes[b], boxes[b + 2], boxes[b + 1], boxes[b + 3]),
+        (T) items[indices[i]]
+      );
+    }
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+      "PackedHilbertRTree %d items, %d nodes, %d levels",
+      items.length,
+      boxes.length / 4,
+      levelBounds.length
+    );
+  }
+
+  private boolean intersects(int node, double minX, double minY, double maxX, double maxY) {
+    int b = 4 * node;
+    return !(
+      boxes[b] > maxX || boxes[b + 1] > maxY || boxes[b + 2] < minX || boxes[b + 3] < minY
+    );
+  }
+
+  /**
+   * Compute the position of the given point along a Hilbert curve filling a grid of 2^16 x 2^16
+   * cells. This is the algorithm from "Fast Hilbert curve generation, sorting, and range queries"
+   * by rawrunprotected, which uses no loops or lookup tables. The result is an unsigned int.
+   */
+  static int hilbert(int x, int y) {
+    int a = x ^ y;
+    int b = 0xFFFF ^ a;
+    int c = 0xFFFF ^ (x | y);
+    int d = x & (y ^ 0xFFFF);
+
+    int na = a | (b >>> 1);
+    int nb = (a >>> 1) ^ a;
+    int nc = ((c >>> 1) ^ (b & (d >>> 1))) ^ c;
+    int nd = ((a & (c >>> 1)) ^ (d >>> 1)) ^ d;
+
+    a = na;
+    b = nb;
+    c = nc;
+    d = nd;
+    na = ((a & (a >>> 2)) ^ (b & (b >>> 2)));
+    nb = ((a & (b >>> 2)) ^ (b & ((a ^ b) >>> 2)));
+    nc ^= ((a & (c >>> 2)) ^ (b & (d >>> 2)));
+    nd ^= ((b & (c >>> 2)) ^ ((a ^ b) & (d >>> 2)));
+
+    a = na;
+    b = nb;
+    c = nc;
+    d = nd;
+    na = ((a & (a >>> 4)) ^ (b & (b >>> 4)));
+    nb = ((a & (b >>> 4)) ^ (b & ((a ^ b) >>> 4)));
+    nc ^= ((a & (c >>> 4)) ^ (b & (d >>> 4)));
+    nd ^= ((b & (c >>> 4)) ^ ((a ^ b) & (d >>> 4)));
+
+    a = na;
+    b = nb;
+    c = nc;
+    d = nd;
+    nc ^= ((a & (c >>> 8)) ^ (b & (d >>> 8)));
+    nd ^= ((b & (c >>> 8)) ^ ((a ^ b) & (d >>> 8)));
+
+    a = nc ^ (nc >>> 1);
+    b = nd ^ (nd >>> 1);
+
+    int i0 = x ^ y;
+    int i1 = b | (0xFFFF ^ (i0 | a));
+
+    return (interleave(i1) << 1) | interleave(i0);
+  }
+
+  private static int interleave(int x) {
+    x = (x | (x << 8)) & 0x00FF00FF;
+    x = (x | (x << 4)) & 0x0F0F0F0F;
+    x = (x | (x << 2)) & 0x33333333;
+    x = (x | (x << 1)) & 0x55555555;
+    return x;
+  }
+
+  /**
+   * Collects the items and their envelopes, and packs them into a tree. The builder is not
+   * thread-safe.
+   */
+  public static final class Builder<T> {
+
+    private double[] envelopes = new double[64];
+    private final List<T> items = new ArrayList<>();
+
+    private Builder() {}
+
+    /**
+     * Add an item with the given envelope. An item with an empty envelope can never be found by a
+     * query, so it is not added.
+     */
+    public Builder<T> add(Envelope envelope, T item) {
+      if (envelope.isNull()) {
+        return this;
+      }
+      int b = 4 * items.size();
+      if (b == envelopes.length) {
+        envelopes = Arrays.copyOf(envelopes, 2 * envelopes.length);
+      }
+      envelopes[b] = envelope.getMinX();
+      envelopes[b + 1] = envelope.getMinY();
+      envelopes[b + 2] = envelope.getMaxX();
+      envelopes[b + 3] = envelope.getMaxY();
+      items.add(item);
+      return this;
+    }
+
+    public int size() {
+      return items.size();
+    }
+
+    public PackedHilbertRTree<T> build() {
+      final int n = items.size();
+
+      // Compute the number of nodes on each level
+      List<Integer> bounds = new ArrayList<>();
+      int numNodes = n;
+      bounds.add(numNodes);
+      int levelSize = n;
+      if (n > 0) {
+        do {
+          levelSize = (levelSize + NODE_SIZE - 1) / NODE_SIZE;
+          numNodes += levelSize;
+          bounds.add(numNodes);
+        } while (levelSize > 1);
+      }
+      int[] levelBounds = bounds.stream().mapToInt(Integer::intValue).toArray();
+
+      double[] boxes = new double[4 * numNodes];
+      int[] indices = new int[numNodes];
+
+      // Sort the items by the Hilbert value of the center of their envelope, the item index is
+      // kept in the 31 lowest bits of the sort key
+      double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+      double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+      for (int i = 0; i < n; ++i) {
+        int b = 4 * i;
+        minX = Math.min(minX, envelopes[b]);
+        minY = Math.min(minY, envelopes[b + 1]);
+        maxX = Math.max(maxX, envelopes[b + 2]);
+        maxY = Math.max(maxY, envelopes[b + 3]);
+      }
+      double width = maxX - minX;
+      double height = maxY - minY;
+
+      long[] keys = new long[n];
+      for (int i = 0; i < n; ++i) {
+        int b = 4 * i;
+        int x = scale((envelopes[b] + envelopes[b + 2]) / 2 - minX, width);
+        int y = scale((envelopes[b + 1] + envelopes[b + 3]) / 2 - minY, height);
+        keys[i] = (Integer.toUnsignedLong(hilbert(x, y)) << 31) | i;
+      }
+      Arrays.sort(keys);
+
+      for (int pos = 0; pos < n; ++pos) {
+        int i = (int) (keys[pos] & Integer.MAX_VALUE);
+        System.arraycopy(envelopes, 4 * i, boxes, 4 * pos, 4);
+        indices[pos] = i;
+      }
+
+      // Create the nodes of each level from the nodes of the level below
+      int pos = 0;
+      int parent = n;
+      for (int level = 0; level < levelBounds.length - 1; ++level) {
+        int end = levelBounds[level];
+        while (pos < end) {
+          int b = 4 * parent;
+          boxes[b] = Double.POSITIVE_INFINITY;
+          boxes[b + 1] = Double.POSITIVE_INFINITY;
+          boxes[b + 2] = Double.NEGATIVE_INFINITY;
+          boxes[b + 3] = Double.NEGATIVE_INFINITY;
+          indices[parent] = pos;
+          for (int j = 0; j < NODE_SIZE && pos < end; ++j, ++pos) {
+            int c = 4 * pos;
+            boxes[b] = Math.min(boxes[b], boxes[c]);
+            boxes[b + 1] = Math.min(boxes[b + 1], boxes[c + 1]);
+            boxes[b + 2] = Math.max(boxes[b + 2], boxes[c + 2]);
+            boxes[b + 3] = Math.max(boxes[b + 3], boxes[c + 3]);
+          }
+          ++parent;
+        }
+      }
+      return new PackedHilbertRTree<>(boxes, indices, levelBounds, items.toArray());
+    }
+
+    private static int scale(double value, double range) {
+      return range == 0 ? 0 : (int) Math.floor(HILBERT_MAX * value / range);
+    }
+  }
+}
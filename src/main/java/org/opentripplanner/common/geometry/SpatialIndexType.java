@@ -0,0 +1,22 @@
+package org.opentripplanner.common.geometry;
+
+/**
+ * The implementation to use for the spatial indexes of the street graph.
+ */
+public enum SpatialIndexType {
+  /**
+   * A hash grid with bins of a fixed size, see {@link HashGridSpatialIndex}.
+   */
+  HASH_GRID,
+  /**
+   * A packed Hilbert R-tree, see {@link HilbertRTreeSpatialIndex}.
+   */
+  HILBERT_R_TREE;
+
+  public <T> GeometrySpatialIndex<T> create() {
+    return switch (this) {
+      case HASH_GRID -> new HashGridSpatialIndex<>();
+      case HILBERT_R_TREE -> new HilbertRTreeSpatialIndex<>();
+    };
+  }
+}
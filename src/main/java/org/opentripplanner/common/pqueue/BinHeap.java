@@ -10,6 +10,8 @@ public class BinHeap<T> {
   private T[] elem;
   private int size;
   private int capacity;
+  /** The largest size since the last clear, all element slots above this are null. */
+  private int maxSize;
 
   public BinHeap() {
     this(1000);
@@ -92,10 +94,21 @@ public class BinHeap<T> {
     size = 0;
   }
 
+  /**
+   * Empty the queue and release all references to the elements, so the queue can be kept for
+   * reuse without retaining the elements of the previous use.
+   */
+  public void clear() {
+    Arrays.fill(elem, 1, maxSize + 1, null);
+    size = 0;
+    maxSize = 0;
+  }
+
   public void insert(T e, double p) {
     int i;
     size += 1;
     if (size > capacity) resize((int) (capacity * GROW_FACTOR));
+    if (size > maxSize) maxSize = size;
     for (i = size; prio[i / 2] > p; i /= 2) {
       elem[i] = elem[i / 2];
       prio[i] = prio[i / 2];
@@ -0,0 +1,82 @@
+package org.opentripplanner.common.pqueue;
+
+import java.util.Arrays;
+
+/**
+ * A minimal binary min-heap of int elements with double keys, without boxing. The same element may
+ * be inserted more than once, it is up to the caller to skip elements already processed when they
+ * are polled the second time. There is no decrease-key operation.
+ */
+public final class IntMinHeap {
+
+  private int[] elements;
+  private double[] keys;
+  private int size = 0;
+
+  public IntMinHeap(int capacity) {
+    elements = new int[Math.max(capacity, 16)];
+    keys = new double[elements.length];
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /** Remove all elements, keeping the allocated capacity. */
+  public void clear() {
+    size = 0;
+  }
+
+  public double peekKey() {
+    return keys[0];
+  }
+
+  public void insert(int element, double key) {
+    if (size == elements.length) {
+      elements = Arrays.copyOf(elements, size * 2);
+      keys = Arrays.copyOf(keys, size * 2);
+    }
+    int i = size++;
+    while (i > 0) {
+      int parent = (i - 1) >> 1;
+      if (keys[parent] <= key) {
+        break;
+      }
+      elements[i] = elements[parent];
+      keys[i] = keys[parent];
+      i = parent;
+    }
+    elements[i] = element;
+    keys[i] = key;
+  }
+
+  public int poll() {
+    int result = elements[0];
+    --size;
+    int element = elements[size];
+    double key = keys[size];
+    int i = 0;
+    while (true) {
+      int child = 2 * i + 1;
+      if (child >= size) {
+        break;
+      }
+      if (child + 1 < size && keys[child + 1] < keys[child]) {
+        ++child;
+      }
+      if (key <= keys[child]) {
+        break;
+      }
+      elements[i] = elements[child];
+      keys[i] = keys[child];
+      i = child;
+    }
+    elements[i] = element;
+    keys[i] = key;
+    return result;
+  }
+}
@@ -66,6 +66,7 @@ public class GraphBuilder implements Runnable {
     boolean hasTransitData = hasGtfs || hasNetex;
 
     transitModel.initTimeZone(config.transitModelTimeZone);
+    graph.setSpatialIndexType(config.streetSpatialIndex);
 
     var factory = DaggerGraphBuilderFactory
       .builder()
@@ -139,6 +140,16 @@ public class GraphBuilder implements Runnable {
       }
     }
 
+    // The landmark distances and the contraction hierarchy must be computed after the street edges
+    // are split when linking, and are not computed for a street graph since it is linked again
+    // when loaded
+    if (config.landmarkCount > 0 && ((hasOsm && !saveStreetGraph) || loadStreetGraph)) {
+      graphBuilder.addModule(factory.landmarkModule());
+    }
+    if (config.carContractionHierarchy && ((hasOsm && !saveStreetGraph) || loadStreetGraph)) {
+      graphBuilder.addModule(factory.contractionHierarchyModule());
+    }
+
     if (loadStreetGraph || hasOsm) {
       graphBuilder.addModule(factory.graphCoherencyCheckerModule());
     }
@@ -0,0 +1,38 @@
+package org.opentripplanner.graph_builder.module;
+
+import javax.inject.Inject;
+import org.opentripplanner.graph_builder.model.GraphBuilderModule;
+import org.opentripplanner.routing.algorithm.contraction.ContractionHierarchyBuilder;
+import org.opentripplanner.routing.api.request.preference.RoutingPreferences;
+import org.opentripplanner.routing.graph.Graph;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Build the contraction hierarchy used for direct car searches, with the default routing
+ * preferences. This must run after all street edges are created and split.
+ */
+public class ContractionHierarchyModule implements GraphBuilderModule {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ContractionHierarchyModule.class);
+
+  private final Graph graph;
+
+  @Inject
+  public ContractionHierarchyModule(Graph graph) {
+    this.graph = graph;
+  }
+
+  @Override
+  public void buildGraph() {
+    LOG.info("Building contraction hierarchy for car routing...");
+    var builder = new ContractionHierarchyBuilder(new RoutingPreferences());
+    graph.setContractionHierarchy(builder.build(graph.getStreetEdges()));
+    LOG.info("Building contraction hierarchy done.");
+  }
+
+  @Override
+  public void checkInputs() {
+    //No inputs other than the graph itself
+  }
+}
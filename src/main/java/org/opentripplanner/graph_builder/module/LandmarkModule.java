@@ -0,0 +1,52 @@
+package org.opentripplanner.graph_builder.module;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.inject.Inject;
+import org.opentripplanner.graph_builder.model.GraphBuilderModule;
+import org.opentripplanner.routing.algorithm.astar.landmark.LandmarkMetric;
+import org.opentripplanner.routing.algorithm.astar.landmark.LandmarkTable;
+import org.opentripplanner.routing.algorithm.astar.landmark.LandmarkTableBuilder;
+import org.opentripplanner.routing.algorithm.astar.landmark.Landmarks;
+import org.opentripplanner.routing.graph.Graph;
+import org.opentripplanner.standalone.config.BuildConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Select landmarks and compute the landmark distances for all vertices in the graph, for each
+ * {@link LandmarkMetric}. This must run after all street edges are created and split.
+ */
+public class LandmarkModule implements GraphBuilderModule {
+
+  private static final Logger LOG = LoggerFactory.getLogger(LandmarkModule.class);
+
+  private final Graph graph;
+  private final int landmarkCount;
+
+  @Inject
+  public LandmarkModule(Graph graph, BuildConfig config) {
+    this(graph, config.landmarkCount);
+  }
+
+  public LandmarkModule(Graph graph, int landmarkCount) {
+    this.graph = graph;
+    this.landmarkCount = landmarkCount;
+  }
+
+  @Override
+  public void buildGraph() {
+    LOG.info("Computing landmark distances for {} landmarks...", landmarkCount);
+    List<LandmarkTable> tables = new ArrayList<>();
+    for (LandmarkMetric metric : LandmarkMetric.values()) {
+      tables.add(new LandmarkTableBuilder(graph.getVertices(), metric).build(landmarkCount));
+    }
+    graph.setLandmarks(new Landmarks(tables));
+    LOG.info("Computing landmark distances done.");
+  }
+
+  @Override
+  public void checkInputs() {
+    //No inputs other than the graph itself
+  }
+}
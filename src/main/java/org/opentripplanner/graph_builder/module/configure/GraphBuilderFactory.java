@@ -12,8 +12,10 @@ import org.opentripplanner.ext.transferanalyzer.DirectTransferAnalyzer;
 import org.opentripplanner.graph_builder.DataImportIssuesToHTML;
 import org.opentripplanner.graph_builder.GraphBuilder;
 import org.opentripplanner.graph_builder.GraphBuilderDataSources;
+import org.opentripplanner.graph_builder.module.ContractionHierarchyModule;
 import org.opentripplanner.graph_builder.module.DirectTransferGenerator;
 import org.opentripplanner.graph_builder.module.GraphCoherencyCheckerModule;
+import org.opentripplanner.graph_builder.module.LandmarkModule;
 import org.opentripplanner.graph_builder.module.OsmBoardingLocationsModule;
 import org.opentripplanner.graph_builder.module.PruneNoThruIslands;
 import org.opentripplanner.graph_builder.module.StreetLinkerModule;
@@ -46,6 +48,8 @@ public interface GraphBuilderFactory {
   FlexLocationsToStreetEdgesMapper flexLocationsToStreetEdgesMapper();
   DirectTransferGenerator directTransferGenerator();
   DirectTransferAnalyzer directTransferAnalyzer();
+  LandmarkModule landmarkModule();
+  ContractionHierarchyModule contractionHierarchyModule();
   GraphCoherencyCheckerModule graphCoherencyCheckerModule();
   EdgeUpdaterModule dataOverlayFactory();
   DataImportIssuesToHTML dataImportIssuesToHTML();
@@ -59,7 +59,9 @@ public class GraphBuilderModules {
         new OpenStreetMapProvider(
           osmConfiguredDataSource,
           config.osmDefaults,
-          config.osmCacheDataInMem
+          config.osmCacheDataInMem,
+          config.osmParserThreads,
+          config.osmCacheDecodedBlocks
         )
       );
     }
@@ -57,8 +57,8 @@ public class OSMDatabase {
 
   private final DataImportIssueStore issueStore;
 
-  /* Map of all nodes used in ways/areas keyed by their OSM ID */
-  private final TLongObjectMap<OSMNode> nodesById = new TLongObjectHashMap<>();
+  /* All nodes used in ways/areas, looked up by their OSM ID */
+  private final OsmNodeStore nodesById = new OsmNodeStore();
 
   /* Map of all bike parking nodes, keyed by their OSM ID */
   private final TLongObjectMap<OSMNode> bikeParkingNodes = new TLongObjectHashMap<>();
@@ -227,10 +227,7 @@ public class OSMDatabase {
       return;
     }
 
-    if (nodesById.containsKey(node.getId())) {
-      return;
-    }
-    nodesById.put(node.getId(), node);
+    nodesById.add(node);
   }
 
   public void addWay(OSMWay way) {
@@ -688,7 +685,7 @@ public class OSMDatabase {
     node.setId(virtualNodeId);
     virtualNodeId--;
     waysNodeIds.add(node.getId());
-    nodesById.put(node.getId(), node);
+    nodesById.add(node);
     return node;
   }
 
@@ -737,12 +734,12 @@ public class OSMDatabase {
       TLongIterator longIterator = way.getNodeRefs().iterator();
       while (longIterator.hasNext()) {
         long nodeRef = longIterator.next();
-        if (!nodesById.containsKey(nodeRef)) {
+        if (!nodesById.contains(nodeRef)) {
           continue AREA;
         }
       }
       try {
-        newArea(new Area(way, List.of(way), Collections.emptyList(), nodesById));
+        newArea(new Area(way, List.of(way), Collections.emptyList(), nodesById::get));
       } catch (Area.AreaConstructionException | Ring.RingConstructionException e) {
         // this area cannot be constructed, but we already have all the
         // necessary nodes to construct it. So, something must be wrong with
@@ -792,7 +789,7 @@ public class OSMDatabase {
         TLongIterator wayNodeIterator = way.getNodeRefs().iterator();
         while (wayNodeIterator.hasNext()) {
           long nodeId = wayNodeIterator.next();
-          if (nodesById.containsKey(nodeId)) {
+          if (nodesById.contains(nodeId)) {
             MapUtils.addToMapSet(areasForNode, nodeId, way);
           } else {
             // this area is missing some nodes, perhaps because it is on
@@ -810,7 +807,7 @@ public class OSMDatabase {
       }
       processedAreas.add(relation);
       try {
-        newArea(new Area(relation, outerWays, innerWays, nodesById));
+        newArea(new Area(relation, outerWays, innerWays, nodesById::get));
       } catch (Area.AreaConstructionException | Ring.RingConstructionException e) {
         issueStore.add("InvalidGeometry", "Invalid geometry for osm relation %s", relation.getId());
         continue;
@@ -1140,7 +1137,7 @@ public class OSMDatabase {
         } else {
           issueStore.add(new TooManyAreasInRelation(relation.getId()));
         }
-      } else if ("node".equals(member.getType()) && nodesById.containsKey(member.getRef())) {
+      } else if ("node".equals(member.getType()) && nodesById.contains(member.getRef())) {
         platformsNodes.add(nodesById.get(member.getRef()));
       }
     }
@@ -0,0 +1,254 @@
+package org.opentripplanner.graph_builder.module.osm;
+
+import gnu.trove.map.TLongObjectMap;
+import gnu.trove.map.hash.TLongObjectHashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.annotation.Nullable;
+import org.opentripplanner.openstreetmap.model.OSMNode;
+import org.opentripplanner.openstreetmap.model.OSMProvider;
+
+/**
+ * A compact store for the OSM nodes used by the graph build. Most nodes have no tags, these are
+ * stored in primitive columns: the node ids, and the coordinates packed as ints in the unit of 100
+ * nanodegrees, the precision of the OSM PBF format. An {@link OSMNode} is created each time such a
+ * node is fetched, so nodes should be compared with {@code equals()}, not by identity. Nodes with
+ * tags, virtual nodes with negative ids and nodes with coordinates which can not be packed without
+ * loss are kept as objects.
+ * <p>
+ * The nodes are appended to the columns as they are read. The columns are sorted by id, and
+ * duplicates removed, the first time a node is looked up after new nodes are added. The nodes of a
+ * PBF file are normally sorted already, so this is cheap.
+ * <p>
+ * This class is not thread-safe.
+ */
+class OsmNodeStore {
+
+  private static final int INITIAL_CAPACITY = 1024;
+
+  /** The parser computes the degrees as {@code (granularity * value + offset) * 1e-9}. */
+  private static final double NANO = .000000001;
+  private static final long GRANULARITY = 100;
+  private static final double SCALE = 1e9 / GRANULARITY;
+  private static final int MAX_PROVIDERS = Byte.MAX_VALUE;
+
+  private final TLongObjectMap<OSMNode> nodesWithTags = new TLongObjectHashMap<>();
+  private final List<OSMProvider> providers = new ArrayList<>();
+
+  private long[] ids = new long[INITIAL_CAPACITY];
+  private int[] lats = new int[INITIAL_CAPACITY];
+  private int[] lons = new int[INITIAL_CAPACITY];
+  private byte[] providerIndexes = new byte[INITIAL_CAPACITY];
+  private int size = 0;
+
+  /** The columns are sorted by id, and have no duplicates, up to this index. */
+  private int sortedSize = 0;
+
+  /**
+   * Add a node, unless a node with the same id is added already. The duplicates are not removed
+   * from the columns until the next lookup, and a node kept as an object replaces a packed node
+   * with the same id.
+   */
+  void add(OSMNode node) {
+    long id = node.getId();
+    if (nodesWithTags.containsKey(id)) {
+      return;
+    }
+    if (!isPackable(node)) {
+      nodesWithTags.put(id, node);
+      // Remove the packed duplicate, if any, the next time the columns are sorted
+      if (sortedSize == size && Arrays.binarySearch(ids, 0, size, id) >= 0) {
+        sortedSize = 0;
+      }
+      return;
+    }
+    ensureCapacity();
+    ids[size] = id;
+    lats[size] = pack(node.lat);
+    lons[size] = pack(node.lon);
+    providerIndexes[size] = (byte) providerIndex(node.getOsmProvider());
+    // Keep the columns sorted as long as the ids are added in increasing order
+    if (sortedSize == size && (size == 0 || ids[size - 1] < id)) {
+      ++sortedSize;
+    }
+    ++size;
+  }
+
+  boolean contains(long id) {
+    return nodesWithTags.containsKey(id) || containsPacked(id);
+  }
+
+  @Nullable
+  OSMNode get(long id) {
+    OSMNode node = nodesWithTags.get(id);
+    if (node != null) {
+      return node;
+    }
+    int index = indexOf(id);
+    return index < 0 ? null : createNode(index);
+  }
+
+  int size() {
+    ensureSorted();
+    return size + nodesWithTags.size();
+  }
+
+  private boolean containsPacked(long id) {
+    return indexOf(id) >= 0;
+  }
+
+  private int indexOf(long id) {
+    ensureSorted();
+    return Arrays.binarySearch(ids, 0, size, id);
+  }
+
+  private OSMNode createNode(int index) {
+    var node = new OSMNode();
+    node.setId(ids[index]);
+    node.lat = unpack(lats[index]);
+    node.lon = unpack(lons[index]);
+    node.setOsmProvider(providers.get(providerIndexes[index]));
+    return node;
+  }
+
+  private boolean isPackable(OSMNode node) {
+    if (node.getId() < 0 || (node.getTags() != null && !node.getTags().isEmpty())) {
+      return false;
+    }
+    if (!providers.contains(node.getOsmProvider()) && providers.size() >= MAX_PROVIDERS) {
+      return false;
+    }
+    return isPackable(node.lat) && isPackable(node.lon);
+  }
+
+  private int providerIndex(OSMProvider provider) {
+    int index = providers.indexOf(provider);
+    if (index < 0) {
+      providers.add(provider);
+      index = providers.size() - 1;
+    }
+    return index;
+  }
+
+  private static boolean isPackable(double degrees) {
+    return Math.abs(degrees) <= 180.0 && unpack(pack(degrees)) == degrees;
+  }
+
+  private static int pack(double degrees) {
+    return (int) Math.round(degrees * SCALE);
+  }
+
+  private static double unpack(int value) {
+    return (GRANULARITY * value) * NANO;
+  }
+
+  private void ensureCapacity() {
+    if (size == ids.length) {
+      int capacity = ids.length * 2;
+      ids = Arrays.copyOf(ids, capacity);
+      lats = Arrays.copyOf(lats, capacity);
+      lons = Arrays.copyOf(lons, capacity);
+      providerIndexes = Arrays.copyOf(providerIndexes, capacity);
+    }
+  }
+
+  /**
+   * Sort the columns by id, and remove the duplicates. If a node is added more than once, for
+   * example when OSM extracts overlap, the first one added is kept.
+   */
+  private void ensureSorted() {
+    if (sortedSize == size) {
+      return;
+    }
+    // The position each node is added in, used to keep the first of the duplicates
+    int[] order = new int[size];
+    Arrays.setAll(order, i -> i);
+    sort(order, 0, size - 1);
+
+    int n = 0;
+    for (int i = 0; i < size; ++i) {
+      if (n > 0 && ids[n - 1] == ids[i]) {
+        continue;
+      }
+      if (nodesWithTags.containsKey(ids[i])) {
+        continue;
+      }
+      ids[n] = ids[i];
+      lats[n] = lats[i];
+      lons[n] = lons[i];
+      providerIndexes[n] = providerIndexes[i];
+      ++n;
+    }
+    size = n;
+    sortedSize = n;
+  }
+
+  /**
+   * Sort the columns by id and the order the nodes are added in. A quicksort is used, since the
+   * JDK can not sort several arrays together.
+   */
+  private void sort(int[] order, int low, int high) {
+    while (high - low > 16) {
+      int pivot = partition(order, low, high);
+      // Recurse into the smaller part, to limit the stack depth
+      if (pivot - low < high - pivot) {
+        sort(order, low, pivot - 1);
+        low = pivot + 1;
+      } else {
+        sort(order, pivot + 1, high);
+        high = pivot - 1;
+      }
+    }
+    // Insertion sort for the small parts
+    for (int i = low + 1; i <= high; ++i) {
+      for (int j = i; j > low && less(order, j, j - 1); --j) {
+        swap(order, j, j - 1);
+      }
+    }
+  }
+
+  private int partition(int[] order, int low, int high) {
+    int mid = (low + high) >>> 1;
+    // Use the median of the first, middle and last element as the pivot, and move it last
+    if (less(order, mid, low)) {
+      swap(order, mid, low);
+    }
+    if (less(order, high, low)) {
+      swap(order, high, low);
+    }
+    if (less(order, mid, high)) {
+      swap(order, mid, high);
+    }
+    int store = low;
+    for (int i = low; i < high; ++i) {
+      if (less(order, i, high)) {
+        swap(order, i, store++);
+      }
+    }
+    swap(order, store, high);
+    return store;
+  }
+
+  private boolean less(int[] order, int i, int j) {
+    return ids[i] < ids[j] || (ids[i] == ids[j] && order[i] < order[j]);
+  }
+
+  private void swap(int[] order, int i, int j) {
+    long id = ids[i];
+    ids[i] = ids[j];
+    ids[j] = id;
+    int lat = lats[i];
+    lats[i] = lats[j];
+    lats[j] = lat;
+    int lon = lons[i];
+    lons[i] = lons[j];
+    lons[j] = lon;
+    byte provider = providerIndexes[i];
+    providerIndexes[i] = providerIndexes[j];
+    providerIndexes[j] = provider;
+    int o = order[i];
+    order[i] = order[j];
+    order[j] = o;
+  }
+}
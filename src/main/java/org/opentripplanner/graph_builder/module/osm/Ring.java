@@ -1,11 +1,11 @@
 package org.opentripplanner.graph_builder.module.osm;
 
 import gnu.trove.list.TLongList;
-import gnu.trove.map.TLongObjectMap;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.function.LongFunction;
 import org.apache.commons.lang3.ArrayUtils;
 import org.locationtech.jts.algorithm.Orientation;
 import org.locationtech.jts.geom.Coordinate;
@@ -43,11 +43,11 @@ public class Ring {
     jtsPolygon = calculateJtsPolygon();
   }
 
-  public Ring(TLongList osmNodes, TLongObjectMap<OSMNode> _nodes) {
+  public Ring(TLongList osmNodes, LongFunction<OSMNode> _nodes) {
     ArrayList<Coordinate> vertices = new ArrayList<>();
     nodes = new ArrayList<>(osmNodes.size());
     osmNodes.forEach(nodeId -> {
-      OSMNode node = _nodes.get(nodeId);
+      OSMNode node = _nodes.apply(nodeId);
       Coordinate point = new Coordinate(node.lon, node.lat);
       nodes.add(node);
       vertices.add(point);
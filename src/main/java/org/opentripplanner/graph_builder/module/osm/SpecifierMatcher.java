@@ -0,0 +1,146 @@
+package org.opentripplanner.graph_builder.module.osm;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import org.opentripplanner.graph_builder.module.osm.specifier.OsmSpecifier;
+import org.opentripplanner.openstreetmap.model.OSMWithTags;
+
+/**
+ * Matches OSM entities against a list of pickers, like the {@link WayPropertyPicker}s of a
+ * {@link WayPropertySet}. The pickers are indexed by the keys of the tags their specifiers match
+ * on, so only the pickers which may match an entity are scored. The result is cached for each
+ * distinct set of relevant tags. The tags which the specifiers only match with a wildcard, like
+ * {@code ref=*}, are cached by whether the entity has them, not by their values, so ways with
+ * different refs share an entry.
+ * <p>
+ * If the tag keys of a specifier are not known, all pickers are matched against each entity, and
+ * nothing is cached.
+ * <p>
+ * The pickers are compiled when the matcher is created, and the result of the match function must
+ * only depend on the relevant tags. This class is thread-safe.
+ *
+ * @param <T> The picker type
+ * @param <V> The match result type, the match function must not return null.
+ */
+class SpecifierMatcher<T, V> {
+
+  private static final String LEFT = ":left";
+  private static final String RIGHT = ":right";
+
+  /** The value cached for the tags which are only matched with a wildcard. */
+  private static final String PRESENT = "*";
+
+  private final List<T> pickers;
+  private final BiFunction<OSMWithTags, List<T>, V> match;
+
+  /** The pickers which may match a tag key, null if the pickers are not indexed. */
+  private final Map<String, BitSet> pickersByTagKey;
+
+  /** The pickers with an empty specifier, these are matched against all entities. */
+  private final BitSet unconditionalPickers = new BitSet();
+
+  /** The tag keys which all specifiers only match with a wildcard. */
+  private final Set<String> wildcardTagKeys = new HashSet<>();
+
+  private final Map<Map<String, String>, V> cache = new ConcurrentHashMap<>();
+
+  /**
+   * @param match Returns the result of matching an entity against the candidate pickers. The
+   *              candidates are given in the same order as the pickers.
+   */
+  SpecifierMatcher(
+    List<T> pickers,
+    Function<T, OsmSpecifier> specifier,
+    BiFunction<OSMWithTags, List<T>, V> match
+  ) {
+    this.pickers = List.copyOf(pickers);
+    this.match = match;
+    this.pickersByTagKey = index(this.pickers, specifier, unconditionalPickers, wildcardTagKeys);
+  }
+
+  V match(OSMWithTags entity) {
+    if (pickersByTagKey == null) {
+      return match.apply(entity, pickers);
+    }
+    Map<String, String> relevantTags = relevantTags(entity);
+    V result = cache.get(relevantTags);
+    if (result == null) {
+      result = match.apply(entity, candidates(relevantTags));
+      cache.put(relevantTags, result);
+    }
+    return result;
+  }
+
+  private Map<String, String> relevantTags(OSMWithTags entity) {
+    Map<String, String> tags = entity.getTags();
+    if (tags == null) {
+      return Map.of();
+    }
+    Map<String, String> relevantTags = new HashMap<>();
+    for (Map.Entry<String, String> it : tags.entrySet()) {
+      if (pickersByTagKey.containsKey(it.getKey())) {
+        relevantTags.put(
+          it.getKey(),
+          wildcardTagKeys.contains(it.getKey()) ? PRESENT : it.getValue()
+        );
+      }
+    }
+    return relevantTags;
+  }
+
+  /** The number of distinct sets of relevant tags matched. */
+  int cacheSize() {
+    return cache.size();
+  }
+
+  private List<T> candidates(Map<String, String> relevantTags) {
+    BitSet candidates = (BitSet) unconditionalPickers.clone();
+    for (String key : relevantTags.keySet()) {
+      candidates.or(pickersByTagKey.get(key));
+    }
+    List<T> result = new ArrayList<>(candidates.cardinality());
+    for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+      result.add(pickers.get(i));
+    }
+    return result;
+  }
+
+  private static <T> Map<String, BitSet> index(
+    List<T> pickers,
+    Function<T, OsmSpecifier> specifier,
+    BitSet unconditionalPickers,
+    Set<String> wildcardTagKeys
+  ) {
+    Map<String, BitSet> pickersByTagKey = new HashMap<>();
+    Set<String> valueTagKeys = new HashSet<>();
+    for (int i = 0; i < pickers.size(); ++i) {
+      OsmSpecifier spec = specifier.apply(pickers.get(i));
+      Set<String> keys = spec.tagKeys();
+      if (keys == null) {
+        return null;
+      }
+      if (keys.isEmpty()) {
+        unconditionalPickers.set(i);
+      }
+      Set<String> wildcards = spec.wildcardTagKeys();
+      for (String key : keys) {
+        // The specifiers match the tags for the left and right side of a way too
+        for (String it : List.of(key, key + LEFT, key + RIGHT)) {
+          pickersByTagKey.computeIfAbsent(it, k -> new BitSet()).set(i);
+          (wildcards.contains(key) ? wildcardTagKeys : valueTagKeys).add(it);
+        }
+      }
+    }
+    // A key is only cached by presence if no specifier matches on its value
+    wildcardTagKeys.removeAll(valueTagKeys);
+    return pickersByTagKey;
+  }
+}
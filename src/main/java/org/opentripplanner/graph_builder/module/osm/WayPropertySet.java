@@ -9,8 +9,10 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Optional;
 import java.util.Set;
 import java.util.function.BiFunction;
+import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import org.opentripplanner.common.model.T2;
@@ -61,6 +63,9 @@ public class WayPropertySet {
   /** The WayProperties applied to all ways that do not match any WayPropertyPicker. */
   private final WayProperties defaultProperties;
 
+  /** The pickers compiled for matching, created when first used after a picker is added. */
+  private volatile Matchers matchers = null;
+
   public WayPropertySet() {
     /* sensible defaults */
     defaultSpeed = 11.2f; // 11.2 m/s ~= 25 mph ~= 40 kph, standard speed limit in the US
@@ -82,34 +87,13 @@ public class WayPropertySet {
    * that are mixins will have their safety values applied if they match at all.
    */
   public WayProperties getDataForWay(OSMWithTags way) {
-    WayProperties leftResult = defaultProperties;
-    WayProperties rightResult = defaultProperties;
-    int bestLeftScore = 0;
-    int bestRightScore = 0;
-    List<WayProperties> leftMixins = new ArrayList<>();
-    List<WayProperties> rightMixins = new ArrayList<>();
-    for (WayPropertyPicker picker : wayProperties) {
-      OsmSpecifier specifier = picker.specifier();
-      WayProperties wayProperties = picker.properties();
-      var score = specifier.matchScores(way);
-      if (picker.safetyMixin()) {
-        if (score.left() > 0) {
-          leftMixins.add(wayProperties);
-        }
-        if (score.right() > 0) {
-          rightMixins.add(wayProperties);
-        }
-      } else {
-        if (score.left() > bestLeftScore) {
-          leftResult = wayProperties;
-          bestLeftScore = score.left();
-        }
-        if (score.right() > bestRightScore) {
-          rightResult = wayProperties;
-          bestRightScore = score.right();
-        }
-      }
-    }
+    WayPropertiesMatch match = matchers().wayProperties().match(way);
+    WayProperties leftResult = match.leftResult();
+    WayProperties rightResult = match.rightResult();
+    int bestLeftScore = match.bestLeftScore();
+    int bestRightScore = match.bestRightScore();
+    List<WayProperties> leftMixins = match.leftMixins();
+    List<WayProperties> rightMixins = match.rightMixins();
 
     float forwardSpeed = getCarSpeedForWay(way, false);
     float backSpeed = getCarSpeedForWay(way, true);
@@ -153,21 +137,11 @@ public class WayPropertySet {
   }
 
   public I18NString getCreativeNameForWay(OSMWithTags way) {
-    CreativeNamer bestNamer = null;
-    int bestScore = 0;
-    for (CreativeNamerPicker picker : creativeNamers) {
-      OsmSpecifier specifier = picker.specifier;
-      CreativeNamer namer = picker.namer;
-      int score = specifier.matchScore(way);
-      if (score > bestScore) {
-        bestNamer = namer;
-        bestScore = score;
-      }
-    }
-    if (bestNamer == null) {
-      return null;
-    }
-    return bestNamer.generateCreativeName(way);
+    return matchers()
+      .creativeNamers()
+      .match(way)
+      .map(namer -> namer.generateCreativeName(way))
+      .orElse(null);
   }
 
   /**
@@ -211,37 +185,13 @@ public class WayPropertySet {
     if (speed != null && speed > 0.0001) return speed;
 
     // otherwise, we use the speedPickers
-
-    int bestScore = 0;
-    Float bestSpeed = null;
-    int score;
-
-    // SpeedPickers are constructed in DefaultOsmTagMapper with an OSM specifier
-    // (e.g. highway=motorway) and a default speed for that segment.
-    for (SpeedPicker picker : speedPickers) {
-      OsmSpecifier specifier = picker.specifier;
-      score = specifier.matchScore(way);
-      if (score > bestScore) {
-        bestScore = score;
-        bestSpeed = picker.speed;
-      }
-    }
-
-    if (bestSpeed != null) {
-      return bestSpeed;
-    } else {
-      return this.defaultSpeed;
-    }
+    return matchers().speedPickers().match(way).orElse(this.defaultSpeed);
   }
 
   public Set<T2<StreetNote, NoteMatcher>> getNoteForWay(OSMWithTags way) {
     HashSet<T2<StreetNote, NoteMatcher>> out = new HashSet<>();
-    for (NotePicker picker : notes) {
-      OsmSpecifier specifier = picker.specifier;
-      NoteProperties noteProperties = picker.noteProperties;
-      if (specifier.matchScore(way) > 0) {
-        out.add(noteProperties.generateNote(way));
-      }
+    for (NoteProperties noteProperties : matchers().notes().match(way)) {
+      out.add(noteProperties.generateNote(way));
     }
     if (out.size() == 0) {
       return null;
@@ -250,37 +200,31 @@ public class WayPropertySet {
   }
 
   public boolean getSlopeOverride(OSMWithTags way) {
-    boolean result = false;
-    int bestScore = 0;
-    for (SlopeOverridePicker picker : slopeOverrides) {
-      OsmSpecifier specifier = picker.getSpecifier();
-      int score = specifier.matchScore(way);
-      if (score > bestScore) {
-        result = picker.getOverride();
-        bestScore = score;
-      }
-    }
-    return result;
+    return matchers().slopeOverrides().match(way);
   }
 
   public void addProperties(OsmSpecifier spec, WayProperties properties, boolean mixin) {
     wayProperties.add(new WayPropertyPicker(spec, properties, mixin));
+    matchers = null;
   }
 
   public void addProperties(OsmSpecifier spec, WayProperties properties) {
-    wayProperties.add(new WayPropertyPicker(spec, properties, false));
+    addProperties(spec, properties, false);
   }
 
   public void addCreativeNamer(OsmSpecifier spec, CreativeNamer namer) {
     creativeNamers.add(new CreativeNamerPicker(spec, namer));
+    matchers = null;
   }
 
   public void addNote(OsmSpecifier osmSpecifier, NoteProperties properties) {
     notes.add(new NotePicker(osmSpecifier, properties));
+    matchers = null;
   }
 
   public void setSlopeOverride(OsmSpecifier spec, boolean override) {
     slopeOverrides.add(new SlopeOverridePicker(spec, override));
+    matchers = null;
   }
 
   public int hashCode() {
@@ -307,6 +251,7 @@ public class WayPropertySet {
 
   public void addSpeedPicker(SpeedPicker picker) {
     this.speedPickers.add(picker);
+    matchers = null;
   }
 
   public Float getMetersSecondFromSpeed(String speed) {
@@ -444,6 +389,117 @@ public class WayPropertySet {
     return all_tags;
   }
 
+  /**
+   * Compile the pickers, if they are changed since the last time. The pickers should not be
+   * changed while the ways are processed, since the match results are cached.
+   */
+  private Matchers matchers() {
+    Matchers result = matchers;
+    if (result == null) {
+      result =
+        new Matchers(
+          new SpecifierMatcher<>(
+            wayProperties,
+            WayPropertyPicker::specifier,
+            this::matchWayProperties
+          ),
+          new SpecifierMatcher<>(
+            creativeNamers,
+            p -> p.specifier,
+            (way, pickers) -> bestMatch(way, pickers, p -> p.specifier, p -> p.namer)
+          ),
+          new SpecifierMatcher<>(
+            speedPickers,
+            p -> p.specifier,
+            (way, pickers) -> bestMatch(way, pickers, p -> p.specifier, p -> p.speed)
+          ),
+          new SpecifierMatcher<>(
+            notes,
+            p -> p.specifier,
+            (way, pickers) ->
+              pickers
+                .stream()
+                .filter(p -> p.specifier.matchScore(way) > 0)
+                .map(p -> p.noteProperties)
+                .toList()
+          ),
+          new SpecifierMatcher<>(
+            slopeOverrides,
+            SlopeOverridePicker::getSpecifier,
+            (way, pickers) ->
+              bestMatch(way, pickers, SlopeOverridePicker::getSpecifier, p -> p.getOverride())
+                .orElse(false)
+          )
+        );
+      matchers = result;
+    }
+    return result;
+  }
+
+  private WayPropertiesMatch matchWayProperties(
+    OSMWithTags way,
+    List<WayPropertyPicker> candidates
+  ) {
+    WayProperties leftResult = defaultProperties;
+    WayProperties rightResult = defaultProperties;
+    int bestLeftScore = 0;
+    int bestRightScore = 0;
+    List<WayProperties> leftMixins = new ArrayList<>();
+    List<WayProperties> rightMixins = new ArrayList<>();
+    for (WayPropertyPicker picker : candidates) {
+      OsmSpecifier specifier = picker.specifier();
+      WayProperties wayProperties = picker.properties();
+      var score = specifier.matchScores(way);
+      if (picker.safetyMixin()) {
+        if (score.left() > 0) {
+          leftMixins.add(wayProperties);
+        }
+        if (score.right() > 0) {
+          rightMixins.add(wayProperties);
+        }
+      } else {
+        if (score.left() > bestLeftScore) {
+          leftResult = wayProperties;
+          bestLeftScore = score.left();
+        }
+        if (score.right() > bestRightScore) {
+          rightResult = wayProperties;
+          bestRightScore = score.right();
+        }
+      }
+    }
+    return new WayPropertiesMatch(
+      leftResult,
+      rightResult,
+      bestLeftScore,
+      bestRightScore,
+      List.copyOf(leftMixins),
+      List.copyOf(rightMixins)
+    );
+  }
+
+  /**
+   * Return the value of the picker with the highest score, the first if more than one has the same
+   * score, or empty if none of the pickers match.
+   */
+  private static <T, V> Optional<V> bestMatch(
+    OSMWithTags way,
+    List<T> pickers,
+    Function<T, OsmSpecifier> specifier,
+    Function<T, V> value
+  ) {
+    T bestPicker = null;
+    int bestScore = 0;
+    for (T picker : pickers) {
+      int score = specifier.apply(picker).matchScore(way);
+      if (score > bestScore) {
+        bestPicker = picker;
+        bestScore = score;
+      }
+    }
+    return bestPicker == null ? Optional.empty() : Optional.of(value.apply(bestPicker));
+  }
+
   private WayProperties applyMixins(
     WayProperties result,
     List<WayProperties> mixins,
@@ -478,4 +534,21 @@ public class WayPropertySet {
       .walkSafety(forwardWalk, backWalk)
       .build();
   }
+
+  private record WayPropertiesMatch(
+    WayProperties leftResult,
+    WayProperties rightResult,
+    int bestLeftScore,
+    int bestRightScore,
+    List<WayProperties> leftMixins,
+    List<WayProperties> rightMixins
+  ) {}
+
+  private record Matchers(
+    SpecifierMatcher<WayPropertyPicker, WayPropertiesMatch> wayProperties,
+    SpecifierMatcher<CreativeNamerPicker, Optional<CreativeNamer>> creativeNamers,
+    SpecifierMatcher<SpeedPicker, Optional<Float>> speedPickers,
+    SpecifierMatcher<NotePicker, List<NoteProperties>> notes,
+    SpecifierMatcher<SlopeOverridePicker, Boolean> slopeOverrides
+  ) {}
 }
@@ -1,6 +1,8 @@
 package org.opentripplanner.graph_builder.module.osm.specifier;
 
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 import org.opentripplanner.openstreetmap.model.OSMWithTags;
 import org.opentripplanner.util.lang.ToStringBuilder;
 
@@ -32,6 +34,22 @@ public class BestMatchSpecifier implements OsmSpecifier {
     return computeScores(way);
   }
 
+  @Override
+  public Set<String> tagKeys() {
+    return pairs.stream().map(Tag::key).collect(Collectors.toSet());
+  }
+
+  @Override
+  public Set<String> wildcardTagKeys() {
+    Set<String> keys = pairs
+      .stream()
+      .filter(Tag::isWildcard)
+      .map(Tag::key)
+      .collect(Collectors.toSet());
+    pairs.stream().filter(it -> !it.isWildcard()).forEach(it -> keys.remove(it.key()));
+    return keys;
+  }
+
   @Override
   public int matchScore(OSMWithTags way) {
     int score = 0;
@@ -2,6 +2,8 @@ package org.opentripplanner.graph_builder.module.osm.specifier;
 
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 import org.opentripplanner.graph_builder.module.osm.tagmapping.HoustonMapper;
 import org.opentripplanner.openstreetmap.model.OSMWithTags;
 
@@ -44,6 +46,11 @@ public class ExactMatchSpecifier implements OsmSpecifier {
     return Scores.of(matchScore(way));
   }
 
+  @Override
+  public Set<String> tagKeys() {
+    return pairs.stream().map(Tag::key).collect(Collectors.toSet());
+  }
+
   @Override
   public int matchScore(OSMWithTags way) {
     if (allTagsMatch(way)) {
@@ -2,6 +2,8 @@ package org.opentripplanner.graph_builder.module.osm.specifier;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 import org.opentripplanner.openstreetmap.model.OSMWithTags;
 
 /**
@@ -30,6 +32,14 @@ public class LogicalOrSpecifier implements OsmSpecifier {
     return Scores.of(matchScore(way));
   }
 
+  @Override
+  public Set<String> tagKeys() {
+    return subSpecs
+      .stream()
+      .flatMap(it -> it.tagKeys().stream())
+      .collect(Collectors.toSet());
+  }
+
   @Override
   public int matchScore(OSMWithTags way) {
     var oneMatchesExactly = subSpecs.stream().anyMatch(subspec -> subspec.allTagsMatch(way));
@@ -2,6 +2,8 @@ package org.opentripplanner.graph_builder.module.osm.specifier;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
+import javax.annotation.Nullable;
 import org.opentripplanner.openstreetmap.model.OSMWithTags;
 
 /**
@@ -43,6 +45,27 @@ public interface OsmSpecifier {
    */
   int matchScore(OSMWithTags way);
 
+  /**
+   * The keys of the tags this specifier matches on. An entity without any of these tags, or these
+   * tags with a {@code :left} or {@code :right} suffix, must get a score of 0, unless the set is
+   * empty. This is used to skip the specifiers which can not match an entity.
+   *
+   * @return {@code null} if the keys are not known, then the specifier is matched against all
+   * entities.
+   */
+  @Nullable
+  default Set<String> tagKeys() {
+    return null;
+  }
+
+  /**
+   * The keys of {@link #tagKeys()} which this specifier only matches with a wildcard. The score
+   * must only depend on whether an entity has these tags, not on their values.
+   */
+  default Set<String> wildcardTagKeys() {
+    return Set.of();
+  }
+
   record Tag(String key, String value) {
     public boolean isWildcard() {
       return value.equals("*");
@@ -1,14 +1,12 @@
 package org.opentripplanner.model;
 
-import com.google.common.collect.HashMultimap;
-import com.google.common.collect.SetMultimap;
+import com.google.common.collect.ImmutableSet;
 import java.time.LocalDate;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.ConcurrentModificationException;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
@@ -22,6 +20,7 @@ import org.opentripplanner.transit.model.site.StopLocation;
 import org.opentripplanner.transit.model.timetable.TripIdAndServiceDate;
 import org.opentripplanner.transit.model.timetable.TripOnServiceDate;
 import org.opentripplanner.transit.model.timetable.TripTimes;
+import org.opentripplanner.util.lang.PersistentMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -38,6 +37,12 @@ import org.slf4j.LoggerFactory;
  * <p>
  * At this point, only one writing thread at a time is supported.
  * <p>
+ * The realtime data is kept in {@link PersistentMap}s, which share all unchanged entries between
+ * versions. A commit does not copy the data, it hands the current version of each map over to the
+ * new read-only snapshot, and the following updates of the buffer only copy the paths they touch.
+ * So the cost of a commit is proportional to the number of changes since the previous commit, not
+ * to the total amount of realtime data.
+ * <p>
  *  TODO OTP2 - Move this to package: org.opentripplanner.model
  *            - after ass Entur NeTEx PRs are merged.
  */
@@ -56,36 +61,32 @@ public class TimetableSnapshot {
    * Route) for which we have an updated Timetable. The keys include both TripPatterns from the
    * scheduled GTFS, and TripPatterns added by realtime messages and tracked by the
    * TripPatternCache. Note that the keys will not include all scheduled TripPatterns, only those
-   * for which we've got an update. We use a HashMap rather than a Map so we can clone it. If this
-   * turns out to be slow/spacious we can use an array with integer pattern indexes. The SortedSet
-   * members are copy-on-write.
-   * FIXME: this could be made into a flat hashtable with compound keys.
+   * for which we've got an update. The SortedSet members are copy-on-write.
    */
-  private HashMap<TripPattern, SortedSet<Timetable>> timetables = new HashMap();
+  private PersistentMap<TripPattern, SortedSet<Timetable>> timetables = PersistentMap.empty();
 
   /**
    * <p>
    * Map containing the current trip pattern given a trip id and a service date, if it has been
    * changed from the scheduled pattern with an update, for which the stopPattern is different.
    * </p>
-   * <p>
-   * This is a HashMap and not a Map so the clone function is available.
    */
-  private HashMap<TripIdAndServiceDate, TripPattern> realtimeAddedTripPattern = new HashMap<>();
+  private PersistentMap<TripIdAndServiceDate, TripPattern> realtimeAddedTripPattern = PersistentMap.empty();
 
-  private HashMap<FeedScopedId, TripOnServiceDate> realtimeAddedTripOnServiceDate = new HashMap<>();
-  private HashMap<TripIdAndServiceDate, TripOnServiceDate> realtimeAddedTripOnServiceDateByTripIdAndServiceDate = new HashMap<>();
+  private PersistentMap<FeedScopedId, TripOnServiceDate> realtimeAddedTripOnServiceDate = PersistentMap.empty();
+  private PersistentMap<TripIdAndServiceDate, TripOnServiceDate> realtimeAddedTripOnServiceDateByTripIdAndServiceDate = PersistentMap.empty();
 
   /**
    * This maps contains all of the new or updated TripPatterns added by realtime data indexed on
    * stop. This has to be kept in order for them to be included in the stop times api call on a
    * specific stop.
    * <p>
-   * This is a SetMultimap, so that each pattern can only be added once.
+   * The sets are immutable and copied when a pattern is added, so that each pattern can only be
+   * added once and the sets can be shared between snapshots.
    * <p>
    * TODO Find a generic way to keep all realtime indexes.
    */
-  private SetMultimap<StopLocation, TripPattern> patternsForStop = HashMultimap.create();
+  private PersistentMap<StopLocation, Set<TripPattern>> patternsForStop = PersistentMap.empty();
 
   /**
    * Boolean value indicating that timetable snapshot is read only if true. Once it is true, it
@@ -207,7 +208,7 @@ public class TimetableSnapshot {
       }
       if (old.getServiceDate() != null) sortedTimetables.remove(old);
       sortedTimetables.add(tt);
-      timetables.put(pattern, sortedTimetables);
+      timetables = timetables.put(pattern, sortedTimetables);
       dirtyTimetables.add(tt);
       dirty = true;
     }
@@ -227,7 +228,7 @@ public class TimetableSnapshot {
       // Remember this pattern for the added trip id and service date
       FeedScopedId tripId = updatedTripTimes.getTrip().getId();
       TripIdAndServiceDate tripIdAndServiceDate = new TripIdAndServiceDate(tripId, serviceDate);
-      realtimeAddedTripPattern.put(tripIdAndServiceDate, pattern);
+      realtimeAddedTripPattern = realtimeAddedTripPattern.put(tripIdAndServiceDate, pattern);
     }
 
     // To make these trip patterns visible for departureRow searches.
@@ -239,12 +240,10 @@ public class TimetableSnapshot {
   }
 
   /**
-   * This produces a small delay of typically around 50ms, which is almost entirely due to the
-   * indexing step. Cloning the map is much faster (2ms). It is perhaps better to index timetables
-   * as they are changed to avoid experiencing all this lag at once, but we want to avoid
-   * re-indexing when receiving multiple updates for the same timetable in rapid succession. This
-   * compromise is expressed by the maxSnapshotFrequency property of StoptimeUpdater. The indexing
-   * could be made much more efficient as well.
+   * The maps are shared with the new snapshot, not copied, so the commit itself is cheap. The delay
+   * is dominated by the update of the realtime transit layer. We want to avoid re-indexing when
+   * receiving multiple updates for the same timetable in rapid succession. This compromise is
+   * expressed by the maxSnapshotFrequency property of StoptimeUpdater.
    *
    * @return an immutable copy of this TimetableSnapshot with all updates applied
    */
@@ -252,7 +251,6 @@ public class TimetableSnapshot {
     return commit(null, false);
   }
 
-  @SuppressWarnings("unchecked")
   public TimetableSnapshot commit(TransitLayerUpdater transitLayerUpdater, boolean force) {
     if (readOnly) {
       throw new ConcurrentModificationException("This TimetableSnapshot is read-only.");
@@ -262,22 +260,20 @@ public class TimetableSnapshot {
     if (!force && !this.isDirty()) {
       return null;
     }
-    ret.timetables = (HashMap<TripPattern, SortedSet<Timetable>>) this.timetables.clone();
-    ret.realtimeAddedTripPattern =
-      (HashMap<TripIdAndServiceDate, TripPattern>) this.realtimeAddedTripPattern.clone();
+    ret.timetables = this.timetables;
+    ret.realtimeAddedTripPattern = this.realtimeAddedTripPattern;
 
     if (transitLayerUpdater != null) {
-      transitLayerUpdater.update(dirtyTimetables, timetables);
+      transitLayerUpdater.update(dirtyTimetables, timetables.asMap());
     }
 
-    ret.realtimeAddedTripOnServiceDate =
-      (HashMap<FeedScopedId, TripOnServiceDate>) this.realtimeAddedTripOnServiceDate.clone();
+    ret.realtimeAddedTripOnServiceDate = this.realtimeAddedTripOnServiceDate;
     ret.realtimeAddedTripOnServiceDateByTripIdAndServiceDate =
-      (HashMap<TripIdAndServiceDate, TripOnServiceDate>) this.realtimeAddedTripOnServiceDateByTripIdAndServiceDate.clone();
+      this.realtimeAddedTripOnServiceDateByTripIdAndServiceDate;
     this.dirtyTimetables.clear();
     this.dirty = false;
 
-    ret.setPatternsForStop(HashMultimap.create(this.patternsForStop));
+    ret.patternsForStop = this.patternsForStop;
 
     ret.readOnly = true; // mark the snapshot as henceforth immutable
     return ret;
@@ -307,7 +303,8 @@ public class TimetableSnapshot {
    * trip times from the timetable the trip has been added to.
    */
   public void removeLastAddedTripPattern(FeedScopedId feedScopedTripId, LocalDate serviceDate) {
-    realtimeAddedTripPattern.remove(new TripIdAndServiceDate(feedScopedTripId, serviceDate));
+    realtimeAddedTripPattern =
+      realtimeAddedTripPattern.remove(new TripIdAndServiceDate(feedScopedTripId, serviceDate));
   }
 
   /**
@@ -319,37 +316,33 @@ public class TimetableSnapshot {
     }
 
     boolean modified = false;
-    for (Iterator<TripPattern> it = timetables.keySet().iterator(); it.hasNext();) {
-      TripPattern pattern = it.next();
-      SortedSet<Timetable> sortedTimetables = timetables.get(pattern);
+    // Iterate over the current version, while building the purged version
+    for (Entry<TripPattern, SortedSet<Timetable>> it : timetables.asMap().entrySet()) {
       SortedSet<Timetable> toKeepTimetables = new TreeSet<>(new SortedTimetableComparator());
-      for (Timetable timetable : sortedTimetables) {
+      for (Timetable timetable : it.getValue()) {
         if (serviceDate.compareTo(timetable.getServiceDate()) < 0) {
           toKeepTimetables.add(timetable);
-        } else {
-          modified = true;
         }
       }
 
+      if (toKeepTimetables.size() == it.getValue().size()) {
+        continue;
+      }
+      modified = true;
       if (toKeepTimetables.isEmpty()) {
-        it.remove();
+        timetables = timetables.remove(it.getKey());
       } else {
-        timetables.put(pattern, toKeepTimetables);
+        timetables = timetables.put(it.getKey(), toKeepTimetables);
       }
     }
 
     // Also remove last added trip pattern for days that are purged
-    for (
-      Iterator<Entry<TripIdAndServiceDate, TripPattern>> iterator = realtimeAddedTripPattern
-        .entrySet()
-        .iterator();
-      iterator.hasNext();
-    ) {
-      TripIdAndServiceDate tripIdAndServiceDate = iterator.next().getKey();
-      if (serviceDate.compareTo(tripIdAndServiceDate.serviceDate()) >= 0) {
-        iterator.remove();
-        modified = true;
-      }
+    var purged = realtimeAddedTripPattern.removeIf((tripIdAndServiceDate, pattern) ->
+      serviceDate.compareTo(tripIdAndServiceDate.serviceDate()) >= 0
+    );
+    if (purged != realtimeAddedTripPattern) {
+      realtimeAddedTripPattern = purged;
+      modified = true;
     }
 
     return modified;
@@ -368,27 +361,26 @@ public class TimetableSnapshot {
   }
 
   public Collection<TripPattern> getPatternsForStop(StopLocation stop) {
-    return patternsForStop.get(stop);
-  }
-
-  public void setPatternsForStop(SetMultimap<StopLocation, TripPattern> patternsForStop) {
-    this.patternsForStop = patternsForStop;
+    Set<TripPattern> patterns = patternsForStop.get(stop);
+    return patterns == null ? Set.of() : patterns;
   }
 
   public void addLastAddedTripOnServiceDate(TripOnServiceDate tripOnServiceDate) {
-    realtimeAddedTripOnServiceDate.put(tripOnServiceDate.getId(), tripOnServiceDate);
-    realtimeAddedTripOnServiceDateByTripIdAndServiceDate.put(
-      tripOnServiceDate.getTripIdAndServiceDate(),
-      tripOnServiceDate
-    );
+    realtimeAddedTripOnServiceDate =
+      realtimeAddedTripOnServiceDate.put(tripOnServiceDate.getId(), tripOnServiceDate);
+    realtimeAddedTripOnServiceDateByTripIdAndServiceDate =
+      realtimeAddedTripOnServiceDateByTripIdAndServiceDate.put(
+        tripOnServiceDate.getTripIdAndServiceDate(),
+        tripOnServiceDate
+      );
   }
 
-  public HashMap<FeedScopedId, TripOnServiceDate> getRealtimeAddedTripOnServiceDate() {
-    return realtimeAddedTripOnServiceDate;
+  public Map<FeedScopedId, TripOnServiceDate> getRealtimeAddedTripOnServiceDate() {
+    return realtimeAddedTripOnServiceDate.asMap();
   }
 
-  public HashMap<TripIdAndServiceDate, TripOnServiceDate> getRealtimeAddedTripOnServiceDateByTripIdAndServiceDate() {
-    return realtimeAddedTripOnServiceDateByTripIdAndServiceDate;
+  public Map<TripIdAndServiceDate, TripOnServiceDate> getRealtimeAddedTripOnServiceDateByTripIdAndServiceDate() {
+    return realtimeAddedTripOnServiceDateByTripIdAndServiceDate.asMap();
   }
 
   /**
@@ -398,7 +390,12 @@ public class TimetableSnapshot {
    * @return true if the timetable changed as a result of the call
    */
   protected boolean clearTimetable(String feedId) {
-    return timetables.keySet().removeIf(tripPattern -> feedId.equals(tripPattern.getFeedId()));
+    var cleared = timetables.removeIf((tripPattern, sortedTimetables) ->
+      feedId.equals(tripPattern.getFeedId())
+    );
+    boolean modified = cleared != timetables;
+    timetables = cleared;
+    return modified;
   }
 
   /**
@@ -408,11 +405,12 @@ public class TimetableSnapshot {
    * @return true if the realtimeAddedTripPattern changed as a result of the call
    */
   protected boolean clearRealtimeAddedTripPattern(String feedId) {
-    return realtimeAddedTripPattern
-      .keySet()
-      .removeIf(realtimeAddedTripPattern ->
-        feedId.equals(realtimeAddedTripPattern.tripId().getFeedId())
-      );
+    var cleared = realtimeAddedTripPattern.removeIf((tripIdAndServiceDate, pattern) ->
+      feedId.equals(tripIdAndServiceDate.tripId().getFeedId())
+    );
+    boolean modified = cleared != realtimeAddedTripPattern;
+    realtimeAddedTripPattern = cleared;
+    return modified;
   }
 
   /**
@@ -423,7 +421,16 @@ public class TimetableSnapshot {
       //TODO - SIRI: Add pattern to index?
 
       for (var stop : tripPattern.getStops()) {
-        patternsForStop.put(stop, tripPattern);
+        Set<TripPattern> patterns = patternsForStop.get(stop);
+        if (patterns == null) {
+          patternsForStop = patternsForStop.put(stop, Set.of(tripPattern));
+        } else if (!patterns.contains(tripPattern)) {
+          patternsForStop =
+            patternsForStop.put(
+              stop,
+              ImmutableSet.<TripPattern>builder().addAll(patterns).add(tripPattern).build()
+            );
+        }
       }
     }
   }
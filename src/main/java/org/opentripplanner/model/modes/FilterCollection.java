@@ -33,4 +33,21 @@ public class FilterCollection implements AllowTransitModeFilter {
     }
     return false;
   }
+
+  @Override
+  public int hashCode() {
+    return filters.hashCode();
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    FilterCollection that = (FilterCollection) o;
+    return filters.equals(that.filters);
+  }
 }
@@ -5,7 +5,6 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.time.ZoneId;
-import org.openstreetmap.osmosis.osmbinary.file.BlockInputStream;
 import org.opentripplanner.datastore.api.DataSource;
 import org.opentripplanner.datastore.api.FileType;
 import org.opentripplanner.datastore.file.FileDataSource;
@@ -24,7 +23,8 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Parser for the OpenStreetMap PBF format. Parses files in three passes: First the relations, then
- * the ways, then the nodes are also loaded.
+ * the ways, then the nodes are also loaded. The blocks of the file are decoded in parallel, see
+ * {@link OsmPbfReader}.
  */
 public class OpenStreetMapProvider implements OSMProvider {
 
@@ -32,6 +32,8 @@ public class OpenStreetMapProvider implements OSMProvider {
 
   private final DataSource source;
   private final boolean cacheDataInMem;
+  private final int parserThreads;
+  private final boolean cacheDecodedBlocks;
 
   private final ZoneId zoneId;
 
@@ -62,6 +64,20 @@ public class OpenStreetMapProvider implements OSMProvider {
     ConfiguredDataSource<OsmExtractParameters> osmExtractConfigConfiguredDataSource,
     OsmDefaultParameters defaultParameters,
     boolean cacheDataInMem
+  ) {
+    this(osmExtractConfigConfiguredDataSource, defaultParameters, cacheDataInMem, 0, false);
+  }
+
+  /**
+   * @param parserThreads The number of threads decoding the file, {@code 0} to use one thread per
+   *                      available processor.
+   */
+  public OpenStreetMapProvider(
+    ConfiguredDataSource<OsmExtractParameters> osmExtractConfigConfiguredDataSource,
+    OsmDefaultParameters defaultParameters,
+    boolean cacheDataInMem,
+    int parserThreads,
+    boolean cacheDecodedBlocks
   ) {
     this.source = osmExtractConfigConfiguredDataSource.dataSource();
     this.zoneId =
@@ -74,19 +90,22 @@ public class OpenStreetMapProvider implements OSMProvider {
     this.wayPropertySet = new WayPropertySet();
     osmTagMapper.populateProperties(wayPropertySet);
     this.cacheDataInMem = cacheDataInMem;
+    this.parserThreads =
+      parserThreads > 0 ? parserThreads : Runtime.getRuntime().availableProcessors();
+    this.cacheDecodedBlocks = cacheDecodedBlocks;
   }
 
   public void readOSM(OSMDatabase osmdb) {
-    try {
+    try (var reader = new OsmPbfReader(parserThreads, cacheDecodedBlocks)) {
       OpenStreetMapParser parser = new OpenStreetMapParser(osmdb, this);
 
-      parsePhase(parser, OsmParserPhase.Relations);
+      parsePhase(reader, parser, OsmParserPhase.Relations);
       osmdb.doneFirstPhaseRelations();
 
-      parsePhase(parser, OsmParserPhase.Ways);
+      parsePhase(reader, parser, OsmParserPhase.Ways);
       osmdb.doneSecondPhaseWays();
 
-      parsePhase(parser, OsmParserPhase.Nodes);
+      parsePhase(reader, parser, OsmParserPhase.Nodes);
       osmdb.doneThirdPhaseNodes();
     } catch (Exception ex) {
       throw new IllegalStateException("error loading OSM from path " + source.path(), ex);
@@ -99,6 +118,8 @@ public class OpenStreetMapProvider implements OSMProvider {
       .of(OpenStreetMapProvider.class)
       .addObj("source", source)
       .addBool("cacheDataInMem", cacheDataInMem)
+      .addNum("parserThreads", parserThreads)
+      .addBool("cacheDecodedBlocks", cacheDecodedBlocks)
       .toString();
   }
 
@@ -115,22 +136,9 @@ public class OpenStreetMapProvider implements OSMProvider {
     return ProgressTracker.track("Parse OSM " + phase, 1000, size, inputStream, m -> LOG.info(m));
   }
 
-  private void parsePhase(OpenStreetMapParser parser, OsmParserPhase phase) throws IOException {
-    parser.setPhase(phase);
-    BlockInputStream in = null;
-    try {
-      in = new BlockInputStream(createInputStream(phase), parser);
-      in.process();
-    } finally {
-      // Close
-      try {
-        if (in != null) {
-          in.close();
-        }
-      } catch (Exception e) {
-        LOG.error(e.getMessage(), e);
-      }
-    }
+  private void parsePhase(OsmPbfReader reader, OpenStreetMapParser parser, OsmParserPhase phase)
+    throws IOException {
+    reader.readPhase(phase, () -> createInputStream(phase), parser);
   }
 
   private InputStream createInputStream(OsmParserPhase phase) {
@@ -0,0 +1,298 @@
+package org.opentripplanner.openstreetmap;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.protobuf.ByteString;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import javax.annotation.Nullable;
+import org.openstreetmap.osmosis.osmbinary.Fileformat;
+import org.openstreetmap.osmosis.osmbinary.Osmformat;
+
+/**
+ * Reads the blocks of an OSM PBF file, and hands them over to the {@link OpenStreetMapParser} in
+ * the order of the file. The blocks are read from the input stream by the calling thread, but
+ * decompressed and decoded by a pool of worker threads. This is where most of the time is spent,
+ * the parser only copies the decoded entities into the {@code OSMDatabase}.
+ * <p>
+ * The file is parsed in three phases, see {@link OsmParserPhase}. In the first phase all blocks
+ * are decoded, and the phases each block is needed in are recorded. In the next phases the blocks
+ * which are not needed are skipped without decoding them. PBF files are usually sorted with the
+ * nodes first, then the ways and then the relations, so each block is decoded about once in total.
+ * <p>
+ * If {@code retainDecodedBlocks} is set, the decoded blocks needed in a later phase are kept in
+ * memory, so the file is only read and decoded once. This uses a lot more memory than caching the
+ * file, since the decoded blocks are several times larger than the compressed data.
+ * <p>
+ * This class is not thread-safe, it should be used by one thread and closed after use.
+ */
+class OsmPbfReader implements AutoCloseable {
+
+  private static final String OSM_HEADER = "OSMHeader";
+  private static final String OSM_DATA = "OSMData";
+  private static final int MAX_HEADER_SIZE = 64 * 1024;
+  private static final int MAX_BLOB_SIZE = 32 * 1024 * 1024;
+
+  /** The max number of blocks decoded ahead of the parser, for each thread. */
+  private static final int BLOCKS_IN_FLIGHT_PER_THREAD = 2;
+
+  @Nullable
+  private final ExecutorService executor;
+
+  private final int maxBlocksInFlight;
+  private final boolean retainDecodedBlocks;
+
+  /** The phases each block of the file is needed in, set when the first phase is read. */
+  private List<Set<OsmParserPhase>> blockPhases = null;
+
+  /** The decoded blocks needed in the next phases, if they are retained. */
+  private List<DecodedBlock> retainedBlocks = null;
+
+  /**
+   * @param numberOfThreads The number of threads decoding blocks. If 1, the blocks are decoded by
+   *                        the calling thread.
+   */
+  OsmPbfReader(int numberOfThreads, boolean retainDecodedBlocks) {
+    this.executor =
+      numberOfThreads > 1
+        ? Executors.newFixedThreadPool(
+          numberOfThreads,
+          new ThreadFactoryBuilder().setNameFormat("OsmPbfDecoder-%d").setDaemon(true).build()
+        )
+        : null;
+    this.maxBlocksInFlight = BLOCKS_IN_FLIGHT_PER_THREAD * numberOfThreads;
+    this.retainDecodedBlocks = retainDecodedBlocks;
+  }
+
+  /**
+   * Parse all blocks needed in the given phase. The input stream is only opened if the blocks are
+   * not retained from the previous phase.
+   */
+  void readPhase(
+    OsmParserPhase phase,
+    Supplier<InputStream> input,
+    OpenStreetMapParser parser
+  ) throws IOException {
+    parser.setPhase(phase);
+
+    if (retainedBlocks != null) {
+      parseRetainedBlocks(phase, parser);
+      return;
+    }
+    boolean firstPhase = blockPhases == null;
+    if (firstPhase) {
+      blockPhases = new ArrayList<>();
+      if (retainDecodedBlocks) {
+        retainedBlocks = new ArrayList<>();
+      }
+    }
+
+    Deque<Future<DecodedBlock>> inFlight = new ArrayDeque<>();
+    try (var in = new DataInputStream(input.get())) {
+      int blockIndex = 0;
+      RawBlock raw;
+      while ((raw = readRawBlock(in)) != null) {
+        if (!firstPhase && !blockPhases.get(blockIndex++).contains(phase)) {
+          continue;
+        }
+        if (executor == null) {
+          handle(phase, firstPhase, decode(raw), parser);
+          continue;
+        }
+        var block = raw;
+        inFlight.add(executor.submit(() -> decode(block)));
+        if (inFlight.size() >= maxBlocksInFlight) {
+          handle(phase, firstPhase, await(inFlight.poll()), parser);
+        }
+      }
+      while (!inFlight.isEmpty()) {
+        handle(phase, firstPhase, await(inFlight.poll()), parser);
+      }
+    } finally {
+      inFlight.forEach(it -> it.cancel(true));
+    }
+  }
+
+  @Override
+  public void close() {
+    if (executor != null) {
+      executor.shutdownNow();
+    }
+    retainedBlocks = null;
+  }
+
+  private void handle(
+    OsmParserPhase phase,
+    boolean firstPhase,
+    DecodedBlock block,
+    OpenStreetMapParser parser
+  ) {
+    if (firstPhase) {
+      blockPhases.add(block.phases());
+      if (retainedBlocks != null && block.isNeededAfter(phase)) {
+        retainedBlocks.add(block);
+      }
+    }
+    if (block.phases().contains(phase)) {
+      block.parse(parser);
+    }
+  }
+
+  private void parseRetainedBlocks(OsmParserPhase phase, OpenStreetMapParser parser) {
+    List<DecodedBlock> stillNeeded = new ArrayList<>();
+    for (DecodedBlock block : retainedBlocks) {
+      if (block.phases().contains(phase)) {
+        block.parse(parser);
+      }
+      if (block.isNeededAfter(phase)) {
+        stillNeeded.add(block);
+      }
+    }
+    // Release the blocks which are not needed any more
+    retainedBlocks = stillNeeded;
+  }
+
+  /**
+   * Read the next block header and the compressed block data, or return {@code null} at the end
+   * of the file.
+   */
+  @Nullable
+  private static RawBlock readRawBlock(DataInputStream in) throws IOException {
+    int headerSize;
+    try {
+      headerSize = in.readInt();
+    } catch (EOFException e) {
+      return null;
+    }
+    if (headerSize < 0 || headerSize > MAX_HEADER_SIZE) {
+      throw new IOException("Invalid OSM PBF block header size: " + headerSize);
+    }
+    byte[] headerBytes = new byte[headerSize];
+    in.readFully(headerBytes);
+    var header = Fileformat.BlobHeader.parseFrom(headerBytes);
+
+    int blobSize = header.getDatasize();
+    if (blobSize < 0 || blobSize > MAX_BLOB_SIZE) {
+      throw new IOException("Invalid OSM PBF block size: " + blobSize);
+    }
+    byte[] blob = new byte[blobSize];
+    in.readFully(blob);
+    return new RawBlock(header.getType(), blob);
+  }
+
+  /**
+   * Decompress and decode a block. This is called by the worker threads.
+   */
+  private static DecodedBlock decode(RawBlock raw) throws IOException {
+    if (!OSM_HEADER.equals(raw.type()) && !OSM_DATA.equals(raw.type())) {
+      // Unknown block types should be skipped, according to the PBF format specification
+      return DecodedBlock.EMPTY;
+    }
+    ByteString data = uncompress(Fileformat.Blob.parseFrom(raw.blob()));
+
+    if (OSM_HEADER.equals(raw.type())) {
+      return new DecodedBlock(
+        Osmformat.HeaderBlock.parseFrom(data),
+        null,
+        EnumSet.of(OsmParserPhase.Relations)
+      );
+    }
+    var block = Osmformat.PrimitiveBlock.parseFrom(data);
+    return new DecodedBlock(null, block, phasesOf(block));
+  }
+
+  private static ByteString uncompress(Fileformat.Blob blob) throws IOException {
+    if (blob.hasRaw()) {
+      return blob.getRaw();
+    }
+    if (!blob.hasZlibData()) {
+      throw new IOException("Unsupported OSM PBF block compression, only zlib is supported.");
+    }
+    var inflater = new Inflater();
+    try {
+      inflater.setInput(blob.getZlibData().toByteArray());
+      byte[] data = new byte[blob.getRawSize()];
+      int size = inflater.inflate(data);
+      if (size != data.length || !inflater.finished()) {
+        throw new IOException("Invalid OSM PBF block, the uncompressed size does not match.");
+      }
+      return ByteString.copyFrom(data);
+    } catch (DataFormatException e) {
+      throw new IOException("Invalid OSM PBF block, " + e.getMessage(), e);
+    } finally {
+      inflater.end();
+    }
+  }
+
+  /**
+   * The phases a block is needed in. A block may contain more than one type of entities.
+   */
+  private static Set<OsmParserPhase> phasesOf(Osmformat.PrimitiveBlock block) {
+    Set<OsmParserPhase> phases = EnumSet.noneOf(OsmParserPhase.class);
+    for (Osmformat.PrimitiveGroup group : block.getPrimitivegroupList()) {
+      if (group.getRelationsCount() > 0) {
+        phases.add(OsmParserPhase.Relations);
+      }
+      if (group.getWaysCount() > 0) {
+        phases.add(OsmParserPhase.Ways);
+      }
+      if (group.hasDense() || group.getNodesCount() > 0) {
+        phases.add(OsmParserPhase.Nodes);
+      }
+    }
+    return phases;
+  }
+
+  private static DecodedBlock await(Future<DecodedBlock> future) throws IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while reading OSM PBF file", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException io) {
+        throw io;
+      }
+      if (e.getCause() instanceof RuntimeException re) {
+        throw re;
+      }
+      throw new IOException(e.getCause());
+    }
+  }
+
+  private record RawBlock(String type, byte[] blob) {}
+
+  private record DecodedBlock(
+    @Nullable Osmformat.HeaderBlock header,
+    @Nullable Osmformat.PrimitiveBlock data,
+    Set<OsmParserPhase> phases
+  ) {
+    static final DecodedBlock EMPTY = new DecodedBlock(null, null, Set.of());
+
+    void parse(OpenStreetMapParser parser) {
+      if (header != null) {
+        parser.parse(header);
+      } else if (data != null) {
+        parser.parse(data);
+      }
+    }
+
+    boolean isNeededAfter(OsmParserPhase phase) {
+      return phases.stream().anyMatch(it -> it.ordinal() > phase.ordinal());
+    }
+  }
+}
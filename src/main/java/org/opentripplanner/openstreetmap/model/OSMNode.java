@@ -67,6 +67,23 @@ public class OSMNode extends OSMWithTags {
     );
   }
 
+  /**
+   * Nodes are equal if they have the same id. The graph build may create more than one instance
+   * of the same node, see {@code OsmNodeStore}.
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    return o instanceof OSMNode other && id == other.id;
+  }
+
+  @Override
+  public int hashCode() {
+    return Long.hashCode(id);
+  }
+
   @Override
   public String getOpenStreetMapLink() {
     return String.format("https://www.openstreetmap.org/node/%d", getId());
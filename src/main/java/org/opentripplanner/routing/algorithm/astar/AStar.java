@@ -42,9 +42,11 @@ public class AStar {
   private final Duration timeout;
 
   private final ShortestPathTree spt;
-  private final BinHeap<State> pq;
   private final List<State> targetAcceptedStates;
 
+  /** The queue is borrowed from the thread, and returned when the search is complete. */
+  private BinHeap<State> pq;
+
   private State u;
   private int nVisited;
 
@@ -71,8 +73,7 @@ public class AStar {
 
     this.spt = new ShortestPathTree(dominanceFunction);
 
-    // Initialized with a reasonable size, see #4445
-    this.pq = new BinHeap<>(1000);
+    this.pq = StateQueuePool.acquire();
     this.nVisited = 0;
     this.targetAcceptedStates = new ArrayList<>();
 
@@ -177,6 +178,19 @@ public class AStar {
   }
 
   private void runSearch() {
+    if (pq == null) {
+      // The search is already done
+      return;
+    }
+    try {
+      search();
+    } finally {
+      StateQueuePool.release(pq);
+      pq = null;
+    }
+  }
+
+  private void search() {
     long abortTime = DateUtils.absoluteTimeout(timeout);
 
     /* the core of the A* algorithm */
@@ -57,10 +57,14 @@ public class AStarBuilder {
   }
 
   public static AStarBuilder oneToOneMaxDuration(Duration maxDuration) {
-    return new AStarBuilder(
-      new EuclideanRemainingWeightHeuristic(),
-      new DurationSkipEdgeStrategy(maxDuration)
-    );
+    return oneToOneMaxDuration(maxDuration, new EuclideanRemainingWeightHeuristic());
+  }
+
+  public static AStarBuilder oneToOneMaxDuration(
+    Duration maxDuration,
+    RemainingWeightHeuristic heuristic
+  ) {
+    return new AStarBuilder(heuristic, new DurationSkipEdgeStrategy(maxDuration));
   }
 
   public static AStarBuilder allDirectionsMaxDuration(Duration maxDuration) {
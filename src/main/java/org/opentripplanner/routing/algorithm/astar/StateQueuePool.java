@@ -0,0 +1,69 @@
+package org.opentripplanner.routing.algorithm.astar;
+
+import org.opentripplanner.common.pqueue.BinHeap;
+import org.opentripplanner.routing.core.State;
+
+/**
+ * Keep one A* priority queue per thread, so repeated street searches on the same worker thread
+ * (access, egress, direct and flex) reuse the queue arrays instead of allocating new ones for
+ * every search.
+ * <p>
+ * The queue is handed out to one search at the time. If a search is started while another search
+ * on the same thread is still using the queue, a new queue is created for it. Queues that grew
+ * larger than a typical street search are not kept, to avoid holding on to a lot of memory in
+ * every thread.
+ */
+final class StateQueuePool {
+
+  /** Initialized with a reasonable size, see #4445 */
+  static final int INITIAL_CAPACITY = 1000;
+
+  /**
+   * Queues with a larger capacity than this are dropped after use, instead of being kept for
+   * reuse by the thread. The queue of a typical access, egress or direct street search stays well
+   * below this, and a retained queue of this size uses about 400 KB.
+   */
+  static final int MAX_RETAINED_CAPACITY = 32_000;
+
+  private static final ThreadLocal<StateQueuePool> POOL = ThreadLocal.withInitial(
+    StateQueuePool::new
+  );
+
+  private BinHeap<State> queue = null;
+
+  private StateQueuePool() {}
+
+  /**
+   * Take the queue of the current thread, or create a new queue if it is in use. Return the queue
+   * with {@link #release(BinHeap)} when the search is done.
+   */
+  static BinHeap<State> acquire() {
+    return POOL.get().take();
+  }
+
+  /**
+   * Return the queue to the current thread for reuse. The queue is cleared, and must not be used
+   * by the caller after this call.
+   */
+  static void release(BinHeap<State> queue) {
+    POOL.get().giveBack(queue);
+  }
+
+  private BinHeap<State> take() {
+    if (queue == null) {
+      return new BinHeap<>(INITIAL_CAPACITY);
+    }
+    var q = queue;
+    queue = null;
+    return q;
+  }
+
+  private void giveBack(BinHeap<State> q) {
+    // Always release the states, in case the caller still holds on to the queue
+    q.clear();
+    if (queue != null || q.getCapacity() > MAX_RETAINED_CAPACITY) {
+      return;
+    }
+    queue = q;
+  }
+}
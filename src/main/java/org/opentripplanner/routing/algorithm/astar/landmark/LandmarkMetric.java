@@ -0,0 +1,106 @@
+package org.opentripplanner.routing.algorithm.astar.landmark;
+
+import javax.annotation.Nullable;
+import org.opentripplanner.routing.api.request.StreetMode;
+import org.opentripplanner.routing.api.request.preference.RoutingPreferences;
+import org.opentripplanner.routing.core.TraverseMode;
+import org.opentripplanner.routing.edgetype.StreetEdge;
+import org.opentripplanner.routing.edgetype.StreetTraversalPermission;
+import org.opentripplanner.routing.graph.Edge;
+
+/**
+ * The metric used to calculate the landmark distances for a street mode. The cost of an edge is a
+ * lower bound on the weight of traversing it, divided by a factor which only depends on the
+ * request, see {@link #weightPerUnit(RoutingPreferences)}. This make it possible to compute the
+ * distances when the graph is built, and use them for all requests.
+ * <p>
+ * Edges which are not street edges get the cost zero, this is always a valid lower bound.
+ */
+public enum LandmarkMetric {
+  /**
+   * The driving time in seconds, using the car speed of each street edge.
+   */
+  CAR {
+    @Override
+    double cost(StreetEdge edge) {
+      if (!edge.getPermission().allows(TraverseMode.CAR) || edge.getCarSpeed() <= 0) {
+        return NOT_TRAVERSABLE;
+      }
+      return edge.getDistanceMeters() / edge.getCarSpeed();
+    }
+
+    @Override
+    public double weightPerUnit(RoutingPreferences preferences) {
+      return preferences.car().reluctance() / SCALE;
+    }
+  },
+
+  /**
+   * The shortest of the distances in meters used to calculate the bicycle weight of a street edge,
+   * for all optimize types. Walking the bicycle is included.
+   */
+  BICYCLE {
+    @Override
+    double cost(StreetEdge edge) {
+      StreetTraversalPermission permission = edge.getPermission();
+      if (!permission.allows(TraverseMode.BICYCLE) && !permission.allows(TraverseMode.WALK)) {
+        return NOT_TRAVERSABLE;
+      }
+      double d = Math.min(edge.getDistanceMeters(), edge.getEffectiveBikeDistance());
+      d = Math.min(d, edge.getEffectiveBikeDistanceForWorkCost());
+      d = Math.min(d, edge.getEffectiveBicycleSafetyDistance());
+      // Greenways are treated as even safer than they really are
+      d = Math.min(d, GREENWAY_FACTOR * edge.getBicycleSafetyFactor() * edge.getDistanceMeters());
+      d = Math.min(d, edge.getEffectiveWalkDistance());
+      d = Math.min(d, edge.getEffectiveWalkSafetyDistance());
+      return Math.max(d, 0.0);
+    }
+
+    @Override
+    public double weightPerUnit(RoutingPreferences preferences) {
+      var bike = preferences.bike();
+      var walk = preferences.walk();
+      double min = bike.reluctance() / bike.speed();
+      min = Math.min(min, bike.walkingReluctance() / bike.walkingSpeed());
+      min = Math.min(min, walk.reluctance() / walk.speed());
+      return min / SCALE;
+    }
+  };
+
+  /**
+   * The distances are stored as integers, in units of {@code 1/SCALE} of the metric.
+   */
+  public static final int SCALE = 10;
+
+  static final double NOT_TRAVERSABLE = -1.0;
+
+  private static final double GREENWAY_FACTOR = 0.66;
+
+  /**
+   * Return the metric to use for the given mode, or {@code null} if landmarks are not supported for
+   * the mode. Modes which change the traverse mode during the search, like rental and
+   * park-and-ride, are not supported.
+   */
+  @Nullable
+  public static LandmarkMetric of(StreetMode mode) {
+    return switch (mode) {
+      case CAR -> CAR;
+      case BIKE -> BICYCLE;
+      default -> null;
+    };
+  }
+
+  /**
+   * The cost of traversing the given edge, or a negative value if the edge can not be traversed.
+   */
+  public double cost(Edge edge) {
+    return edge instanceof StreetEdge streetEdge ? cost(streetEdge) : 0.0;
+  }
+
+  /**
+   * A factor to convert a landmark distance into a lower bound on the weight for a request.
+   */
+  public abstract double weightPerUnit(RoutingPreferences preferences);
+
+  abstract double cost(StreetEdge edge);
+}
@@ -0,0 +1,103 @@
+package org.opentripplanner.routing.algorithm.astar.landmark;
+
+import gnu.trove.map.TObjectIntMap;
+import gnu.trove.map.hash.TObjectIntHashMap;
+import java.io.Serializable;
+import org.opentripplanner.routing.graph.Vertex;
+
+/**
+ * The distances from and to each landmark for all vertices in the graph, for one
+ * {@link LandmarkMetric}. The distances are stored in units of {@code 1/LandmarkMetric.SCALE},
+ * rounded down.
+ * <p>
+ * The table is immutable. Vertices added to the graph after the table is created, like the
+ * temporary vertices created for each request, are not in the table.
+ */
+public class LandmarkTable implements Serializable {
+
+  /** The distance to and from vertices not connected to a landmark. */
+  public static final int UNREACHED = Integer.MAX_VALUE;
+
+  /** The index of vertices not in this table. */
+  public static final int NOT_IN_TABLE = -1;
+
+  private final LandmarkMetric metric;
+
+  private final Vertex[] landmarks;
+
+  /** All vertices in the table, a vertex is identified by its position in this array. */
+  private final Vertex[] vertices;
+
+  /** The distance from each landmark to each vertex, by landmark and vertex index. */
+  private final int[][] fromLandmark;
+
+  /** The distance from each vertex to each landmark, by landmark and vertex index. */
+  private final int[][] toLandmark;
+
+  /** The index is not serialized, it is created on first use. */
+  private transient volatile TObjectIntMap<Vertex> index;
+
+  LandmarkTable(
+    LandmarkMetric metric,
+    Vertex[] landmarks,
+    Vertex[] vertices,
+    int[][] fromLandmark,
+    int[][] toLandmark
+  ) {
+    this.metric = metric;
+    this.landmarks = landmarks;
+    this.vertices = vertices;
+    this.fromLandmark = fromLandmark;
+    this.toLandmark = toLandmark;
+  }
+
+  public LandmarkMetric metric() {
+    return metric;
+  }
+
+  public int numberOfLandmarks() {
+    return landmarks.length;
+  }
+
+  public Vertex landmark(int landmark) {
+    return landmarks[landmark];
+  }
+
+  /**
+   * Return the index of the given vertex, or {@link #NOT_IN_TABLE}.
+   */
+  public int indexOf(Vertex vertex) {
+    return index().get(vertex);
+  }
+
+  /**
+   * The distance from the landmark to the vertex with the given index, or {@link #UNREACHED}.
+   */
+  public int fromLandmark(int landmark, int vertexIndex) {
+    return fromLandmark[landmark][vertexIndex];
+  }
+
+  /**
+   * The distance from the vertex with the given index to the landmark, or {@link #UNREACHED}.
+   */
+  public int toLandmark(int landmark, int vertexIndex) {
+    return toLandmark[landmark][vertexIndex];
+  }
+
+  private TObjectIntMap<Vertex> index() {
+    var result = index;
+    if (result == null) {
+      synchronized (this) {
+        result = index;
+        if (result == null) {
+          result = new TObjectIntHashMap<>(vertices.length, 0.5f, NOT_IN_TABLE);
+          for (int i = 0; i < vertices.length; ++i) {
+            result.put(vertices[i], i);
+          }
+          index = result;
+        }
+      }
+    }
+    return result;
+  }
+}
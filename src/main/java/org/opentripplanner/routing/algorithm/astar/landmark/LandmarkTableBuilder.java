@@ -0,0 +1,235 @@
+package org.opentripplanner.routing.algorithm.astar.landmark;
+
+import gnu.trove.map.TObjectIntMap;
+import gnu.trove.map.hash.TObjectIntHashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import org.opentripplanner.common.pqueue.IntMinHeap;
+import org.opentripplanner.routing.graph.Edge;
+import org.opentripplanner.routing.graph.Vertex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Select landmarks and calculate the distances from and to each landmark for all vertices, using
+ * the given {@link LandmarkMetric}.
+ * <p>
+ * The landmarks are selected with the "farthest" strategy: The first landmark is the vertex
+ * farthest away from the center of the graph, and each following landmark is the vertex farthest
+ * away from all landmarks selected so far. This places the landmarks at the edge of the graph,
+ * which give good lower bounds for most searches.
+ * <p>
+ * The edges are copied into compact arrays before the searches are done, so each shortest path
+ * search is a simple Dijkstra over primitive arrays.
+ */
+public class LandmarkTableBuilder {
+
+  private static final Logger LOG = LoggerFactory.getLogger(LandmarkTableBuilder.class);
+
+  private final LandmarkMetric metric;
+  private final Vertex[] vertices;
+
+  /** Outgoing edges of vertex {@code i} are at {@code [outStart[i], outStart[i+1])} */
+  private final int[] outStart;
+  private final int[] outVertex;
+  private final double[] outCost;
+
+  /** Incoming edges of vertex {@code i} are at {@code [inStart[i], inStart[i+1])} */
+  private final int[] inStart;
+  private final int[] inVertex;
+  private final double[] inCost;
+
+  public LandmarkTableBuilder(Collection<Vertex> vertices, LandmarkMetric metric) {
+    this.metric = metric;
+    this.vertices = vertices.toArray(Vertex[]::new);
+
+    int n = this.vertices.length;
+    TObjectIntMap<Vertex> index = new TObjectIntHashMap<>(n, 0.5f, -1);
+    for (int i = 0; i < n; ++i) {
+      index.put(this.vertices[i], i);
+    }
+
+    // Count the traversable edges and their end vertices
+    this.outStart = new int[n + 1];
+    this.inStart = new int[n + 1];
+    int nEdges = 0;
+    for (int i = 0; i < n; ++i) {
+      for (Edge e : this.vertices[i].getOutgoing()) {
+        int to = index.get(e.getToVertex());
+        if (to != -1 && metric.cost(e) >= 0) {
+          ++outStart[i + 1];
+          ++inStart[to + 1];
+          ++nEdges;
+        }
+      }
+    }
+    for (int i = 0; i < n; ++i) {
+      outStart[i + 1] += outStart[i];
+      inStart[i + 1] += inStart[i];
+    }
+
+    this.outVertex = new int[nEdges];
+    this.outCost = new double[nEdges];
+    this.inVertex = new int[nEdges];
+    this.inCost = new double[nEdges];
+
+    int[] outPos = Arrays.copyOf(outStart, n);
+    int[] inPos = Arrays.copyOf(inStart, n);
+    for (int i = 0; i < n; ++i) {
+      for (Edge e : this.vertices[i].getOutgoing()) {
+        int to = index.get(e.getToVertex());
+        double cost = metric.cost(e);
+        if (to != -1 && cost >= 0) {
+          outVertex[outPos[i]] = to;
+          outCost[outPos[i]++] = cost;
+          inVertex[inPos[to]] = i;
+          inCost[inPos[to]++] = cost;
+        }
+      }
+    }
+  }
+
+  /**
+   * Select the landmarks and calculate the distances. Fewer landmarks than requested are selected
+   * if the graph is small.
+   */
+  public LandmarkTable build(int numberOfLandmarks) {
+    List<Integer> landmarks = new ArrayList<>();
+    List<int[]> fromLandmark = new ArrayList<>();
+    List<int[]> toLandmark = new ArrayList<>();
+
+    if (vertices.length > 0 && numberOfLandmarks > 0) {
+      // The first landmark is the vertex farthest away from the center
+      double[] minDistance = shortestPaths(vertexClosestToCenter(), true);
+      int next = farthest(minDistance);
+
+      while (next != -1 && landmarks.size() < numberOfLandmarks) {
+        double[] from = shortestPaths(next, true);
+        double[] to = shortestPaths(next, false);
+
+        landmarks.add(next);
+        fromLandmark.add(toTableValues(from));
+        toLandmark.add(toTableValues(to));
+
+        if (landmarks.size() == 1) {
+          minDistance = from;
+        } else {
+          for (int i = 0; i < minDistance.length; ++i) {
+            minDistance[i] = Math.min(minDistance[i], from[i]);
+          }
+        }
+        next = farthest(minDistance);
+      }
+    }
+
+    LOG.info(
+      "Selected {} landmarks for {}, the graph has {} vertices and {} edges.",
+      landmarks.size(),
+      metric,
+      vertices.length,
+      outVertex.length
+    );
+
+    return new LandmarkTable(
+      metric,
+      landmarks.stream().map(i -> vertices[i]).toArray(Vertex[]::new),
+      vertices,
+      fromLandmark.toArray(int[][]::new),
+      toLandmark.toArray(int[][]::new)
+    );
+  }
+
+  /**
+   * Calculate the shortest distance from(forward) or to(reverse) the given vertex for all
+   * vertices. Vertices not reached have the distance {@link Double#POSITIVE_INFINITY}.
+   */
+  private double[] shortestPaths(int source, boolean forward) {
+    final int[] start = forward ? outStart : inStart;
+    final int[] adjacent = forward ? outVertex : inVertex;
+    final double[] cost = forward ? outCost : inCost;
+
+    double[] distance = new double[vertices.length];
+    Arrays.fill(distance, Double.POSITIVE_INFINITY);
+    distance[source] = 0.0;
+
+    var queue = new IntMinHeap(1024);
+    queue.insert(source, 0.0);
+
+    while (!queue.isEmpty()) {
+      double d = queue.peekKey();
+      int v = queue.poll();
+
+      // The vertex may be in the queue several times, skip if already settled with a lower distance
+      if (d > distance[v]) {
+        continue;
+      }
+      for (int i = start[v]; i < start[v + 1]; ++i) {
+        int u = adjacent[i];
+        double du = d + cost[i];
+        if (du < distance[u]) {
+          distance[u] = du;
+          queue.insert(u, du);
+        }
+      }
+    }
+    return distance;
+  }
+
+  /**
+   * Return the vertex with the largest finite distance, or {@code -1} if all reached vertices
+   * have the distance zero.
+   */
+  private static int farthest(double[] distance) {
+    int result = -1;
+    double max = 0.0;
+    for (int i = 0; i < distance.length; ++i) {
+      if (distance[i] > max && distance[i] != Double.POSITIVE_INFINITY) {
+        max = distance[i];
+        result = i;
+      }
+    }
+    return result;
+  }
+
+  private int vertexClosestToCenter() {
+    double lat = 0.0;
+    double lon = 0.0;
+    for (Vertex v : vertices) {
+      lat += v.getLat();
+      lon += v.getLon();
+    }
+    lat /= vertices.length;
+    lon /= vertices.length;
+
+    int result = 0;
+    double min = Double.MAX_VALUE;
+    for (int i = 0; i < vertices.length; ++i) {
+      // Only vertices with edges are relevant, the rest are not part of the network
+      if (outStart[i] == outStart[i + 1]) {
+        continue;
+      }
+      double dLat = vertices[i].getLat() - lat;
+      double dLon = vertices[i].getLon() - lon;
+      double d = dLat * dLat + dLon * dLon;
+      if (d < min) {
+        min = d;
+        result = i;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Convert to the units used in the table, rounding down.
+   */
+  private static int[] toTableValues(double[] distance) {
+    int[] result = new int[distance.length];
+    for (int i = 0; i < distance.length; ++i) {
+      double d = Math.floor(distance[i] * LandmarkMetric.SCALE);
+      result[i] = d < LandmarkTable.UNREACHED ? (int) d : LandmarkTable.UNREACHED;
+    }
+    return result;
+  }
+}
@@ -0,0 +1,31 @@
+package org.opentripplanner.routing.algorithm.astar.landmark;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/**
+ * The landmark tables of a graph, one for each {@link LandmarkMetric}. The tables are created by
+ * the graph builder, see {@link LandmarkTableBuilder}, and used by the
+ * {@link org.opentripplanner.routing.algorithm.astar.strategies.LandmarkRemainingWeightHeuristic}.
+ */
+public class Landmarks implements Serializable {
+
+  private final Map<LandmarkMetric, LandmarkTable> tables = new EnumMap<>(LandmarkMetric.class);
+
+  public Landmarks(Collection<LandmarkTable> tables) {
+    for (LandmarkTable table : tables) {
+      this.tables.put(table.metric(), table);
+    }
+  }
+
+  /**
+   * Return the table for the given metric, or {@code null} if no table exist.
+   */
+  @Nullable
+  public LandmarkTable table(LandmarkMetric metric) {
+    return tables.get(metric);
+  }
+}
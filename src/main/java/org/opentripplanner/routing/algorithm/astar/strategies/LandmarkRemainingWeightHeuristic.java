@@ -0,0 +1,224 @@
+package org.opentripplanner.routing.algorithm.astar.strategies;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import javax.annotation.Nullable;
+import org.opentripplanner.routing.algorithm.astar.landmark.LandmarkMetric;
+import org.opentripplanner.routing.algorithm.astar.landmark.LandmarkTable;
+import org.opentripplanner.routing.algorithm.astar.landmark.Landmarks;
+import org.opentripplanner.routing.api.request.RouteRequest;
+import org.opentripplanner.routing.api.request.StreetMode;
+import org.opentripplanner.routing.core.State;
+import org.opentripplanner.routing.graph.Edge;
+import org.opentripplanner.routing.graph.Vertex;
+
+/**
+ * A remaining weight heuristic using precomputed distances to and from a set of landmarks (the
+ * ALT algorithm). By the triangle inequality the distance from a vertex {@code v} to the target
+ * {@code t} is at least {@code d(L,t) - d(L,v)} and {@code d(v,L) - d(t,L)} for every landmark
+ * {@code L}. The largest of these bounds is usually much closer to the real remaining weight than
+ * the Euclidean estimate, so fewer states are explored.
+ * <p>
+ * The landmark estimate is combined with the {@link EuclideanRemainingWeightHeuristic}, and the
+ * Euclidean estimate is used alone for street modes without landmark distances, for vertices which
+ * are not in the landmark table and if the area around the targets not in the table is too large.
+ * <p>
+ * The targets are normally temporary vertices, which are not in the landmark table. Their
+ * distances are bounded by searching from each target until vertices in the table are reached.
+ */
+public class LandmarkRemainingWeightHeuristic implements RemainingWeightHeuristic {
+
+  /**
+   * Use the Euclidean estimate only if more vertices than this, not in the landmark table, are
+   * found around the targets.
+   */
+  private static final int MAX_EXPLORED_VERTICES = 10_000;
+
+  private static final int UNKNOWN = LandmarkTable.UNREACHED;
+
+  private final Landmarks landmarks;
+
+  private final RemainingWeightHeuristic euclidean = new EuclideanRemainingWeightHeuristic();
+
+  /** The table for the current search, or {@code null} if landmarks are not used. */
+  private LandmarkTable table;
+
+  private boolean arriveBy;
+
+  private double weightPerUnit;
+
+  /**
+   * A lower bound of the distance from each landmark to the targets, or from the targets to each
+   * landmark in an arriveBy search.
+   */
+  private int[] targetLowerBound;
+
+  /**
+   * An upper bound of the distance from the targets to each landmark, or from each landmark to
+   * the targets in an arriveBy search.
+   */
+  private int[] targetUpperBound;
+
+  public LandmarkRemainingWeightHeuristic(Landmarks landmarks) {
+    this.landmarks = landmarks;
+  }
+
+  @Override
+  public void initialize(
+    RouteRequest request,
+    StreetMode streetMode,
+    Set<Vertex> fromVertices,
+    Set<Vertex> toVertices
+  ) {
+    euclidean.initialize(request, streetMode, fromVertices, toVertices);
+    table = null;
+
+    LandmarkMetric metric = LandmarkMetric.of(streetMode);
+    LandmarkTable table = metric == null ? null : landmarks.table(metric);
+    if (table == null || table.numberOfLandmarks() == 0 || toVertices.isEmpty()) {
+      return;
+    }
+
+    this.arriveBy = request.arriveBy();
+    this.weightPerUnit = metric.weightPerUnit(request.preferences());
+
+    int n = table.numberOfLandmarks();
+    int[] lower = new int[n];
+    int[] upper = new int[n];
+    Arrays.fill(lower, UNKNOWN);
+    Arrays.fill(upper, 0);
+
+    for (Vertex target : toVertices) {
+      // All paths to the target pass through one of these vertices
+      var entries = searchUntilInTable(target, arriveBy, metric, table);
+      // There is a path from the target to each of these vertices
+      var exits = searchUntilInTable(target, !arriveBy, metric, table);
+
+      if (entries == null || exits == null) {
+        return;
+      }
+      for (int l = 0; l < n; ++l) {
+        int min = UNKNOWN;
+        for (int i : entries.keySet()) {
+          min = Math.min(min, distanceA(table, l, i));
+        }
+        lower[l] = Math.min(lower[l], min);
+
+        int up = UNKNOWN;
+        for (var it : exits.entrySet()) {
+          int b = distanceB(table, l, it.getKey());
+          if (b != UNKNOWN) {
+            long d = (long) Math.ceil(it.getValue() * LandmarkMetric.SCALE) + b;
+            up = (int) Math.min(up, d);
+          }
+        }
+        upper[l] = Math.max(upper[l], up);
+      }
+    }
+
+    this.targetLowerBound = lower;
+    this.targetUpperBound = upper;
+    this.table = table;
+  }
+
+  @Override
+  public double estimateRemainingWeight(State s) {
+    double estimate = euclidean.estimateRemainingWeight(s);
+    if (table == null) {
+      return estimate;
+    }
+    int index = table.indexOf(s.getVertex());
+    if (index == LandmarkTable.NOT_IN_TABLE) {
+      return estimate;
+    }
+
+    // Subtract one from each bound, to account for the table values being rounded down
+    long max = 0;
+    for (int l = 0; l < targetLowerBound.length; ++l) {
+      int a = distanceA(table, l, index);
+      if (a != UNKNOWN && targetLowerBound[l] != UNKNOWN) {
+        max = Math.max(max, (long) targetLowerBound[l] - a - 1);
+      }
+      int b = distanceB(table, l, index);
+      if (b != UNKNOWN && targetUpperBound[l] != UNKNOWN) {
+        max = Math.max(max, (long) b - targetUpperBound[l] - 1);
+      }
+    }
+    return Math.max(estimate, max * weightPerUnit);
+  }
+
+  /**
+   * The distance used for the lower bound of the targets: from the landmark in a depart-after
+   * search, and to the landmark in an arriveBy search.
+   */
+  private int distanceA(LandmarkTable table, int landmark, int index) {
+    return arriveBy ? table.toLandmark(landmark, index) : table.fromLandmark(landmark, index);
+  }
+
+  /**
+   * The distance used for the upper bound of the targets, the opposite direction of
+   * {@link #distanceA(LandmarkTable, int, int)}.
+   */
+  private int distanceB(LandmarkTable table, int landmark, int index) {
+    return arriveBy ? table.fromLandmark(landmark, index) : table.toLandmark(landmark, index);
+  }
+
+  /**
+   * Search from the given vertex, following the outgoing or the incoming edges, until vertices in
+   * the table are reached. Return the shortest distance to each of them, by vertex index, or
+   * {@code null} if too many vertices not in the table are explored.
+   */
+  @Nullable
+  private static Map<Integer, Double> searchUntilInTable(
+    Vertex source,
+    boolean outgoing,
+    LandmarkMetric metric,
+    LandmarkTable table
+  ) {
+    Map<Integer, Double> result = new HashMap<>();
+    Map<Vertex, Double> distance = new HashMap<>();
+    PriorityQueue<Visit> queue = new PriorityQueue<>();
+    distance.put(source, 0.0);
+    queue.add(new Visit(source, 0.0));
+    int explored = 0;
+
+    while (!queue.isEmpty()) {
+      Visit visit = queue.poll();
+      if (visit.distance > distance.get(visit.vertex)) {
+        continue;
+      }
+      int index = table.indexOf(visit.vertex);
+      if (index != LandmarkTable.NOT_IN_TABLE) {
+        result.put(index, visit.distance);
+        continue;
+      }
+      if (++explored > MAX_EXPLORED_VERTICES) {
+        return null;
+      }
+      for (Edge e : outgoing ? visit.vertex.getOutgoing() : visit.vertex.getIncoming()) {
+        double cost = metric.cost(e);
+        if (cost < 0) {
+          continue;
+        }
+        Vertex next = outgoing ? e.getToVertex() : e.getFromVertex();
+        double d = visit.distance + cost;
+        Double current = distance.get(next);
+        if (current == null || d < current) {
+          distance.put(next, d);
+          queue.add(new Visit(next, d));
+        }
+      }
+    }
+    return result;
+  }
+
+  private record Visit(Vertex vertex, double distance) implements Comparable<Visit> {
+    @Override
+    public int compareTo(Visit o) {
+      return Double.compare(distance, o.distance);
+    }
+  }
+}
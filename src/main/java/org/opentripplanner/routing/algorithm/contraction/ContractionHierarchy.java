@@ -0,0 +1,361 @@
+package org.opentripplanner.routing.algorithm.contraction;
+
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.map.TIntIntMap;
+import gnu.trove.map.TObjectIntMap;
+import gnu.trove.map.hash.TIntIntHashMap;
+import gnu.trove.map.hash.TObjectIntHashMap;
+import java.io.Serializable;
+import javax.annotation.Nullable;
+import org.opentripplanner.common.pqueue.IntMinHeap;
+import org.opentripplanner.routing.api.request.preference.RoutingPreferences;
+import org.opentripplanner.routing.core.intersection_model.DrivingDirection;
+import org.opentripplanner.routing.core.intersection_model.IntersectionTraversalModel;
+import org.opentripplanner.routing.edgetype.StreetEdge;
+
+/**
+ * A contraction hierarchy for driving. The nodes of the hierarchy are the street edges which can be
+ * driven, and the arcs are the allowed turns between them. Using this "edge-based" graph makes it
+ * possible to include turn restrictions and turn costs, which depend on both the edge driven from
+ * and the edge driven onto.
+ * <p>
+ * The weight of an arc is the weight of the turn plus the weight of driving the edge turned onto,
+ * calculated with the preferences given when the hierarchy is built. The weights are stored as
+ * integers in units of {@code 1/WEIGHT_SCALE}. A shortcut arc replaces two arcs through a node
+ * with a lower rank, and keeps a reference to both so the path can be unpacked.
+ * <p>
+ * The hierarchy is immutable and can be used by many requests at the same time.
+ */
+public class ContractionHierarchy implements Serializable {
+
+  public static final int WEIGHT_SCALE = 1000;
+
+  /** The node index of edges which are not part of the hierarchy. */
+  public static final int NOT_IN_HIERARCHY = -1;
+
+  static final int NO_ARC = -1;
+
+  private static final int INFINITY = Integer.MAX_VALUE;
+
+  /** The street edge of each node. */
+  private final StreetEdge[] edges;
+
+  /** The weight of driving the whole street edge of each node. */
+  private final int[] nodeWeight;
+
+  private final int[] arcFrom;
+  private final int[] arcTo;
+  private final int[] arcWeight;
+
+  /** The two arcs replaced by each shortcut, or {@link #NO_ARC} for turn arcs. */
+  private final int[] arcFirst;
+  private final int[] arcSecond;
+
+  /** Arcs from each node to nodes with a higher rank, at {@code [upStart[n], upStart[n+1])}. */
+  private final int[] upStart;
+  private final int[] upArcs;
+
+  /** Arcs to each node from nodes with a higher rank, at {@code [downStart[n], downStart[n+1])}. */
+  private final int[] downStart;
+  private final int[] downArcs;
+
+  private final double carReluctance;
+  private final double turnReluctance;
+  private final IntersectionTraversalModel intersectionTraversalModel;
+  private final DrivingDirection drivingDirection;
+
+  /** The index is not serialized, it is created on first use. */
+  private transient volatile TObjectIntMap<StreetEdge> index;
+
+  ContractionHierarchy(
+    StreetEdge[] edges,
+    int[] nodeWeight,
+    int[] rank,
+    ArcList arcs,
+    RoutingPreferences preferences
+  ) {
+    this.edges = edges;
+    this.nodeWeight = nodeWeight;
+    this.arcFrom = arcs.from.toArray();
+    this.arcTo = arcs.to.toArray();
+    this.arcWeight = arcs.weight.toArray();
+    this.arcFirst = arcs.first.toArray();
+    this.arcSecond = arcs.second.toArray();
+    this.carReluctance = preferences.car().reluctance();
+    this.turnReluctance = preferences.street().turnReluctance();
+    this.intersectionTraversalModel = preferences.street().intersectionTraversalModel();
+    this.drivingDirection = preferences.street().drivingDirection();
+
+    int n = edges.length;
+    this.upStart = new int[n + 1];
+    this.downStart = new int[n + 1];
+    for (int a = 0; a < arcFrom.length; ++a) {
+      if (rank[arcTo[a]] > rank[arcFrom[a]]) {
+        ++upStart[arcFrom[a] + 1];
+      } else {
+        ++downStart[arcTo[a] + 1];
+      }
+    }
+    for (int i = 0; i < n; ++i) {
+      upStart[i + 1] += upStart[i];
+      downStart[i + 1] += downStart[i];
+    }
+    this.upArcs = new int[upStart[n]];
+    this.downArcs = new int[downStart[n]];
+    int[] upPos = upStart.clone();
+    int[] downPos = downStart.clone();
+    for (int a = 0; a < arcFrom.length; ++a) {
+      if (rank[arcTo[a]] > rank[arcFrom[a]]) {
+        upArcs[upPos[arcFrom[a]]++] = a;
+      } else {
+        downArcs[downPos[arcTo[a]]++] = a;
+      }
+    }
+  }
+
+  public int numberOfNodes() {
+    return edges.length;
+  }
+
+  public int numberOfArcs() {
+    return arcFrom.length;
+  }
+
+  public StreetEdge edge(int node) {
+    return edges[node];
+  }
+
+  /**
+   * The weight of driving the whole edge of the given node, in units of {@code 1/WEIGHT_SCALE}.
+   */
+  public int nodeWeight(int node) {
+    return nodeWeight[node];
+  }
+
+  /**
+   * Return the node of the given edge, or {@link #NOT_IN_HIERARCHY}.
+   */
+  public int indexOf(StreetEdge edge) {
+    return index().get(edge);
+  }
+
+  /**
+   * The hierarchy can only be used if the relative weights of driving and turning are the same as
+   * when the hierarchy was built - the absolute values may differ.
+   */
+  public boolean isCompatible(RoutingPreferences preferences) {
+    var street = preferences.street();
+    return (
+      street.intersectionTraversalModel() == intersectionTraversalModel &&
+      street.drivingDirection() == drivingDirection &&
+      Math.abs(
+        preferences.car().reluctance() * turnReluctance - street.turnReluctance() * carReluctance
+      ) <
+      1e-6
+    );
+  }
+
+  /**
+   * The factor to convert the weights of this hierarchy into the weights of a request with the
+   * given preferences.
+   */
+  public double weightFactor(RoutingPreferences preferences) {
+    return preferences.car().reluctance() / (carReluctance * WEIGHT_SCALE);
+  }
+
+  /**
+   * Find the path with the lowest weight from one of the sources to one of the targets. The weight
+   * of a path is the initial weight of the source, plus the weight of the arcs, plus the final
+   * weight of the target. The initial weight should include the weight of driving the source
+   * edge, and the final weight should not include the weight of driving the target edge.
+   *
+   * @param sources The initial weight by source node.
+   * @param targets The final weight by target node, this may be negative, but the sum of the
+   *                weight of the node and the final weight must not be.
+   * @return The nodes of the path, or {@code null} if no path exist.
+   */
+  @Nullable
+  public int[] route(TIntIntMap sources, TIntIntMap targets) {
+    var forward = new Search(sources, upStart, upArcs, true);
+    var backward = new Search(targets, downStart, downArcs, false);
+
+    long best = Long.MAX_VALUE;
+    int meet = -1;
+
+    while (true) {
+      // The weights of a search are never lower than its lowest initial weight, which may be
+      // negative for the targets, so a path through the next node can not be better than this
+      boolean forwardActive = forward.minKey() + backward.minInitialWeight() < best;
+      boolean backwardActive = backward.minKey() + forward.minInitialWeight() < best;
+      if (!forwardActive && !backwardActive) {
+        break;
+      }
+      var search = forwardActive && (!backwardActive || forward.minKey() <= backward.minKey())
+        ? forward
+        : backward;
+      var other = search == forward ? backward : forward;
+
+      int node = search.settleNext();
+      if (node < 0) {
+        continue;
+      }
+      int otherWeight = other.weight(node);
+      if (otherWeight != INFINITY) {
+        long total = (long) search.weight(node) + otherWeight;
+        if (total < best) {
+          best = total;
+          meet = node;
+        }
+      }
+    }
+
+    if (meet < 0) {
+      return null;
+    }
+
+    // The arcs from the source to the meeting node, and from the meeting node to the target
+    TIntArrayList arcs = new TIntArrayList();
+    for (int a = forward.predecessor(meet); a != NO_ARC; a = forward.predecessor(arcFrom[a])) {
+      arcs.add(a);
+    }
+    arcs.reverse();
+    for (int a = backward.predecessor(meet); a != NO_ARC; a = backward.predecessor(arcTo[a])) {
+      arcs.add(a);
+    }
+
+    TIntArrayList nodes = new TIntArrayList();
+    nodes.add(arcs.isEmpty() ? meet : arcFrom[arcs.get(0)]);
+    for (int i = 0; i < arcs.size(); ++i) {
+      unpack(arcs.get(i), nodes);
+    }
+    return nodes.toArray();
+  }
+
+  /**
+   * Add the to-node of each turn arc in the given arc to the list, in order.
+   */
+  private void unpack(int arc, TIntArrayList nodes) {
+    TIntArrayList stack = new TIntArrayList();
+    stack.add(arc);
+    while (!stack.isEmpty()) {
+      int a = stack.removeAt(stack.size() - 1);
+      if (arcFirst[a] == NO_ARC) {
+        nodes.add(arcTo[a]);
+      } else {
+        stack.add(arcSecond[a]);
+        stack.add(arcFirst[a]);
+      }
+    }
+  }
+
+  private TObjectIntMap<StreetEdge> index() {
+    var result = index;
+    if (result == null) {
+      synchronized (this) {
+        result = index;
+        if (result == null) {
+          result = new TObjectIntHashMap<>(edges.length, 0.5f, NOT_IN_HIERARCHY);
+          for (int i = 0; i < edges.length; ++i) {
+            result.put(edges[i], i);
+          }
+          index = result;
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * The arcs of the hierarchy while it is built.
+   */
+  static final class ArcList {
+
+    final TIntArrayList from = new TIntArrayList();
+    final TIntArrayList to = new TIntArrayList();
+    final TIntArrayList weight = new TIntArrayList();
+    final TIntArrayList first = new TIntArrayList();
+    final TIntArrayList second = new TIntArrayList();
+
+    int add(int from, int to, int weight, int first, int second) {
+      this.from.add(from);
+      this.to.add(to);
+      this.weight.add(weight);
+      this.first.add(first);
+      this.second.add(second);
+      return this.from.size() - 1;
+    }
+
+    int size() {
+      return from.size();
+    }
+  }
+
+  /**
+   * One direction of the bidirectional search, only following arcs to nodes with higher rank.
+   */
+  private final class Search {
+
+    private final int[] start;
+    private final int[] arcs;
+    private final boolean forward;
+    private final TIntIntMap weights = new TIntIntHashMap(64, 0.5f, -1, INFINITY);
+    private final TIntIntMap predecessors = new TIntIntHashMap(64, 0.5f, -1, NO_ARC);
+    private final IntMinHeap queue = new IntMinHeap(64);
+    private double minInitialWeight = Double.POSITIVE_INFINITY;
+
+    private Search(TIntIntMap initial, int[] start, int[] arcs, boolean forward) {
+      this.start = start;
+      this.arcs = arcs;
+      this.forward = forward;
+      initial.forEachEntry((node, weight) -> {
+        if (weight < weight(node)) {
+          weights.put(node, weight);
+          queue.insert(node, weight);
+          minInitialWeight = Math.min(minInitialWeight, weight);
+        }
+        return true;
+      });
+    }
+
+    double minKey() {
+      return queue.isEmpty() ? Double.POSITIVE_INFINITY : queue.peekKey();
+    }
+
+    /** The lowest initial weight, or infinity if the search has no initial nodes. */
+    double minInitialWeight() {
+      return minInitialWeight;
+    }
+
+    int weight(int node) {
+      return weights.get(node);
+    }
+
+    int predecessor(int node) {
+      return predecessors.get(node);
+    }
+
+    /**
+     * Settle the next node in the queue and relax its arcs. Return the node, or {@code -1} if the
+     * polled element was an outdated entry.
+     */
+    int settleNext() {
+      double key = queue.peekKey();
+      int node = queue.poll();
+      int w = weights.get(node);
+      if (key > w) {
+        return -1;
+      }
+      for (int i = start[node]; i < start[node + 1]; ++i) {
+        int a = arcs[i];
+        int next = forward ? arcTo[a] : arcFrom[a];
+        long nw = (long) w + arcWeight[a];
+        if (nw < weights.get(next)) {
+          weights.put(next, (int) nw);
+          predecessors.put(next, a);
+          queue.insert(next, nw);
+        }
+      }
+      return node;
+    }
+  }
+}
@@ -0,0 +1,364 @@
+package org.opentripplanner.routing.algorithm.contraction;
+
+import static org.opentripplanner.routing.algorithm.contraction.ContractionHierarchy.NOT_IN_HIERARCHY;
+import static org.opentripplanner.routing.algorithm.contraction.ContractionHierarchy.NO_ARC;
+import static org.opentripplanner.routing.algorithm.contraction.ContractionHierarchy.WEIGHT_SCALE;
+
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.map.TIntIntMap;
+import gnu.trove.map.TObjectIntMap;
+import gnu.trove.map.hash.TIntIntHashMap;
+import gnu.trove.map.hash.TObjectIntHashMap;
+import java.util.Arrays;
+import java.util.Collection;
+import org.opentripplanner.common.TurnRestriction;
+import org.opentripplanner.common.TurnRestrictionType;
+import org.opentripplanner.common.pqueue.IntMinHeap;
+import org.opentripplanner.routing.api.request.preference.RoutingPreferences;
+import org.opentripplanner.routing.core.TraverseMode;
+import org.opentripplanner.routing.core.intersection_model.IntersectionTraversalCalculator;
+import org.opentripplanner.routing.edgetype.StreetEdge;
+import org.opentripplanner.routing.graph.Edge;
+import org.opentripplanner.routing.vertextype.IntersectionVertex;
+import org.opentripplanner.util.logging.ProgressTracker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Build a {@link ContractionHierarchy} for the street edges which can be driven.
+ * <p>
+ * Edges with no-through-traffic for cars are not included, since a path leaving such an area after
+ * entering it is not allowed. The turns which are never allowed when driving are left out: U-turns
+ * and turns prohibited by turn restrictions without a time period. Paths using turn restrictions
+ * with a time period may still be found, and must be validated by traversing the edges of the path.
+ * <p>
+ * The nodes are contracted in the order of the "edge difference", the number of shortcuts added
+ * minus the number of arcs removed, plus the number of contracted neighbours. The priority is
+ * updated lazily. A shortcut is not added if a witness path is found by a limited local search.
+ */
+public class ContractionHierarchyBuilder {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ContractionHierarchyBuilder.class);
+
+  /** The number of nodes to settle in each witness search, before giving up. */
+  private static final int MAX_SETTLED_WITNESS_SEARCH = 500;
+
+  private static final int INFINITY = Integer.MAX_VALUE;
+
+  private final RoutingPreferences preferences;
+  private final IntersectionTraversalCalculator intersectionTraversalCalculator;
+
+  private StreetEdge[] edges;
+  private int[] nodeWeight;
+  private ContractionHierarchy.ArcList arcs;
+  private TIntArrayList[] outArcs;
+  private TIntArrayList[] inArcs;
+  private boolean[] contracted;
+  private int[] contractedNeighbours;
+
+  private int[] witnessWeight;
+  private final TIntArrayList witnessTouched = new TIntArrayList();
+  private final IntMinHeap witnessQueue = new IntMinHeap(256);
+
+  /**
+   * @param preferences The car reluctance, turn reluctance, intersection traversal model and
+   *                    driving direction used to calculate the weights.
+   */
+  public ContractionHierarchyBuilder(RoutingPreferences preferences) {
+    this.preferences = preferences;
+    this.intersectionTraversalCalculator =
+      IntersectionTraversalCalculator.create(
+        preferences.street().intersectionTraversalModel(),
+        preferences.street().drivingDirection()
+      );
+  }
+
+  public ContractionHierarchy build(Collection<StreetEdge> streetEdges) {
+    createNodes(streetEdges);
+    createTurnArcs();
+    int originalArcs = arcs.size();
+
+    int[] rank = contractNodes();
+
+    LOG.info(
+      "Contraction hierarchy built with {} nodes, {} turns and {} shortcuts.",
+      edges.length,
+      originalArcs,
+      arcs.size() - originalArcs
+    );
+    var result = new ContractionHierarchy(edges, nodeWeight, rank, arcs, preferences);
+
+    // Release the memory used while building
+    outArcs = null;
+    inArcs = null;
+    arcs = null;
+    return result;
+  }
+
+  /**
+   * The weight of driving the given edge, before scaling.
+   */
+  static double edgeWeight(StreetEdge edge, RoutingPreferences preferences) {
+    return (edge.getDistanceMeters() / edge.getCarSpeed()) * preferences.car().reluctance();
+  }
+
+  /**
+   * Return {@code true} if the edge can be driven and is not in a no-through-traffic area.
+   */
+  static boolean isDrivable(StreetEdge edge) {
+    return (
+      edge.getPermission().allows(TraverseMode.CAR) &&
+      edge.getCarSpeed() > 0 &&
+      !edge.isStairs() &&
+      !edge.isNoThruTraffic(TraverseMode.CAR)
+    );
+  }
+
+  private void createNodes(Collection<StreetEdge> streetEdges) {
+    edges =
+      streetEdges
+        .stream()
+        .filter(ContractionHierarchyBuilder::isDrivable)
+        .toArray(StreetEdge[]::new);
+    int n = edges.length;
+    nodeWeight = new int[n];
+    outArcs = new TIntArrayList[n];
+    inArcs = new TIntArrayList[n];
+    for (int i = 0; i < n; ++i) {
+      nodeWeight[i] = scale(edgeWeight(edges[i], preferences));
+      outArcs[i] = new TIntArrayList(4);
+      inArcs[i] = new TIntArrayList(4);
+    }
+    contracted = new boolean[n];
+    contractedNeighbours = new int[n];
+    witnessWeight = new int[n];
+    Arrays.fill(witnessWeight, INFINITY);
+    arcs = new ContractionHierarchy.ArcList();
+  }
+
+  private void createTurnArcs() {
+    TObjectIntMap<Edge> index = new TObjectIntHashMap<>(edges.length, 0.5f, NOT_IN_HIERARCHY);
+    for (int i = 0; i < edges.length; ++i) {
+      index.put(edges[i], i);
+    }
+    for (int i = 0; i < edges.length; ++i) {
+      StreetEdge from = edges[i];
+      for (Edge e : from.getToVertex().getOutgoing()) {
+        int j = index.get(e);
+        if (j == NOT_IN_HIERARCHY) {
+          continue;
+        }
+        StreetEdge to = edges[j];
+        if (isTurnAllowed(from, to)) {
+          addArc(i, j, scale(turnWeight(from, to)) + nodeWeight[j], NO_ARC, NO_ARC);
+        }
+      }
+    }
+  }
+
+  private boolean isTurnAllowed(StreetEdge from, StreetEdge to) {
+    if (from.isReverseOf(to) || to.isReverseOf(from)) {
+      return false;
+    }
+    for (TurnRestriction restriction : from.getTurnRestrictions()) {
+      if (restriction.time != null || !restriction.modes.contains(TraverseMode.CAR)) {
+        continue;
+      }
+      boolean isRestrictionTo = to.isEquivalentTo(restriction.to);
+      if (restriction.type == TurnRestrictionType.ONLY_TURN ? !isRestrictionTo : isRestrictionTo) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private double turnWeight(StreetEdge from, StreetEdge to) {
+    if (!(to.getFromVertex() instanceof IntersectionVertex intersection)) {
+      return 0.0;
+    }
+    double duration = intersectionTraversalCalculator.computeTraversalDuration(
+      intersection,
+      from,
+      to,
+      TraverseMode.CAR,
+      from.getCarSpeed(),
+      to.getCarSpeed()
+    );
+    return duration * preferences.street().turnReluctance();
+  }
+
+  private int[] contractNodes() {
+    int n = edges.length;
+    int[] rank = new int[n];
+    var queue = new IntMinHeap(n);
+    for (int v = 0; v < n; ++v) {
+      queue.insert(v, priority(v));
+    }
+
+    var progress = ProgressTracker.track("Contract street edges", 10_000, n);
+    LOG.info(progress.startMessage());
+
+    int nextRank = 0;
+    while (!queue.isEmpty()) {
+      int v = queue.poll();
+
+      // Lazy update, contract the node only if it still has the lowest priority
+      int priority = priority(v);
+      if (!queue.isEmpty() && priority > queue.peekKey()) {
+        queue.insert(v, priority);
+        continue;
+      }
+      contract(v, false);
+      contracted[v] = true;
+      rank[v] = nextRank++;
+
+      //noinspection Convert2MethodRef
+      progress.step(m -> LOG.info(m));
+    }
+    LOG.info(progress.completeMessage());
+    return rank;
+  }
+
+  private int priority(int v) {
+    int degree = neighbours(inArcs[v], v, false).size() + neighbours(outArcs[v], v, true).size();
+    return contract(v, true) - degree + contractedNeighbours[v];
+  }
+
+  /**
+   * Add the shortcuts needed to contract the given node, or just count them if simulating.
+   *
+   * @return the number of shortcuts needed.
+   */
+  private int contract(int v, boolean simulate) {
+    TIntIntMap in = neighbours(inArcs[v], v, false);
+    TIntIntMap out = neighbours(outArcs[v], v, true);
+    if (in.isEmpty() || out.isEmpty()) {
+      if (!simulate) {
+        updateContractedNeighbours(in, out);
+      }
+      return 0;
+    }
+
+    int maxOut = 0;
+    for (int a : out.values()) {
+      maxOut = Math.max(maxOut, arcWeight(a));
+    }
+
+    int shortcuts = 0;
+    for (int u : in.keys()) {
+      int arcIn = in.get(u);
+      int weightIn = arcWeight(arcIn);
+      witnessSearch(u, v, weightIn + maxOut);
+
+      for (int w : out.keys()) {
+        if (w == u) {
+          continue;
+        }
+        int arcOut = out.get(w);
+        int weight = weightIn + arcWeight(arcOut);
+        if (witnessWeight[w] > weight) {
+          ++shortcuts;
+          if (!simulate) {
+            addArc(u, w, weight, arcIn, arcOut);
+          }
+        }
+      }
+      clearWitnessSearch();
+    }
+    if (!simulate) {
+      updateContractedNeighbours(in, out);
+    }
+    return shortcuts;
+  }
+
+  /**
+   * Return the arc with the lowest weight to or from each node not contracted, by node.
+   */
+  private TIntIntMap neighbours(TIntArrayList arcList, int v, boolean outgoing) {
+    TIntIntMap result = new TIntIntHashMap(arcList.size() * 2, 0.5f, -1, NO_ARC);
+    for (int i = 0; i < arcList.size(); ++i) {
+      int a = arcList.get(i);
+      int u = outgoing ? arcs.to.get(a) : arcs.from.get(a);
+      if (u == v || contracted[u]) {
+        continue;
+      }
+      int current = result.get(u);
+      if (current == NO_ARC || arcWeight(a) < arcWeight(current)) {
+        result.put(u, a);
+      }
+    }
+    return result;
+  }
+
+  private void updateContractedNeighbours(TIntIntMap in, TIntIntMap out) {
+    for (int u : in.keys()) {
+      ++contractedNeighbours[u];
+    }
+    for (int w : out.keys()) {
+      if (!in.containsKey(w)) {
+        ++contractedNeighbours[w];
+      }
+    }
+  }
+
+  /**
+   * Find the lowest weight from the source to the nodes around it, without passing through the
+   * node being contracted. The search stops when the weight exceeds the given limit.
+   */
+  private void witnessSearch(int source, int excluded, int maxWeight) {
+    witnessWeight[source] = 0;
+    witnessTouched.add(source);
+    witnessQueue.insert(source, 0);
+    int settled = 0;
+
+    while (!witnessQueue.isEmpty() && settled < MAX_SETTLED_WITNESS_SEARCH) {
+      double key = witnessQueue.peekKey();
+      int u = witnessQueue.poll();
+      if (key > witnessWeight[u]) {
+        continue;
+      }
+      if (key > maxWeight) {
+        break;
+      }
+      ++settled;
+      TIntArrayList out = outArcs[u];
+      for (int i = 0; i < out.size(); ++i) {
+        int a = out.get(i);
+        int w = arcs.to.get(a);
+        if (w == excluded || contracted[w]) {
+          continue;
+        }
+        int weight = witnessWeight[u] + arcWeight(a);
+        if (weight < witnessWeight[w]) {
+          if (witnessWeight[w] == INFINITY) {
+            witnessTouched.add(w);
+          }
+          witnessWeight[w] = weight;
+          witnessQueue.insert(w, weight);
+        }
+      }
+    }
+  }
+
+  private void clearWitnessSearch() {
+    for (int i = 0; i < witnessTouched.size(); ++i) {
+      witnessWeight[witnessTouched.get(i)] = INFINITY;
+    }
+    witnessTouched.resetQuick();
+    witnessQueue.clear();
+  }
+
+  private void addArc(int from, int to, int weight, int first, int second) {
+    int a = arcs.add(from, to, weight, first, second);
+    outArcs[from].add(a);
+    inArcs[to].add(a);
+  }
+
+  private int arcWeight(int arc) {
+    return arcs.weight.get(arc);
+  }
+
+  private static int scale(double weight) {
+    return (int) Math.round(weight * WEIGHT_SCALE);
+  }
+}
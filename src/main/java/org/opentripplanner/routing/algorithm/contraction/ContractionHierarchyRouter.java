@@ -0,0 +1,279 @@
+package org.opentripplanner.routing.algorithm.contraction;
+
+import static org.opentripplanner.routing.algorithm.contraction.ContractionHierarchy.NOT_IN_HIERARCHY;
+
+import gnu.trove.map.TIntIntMap;
+import gnu.trove.map.TIntObjectMap;
+import gnu.trove.map.hash.TIntIntHashMap;
+import gnu.trove.map.hash.TIntObjectHashMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import javax.annotation.Nullable;
+import org.opentripplanner.routing.api.request.RouteRequest;
+import org.opentripplanner.routing.api.request.StreetMode;
+import org.opentripplanner.routing.core.AStarRequest;
+import org.opentripplanner.routing.core.AStarRequestMapper;
+import org.opentripplanner.routing.core.State;
+import org.opentripplanner.routing.core.TraverseMode;
+import org.opentripplanner.routing.core.intersection_model.IntersectionTraversalCalculator;
+import org.opentripplanner.routing.edgetype.StreetEdge;
+import org.opentripplanner.routing.edgetype.TemporaryEdge;
+import org.opentripplanner.routing.edgetype.TemporaryPartialStreetEdge;
+import org.opentripplanner.routing.graph.Edge;
+import org.opentripplanner.routing.graph.Vertex;
+import org.opentripplanner.routing.spt.GraphPath;
+import org.opentripplanner.routing.vertextype.TemporaryVertex;
+
+/**
+ * Find a direct car path using a {@link ContractionHierarchy}. The origin and destination are
+ * connected to the hierarchy through the temporary edges created for the request, and the path
+ * found is unpacked into street edges and traversed with the request to create a normal
+ * {@link GraphPath}.
+ * <p>
+ * The hierarchy is not able to handle all requests. If {@code null} is returned the path must be
+ * found using the A* search instead. This happens if:
+ * <ul>
+ *   <li>The origin or destination is next to an edge not in the hierarchy, like an edge with no
+ *   through traffic.</li>
+ *   <li>The origin and destination are on the same edge.</li>
+ *   <li>The path found can not be traversed, for example because of a turn restriction active at
+ *   the time of the request.</li>
+ *   <li>The path found is longer than the max direct street duration.</li>
+ * </ul>
+ */
+public class ContractionHierarchyRouter {
+
+  /** The max number of temporary edges between the origin/destination and a street edge. */
+  private static final int MAX_TEMPORARY_EDGES = 4;
+
+  private final ContractionHierarchy hierarchy;
+
+  public ContractionHierarchyRouter(ContractionHierarchy hierarchy) {
+    this.hierarchy = hierarchy;
+  }
+
+  /**
+   * Return {@code true} if the hierarchy can be used for the direct street search of the request.
+   * The caller must also make sure no data overlay or traverse visitor is used.
+   */
+  public boolean isApplicable(RouteRequest request) {
+    return (
+      request.journey().direct().mode() == StreetMode.CAR &&
+      hierarchy.isCompatible(request.preferences())
+    );
+  }
+
+  /**
+   * Find the path from one of the from vertices to one of the to vertices.
+   *
+   * @return A list with the path, an empty list if no path exist, or {@code null} if the
+   * hierarchy can not be used for this request.
+   */
+  @Nullable
+  public List<GraphPath> route(RouteRequest request, Set<Vertex> from, Set<Vertex> to) {
+    int freeEdgeWeight = (int) Math.round(1.0 / hierarchy.weightFactor(request.preferences()));
+
+    var access = new TIntObjectHashMap<Connection>();
+    var egress = new TIntObjectHashMap<Connection>();
+    var accessSearch = new ConnectionSearch(true, to, freeEdgeWeight, access);
+    var egressSearch = new ConnectionSearch(false, from, freeEdgeWeight, egress);
+    for (Vertex v : from) {
+      if (!accessSearch.connect(v, List.of(), 0)) {
+        return null;
+      }
+    }
+    for (Vertex v : to) {
+      if (!egressSearch.connect(v, List.of(), 0)) {
+        return null;
+      }
+    }
+    if (access.isEmpty() || egress.isEmpty()) {
+      return null;
+    }
+    for (int node : access.keys()) {
+      if (egress.containsKey(node)) {
+        return null;
+      }
+    }
+
+    int[] nodes = hierarchy.route(weights(access), weights(egress));
+    if (nodes == null) {
+      return Collections.emptyList();
+    }
+
+    State state = traverse(request, edges(nodes, access, egress));
+    if (state == null) {
+      return null;
+    }
+    var path = new GraphPath(state);
+    var maxDuration = request.preferences().street().maxDirectDuration().valueOf(StreetMode.CAR);
+    if (path.getDuration() > maxDuration.toSeconds()) {
+      return null;
+    }
+    return List.of(path);
+  }
+
+  /**
+   * Return the street edges of the path, from the origin to the destination.
+   */
+  private List<Edge> edges(
+    int[] nodes,
+    TIntObjectMap<Connection> access,
+    TIntObjectMap<Connection> egress
+  ) {
+    Connection first = access.get(nodes[0]);
+    Connection last = egress.get(nodes[nodes.length - 1]);
+
+    List<Edge> result = new ArrayList<>(first.edges);
+    for (int i = first.replacesNode ? 1 : 0; i < nodes.length - (last.replacesNode ? 1 : 0); ++i) {
+      result.add(hierarchy.edge(nodes[i]));
+    }
+    // The egress edges are found from the destination, so they are in reverse order
+    for (int i = last.edges.size() - 1; i >= 0; --i) {
+      result.add(last.edges.get(i));
+    }
+    return result;
+  }
+
+  /**
+   * Traverse the edges, in reverse if the request is arriveBy, and return the last state or
+   * {@code null} if the edges can not be traversed.
+   */
+  @Nullable
+  private static State traverse(RouteRequest request, List<Edge> edges) {
+    boolean arriveBy = request.arriveBy();
+    Vertex origin = arriveBy
+      ? edges.get(edges.size() - 1).getToVertex()
+      : edges.get(0).getFromVertex();
+
+    AStarRequest aStarRequest = AStarRequestMapper.map(request).withMode(StreetMode.CAR).build();
+    var street = request.preferences().street();
+    aStarRequest.setIntersectionTraversalCalculator(
+      IntersectionTraversalCalculator.create(
+        street.intersectionTraversalModel(),
+        street.drivingDirection()
+      )
+    );
+
+    for (State initial : State.getInitialStates(Set.of(origin), aStarRequest)) {
+      State state = initial;
+      for (int i = 0; i < edges.size() && state != null; ++i) {
+        state = edges.get(arriveBy ? edges.size() - 1 - i : i).traverse(state);
+      }
+      if (state != null) {
+        return state;
+      }
+    }
+    return null;
+  }
+
+  private static boolean isDrivable(StreetEdge edge) {
+    return edge.getPermission().allows(TraverseMode.CAR);
+  }
+
+  private static TIntIntMap weights(TIntObjectMap<Connection> connections) {
+    TIntIntMap result = new TIntIntHashMap();
+    connections.forEachEntry((node, c) -> {
+      result.put(node, c.weight);
+      return true;
+    });
+    return result;
+  }
+
+  private static List<Edge> append(List<Edge> path, Edge e) {
+    List<Edge> result = new ArrayList<>(path);
+    result.add(e);
+    return result;
+  }
+
+  /**
+   * Find the nodes of the hierarchy connected to the origin or the destination, by following the
+   * temporary edges from it.
+   */
+  private class ConnectionSearch {
+
+    private final boolean outgoing;
+    private final Set<Vertex> opposite;
+    private final int freeEdgeWeight;
+    private final TIntObjectMap<Connection> result;
+
+    private ConnectionSearch(
+      boolean outgoing,
+      Set<Vertex> opposite,
+      int freeEdgeWeight,
+      TIntObjectMap<Connection> result
+    ) {
+      this.outgoing = outgoing;
+      this.opposite = opposite;
+      this.freeEdgeWeight = freeEdgeWeight;
+      this.result = result;
+    }
+
+    /**
+     * @return {@code false} if the hierarchy can not be used, because the vertex is connected to
+     * a street edge which can be driven, but is not in the hierarchy, or because the origin and
+     * destination are connected to each other without using the hierarchy.
+     */
+    private boolean connect(Vertex vertex, List<Edge> path, int weight) {
+      boolean temporary = vertex instanceof TemporaryVertex;
+      for (Edge e : outgoing ? vertex.getOutgoing() : vertex.getIncoming()) {
+        Vertex next = outgoing ? e.getToVertex() : e.getFromVertex();
+        if (opposite.contains(next)) {
+          return false;
+        }
+        if (e instanceof TemporaryPartialStreetEdge partial) {
+          // A partial edge between two temporary vertices means the origin and destination are on
+          // the same edge
+          if (next instanceof TemporaryVertex) {
+            return false;
+          }
+          int node = hierarchy.indexOf(partial.getParentEdge());
+          if (node == NOT_IN_HIERARCHY) {
+            if (isDrivable(partial)) {
+              return false;
+            }
+            continue;
+          }
+          StreetEdge parent = partial.getParentEdge();
+          double fraction = partial.getDistanceMeters() / parent.getDistanceMeters();
+          int partialWeight = (int) Math.round(hierarchy.nodeWeight(node) * fraction);
+          int w = weight + partialWeight - (outgoing ? 0 : hierarchy.nodeWeight(node));
+          add(node, new Connection(append(path, e), true, w));
+        } else if (e instanceof StreetEdge street && !temporary) {
+          int node = hierarchy.indexOf(street);
+          if (node == NOT_IN_HIERARCHY) {
+            if (isDrivable(street)) {
+              return false;
+            }
+            continue;
+          }
+          int w = weight + (outgoing ? hierarchy.nodeWeight(node) : 0);
+          add(node, new Connection(path, false, w));
+        } else if (e instanceof TemporaryEdge && path.size() < MAX_TEMPORARY_EDGES) {
+          if (!connect(next, append(path, e), weight + freeEdgeWeight)) {
+            return false;
+          }
+        }
+      }
+      return true;
+    }
+
+    private void add(int node, Connection c) {
+      Connection current = result.get(node);
+      if (current == null || c.weight < current.weight) {
+        result.put(node, c);
+      }
+    }
+  }
+
+  /**
+   * The temporary edges connecting the origin or destination to a node, in the order they are
+   * found from the origin or destination.
+   *
+   * @param replacesNode {@code true} if the last edge is a part of the edge of the node, which
+   *                     should be used instead of the whole edge.
+   */
+  private record Connection(List<Edge> edges, boolean replacesNode, int weight) {}
+}
@@ -178,10 +178,12 @@ public class TransitRouter {
 
       if (OTPFeature.ParallelRouting.isOn()) {
         try {
+          // The egress is calculated in the common pool, while the access is calculated in this
+          // thread - there is no point in waiting for a pool thread to do it.
           CompletableFuture
             .allOf(
-              CompletableFuture.runAsync(accessCalculator),
-              CompletableFuture.runAsync(egressCalculator)
+              CompletableFuture.runAsync(egressCalculator),
+              CompletableFuture.runAsync(accessCalculator, Runnable::run)
             )
             .join();
         } catch (CompletionException e) {
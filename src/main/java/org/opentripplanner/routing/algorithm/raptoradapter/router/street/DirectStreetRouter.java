@@ -2,8 +2,11 @@ package org.opentripplanner.routing.algorithm.raptoradapter.router.street;
 
 import java.util.Collections;
 import java.util.List;
+import javax.annotation.Nullable;
 import org.opentripplanner.common.geometry.SphericalDistanceLibrary;
 import org.opentripplanner.model.plan.Itinerary;
+import org.opentripplanner.routing.algorithm.contraction.ContractionHierarchy;
+import org.opentripplanner.routing.algorithm.contraction.ContractionHierarchyRouter;
 import org.opentripplanner.routing.algorithm.mapping.GraphPathToItineraryMapper;
 import org.opentripplanner.routing.algorithm.mapping.ItinerariesHelper;
 import org.opentripplanner.routing.api.request.RouteRequest;
@@ -34,13 +37,23 @@ public class DirectStreetRouter {
         return Collections.emptyList();
       }
 
-      // we could also get a persistent router-scoped GraphPathFinder but there's no setup cost here
-      GraphPathFinder gpFinder = new GraphPathFinder(
-        serverContext.traverseVisitor(),
-        serverContext.routerConfig().streetRoutingTimeout(),
-        serverContext.dataOverlayContext(request)
+      List<GraphPath> paths = findPathsUsingContractionHierarchy(
+        serverContext,
+        directRequest,
+        temporaryVertices
       );
-      List<GraphPath> paths = gpFinder.graphPathFinderEntryPoint(directRequest, temporaryVertices);
+
+      if (paths == null) {
+        // we could also get a persistent router-scoped GraphPathFinder but there's no setup cost
+        // here
+        GraphPathFinder gpFinder = new GraphPathFinder(
+          serverContext.traverseVisitor(),
+          serverContext.routerConfig().streetRoutingTimeout(),
+          serverContext.dataOverlayContext(request),
+          serverContext.graph().getLandmarks()
+        );
+        paths = gpFinder.graphPathFinderEntryPoint(directRequest, temporaryVertices);
+      }
 
       // Convert the internal GraphPaths to itineraries
       final GraphPathToItineraryMapper graphPathToItineraryMapper = new GraphPathToItineraryMapper(
@@ -60,6 +73,39 @@ public class DirectStreetRouter {
     }
   }
 
+  /**
+   * Find the paths using the contraction hierarchy, if it is built and can be used for the
+   * request. Returns {@code null} if the A* search must be used instead.
+   */
+  @Nullable
+  private static List<GraphPath> findPathsUsingContractionHierarchy(
+    OtpServerRequestContext serverContext,
+    RouteRequest request,
+    TemporaryVerticesContainer vertexContainer
+  ) {
+    ContractionHierarchy hierarchy = serverContext.graph().getContractionHierarchy();
+    if (
+      hierarchy == null ||
+      serverContext.traverseVisitor() != null ||
+      serverContext.dataOverlayContext(request) != null
+    ) {
+      return null;
+    }
+    var router = new ContractionHierarchyRouter(hierarchy);
+    if (!router.isApplicable(request)) {
+      return null;
+    }
+    List<GraphPath> paths = router.route(
+      request,
+      vertexContainer.getFromVertices(),
+      vertexContainer.getToVertices()
+    );
+    if (paths != null && paths.isEmpty()) {
+      throw new PathNotFoundException();
+    }
+    return paths;
+  }
+
   private static boolean straightLineDistanceIsWithinLimit(
     RouteRequest request,
     TemporaryVerticesContainer vertexContainer
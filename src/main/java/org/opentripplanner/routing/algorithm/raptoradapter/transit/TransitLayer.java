@@ -4,27 +4,42 @@ import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 import org.opentripplanner.model.transfer.TransferService;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.constrainedtransfer.ConstrainedTransfersForPatterns;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.constrainedtransfer.TransferForPatternByStopPos;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.constrainedtransfer.TransferIndexGenerator;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.request.RaptorRequestPatternCache;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.request.RaptorRequestTransferCache;
 import org.opentripplanner.routing.api.request.RouteRequest;
+import org.opentripplanner.transit.model.network.RoutingTripPattern;
 import org.opentripplanner.transit.model.site.StopLocation;
 import org.opentripplanner.transit.service.StopModel;
+import org.opentripplanner.util.lang.PersistentMap;
+import org.opentripplanner.util.lang.PersistentSet;
 
 public class TransitLayer {
 
   /**
    * Transit data required for routing, indexed by each local date(Graph TimeZone) it runs through.
    * A Trip "runs through" a date if any of its arrivals or departures is happening on that date.
+   * <p>
+   * The maps and sets are persistent, so a copy of the layer shares them with the original, and
+   * the realtime updates only copy the parts they change.
    */
-  private final HashMap<LocalDate, List<TripPatternForDate>> tripPatternsRunningOnDate;
+  private PersistentMap<LocalDate, PersistentSet<TripPatternForDate>> tripPatternsRunningOnDate;
+
+  /**
+   * The number of TripPatternForDates of each pattern in {@link #tripPatternsRunningOnDate}, over
+   * all dates. A pattern is withdrawn from the {@link #tripPatternsPerStop} index when its count
+   * drops to zero, so an update does not need to look at the dates it does not change.
+   */
+  private PersistentMap<RoutingTripPattern, Integer> tripPatternForDateCount;
 
   /**
    * Index of outer list is from stop index, inner list index has no specific meaning. To stop index
@@ -43,6 +58,12 @@ public class TransitLayer {
 
   private final RaptorRequestTransferCache transferCache;
 
+  /**
+   * Patterns filtered for previous requests. The cached patterns are created from the patterns in
+   * this layer, so each copy of the layer gets a new empty cache.
+   */
+  private final RaptorRequestPatternCache patternCache;
+
   private ConstrainedTransfersForPatterns constrainedTransfers;
 
   private final TransferIndexGenerator transferIndexGenerator;
@@ -50,22 +71,30 @@ public class TransitLayer {
   private final int[] stopBoardAlightCosts;
 
   /**
-   * Makes a shallow copy of the TransitLayer, except for the tripPatternsForDate, where a shallow
-   * copy of the HashMap is made. This is sufficient, as the TransitLayerUpdater will replace entire
-   * keys and their values in the map.
+   * Index of all patterns visiting each stop, shared by all requests. This is created lazily, and
+   * kept up to date when patterns are added or withdrawn by the realtime updater.
+   */
+  private volatile TripPatternsPerStop tripPatternsPerStop;
+
+  /**
+   * Makes a shallow copy of the TransitLayer. The tripPatternsForDate are persistent, so they are
+   * shared with the original until the TransitLayerUpdater changes them in the copy.
    */
   public TransitLayer(TransitLayer transitLayer) {
     this(
-      transitLayer.tripPatternsRunningOnDate,
       transitLayer.transfersByStopIndex,
       transitLayer.transferService,
       transitLayer.stopModel,
       transitLayer.transitDataZoneId,
       transitLayer.transferCache,
+      transitLayer.patternCache.emptyCopy(),
       transitLayer.constrainedTransfers,
       transitLayer.transferIndexGenerator,
       transitLayer.stopBoardAlightCosts
     );
+    this.tripPatternsRunningOnDate = transitLayer.tripPatternsRunningOnDate;
+    this.tripPatternForDateCount = transitLayer.tripPatternForDateCount;
+    this.tripPatternsPerStop = transitLayer.tripPatternsPerStop;
   }
 
   public TransitLayer(
@@ -75,16 +104,51 @@ public class TransitLayer {
     StopModel stopModel,
     ZoneId transitDataZoneId,
     RaptorRequestTransferCache transferCache,
+    RaptorRequestPatternCache patternCache,
+    ConstrainedTransfersForPatterns constrainedTransfers,
+    TransferIndexGenerator transferIndexGenerator,
+    int[] stopBoardAlightCosts
+  ) {
+    this(
+      transfersByStopIndex,
+      transferService,
+      stopModel,
+      transitDataZoneId,
+      transferCache,
+      patternCache,
+      constrainedTransfers,
+      transferIndexGenerator,
+      stopBoardAlightCosts
+    );
+    PersistentMap<LocalDate, PersistentSet<TripPatternForDate>> map = PersistentMap.empty();
+    this.tripPatternForDateCount = PersistentMap.empty();
+    for (Map.Entry<LocalDate, List<TripPatternForDate>> it : tripPatternsRunningOnDate.entrySet()) {
+      var set = PersistentSet.<TripPatternForDate>of(it.getValue());
+      for (TripPatternForDate tripPatternForDate : set.asSet()) {
+        incrementCount(tripPatternForDate.getTripPattern(), 1);
+      }
+      map = map.put(it.getKey(), set);
+    }
+    this.tripPatternsRunningOnDate = map;
+  }
+
+  private TransitLayer(
+    List<List<Transfer>> transfersByStopIndex,
+    TransferService transferService,
+    StopModel stopModel,
+    ZoneId transitDataZoneId,
+    RaptorRequestTransferCache transferCache,
+    RaptorRequestPatternCache patternCache,
     ConstrainedTransfersForPatterns constrainedTransfers,
     TransferIndexGenerator transferIndexGenerator,
     int[] stopBoardAlightCosts
   ) {
-    this.tripPatternsRunningOnDate = new HashMap<>(tripPatternsRunningOnDate);
     this.transfersByStopIndex = transfersByStopIndex;
     this.transferService = transferService;
     this.stopModel = stopModel;
     this.transitDataZoneId = transitDataZoneId;
     this.transferCache = transferCache;
+    this.patternCache = patternCache;
     this.constrainedTransfers = constrainedTransfers;
     this.transferIndexGenerator = transferIndexGenerator;
     this.stopBoardAlightCosts = stopBoardAlightCosts;
@@ -96,7 +160,8 @@ public class TransitLayer {
   }
 
   public Collection<TripPatternForDate> getTripPatternsForDate(LocalDate date) {
-    return tripPatternsRunningOnDate.getOrDefault(date, List.of());
+    var tripPatternsForDate = tripPatternsRunningOnDate.get(date);
+    return tripPatternsForDate != null ? tripPatternsForDate.asSet() : List.of();
   }
 
   /**
@@ -114,13 +179,11 @@ public class TransitLayer {
   }
 
   public List<TripPatternForDate> getTripPatternsRunningOnDateCopy(LocalDate runningPeriodDate) {
-    List<TripPatternForDate> tripPatternForDate = tripPatternsRunningOnDate.get(runningPeriodDate);
-    return tripPatternForDate != null ? new ArrayList<>(tripPatternForDate) : new ArrayList<>();
+    return new ArrayList<>(getTripPatternsForDate(runningPeriodDate));
   }
 
   public List<TripPatternForDate> getTripPatternsStartingOnDateCopy(LocalDate date) {
-    List<TripPatternForDate> tripPatternsRunningOnDate = getTripPatternsRunningOnDateCopy(date);
-    return tripPatternsRunningOnDate
+    return getTripPatternsForDate(date)
       .stream()
       .filter(t -> t.getLocalDate().equals(date))
       .collect(Collectors.toList());
@@ -138,6 +201,10 @@ public class TransitLayer {
     return transferCache;
   }
 
+  public RaptorRequestPatternCache getPatternCache() {
+    return patternCache;
+  }
+
   public List<TransferForPatternByStopPos> getForwardConstrainedTransfers() {
     return constrainedTransfers != null ? constrainedTransfers.forward() : null;
   }
@@ -155,17 +222,92 @@ public class TransitLayer {
   }
 
   /**
-   * Replaces all the TripPatternForDates for a single date. This is an atomic operation according
-   * to the HashMap implementation.
+   * Return the index of all patterns visiting each stop, for all dates. Filter it on the patterns
+   * active in a request to get the patterns per stop for the request.
    */
-  public void replaceTripPatternsForDate(
+  public TripPatternsPerStop getTripPatternsPerStop() {
+    var index = tripPatternsPerStop;
+    if (index == null) {
+      synchronized (this) {
+        index = tripPatternsPerStop;
+        if (index == null) {
+          index = TripPatternsPerStop.of(tripPatternForDateCount.asMap().keySet());
+          tripPatternsPerStop = index;
+        }
+      }
+    }
+    return index;
+  }
+
+  /**
+   * Remove and add TripPatternForDates for a single date, the removals are done first. Only the
+   * changed parts of the date are copied, the rest is shared with the layer this layer is copied
+   * from. Dates not already in the layer are ignored.
+   */
+  public void updateTripPatternsForDate(
     LocalDate date,
-    List<TripPatternForDate> tripPatternForDates
+    Collection<TripPatternForDate> removed,
+    Collection<TripPatternForDate> added
   ) {
-    this.tripPatternsRunningOnDate.replace(date, tripPatternForDates);
+    var tripPatternsForDate = tripPatternsRunningOnDate.get(date);
+    if (tripPatternsForDate == null) {
+      return;
+    }
+    Set<RoutingTripPattern> removedPatterns = new HashSet<>();
+    Set<RoutingTripPattern> addedPatterns = new HashSet<>();
+
+    for (TripPatternForDate it : removed) {
+      if (tripPatternsForDate.contains(it)) {
+        tripPatternsForDate = tripPatternsForDate.remove(it);
+        if (incrementCount(it.getTripPattern(), -1) == 0) {
+          removedPatterns.add(it.getTripPattern());
+        }
+      }
+    }
+    for (TripPatternForDate it : added) {
+      if (!tripPatternsForDate.contains(it)) {
+        tripPatternsForDate = tripPatternsForDate.add(it);
+        incrementCount(it.getTripPattern(), 1);
+        addedPatterns.add(it.getTripPattern());
+      }
+    }
+    tripPatternsRunningOnDate = tripPatternsRunningOnDate.put(date, tripPatternsForDate);
+    updateTripPatternsPerStop(removedPatterns, addedPatterns);
   }
 
   public void setConstrainedTransfers(ConstrainedTransfersForPatterns constrainedTransfers) {
     this.constrainedTransfers = constrainedTransfers;
   }
+
+  /**
+   * Add any new (realtime) patterns to the index, and remove the patterns which do not run on any
+   * date anymore, if the index is created. If not, it is created with all patterns the first time
+   * it is used.
+   */
+  private void updateTripPatternsPerStop(
+    Set<RoutingTripPattern> removedPatterns,
+    Set<RoutingTripPattern> addedPatterns
+  ) {
+    var index = tripPatternsPerStop;
+    if (index == null) {
+      return;
+    }
+    // A pattern may be removed and added back in the same update
+    removedPatterns.removeIf(tripPatternForDateCount::containsKey);
+    tripPatternsPerStop = index.removePatterns(removedPatterns).addPatterns(addedPatterns);
+  }
+
+  /**
+   * Add the given delta to the number of TripPatternForDates of the pattern, and return the new
+   * count. The pattern is removed from the counts when it reaches zero.
+   */
+  private int incrementCount(RoutingTripPattern pattern, int delta) {
+    Integer count = tripPatternForDateCount.get(pattern);
+    int newCount = (count == null ? 0 : count) + delta;
+    tripPatternForDateCount =
+      newCount > 0
+        ? tripPatternForDateCount.put(pattern, newCount)
+        : tripPatternForDateCount.remove(pattern);
+    return newCount;
+  }
 }
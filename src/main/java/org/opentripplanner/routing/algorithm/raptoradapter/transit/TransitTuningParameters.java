@@ -46,6 +46,11 @@ public interface TransitTuningParameters {
       return 5;
     }
 
+    @Override
+    public int patternCacheMaxSize() {
+      return 5;
+    }
+
     @Override
     public List<Duration> pagingSearchWindowAdjustments() {
       return PAGING_SEARCH_WINDOW_ADJUSTMENTS;
@@ -71,6 +76,14 @@ public interface TransitTuningParameters {
    */
   int transferCacheMaxSize();
 
+  /**
+   * The maximum number of distinct combinations of search date and trip filters (modes, banned
+   * routes, wheelchair accessibility and so on) for which the filtered trip patterns should be
+   * cached. The cache is cleared every time the realtime updater updates the transit data. Set to
+   * zero to disable the cache.
+   */
+  int patternCacheMaxSize();
+
   /**
    * This parameter is used to reduce the number of pages a client have to step through for a
    * journey where there are few alternatives/low frequency. This also work well to adjust for
@@ -0,0 +1,178 @@
+package org.opentripplanner.routing.algorithm.raptoradapter.transit;
+
+import gnu.trove.list.TIntList;
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.map.TIntObjectMap;
+import gnu.trove.map.hash.TIntObjectHashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import org.opentripplanner.transit.model.network.RoutingTripPattern;
+
+/**
+ * Index of the trip patterns visiting each stop, by stop index. The index contains all patterns
+ * in a {@link TransitLayer} and is shared by all requests using that layer. Each request creates
+ * its own view by filtering the index on the patterns active for the request, see
+ * {@link #filter(BitSet, int)}.
+ * <p>
+ * The index is immutable. Patterns added or withdrawn by the realtime updater are added with
+ * {@link #addPatterns(Collection)} and removed with {@link #removePatterns(Collection)}, which
+ * return a new index. Only the arrays of the stops visited by the changed patterns are copied,
+ * the rest are shared with the previous index.
+ */
+public class TripPatternsPerStop {
+
+  private static final int[] EMPTY = new int[0];
+
+  private static final TripPatternsPerStop EMPTY_INDEX = new TripPatternsPerStop(
+    new int[0][],
+    new BitSet()
+  );
+
+  /** Sorted pattern indexes by stop index */
+  private final int[][] patternsByStop;
+
+  /** All pattern indexes included in this index */
+  private final BitSet patterns;
+
+  private TripPatternsPerStop(int[][] patternsByStop, BitSet patterns) {
+    this.patternsByStop = patternsByStop;
+    this.patterns = patterns;
+  }
+
+  public static TripPatternsPerStop of(Collection<RoutingTripPattern> patterns) {
+    return EMPTY_INDEX.addPatterns(patterns);
+  }
+
+  /**
+   * Return an index with the given patterns added. Patterns already in the index are ignored. If
+   * no new patterns are added this instance is returned.
+   */
+  public TripPatternsPerStop addPatterns(Collection<RoutingTripPattern> newPatterns) {
+    BitSet patternIndexes = null;
+    TIntObjectMap<TIntList> addedByStop = new TIntObjectHashMap<>();
+    int stopCount = patternsByStop.length;
+
+    for (RoutingTripPattern pattern : newPatterns) {
+      int patternIndex = pattern.patternIndex();
+      if ((patternIndexes == null ? patterns : patternIndexes).get(patternIndex)) {
+        continue;
+      }
+      if (patternIndexes == null) {
+        patternIndexes = (BitSet) patterns.clone();
+      }
+      patternIndexes.set(patternIndex);
+
+      for (int i = 0; i < pattern.numberOfStopsInPattern(); ++i) {
+        int stop = pattern.stopIndex(i);
+        stopCount = Math.max(stopCount, stop + 1);
+        TIntList added = addedByStop.get(stop);
+        if (added == null) {
+          added = new TIntArrayList();
+          addedByStop.put(stop, added);
+        }
+        // A pattern may visit the same stop more than once
+        if (!added.contains(patternIndex)) {
+          added.add(patternIndex);
+        }
+      }
+    }
+
+    if (patternIndexes == null) {
+      return this;
+    }
+
+    int[][] result = Arrays.copyOf(patternsByStop, stopCount);
+    Arrays.fill(result, patternsByStop.length, stopCount, EMPTY);
+
+    addedByStop.forEachEntry((stop, added) -> {
+      int[] existing = result[stop];
+      int[] merged = Arrays.copyOf(existing, existing.length + added.size());
+      added.toArray(merged, 0, existing.length, added.size());
+      Arrays.sort(merged);
+      result[stop] = merged;
+      return true;
+    });
+    return new TripPatternsPerStop(result, patternIndexes);
+  }
+
+  /**
+   * Return an index with the given patterns removed. Patterns not in the index are ignored. If no
+   * patterns are removed this instance is returned.
+   */
+  public TripPatternsPerStop removePatterns(Collection<RoutingTripPattern> oldPatterns) {
+    BitSet patternIndexes = null;
+    BitSet stops = new BitSet();
+
+    for (RoutingTripPattern pattern : oldPatterns) {
+      int patternIndex = pattern.patternIndex();
+      if (!(patternIndexes == null ? patterns : patternIndexes).get(patternIndex)) {
+        continue;
+      }
+      if (patternIndexes == null) {
+        patternIndexes = (BitSet) patterns.clone();
+      }
+      patternIndexes.clear(patternIndex);
+
+      for (int i = 0; i < pattern.numberOfStopsInPattern(); ++i) {
+        stops.set(pattern.stopIndex(i));
+      }
+    }
+
+    if (patternIndexes == null) {
+      return this;
+    }
+
+    int[][] result = patternsByStop.clone();
+    for (int stop = stops.nextSetBit(0); stop >= 0; stop = stops.nextSetBit(stop + 1)) {
+      result[stop] = filter(result[stop], patternIndexes);
+    }
+    return new TripPatternsPerStop(result, patternIndexes);
+  }
+
+  /**
+   * Create the list of active patterns by stop index for a request. The arrays are shared with
+   * this index where all patterns visiting a stop are active, so the caller must not modify them.
+   *
+   * @param activePatterns the index of the patterns active in the request.
+   * @param stopCount      the size of the returned list.
+   */
+  public List<int[]> filter(BitSet activePatterns, int stopCount) {
+    List<int[]> result = new ArrayList<>(stopCount);
+    for (int stop = 0; stop < stopCount; ++stop) {
+      int[] all = stop < patternsByStop.length ? patternsByStop[stop] : EMPTY;
+      result.add(filter(all, activePatterns));
+    }
+    return result;
+  }
+
+  /** Return the sorted indexes of all patterns visiting the given stop. */
+  public int[] patternsForStop(int stopIndex) {
+    return stopIndex < patternsByStop.length ? patternsByStop[stopIndex].clone() : EMPTY;
+  }
+
+  private static int[] filter(int[] patterns, BitSet activePatterns) {
+    int n = 0;
+    for (int p : patterns) {
+      if (activePatterns.get(p)) {
+        ++n;
+      }
+    }
+    if (n == patterns.length) {
+      return patterns;
+    }
+    if (n == 0) {
+      return EMPTY;
+    }
+    int[] result = new int[n];
+    int i = 0;
+    for (int p : patterns) {
+      if (activePatterns.get(p)) {
+        result[i++] = p;
+      }
+    }
+    return result;
+  }
+}
@@ -21,6 +21,7 @@ import org.opentripplanner.routing.algorithm.raptoradapter.transit.TripPatternFo
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.constrainedtransfer.ConstrainedTransfersForPatterns;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.constrainedtransfer.TransferIndexGenerator;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.cost.RaptorCostConverter;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.request.RaptorRequestPatternCache;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.request.RaptorRequestTransferCache;
 import org.opentripplanner.transit.model.network.TripPattern;
 import org.opentripplanner.transit.model.site.StopTransferPriority;
@@ -91,6 +92,7 @@ public class TransitLayerMapper {
     }
 
     var transferCache = new RaptorRequestTransferCache(tuningParameters.transferCacheMaxSize());
+    var patternCache = new RaptorRequestPatternCache(tuningParameters.patternCacheMaxSize());
 
     LOG.info("Mapping complete.");
 
@@ -101,6 +103,7 @@ public class TransitLayerMapper {
       stopModel,
       transitModel.getTimeZone(),
       transferCache,
+      patternCache,
       constrainedTransfers,
       transferIndexGenerator,
       createStopTransferCosts(stopModel, tuningParameters)
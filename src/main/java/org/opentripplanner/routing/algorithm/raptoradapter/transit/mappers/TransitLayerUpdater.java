@@ -8,6 +8,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.SortedSet;
@@ -25,11 +26,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Update the TransitLayer from a set of TimeTables. A shallow copy is made of the TransitLayer
- * (this also includes a shallow copy of the TripPatternsForDate map). TripPatterns are matched on
- * id and replaced by their updated versions. The realtime TransitLayer is then switched out with
- * the updated copy in an atomic operation. This ensures that any TransitLayer that is referenced
- * from the Graph is never changed.
+ * Update the TransitLayer from a set of TimeTables. A shallow copy is made of the TransitLayer,
+ * sharing the persistent TripPatternsForDate map with the original. TripPatterns are matched on
+ * id and replaced by their updated versions, by removing the old and adding the new
+ * TripPatternForDate on each date they run, so only the changed patterns are copied. The realtime
+ * TransitLayer is then switched out with the updated copy in an atomic operation. This ensures
+ * that any TransitLayer that is referenced from the Graph is never changed.
  */
 public class TransitLayerUpdater {
 
@@ -51,8 +53,6 @@ public class TransitLayerUpdater {
    */
   private final Map<TripIdAndServiceDate, TripPatternForDate> tripPatternsForTripIdAndServiceDateCache = new HashMap<>();
 
-  private final Map<LocalDate, Set<TripPatternForDate>> tripPatternsRunningOnDateMapCache = new HashMap<>();
-
   public TransitLayerUpdater(
     TransitModel transitModel,
     Map<LocalDate, TIntSet> serviceCodesRunningForDate
@@ -154,15 +154,10 @@ public class TransitLayerUpdater {
     }
 
     // Now loop through all running period dates of old and new TripPatternsForDate and update
-    // the tripPatternsByRunningPeriodDate accordingly
+    // the tripPatternsByRunningPeriodDate with the removed and added patterns
     for (LocalDate date : datesToBeUpdated) {
-      tripPatternsRunningOnDateMapCache.computeIfAbsent(
-        date,
-        p -> new HashSet<>(realtimeTransitLayer.getTripPatternsRunningOnDateCopy(date))
-      );
-
-      // Remove old cached tripPatterns where tripTimes are no longer running
-      Set<TripPatternForDate> patternsForDate = tripPatternsRunningOnDateMapCache.get(date);
+      List<TripPatternForDate> removed = new ArrayList<>();
+      List<TripPatternForDate> added = new ArrayList<>();
 
       for (Map.Entry<TripPattern, Collection<TripPatternForDate>> entry : oldTripPatternsForDate
         .asMap()
@@ -171,7 +166,7 @@ public class TransitLayerUpdater {
           // Remove old TripPatternForDate for this date if it was valid on this date
           if (oldTripPatternForDate != null) {
             if (oldTripPatternForDate.getRunningPeriodDates().contains(date)) {
-              patternsForDate.remove(oldTripPatternForDate);
+              removed.add(oldTripPatternForDate);
             }
           }
         }
@@ -193,7 +188,7 @@ public class TransitLayerUpdater {
               .orElse(false);
 
             if (toRemove) {
-              patternsForDate.remove(tripPatternForDate);
+              removed.add(tripPatternForDate);
             }
           } else {
             LOG.warn("Could not fetch timetable for {}", pattern);
@@ -208,13 +203,13 @@ public class TransitLayerUpdater {
           // Add new TripPatternForDate for this date if it mapped correctly and is valid on this date
           if (newTripPatternForDate != null) {
             if (newTripPatternForDate.getRunningPeriodDates().contains(date)) {
-              patternsForDate.add(newTripPatternForDate);
+              added.add(newTripPatternForDate);
             }
           }
         }
       }
 
-      realtimeTransitLayer.replaceTripPatternsForDate(date, new ArrayList<>(patternsForDate));
+      realtimeTransitLayer.updateTripPatternsForDate(date, removed, added);
     }
 
     if (transferIndexGenerator != null) {
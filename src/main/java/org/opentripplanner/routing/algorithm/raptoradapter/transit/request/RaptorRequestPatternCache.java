@@ -0,0 +1,85 @@
+package org.opentripplanner.routing.algorithm.raptoradapter.transit.request;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.TransitLayer;
+
+/**
+ * Cache the trip patterns filtered and merged for a request. Most requests use one of a few
+ * combinations of modes, banned routes and wheelchair settings, so the same filtering is done
+ * over and over again for the same search date.
+ * <p>
+ * The cache is keyed on the search date, the number of additional search days and the
+ * {@link TransitDataProviderFilter}. The filter must implement {@code equals()} and
+ * {@code hashCode()} for requests to share an entry, like the
+ * {@link RouteRequestTransitDataProviderFilter} does.
+ * <p>
+ * Each {@link TransitLayer} has its own cache, because the cached patterns are created from the
+ * patterns in the layer. When the realtime updater creates a new layer it gets a new empty cache,
+ * see {@link #emptyCopy()}, so the old entries are garbage collected together with the old layer.
+ */
+public class RaptorRequestPatternCache {
+
+  private final int maximumSize;
+
+  private final Cache<CacheKey, RequestPatterns> cache;
+
+  public RaptorRequestPatternCache(int maximumSize) {
+    this.maximumSize = maximumSize;
+    this.cache = CacheBuilder.newBuilder().maximumSize(maximumSize).build();
+  }
+
+  /**
+   * Create a new empty cache with the same size as this cache. Use this when a new
+   * {@link TransitLayer} is created from an existing one.
+   */
+  public RaptorRequestPatternCache emptyCopy() {
+    return new RaptorRequestPatternCache(maximumSize);
+  }
+
+  RequestPatterns get(
+    ZonedDateTime transitSearchTimeZero,
+    int additionalPastSearchDays,
+    int additionalFutureSearchDays,
+    TransitDataProviderFilter filter,
+    Supplier<RequestPatterns> create
+  ) {
+    if (maximumSize == 0) {
+      return create.get();
+    }
+    var key = new CacheKey(
+      transitSearchTimeZero,
+      additionalPastSearchDays,
+      additionalFutureSearchDays,
+      filter
+    );
+    try {
+      return cache.get(key, create::get);
+    } catch (ExecutionException e) {
+      throw new RuntimeException("Failed to get item from pattern cache", e);
+    }
+  }
+
+  /**
+   * The patterns for a request, see {@link RaptorRoutingRequestTransitData}. The lists are shared
+   * by all requests using the same cache entry, and must not be modified.
+   *
+   * @param patternIndex              trip patterns by pattern index.
+   * @param activeTripPatternsPerStop active pattern indexes by stop index.
+   */
+  record RequestPatterns(
+    List<TripPatternForDates> patternIndex,
+    List<int[]> activeTripPatternsPerStop
+  ) {}
+
+  private record CacheKey(
+    ZonedDateTime transitSearchTimeZero,
+    int additionalPastSearchDays,
+    int additionalFutureSearchDays,
+    TransitDataProviderFilter filter
+  ) {}
+}
@@ -81,18 +81,32 @@ public class RaptorRoutingRequestTransitData implements RaptorTransitDataProvide
 
     // Delegate to the creator to construct the needed data structures. The code is messy so
     // it is nice to NOT have it in the class. It isolate this code to only be available at
-    // the time of construction
-    var transitDataCreator = new RaptorRoutingRequestTransitDataCreator(
-      transitLayer,
-      transitSearchTimeZero
-    );
-    List<TripPatternForDates> tripPatterns = transitDataCreator.createTripPatterns(
-      additionalPastSearchDays,
-      additionalFutureSearchDays,
-      filter
-    );
-    this.patternIndex = transitDataCreator.createPatternIndex(tripPatterns);
-    this.activeTripPatternsPerStop = transitDataCreator.createTripPatternsPerStop(tripPatterns);
+    // the time of construction. The result is cached, requests with the same filter share it.
+    var patterns = transitLayer
+      .getPatternCache()
+      .get(
+        transitSearchTimeZero,
+        additionalPastSearchDays,
+        additionalFutureSearchDays,
+        filter,
+        () -> {
+          var transitDataCreator = new RaptorRoutingRequestTransitDataCreator(
+            transitLayer,
+            transitSearchTimeZero
+          );
+          List<TripPatternForDates> tripPatterns = transitDataCreator.createTripPatterns(
+            additionalPastSearchDays,
+            additionalFutureSearchDays,
+            filter
+          );
+          return new RaptorRequestPatternCache.RequestPatterns(
+            transitDataCreator.createPatternIndex(tripPatterns),
+            transitDataCreator.createTripPatternsPerStop(tripPatterns)
+          );
+        }
+      );
+    this.patternIndex = patterns.patternIndex();
+    this.activeTripPatternsPerStop = patterns.activeTripPatternsPerStop();
     this.transferIndex = transitLayer.getRaptorTransfersForRequest(request);
 
     this.forwardConstrainedTransfers = transitLayer.getForwardConstrainedTransfers();
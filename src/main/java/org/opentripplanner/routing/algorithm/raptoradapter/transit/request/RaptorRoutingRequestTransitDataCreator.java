@@ -2,13 +2,13 @@ package org.opentripplanner.routing.algorithm.raptoradapter.transit.request;
 
 import static org.opentripplanner.util.time.ServiceDateUtils.secondsSinceStartOfTime;
 
-import gnu.trove.list.array.TIntArrayList;
 import gnu.trove.map.TObjectIntMap;
 import gnu.trove.map.hash.TObjectIntHashMap;
 import java.time.LocalDate;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
@@ -47,31 +47,19 @@ class RaptorRoutingRequestTransitDataCreator {
     this.transitSearchTimeZero = transitSearchTimeZero;
   }
 
+  /**
+   * Create the active patterns by stop index for this request. This is a filtered view of the
+   * shared index in the transit layer, so only stops where some patterns are not active in this
+   * request get a new array.
+   */
   public List<int[]> createTripPatternsPerStop(List<TripPatternForDates> tripPatternsForDate) {
-    // Create temporary array of TIntArrayLists
-    int stopCount = transitLayer.getStopCount();
-    TIntArrayList[] patternsForStop = new TIntArrayList[stopCount];
-    for (int i = 0; i < stopCount; i++) {
-      patternsForStop[i] = new TIntArrayList();
-    }
-
-    // Loop through all patterns, and mark all stops containing that pattern
+    BitSet activePatterns = new BitSet(RoutingTripPattern.indexCounter());
     for (TripPatternForDates tripPatternForDateList : tripPatternsForDate) {
-      final RoutingTripPattern tripPattern = tripPatternForDateList.getTripPattern();
-      final int patternIndex = tripPattern.patternIndex();
-      final int numberOfStopsInPattern = tripPattern.numberOfStopsInPattern();
-      for (int i = 0; i < numberOfStopsInPattern; i++) {
-        patternsForStop[tripPattern.stopIndex(i)].add(patternIndex);
-      }
+      activePatterns.set(tripPatternForDateList.getTripPattern().patternIndex());
     }
-
-    // Create the final list with raw int arrays, in order to get the best iteration performance
-    List<int[]> result = new ArrayList<>(stopCount);
-    for (var patterns : patternsForStop) {
-      result.add(patterns.toArray());
-    }
-
-    return result;
+    return transitLayer
+      .getTripPatternsPerStop()
+      .filter(activePatterns, transitLayer.getStopCount());
   }
 
   public List<TripPatternForDates> createPatternIndex(List<TripPatternForDates> tripPatterns) {
@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
 import org.opentripplanner.model.modes.AllowTransitModeFilter;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.TripPatternForDate;
@@ -140,6 +141,43 @@ public class RouteRequestTransitDataProviderFilter implements TransitDataProvide
     return boardingPossible;
   }
 
+  /**
+   * Two filters are equal if they let through the same trips. This is used to share the filtered
+   * patterns between requests, see {@link RaptorRequestPatternCache}.
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    RouteRequestTransitDataProviderFilter that = (RouteRequestTransitDataProviderFilter) o;
+    return (
+      requireBikesAllowed == that.requireBikesAllowed &&
+      wheelchairEnabled == that.wheelchairEnabled &&
+      includePlannedCancellations == that.includePlannedCancellations &&
+      wheelchairPreferences.equals(that.wheelchairPreferences) &&
+      transitModeFilter.equals(that.transitModeFilter) &&
+      bannedRoutes.equals(that.bannedRoutes) &&
+      bannedTrips.equals(that.bannedTrips)
+    );
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(
+      requireBikesAllowed,
+      wheelchairEnabled,
+      wheelchairPreferences,
+      includePlannedCancellations,
+      transitModeFilter,
+      bannedRoutes,
+      bannedTrips
+    );
+  }
+
   public static List<FeedScopedId> bannedRoutes(
     Collection<FeedScopedId> bannedAgenciesCollection,
     RouteMatcher bannedRoutes,
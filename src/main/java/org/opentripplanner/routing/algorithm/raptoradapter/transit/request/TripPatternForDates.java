@@ -50,8 +50,9 @@ public class TripPatternForDates
   private final int[] arrivalTimes;
 
   /**
-   * The arrival times in a nStops * numberOfTripSchedules sized array. The order is the same as in
-   * arrivalTimes.
+   * The departure times in a nStops * numberOfTripSchedules sized array. The order is the same as
+   * in arrivalTimes. If no trip has dwell times, this is the same array as arrivalTimes, which
+   * halves the memory used and the cache lines read in the search.
    */
   private final int[] departureTimes;
 
@@ -90,7 +91,10 @@ public class TripPatternForDates
 
     final int nStops = tripPattern.numberOfStopsInPattern();
     this.arrivalTimes = new int[nStops * numberOfTripSchedules];
-    this.departureTimes = new int[nStops * numberOfTripSchedules];
+    this.departureTimes =
+      hasZeroDwellTimes(tripPatternForDates)
+        ? arrivalTimes
+        : new int[nStops * numberOfTripSchedules];
     int i = 0;
     for (int d = 0; d < this.tripPatternForDates.length; d++) {
       int offset = this.offsets[d];
@@ -98,7 +102,11 @@ public class TripPatternForDates
         wheelchairBoardings[i] = trip.getWheelchairAccessibility();
         for (int s = 0; s < nStops; s++) {
           this.arrivalTimes[s * numberOfTripSchedules + i] = trip.getArrivalTime(s) + offset;
-          this.departureTimes[s * numberOfTripSchedules + i] = trip.getDepartureTime(s) + offset;
+        }
+        if (departureTimes != arrivalTimes) {
+          for (int s = 0; s < nStops; s++) {
+            this.departureTimes[s * numberOfTripSchedules + i] = trip.getDepartureTime(s) + offset;
+          }
         }
         i++;
       }
@@ -209,14 +217,19 @@ public class TripPatternForDates
     return (int index) -> departureTimes[base + index];
   }
 
-  public IntUnaryOperator getArrivalTimesForTrip(int index) {
-    return (int stopPositionInPattern) ->
-      arrivalTimes[stopPositionInPattern * numberOfTripSchedules + index];
+  /**
+   * Read the arrival time directly from the time table, without creating a {@link TripSchedule}.
+   */
+  public int arrivalTime(int stopPositionInPattern, int index) {
+    return arrivalTimes[stopPositionInPattern * numberOfTripSchedules + index];
   }
 
-  public IntUnaryOperator getDepartureTimesForTrip(int index) {
-    return (int stopPositionInPattern) ->
-      departureTimes[stopPositionInPattern * numberOfTripSchedules + index];
+  /**
+   * Read the departure time directly from the time table, without creating a
+   * {@link TripSchedule}.
+   */
+  public int departureTime(int stopPositionInPattern, int index) {
+    return departureTimes[stopPositionInPattern * numberOfTripSchedules + index];
   }
 
   @Override
@@ -267,4 +280,15 @@ public class TripPatternForDates
   public Accessibility wheelchairBoardingForTrip(int index) {
     return wheelchairBoardings[index];
   }
+
+  private static boolean hasZeroDwellTimes(TripPatternForDate[] tripPatternForDates) {
+    for (TripPatternForDate tripPatternForDate : tripPatternForDates) {
+      for (var trip : tripPatternForDate.tripTimes()) {
+        if (!trip.hasZeroDwellTimes()) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
 }
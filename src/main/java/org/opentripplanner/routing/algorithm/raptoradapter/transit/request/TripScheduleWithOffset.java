@@ -1,7 +1,6 @@
 package org.opentripplanner.routing.algorithm.raptoradapter.transit.request;
 
 import java.time.LocalDate;
-import java.util.function.IntUnaryOperator;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.TripPatternForDate;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.TripSchedule;
 import org.opentripplanner.transit.model.basic.Accessibility;
@@ -15,15 +14,14 @@ import org.opentripplanner.util.lang.ToStringBuilder;
  * This represents a single trip within a TripPattern, but with a time offset in seconds. This is
  * used to represent a trip on a subsequent service day than the first one in the date range used.
  * <p>
- * Use flyweight pattern, reusing TripPatternForDates data
+ * Use flyweight pattern, reusing TripPatternForDates data. The times are read directly from the
+ * columnar arrays of the pattern, so creating an instance during the trip search is cheap.
  */
 public final class TripScheduleWithOffset implements TripSchedule {
 
   private final TripPatternForDates pattern;
   private final int sortIndex;
   private final int tripIndexForDates;
-  private final IntUnaryOperator arrivalTimes;
-  private final IntUnaryOperator departureTimes;
 
   // Computed when needed later for RaptorPathToItineraryMapper
   private TripTimes tripTimes = null;
@@ -34,12 +32,8 @@ public final class TripScheduleWithOffset implements TripSchedule {
     this.tripIndexForDates = tripIndexForDates;
     this.pattern = pattern;
 
-    // get arrival/departures lambda
-    this.arrivalTimes = pattern.getArrivalTimesForTrip(tripIndexForDates);
-    this.departureTimes = pattern.getDepartureTimesForTrip(tripIndexForDates);
-
     // Trip times are sorted based on the arrival times at stop 0,
-    this.sortIndex = arrivalTimes.applyAsInt(0);
+    this.sortIndex = pattern.arrivalTime(0, tripIndexForDates);
   }
 
   @Override
@@ -49,12 +43,12 @@ public final class TripScheduleWithOffset implements TripSchedule {
 
   @Override
   public int arrival(int stopPosInPattern) {
-    return this.arrivalTimes.applyAsInt(stopPosInPattern);
+    return pattern.arrivalTime(stopPosInPattern, tripIndexForDates);
   }
 
   @Override
   public int departure(int stopPosInPattern) {
-    return this.departureTimes.applyAsInt(stopPosInPattern);
+    return pattern.departureTime(stopPosInPattern, tripIndexForDates);
   }
 
   @Override
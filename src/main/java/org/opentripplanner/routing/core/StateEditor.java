@@ -281,6 +281,12 @@ public class StateEditor {
    * vehicle parked is important for allowing co-dominance of walking and driving states.
    */
   public void setVehicleParked(boolean vehicleParked, TraverseMode nonTransitMode) {
+    if (
+      vehicleParked == child.stateData.vehicleParked &&
+      nonTransitMode == child.stateData.currentMode
+    ) {
+      return;
+    }
     cloneStateDataAsNeeded();
     child.stateData.vehicleParked = vehicleParked;
     child.stateData.currentMode = nonTransitMode;
@@ -291,6 +297,14 @@ public class StateEditor {
    * set.
    */
   public void setFromState(State state) {
+    if (
+      child.stateData.currentMode == state.stateData.currentMode &&
+      child.stateData.carPickupState == state.stateData.carPickupState &&
+      child.stateData.vehicleParked == state.stateData.vehicleParked &&
+      child.stateData.backWalkingBike == state.stateData.backWalkingBike
+    ) {
+      return;
+    }
     cloneStateDataAsNeeded();
     child.stateData.currentMode = state.stateData.currentMode;
     child.stateData.carPickupState = state.stateData.carPickupState;
@@ -299,12 +313,20 @@ public class StateEditor {
   }
 
   public void setCarPickupState(CarPickupState carPickupState) {
+    TraverseMode currentMode =
+      switch (carPickupState) {
+        case WALK_TO_PICKUP, WALK_FROM_DROP_OFF -> TraverseMode.WALK;
+        case IN_CAR -> TraverseMode.CAR;
+      };
+    if (
+      carPickupState == child.stateData.carPickupState &&
+      currentMode == child.stateData.currentMode
+    ) {
+      return;
+    }
     cloneStateDataAsNeeded();
     child.stateData.carPickupState = carPickupState;
-    switch (carPickupState) {
-      case WALK_TO_PICKUP, WALK_FROM_DROP_OFF -> child.stateData.currentMode = TraverseMode.WALK;
-      case IN_CAR -> child.stateData.currentMode = TraverseMode.CAR;
-    }
+    child.stateData.currentMode = currentMode;
   }
 
   public void setTimeSeconds(long seconds) {
@@ -323,6 +345,10 @@ public class StateEditor {
    * To be called before modifying anything in the child's StateData. Makes sure that changes are
    * applied to a copy of StateData rather than the same one that is still referenced in existing,
    * older states.
+   * <p>
+   * The StateData is shared by all states in a search until something in it changes, so setters
+   * should return early without calling this method if the new value is the same as the current
+   * value. Cloning is the main source of garbage in street searches.
    */
   private void cloneStateDataAsNeeded() {
     if (child.backState != null && child.stateData == child.backState.stateData) child.stateData =
@@ -20,9 +20,12 @@ import org.locationtech.jts.geom.Geometry;
 import org.opentripplanner.common.TurnRestriction;
 import org.opentripplanner.common.geometry.CompactElevationProfile;
 import org.opentripplanner.common.geometry.GraphUtils;
+import org.opentripplanner.common.geometry.SpatialIndexType;
 import org.opentripplanner.ext.dataoverlay.configuration.DataOverlayParameterBindings;
 import org.opentripplanner.ext.geocoder.LuceneIndex;
 import org.opentripplanner.model.calendar.openinghours.OpeningHoursCalendarService;
+import org.opentripplanner.routing.algorithm.astar.landmark.Landmarks;
+import org.opentripplanner.routing.algorithm.contraction.ContractionHierarchy;
 import org.opentripplanner.routing.edgetype.StreetEdge;
 import org.opentripplanner.routing.fares.FareService;
 import org.opentripplanner.routing.graph.index.StreetIndex;
@@ -123,6 +126,17 @@ public class Graph implements Serializable {
   public DataOverlayParameterBindings dataOverlayParameterBindings;
   private LuceneIndex luceneIndex;
 
+  /** Precomputed landmark distances used to speed up street searches, if built. */
+  @Nullable
+  private Landmarks landmarks;
+
+  /** The contraction hierarchy used to speed up direct car searches, if built. */
+  @Nullable
+  private ContractionHierarchy contractionHierarchy;
+
+  /** The implementation used for the spatial indexes of the {@link StreetIndex}. */
+  private SpatialIndexType spatialIndexType = SpatialIndexType.HASH_GRID;
+
   @Inject
   public Graph(
     Deduplicator deduplicator,
@@ -455,6 +469,35 @@ public class Graph implements Serializable {
     this.luceneIndex = luceneIndex;
   }
 
+  @Nullable
+  public Landmarks getLandmarks() {
+    return landmarks;
+  }
+
+  public void setLandmarks(@Nullable Landmarks landmarks) {
+    this.landmarks = landmarks;
+  }
+
+  @Nullable
+  public ContractionHierarchy getContractionHierarchy() {
+    return contractionHierarchy;
+  }
+
+  public void setContractionHierarchy(@Nullable ContractionHierarchy contractionHierarchy) {
+    this.contractionHierarchy = contractionHierarchy;
+  }
+
+  public SpatialIndexType getSpatialIndexType() {
+    return spatialIndexType;
+  }
+
+  /**
+   * Set the spatial index implementation, this takes effect the next time the graph is indexed.
+   */
+  public void setSpatialIndexType(SpatialIndexType spatialIndexType) {
+    this.spatialIndexType = spatialIndexType;
+  }
+
   private void indexIfNotIndexed(StopModel stopModel) {
     if (streetIndex == null) {
       index(stopModel);
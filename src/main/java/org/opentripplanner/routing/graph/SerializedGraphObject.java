@@ -1,11 +1,15 @@
 package org.opentripplanner.routing.graph;
 
 import static org.opentripplanner.model.projectinfo.OtpProjectInfo.projectInfo;
+import static org.opentripplanner.util.time.DurationUtils.msToSecondsStr;
 
 import com.esotericsoftware.kryo.Kryo;
 import com.esotericsoftware.kryo.KryoException;
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
+import gnu.trove.impl.Constants;
+import gnu.trove.map.TObjectIntMap;
+import gnu.trove.map.hash.TObjectIntHashMap;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
@@ -13,8 +17,16 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.Serializable;
+import java.nio.file.NoSuchFileException;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
 import javax.annotation.Nullable;
 import org.opentripplanner.common.geometry.CompactElevationProfile;
 import org.opentripplanner.datastore.api.DataSource;
@@ -28,6 +40,7 @@ import org.opentripplanner.transit.model.network.RoutingTripPattern;
 import org.opentripplanner.transit.model.site.StopLocation;
 import org.opentripplanner.transit.service.TransitModel;
 import org.opentripplanner.util.OtpAppException;
+import org.opentripplanner.util.io.MemoryMappedFileInputStream;
 import org.opentripplanner.util.lang.OtpNumberFormat;
 import org.opentripplanner.util.logging.ProgressTracker;
 import org.slf4j.Logger;
@@ -48,6 +61,9 @@ public class SerializedGraphObject implements Serializable {
 
   private static final Logger LOG = LoggerFactory.getLogger(SerializedGraphObject.class);
 
+  /** Repeated edges are found by comparing with the previous edges up to this vertex degree. */
+  private static final int MAX_DEGREE_LINEAR_SCAN = 32;
+
   public final Graph graph;
   public final TransitModel transitModel;
   private final Collection<Edge> edges;
@@ -103,16 +119,35 @@ public class SerializedGraphObject implements Serializable {
   }
 
   public static SerializedGraphObject load(DataSource source) {
+    File file = localUncompressedFile(source);
+    if (file != null) {
+      return load(file);
+    }
     return load(source.asInputStream(), source.path());
   }
 
+  /**
+   * Load the graph from a local file. The file is memory-mapped, so the bytes are read directly
+   * from the OS page cache. This is faster than streaming the file, and the page cache is shared
+   * if several OTP instances load the same graph file on the same host.
+   */
   public static SerializedGraphObject load(File file) {
+    InputStream inputStream;
     try {
-      return load(new FileInputStream(file), file.getAbsolutePath());
-    } catch (FileNotFoundException e) {
+      inputStream = MemoryMappedFileInputStream.open(file);
+    } catch (NoSuchFileException e) {
       LOG.error("Graph file not found: " + file, e);
       throw new OtpAppException(e.getMessage());
+    } catch (IOException e) {
+      LOG.warn("Unable to memory-map graph file, fallback to streaming: {}", e.getMessage());
+      try {
+        inputStream = new FileInputStream(file);
+      } catch (FileNotFoundException ex) {
+        LOG.error("Graph file not found: " + file, ex);
+        throw new OtpAppException(ex.getMessage());
+      }
     }
+    return load(inputStream, file.getAbsolutePath());
   }
 
   /**
@@ -121,14 +156,77 @@ public class SerializedGraphObject implements Serializable {
    * This method will reconstruct all those edge lists after deserialization.
    */
   public void reconstructEdgeLists() {
-    for (Vertex v : graph.getVertices()) {
-      v.initEdgeLists();
+    reconstructEdgeLists(graph.getVertices(), edges);
+  }
+
+  /**
+   * Build the edge lists in two passes, like a compressed-sparse-row adjacency: first count the
+   * in and out degree of each vertex, then allocate each edge array with its exact size and fill
+   * it. Adding the edges one by one with {@link Vertex#addOutgoing(Edge)} copies the array for
+   * every edge, which is quadratic in the vertex degree and produces a lot of garbage.
+   * <p>
+   * The order of the edges is the same as if they were added one by one in the order of the
+   * given edge collection. An edge is only added once to each vertex, like
+   * {@link Vertex#addOutgoing(Edge)} does, and an edge is not added to a vertex which is not part
+   * of the given vertices.
+   */
+  static void reconstructEdgeLists(Collection<Vertex> vertices, Collection<Edge> edges) {
+    Vertex[] vertexByIndex = vertices.toArray(Vertex[]::new);
+    TObjectIntMap<Vertex> indexByVertex = new TObjectIntHashMap<>(
+      vertexByIndex.length,
+      Constants.DEFAULT_LOAD_FACTOR,
+      -1
+    );
+    for (int i = 0; i < vertexByIndex.length; ++i) {
+      indexByVertex.put(vertexByIndex[i], i);
+    }
+
+    int[] degreeOut = new int[vertexByIndex.length];
+    int[] degreeIn = new int[vertexByIndex.length];
+    int orphanEdges = 0;
+    for (Edge e : edges) {
+      int from = indexByVertex.get(e.getFromVertex());
+      int to = indexByVertex.get(e.getToVertex());
+      if (from < 0 || to < 0) {
+        if (orphanEdges++ == 0) {
+          LOG.warn("The vertex of an edge is not part of the graph, edge: {}", e);
+        }
+      }
+      if (from >= 0) {
+        ++degreeOut[from];
+      }
+      if (to >= 0) {
+        ++degreeIn[to];
+      }
+    }
+    if (orphanEdges > 1) {
+      LOG.warn("{} edges have a vertex which is not part of the graph.", orphanEdges);
+    }
+
+    Edge[][] outgoing = new Edge[vertexByIndex.length][];
+    Edge[][] incoming = new Edge[vertexByIndex.length][];
+    for (int i = 0; i < vertexByIndex.length; ++i) {
+      outgoing[i] = new Edge[degreeOut[i]];
+      incoming[i] = new Edge[degreeIn[i]];
     }
+
+    // Reuse the degree arrays as insert cursors, counting down to zero
     for (Edge e : edges) {
-      Vertex fromVertex = e.getFromVertex();
-      Vertex toVertex = e.getToVertex();
-      fromVertex.addOutgoing(e);
-      toVertex.addIncoming(e);
+      int from = indexByVertex.get(e.getFromVertex());
+      int to = indexByVertex.get(e.getToVertex());
+      if (from >= 0) {
+        outgoing[from][outgoing[from].length - degreeOut[from]--] = e;
+      }
+      if (to >= 0) {
+        incoming[to][incoming[to].length - degreeIn[to]--] = e;
+      }
+    }
+
+    for (int i = 0; i < vertexByIndex.length; ++i) {
+      vertexByIndex[i].initEdgeLists(
+        removeRepeatedEdges(outgoing[i]),
+        removeRepeatedEdges(incoming[i])
+      );
     }
   }
 
@@ -157,7 +255,10 @@ public class SerializedGraphObject implements Serializable {
       );
 
       Kryo kryo = KryoBuilder.create();
-      SerializedGraphObject serObj = (SerializedGraphObject) kryo.readClassAndObject(input);
+      SerializedGraphObject serObj = timed(
+        "Deserialize graph",
+        () -> (SerializedGraphObject) kryo.readClassAndObject(input)
+      );
       SubMode.deserializeSubModeCache(serObj.allTransitSubModes);
       StopLocation.initIndexCounter(serObj.stopLocationCounter);
       RoutingTripPattern.initIndexCounter(serObj.routingTripPatternCounter);
@@ -165,9 +266,7 @@ public class SerializedGraphObject implements Serializable {
         serObj.graph.getDistanceBetweenElevationSamples()
       );
       LOG.debug("Graph read.");
-      serObj.reconstructEdgeLists();
-      serObj.transitModel.getStopModel().reindexAfterDeserialization();
-      serObj.transitModel.index();
+      serObj.indexAfterDeserialization();
       logSerializationCompleteStatus(serObj.graph, serObj.transitModel);
       return serObj;
     } catch (IOException e) {
@@ -192,6 +291,94 @@ public class SerializedGraphObject implements Serializable {
     }
   }
 
+  /**
+   * The street graph edge lists and the transit indexes do not depend on each other, so they are
+   * rebuilt in parallel. The stop model must be indexed before the transit model, because the
+   * transit model index adds flex stops to the stop model index.
+   */
+  private void indexAfterDeserialization() {
+    var streetTask = CompletableFuture.runAsync(() ->
+      timed(
+        "Reconstruct edge lists",
+        () -> {
+          reconstructEdgeLists();
+          return null;
+        }
+      )
+    );
+    timed(
+      "Index transit model",
+      () -> {
+        transitModel.getStopModel().reindexAfterDeserialization();
+        transitModel.index();
+        return null;
+      }
+    );
+    try {
+      streetTask.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException re) {
+        throw re;
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Remove the repeated instances of an edge, keeping the first. The edge arrays are short, so
+   * each edge is compared with the edges before it, except for vertices with a very high degree.
+   */
+  private static Edge[] removeRepeatedEdges(Edge[] edges) {
+    if (edges.length < 2) {
+      return edges;
+    }
+    Set<Edge> seen = edges.length > MAX_DEGREE_LINEAR_SCAN
+      ? Collections.newSetFromMap(new IdentityHashMap<>())
+      : null;
+    int n = 0;
+    for (Edge e : edges) {
+      if (seen != null ? !seen.add(e) : containsInstance(edges, n, e)) {
+        LOG.error("repeatedly added edge {}", e);
+        continue;
+      }
+      edges[n++] = e;
+    }
+    return n == edges.length ? edges : Arrays.copyOf(edges, n);
+  }
+
+  private static boolean containsInstance(Edge[] edges, int size, Edge e) {
+    for (int i = 0; i < size; ++i) {
+      if (edges[i] == e) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Run the given graph load/save section and log how long it took.
+   */
+  private static <T> T timed(String section, Supplier<T> body) {
+    long start = System.currentTimeMillis();
+    T result = body.get();
+    LOG.info("{} done in {}.", section, msToSecondsStr(System.currentTimeMillis() - start));
+    return result;
+  }
+
+  /**
+   * Return the file if the data source is an uncompressed file on the local file system,
+   * otherwise {@code null}.
+   */
+  @Nullable
+  private static File localUncompressedFile(DataSource source) {
+    var uri = source.uri();
+    if (uri == null || !"file".equals(uri.getScheme()) || source.name().endsWith(".gz")) {
+      return null;
+    }
+    var file = new File(uri);
+    return file.isFile() ? file : null;
+  }
+
   @SuppressWarnings("Convert2MethodRef")
   private static OutputStream wrapOutputStreamWithProgressTracker(
     OutputStream outputStream,
@@ -231,8 +418,14 @@ public class SerializedGraphObject implements Serializable {
     Kryo kryo = KryoBuilder.create();
     Output output = new Output(outputStream);
     output.write(OtpProjectInfo.projectInfo().graphFileHeaderInfo.header());
-    kryo.writeClassAndObject(output, this);
-    output.close();
+    timed(
+      "Serialize graph",
+      () -> {
+        kryo.writeClassAndObject(output, this);
+        output.close();
+        return null;
+      }
+    );
     LOG.info("Graph written: {}", graphName);
     // Summarize serialized classes and associated serializers to stdout:
     // ((InstanceCountingClassResolver) kryo.getClassResolver()).summarize();
@@ -76,6 +76,17 @@ public abstract class Vertex implements Serializable, Cloneable {
     this.incoming = new Edge[0];
   }
 
+  /**
+   * Set both edge lists at once. The arrays are used as is and must not be modified by the caller
+   * after this call.
+   */
+  void initEdgeLists(Edge[] outgoing, Edge[] incoming) {
+    synchronized (this) {
+      this.outgoing = outgoing;
+      this.incoming = incoming;
+    }
+  }
+
   /* EDGE UTILITY METHODS (use arrays to eliminate copy-on-write set objects) */
 
   public void addOutgoing(Edge edge) {
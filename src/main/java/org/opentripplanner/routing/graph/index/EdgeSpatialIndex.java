@@ -3,7 +3,9 @@ package org.opentripplanner.routing.graph.index;
 import java.util.stream.Stream;
 import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.LineString;
+import org.opentripplanner.common.geometry.GeometrySpatialIndex;
 import org.opentripplanner.common.geometry.HashGridSpatialIndex;
+import org.opentripplanner.common.geometry.SpatialIndexType;
 import org.opentripplanner.routing.graph.Edge;
 import org.opentripplanner.routing.linking.Scope;
 
@@ -29,13 +31,20 @@ import org.opentripplanner.routing.linking.Scope;
  * edge then back again to where the realtime element was connected.
  * <p>
  * See #3351
+ * <p>
+ * The permanent index uses the given {@link SpatialIndexType}, while the realtime index is always
+ * a {@link HashGridSpatialIndex}, since it is changed all the time.
  */
 public class EdgeSpatialIndex {
 
-  private final HashGridSpatialIndex<Edge> permanentEdgeIndex = new HashGridSpatialIndex<>();
+  private final GeometrySpatialIndex<Edge> permanentEdgeIndex;
 
   private final HashGridSpatialIndex<Edge> realTimeEdgeIndex = new HashGridSpatialIndex<>();
 
+  public EdgeSpatialIndex(SpatialIndexType permanentIndexType) {
+    this.permanentEdgeIndex = permanentIndexType.create();
+  }
+
   public void insert(LineString lineString, Object obj, Scope scope) {
     switch (scope) {
       case PERMANENT -> permanentEdgeIndex.insert(lineString, obj);
@@ -10,7 +10,7 @@ import java.util.stream.Collectors;
 import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.LineString;
-import org.opentripplanner.common.geometry.HashGridSpatialIndex;
+import org.opentripplanner.common.geometry.GeometrySpatialIndex;
 import org.opentripplanner.common.geometry.SphericalDistanceLibrary;
 import org.opentripplanner.common.model.P2;
 import org.opentripplanner.model.GenericLocation;
@@ -60,15 +60,15 @@ public class StreetIndex {
   private final Map<FeedScopedId, TransitStopVertex> transitStopVertices;
 
   private final EdgeSpatialIndex edgeSpatialIndex;
-  private final HashGridSpatialIndex<Vertex> verticesTree;
+  private final GeometrySpatialIndex<Vertex> verticesTree;
 
   /**
    * Should only be called by the graph.
    */
   public StreetIndex(Graph graph, StopModel stopModel) {
     this.stopModel = stopModel;
-    this.edgeSpatialIndex = new EdgeSpatialIndex();
-    this.verticesTree = new HashGridSpatialIndex<>();
+    this.edgeSpatialIndex = new EdgeSpatialIndex(graph.getSpatialIndexType());
+    this.verticesTree = graph.getSpatialIndexType().create();
     this.vertexLinker = new VertexLinker(graph, stopModel, edgeSpatialIndex);
     this.transitStopVertices = toImmutableMap(graph.getVerticesOfType(TransitStopVertex.class));
     postSetup(graph.getVertices());
@@ -10,6 +10,10 @@ import javax.annotation.Nullable;
 import org.opentripplanner.ext.dataoverlay.routing.DataOverlayContext;
 import org.opentripplanner.routing.algorithm.astar.AStarBuilder;
 import org.opentripplanner.routing.algorithm.astar.TraverseVisitor;
+import org.opentripplanner.routing.algorithm.astar.landmark.Landmarks;
+import org.opentripplanner.routing.algorithm.astar.strategies.EuclideanRemainingWeightHeuristic;
+import org.opentripplanner.routing.algorithm.astar.strategies.LandmarkRemainingWeightHeuristic;
+import org.opentripplanner.routing.algorithm.astar.strategies.RemainingWeightHeuristic;
 import org.opentripplanner.routing.api.request.RouteRequest;
 import org.opentripplanner.routing.api.request.preference.StreetPreferences;
 import org.opentripplanner.routing.core.TemporaryVerticesContainer;
@@ -53,18 +57,35 @@ public class GraphPathFinder {
 
   private final DataOverlayContext dataOverlayContext;
 
+  @Nullable
+  private final Landmarks landmarks;
+
   public GraphPathFinder(@Nullable TraverseVisitor traverseVisitor, Duration streetRoutingTimeout) {
-    this(traverseVisitor, streetRoutingTimeout, null);
+    this(traverseVisitor, streetRoutingTimeout, null, null);
   }
 
   public GraphPathFinder(
     @Nullable TraverseVisitor traverseVisitor,
     Duration streetRoutingTimeout,
     @Nullable DataOverlayContext dataOverlayContext
+  ) {
+    this(traverseVisitor, streetRoutingTimeout, dataOverlayContext, null);
+  }
+
+  /**
+   * @param landmarks if set, the landmark distances are used to guide the search, see
+   *                  {@link LandmarkRemainingWeightHeuristic}.
+   */
+  public GraphPathFinder(
+    @Nullable TraverseVisitor traverseVisitor,
+    Duration streetRoutingTimeout,
+    @Nullable DataOverlayContext dataOverlayContext,
+    @Nullable Landmarks landmarks
   ) {
     this.traverseVisitor = traverseVisitor;
     this.streetRoutingTimeout = streetRoutingTimeout;
     this.dataOverlayContext = dataOverlayContext;
+    this.landmarks = landmarks;
   }
 
   /**
@@ -74,9 +95,14 @@ public class GraphPathFinder {
   public List<GraphPath> getPaths(RouteRequest request, Set<Vertex> from, Set<Vertex> to) {
     StreetPreferences preferences = request.preferences().street();
 
+    RemainingWeightHeuristic heuristic = landmarks == null
+      ? new EuclideanRemainingWeightHeuristic()
+      : new LandmarkRemainingWeightHeuristic(landmarks);
+
     AStarBuilder aStar = AStarBuilder
       .oneToOneMaxDuration(
-        preferences.maxDirectDuration().valueOf(request.journey().direct().mode())
+        preferences.maxDirectDuration().valueOf(request.journey().direct().mode()),
+        heuristic
       )
       // FORCING the dominance function to weight only
       .setDominanceFunction(new DominanceFunction.MinimumWeight())
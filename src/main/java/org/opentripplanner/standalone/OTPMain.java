@@ -11,6 +11,7 @@ import org.opentripplanner.routing.graph.SerializedGraphObject;
 import org.opentripplanner.standalone.config.CommandLineParameters;
 import org.opentripplanner.standalone.configure.ConstructApplication;
 import org.opentripplanner.standalone.configure.LoadApplication;
+import org.opentripplanner.standalone.server.GraphQLExecutionScheduler;
 import org.opentripplanner.standalone.server.GrizzlyServer;
 import org.opentripplanner.transit.raptor.configure.RaptorConfig;
 import org.opentripplanner.transit.service.TransitModel;
@@ -186,7 +187,11 @@ public class OTPMain {
     if (params.doServe()) {
       GrizzlyServer grizzlyServer = app.createGrizzlyServer();
 
-      registerShutdownHookToGracefullyShutDownServer(app.transitModel(), app.raptorConfig());
+      registerShutdownHookToGracefullyShutDownServer(
+        app.transitModel(),
+        app.raptorConfig(),
+        app.graphQLScheduler()
+      );
 
       // Loop to restart server on uncaught fatal exceptions.
       while (true) {
@@ -208,18 +213,21 @@ public class OTPMain {
    * Shut down this server when evicted or (auto-)reloaded.
    * <ol>
    *   <li>Stop any real-time updater threads.</li>
+   *   <li>Stop the Raptor and GraphQL thread pools.</li>
    *   <li>Cleanup various stuff of some used libraries (org.geotools), which depend on the
    *   external client to call them for cleaning-up.</li>
    * </ol>
    */
   private static void registerShutdownHookToGracefullyShutDownServer(
     TransitModel transitModel,
-    RaptorConfig<?> raptorConfig
+    RaptorConfig<?> raptorConfig,
+    GraphQLExecutionScheduler graphQLScheduler
   ) {
     var hook = new Thread(() -> {
       LOG.info("OTP shutdown started...");
       UpdaterConfigurator.shutdownGraph(transitModel);
       raptorConfig.shutdown();
+      graphQLScheduler.shutdown();
       WeakCollectionCleaner.DEFAULT.exit();
       DeferredAuthorityFactory.exit();
     });
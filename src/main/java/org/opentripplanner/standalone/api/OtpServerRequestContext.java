@@ -11,6 +11,7 @@ import org.opentripplanner.routing.api.request.RouteRequest;
 import org.opentripplanner.routing.graph.Graph;
 import org.opentripplanner.routing.graphfinder.GraphFinder;
 import org.opentripplanner.standalone.config.RouterConfig;
+import org.opentripplanner.standalone.server.GraphQLExecutionScheduler;
 import org.opentripplanner.transit.raptor.configure.RaptorConfig;
 import org.opentripplanner.transit.service.TransitService;
 import org.opentripplanner.util.OTPFeature;
@@ -56,6 +57,11 @@ public interface OtpServerRequestContext {
 
   RaptorConfig<TripSchedule> raptorConfig();
 
+  /**
+   * The shared thread pool running the GraphQL requests of all APIs.
+   */
+  GraphQLExecutionScheduler graphQLScheduler();
+
   Graph graph();
 
   @HttpRequestScoped
@@ -4,6 +4,7 @@ import static org.opentripplanner.standalone.config.framework.json.OtpVersion.V1
 import static org.opentripplanner.standalone.config.framework.json.OtpVersion.V2_0;
 import static org.opentripplanner.standalone.config.framework.json.OtpVersion.V2_1;
 import static org.opentripplanner.standalone.config.framework.json.OtpVersion.V2_2;
+import static org.opentripplanner.standalone.config.framework.json.OtpVersion.V2_3;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.MissingNode;
@@ -16,6 +17,7 @@ import java.util.Set;
 import java.util.regex.Pattern;
 import javax.annotation.Nonnull;
 import org.opentripplanner.common.geometry.CompactElevationProfile;
+import org.opentripplanner.common.geometry.SpatialIndexType;
 import org.opentripplanner.datastore.api.OtpDataStoreConfig;
 import org.opentripplanner.ext.dataoverlay.configuration.DataOverlayConfig;
 import org.opentripplanner.ext.fares.FaresConfiguration;
@@ -141,6 +143,8 @@ public class BuildConfig implements OtpDataStoreConfig {
   public final CustomNamer customNamer;
 
   public final boolean osmCacheDataInMem;
+  public final int osmParserThreads;
+  public final boolean osmCacheDecodedBlocks;
   public final int pruningThresholdIslandWithoutStops;
   public final int pruningThresholdIslandWithStops;
   public final boolean banDiscouragedWalking;
@@ -155,6 +159,12 @@ public class BuildConfig implements OtpDataStoreConfig {
 
   public final int maxAreaNodes;
 
+  public final int landmarkCount;
+
+  public final boolean carContractionHierarchy;
+
+  public final SpatialIndexType streetSpatialIndex;
+
   public final DataOverlayConfig dataOverlay;
   public final double maxStopToShapeSnapDistance;
   public final Set<String> boardingLocationTags;
@@ -406,6 +416,34 @@ all of the elevation values in the street edges.
       """
         )
         .asBoolean(false);
+    osmParserThreads =
+      root
+        .of("osmParserThreads")
+        .since(V2_3)
+        .summary("The number of threads used to decode the blocks of the OSM PBF files.")
+        .description(
+          """
+          The blocks of an OSM PBF file are decompressed and decoded in parallel, and handed over
+          to the graph builder in the order of the file. `0` uses one thread per available
+          processor, and `1` decodes the blocks in the thread reading the file.
+          """
+        )
+        .asInt(0);
+    osmCacheDecodedBlocks =
+      root
+        .of("osmCacheDecodedBlocks")
+        .since(V2_3)
+        .summary("If the decoded OSM blocks should be kept in memory between the parser phases.")
+        .description(
+          """
+          The OSM data is processed in 3 phases, see `osmCacheDataInMem`. The blocks with ways and
+          nodes are decoded in the first phase, and only the blocks needed in a phase are decoded
+          again. Set this parameter to `true` to keep the decoded blocks in memory instead, so the
+          OSM file is only read and decoded once. The decoded blocks use several times more memory
+          than the file.
+          """
+        )
+        .asBoolean(false);
     platformEntriesLinking =
       root
         .of("platformEntriesLinking")
@@ -551,6 +589,63 @@ recommended.
           "Visibility calculations for an area will not be done if there are more nodes than this limit."
         )
         .asInt(500);
+    landmarkCount =
+      root
+        .of("landmarkCount")
+        .since(V2_3)
+        .summary("The number of landmarks to use for speeding up direct car and bicycle searches.")
+        .description(
+          """
+          If set, the distances to and from this many landmarks are computed for all vertices when
+          the graph is built. The distances are used to estimate the remaining weight in direct
+          street searches with the `CAR` and `BIKE` modes, which reduces the number of states
+          explored. The landmarks are selected far away from each other, at the edge of the graph.
+
+          The distances are stored for each mode, landmark and vertex in both directions, so the
+          graph grows by 16 bytes per landmark and vertex. Between 8 and 16 landmarks is a good
+          starting point. `0` disables this feature.
+          """
+        )
+        .asInt(0);
+    carContractionHierarchy =
+      root
+        .of("carContractionHierarchy")
+        .since(V2_3)
+        .summary("Build a contraction hierarchy to speed up direct car searches.")
+        .description(
+          """
+          If enabled, a contraction hierarchy is built for the street edges which can be driven,
+          taking turn restrictions and turn costs into account. Direct `CAR` searches use it
+          instead of the A* search when the car reluctance, turn reluctance, intersection
+          traversal model and driving direction of the request give the same relative weights as
+          the defaults. Other requests, and requests the hierarchy can not answer, for example
+          because of a turn restriction only active some of the time, use the A* search.
+
+          The hierarchy is built with the default routing preferences, and makes the graph larger
+          and the graph build slower.
+          """
+        )
+        .asBoolean(false);
+    streetSpatialIndex =
+      root
+        .of("streetSpatialIndex")
+        .since(V2_3)
+        .summary("The spatial index used to find the street edges and vertices near a location.")
+        .description(
+          """
+          The index is used when linking stops and other places to the street graph during the
+          graph build, and when linking the origin and destination of each request.
+
+          - `hash-grid` puts the edges in square bins of about 500 meters. Many edges end up in the
+            same bin in dense city centres, and many bins are empty in sparse rural areas.
+          - `hilbert-r-tree` packs the edges into an R-tree sorted along a Hilbert curve, which
+            adapts to the density of the street network and uses less memory.
+
+          The index is created when the graph is loaded, so the graph must be built again to
+          change it.
+          """
+        )
+        .asEnum(SpatialIndexType.HASH_GRID);
     maxElevationPropagationMeters =
       root
         .of("maxElevationPropagationMeters")
@@ -14,12 +14,14 @@ import org.opentripplanner.routing.algorithm.raptoradapter.transit.TransitTuning
 import org.opentripplanner.routing.api.request.RouteRequest;
 import org.opentripplanner.routing.api.request.preference.RoutingPreferences;
 import org.opentripplanner.standalone.config.framework.json.NodeAdapter;
+import org.opentripplanner.standalone.config.routerconfig.GraphQLSchedulerConfig;
 import org.opentripplanner.standalone.config.routerconfig.TransitRoutingConfig;
 import org.opentripplanner.standalone.config.routerconfig.UpdatersConfig;
 import org.opentripplanner.standalone.config.routerconfig.VectorTileConfig;
 import org.opentripplanner.standalone.config.routerequest.RouteRequestConfig;
 import org.opentripplanner.standalone.config.sandbox.FlexConfig;
 import org.opentripplanner.standalone.config.sandbox.TransmodelAPIConfig;
+import org.opentripplanner.standalone.server.GraphQLExecutionScheduler;
 import org.opentripplanner.transit.raptor.api.request.RaptorTuningParameters;
 import org.opentripplanner.updater.UpdatersParameters;
 import org.slf4j.Logger;
@@ -49,6 +51,7 @@ public class RouterConfig implements Serializable {
   private final Duration streetRoutingTimeout;
   private final RouteRequest routingRequestDefaults;
   private final TransitRoutingConfig transitConfig;
+  private final GraphQLSchedulerConfig graphQLSchedulerConfig;
   private final UpdatersParameters updatersParameters;
   private final VectorTileConfig vectorTileLayers;
   private final FlexConfig flexConfig;
@@ -110,6 +113,7 @@ number of transit vehicles used in that itinerary.
       );
     this.streetRoutingTimeout = parseStreetRoutingTimeout(root);
     this.transitConfig = new TransitRoutingConfig("transit", root);
+    this.graphQLSchedulerConfig = new GraphQLSchedulerConfig("graphQLScheduler", root);
     this.routingRequestDefaults =
       RouteRequestConfig.mapDefaultRouteRequest(root, "routingDefaults");
     this.updatersParameters = new UpdatersConfig(root);
@@ -170,6 +174,10 @@ number of transit vehicles used in that itinerary.
     return transitConfig;
   }
 
+  public GraphQLExecutionScheduler.Parameters graphQLSchedulerParameters() {
+    return graphQLSchedulerConfig;
+  }
+
   public UpdatersParameters updaterConfig() {
     return updatersParameters;
   }
@@ -2,12 +2,17 @@ package org.opentripplanner.standalone.config.configure;
 
 import dagger.Module;
 import dagger.Provides;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import java.util.List;
 import javax.inject.Singleton;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.TripSchedule;
 import org.opentripplanner.standalone.config.BuildConfig;
 import org.opentripplanner.standalone.config.ConfigModel;
 import org.opentripplanner.standalone.config.OtpConfig;
 import org.opentripplanner.standalone.config.RouterConfig;
+import org.opentripplanner.standalone.server.GraphQLExecutionScheduler;
 import org.opentripplanner.transit.raptor.configure.RaptorConfig;
 
 /**
@@ -35,6 +40,26 @@ public class ConfigModule {
   @Provides
   @Singleton
   static RaptorConfig<TripSchedule> providesRaptorConfig(ConfigModel config) {
-    return new RaptorConfig<>(config.routerConfig().raptorTuningParameters());
+    // Record the time tasks wait in the queue and the execution time, in addition to the pool
+    // size and queue length
+    return new RaptorConfig<>(
+      config.routerConfig().raptorTuningParameters(),
+      pool ->
+        ExecutorServiceMetrics.monitor(
+          Metrics.globalRegistry,
+          pool,
+          "raptorHeuristics",
+          List.of(Tag.of("pool", "raptorHeuristics"))
+        )
+    );
+  }
+
+  @Provides
+  @Singleton
+  static GraphQLExecutionScheduler providesGraphQLExecutionScheduler(ConfigModel config) {
+    return new GraphQLExecutionScheduler(
+      config.routerConfig().graphQLSchedulerParameters(),
+      Metrics.globalRegistry
+    );
   }
 }
@@ -0,0 +1,71 @@
+package org.opentripplanner.standalone.config.routerconfig;
+
+import static org.opentripplanner.standalone.config.framework.json.OtpVersion.V2_3;
+
+import org.opentripplanner.standalone.config.framework.json.NodeAdapter;
+import org.opentripplanner.standalone.server.GraphQLExecutionScheduler;
+
+public class GraphQLSchedulerConfig implements GraphQLExecutionScheduler.Parameters {
+
+  private final int threadPoolSize;
+  private final int queueSize;
+  private final int maxConcurrentRequestsPerApi;
+
+  public GraphQLSchedulerConfig(String parameterName, NodeAdapter root) {
+    NodeAdapter c = root
+      .of(parameterName)
+      .since(V2_3)
+      .summary("Configuration for the thread pool running the GraphQL requests.")
+      .description(
+        """
+The GraphQL requests of the legacy GraphQL API and the Transmodel API are run in a shared pool with
+a fixed number of threads. When all threads are busy the requests wait in a queue. If the queue is
+full, or an API has too many requests, the request is rejected with the HTTP status code
+`429 Too Many Requests`.
+"""
+      )
+      .asObject();
+    this.threadPoolSize =
+      c
+        .of("threadPoolSize")
+        .since(V2_3)
+        .summary("The number of threads running GraphQL requests.")
+        .description("If 0, the number of available processors is used.")
+        .asInt(0);
+    this.queueSize =
+      c
+        .of("queueSize")
+        .since(V2_3)
+        .summary("The max number of GraphQL requests waiting for a thread.")
+        .description(
+          "Each query in a batch request counts as one request. If 0, requests are rejected when " +
+          "all threads are busy."
+        )
+        .asInt(100);
+    this.maxConcurrentRequestsPerApi =
+      c
+        .of("maxConcurrentRequestsPerApi")
+        .since(V2_3)
+        .summary("The max number of GraphQL requests running or waiting for each API.")
+        .description(
+          "Use this to prevent one API from using all the threads and the queue. If 0, there is " +
+          "no limit per API."
+        )
+        .asInt(0);
+  }
+
+  @Override
+  public int threadPoolSize() {
+    return threadPoolSize;
+  }
+
+  @Override
+  public int queueSize() {
+    return queueSize;
+  }
+
+  @Override
+  public int maxConcurrentRequestsPerApi() {
+    return maxConcurrentRequestsPerApi;
+  }
+}
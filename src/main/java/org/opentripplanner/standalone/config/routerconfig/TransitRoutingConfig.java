@@ -1,6 +1,7 @@
 package org.opentripplanner.standalone.config.routerconfig;
 
 import static org.opentripplanner.standalone.config.framework.json.OtpVersion.NA;
+import static org.opentripplanner.standalone.config.framework.json.OtpVersion.V2_3;
 
 import java.time.Duration;
 import java.util.List;
@@ -10,6 +11,7 @@ import org.opentripplanner.standalone.config.framework.json.NodeAdapter;
 import org.opentripplanner.transit.model.site.StopTransferPriority;
 import org.opentripplanner.transit.raptor.api.request.DynamicSearchWindowCoefficients;
 import org.opentripplanner.transit.raptor.api.request.RaptorTuningParameters;
+import org.opentripplanner.transit.raptor.api.request.SearchThreadPoolType;
 
 /**
  * @see RaptorTuningParameters for documentaion of tuning parameters.
@@ -20,7 +22,10 @@ public final class TransitRoutingConfig implements RaptorTuningParameters, Trans
   private final int scheduledTripBinarySearchThreshold;
   private final int iterationDepartureStepInSeconds;
   private final int searchThreadPoolSize;
+  private final SearchThreadPoolType searchThreadPoolType;
+  private final int searchWindowPartitions;
   private final int transferCacheMaxSize;
+  private final int patternCacheMaxSize;
   private final List<Duration> pagingSearchWindowAdjustments;
 
   private final Map<StopTransferPriority, Integer> stopTransferCost;
@@ -100,6 +105,42 @@ no extra threads are started and the search is done in one thread.
 """
         )
         .asInt(dft.searchThreadPoolSize());
+    this.searchThreadPoolType =
+      c
+        .of("searchThreadPoolType")
+        .since(V2_3)
+        .summary("The type of thread pool used to run the parallel parts of the searches.")
+        .description(
+          """
+The `fixed` pool has one task queue shared by all threads, while the `work-stealing` pool has one
+queue per thread and let idle threads steal tasks from the busy ones. The work-stealing pool
+reduces the contention on the queue when many searches submit tasks at the same time. In both
+cases a search runs the tasks not yet started by the pool in its own thread, instead of waiting
+for them in the queue. This parameter has no effect if `searchThreadPoolSize` is 0.
+"""
+        )
+        .asEnum(dft.searchThreadPoolType());
+    this.searchWindowPartitions =
+      c
+        .of("searchWindowPartitions")
+        .since(V2_3)
+        .summary(
+          "Split the search-window of a multi-criteria search into this many parts searched in parallel."
+        )
+        .description(
+          """
+The multi-criteria search iterates over the departure times in the search-window one minute at
+the time, reusing the arrivals found for the later departures. With this parameter the
+search-window is split into the given number of parts, each searched in its own thread, and the
+results are merged. Each part has at least 10 iterations, so short search-windows are split into
+fewer parts or not at all. The total amount of work increases, since each part can not reuse the
+arrivals found in the other parts, but the response time for long search-windows decreases when
+there are idle threads available. The threads are taken from the `searchThreadPoolSize` pool, which
+must be set. Only forward searches with the timetable enabled are split. The default value `1`
+disables the feature.
+"""
+        )
+        .asInt(dft.searchWindowPartitions());
     // Dynamic Search Window
     this.stopTransferCost =
       c
@@ -139,6 +180,19 @@ Use values in a range from `0` to `100 000`. **All key/value pairs are required
           " If too low, requests may be slower. If too high, more memory may be used then required."
         )
         .asInt(25);
+    this.patternCacheMaxSize =
+      c
+        .of("patternCacheMaxSize")
+        .since(V2_3)
+        .summary("The maximum number of distinct trip filters to cache filtered trip patterns for.")
+        .description(
+          """
+Requests with the same search date, modes, banned routes and trips, and wheelchair settings share
+the trip patterns filtered for the first of them. The cache is cleared when the transit data is
+updated by the realtime updaters. Set to `0` to disable the cache.
+"""
+        )
+        .asInt(10);
 
     this.pagingSearchWindowAdjustments =
       c
@@ -182,6 +236,16 @@ for more info."
     return searchThreadPoolSize;
   }
 
+  @Override
+  public SearchThreadPoolType searchThreadPoolType() {
+    return searchThreadPoolType;
+  }
+
+  @Override
+  public int searchWindowPartitions() {
+    return searchWindowPartitions;
+  }
+
   @Override
   public DynamicSearchWindowCoefficients dynamicSearchWindowCoefficients() {
     return dynamicSearchWindowCoefficients;
@@ -202,6 +266,11 @@ for more info."
     return transferCacheMaxSize;
   }
 
+  @Override
+  public int patternCacheMaxSize() {
+    return patternCacheMaxSize;
+  }
+
   @Override
   public List<Duration> pagingSearchWindowAdjustments() {
     return pagingSearchWindowAdjustments;
@@ -18,6 +18,7 @@ import org.opentripplanner.standalone.config.CommandLineParameters;
 import org.opentripplanner.standalone.config.ConfigModel;
 import org.opentripplanner.standalone.config.OtpConfig;
 import org.opentripplanner.standalone.config.RouterConfig;
+import org.opentripplanner.standalone.server.GraphQLExecutionScheduler;
 import org.opentripplanner.standalone.server.GrizzlyServer;
 import org.opentripplanner.standalone.server.OTPWebApplication;
 import org.opentripplanner.transit.raptor.configure.RaptorConfig;
@@ -199,6 +200,10 @@ public class ConstructApplication {
     return factory.raptorConfig();
   }
 
+  public GraphQLExecutionScheduler graphQLScheduler() {
+    return factory.graphQLScheduler();
+  }
+
   public GraphVisualizer graphVisualizer() {
     return factory.graphVisualizer();
   }
@@ -9,6 +9,7 @@ import org.opentripplanner.routing.graph.Graph;
 import org.opentripplanner.standalone.api.OtpServerRequestContext;
 import org.opentripplanner.standalone.config.ConfigModel;
 import org.opentripplanner.standalone.config.configure.ConfigModule;
+import org.opentripplanner.standalone.server.GraphQLExecutionScheduler;
 import org.opentripplanner.standalone.server.MetricsLogging;
 import org.opentripplanner.transit.configure.TransitModule;
 import org.opentripplanner.transit.raptor.configure.RaptorConfig;
@@ -24,6 +25,7 @@ import org.opentripplanner.visualizer.GraphVisualizer;
 public interface ConstructApplicationFactory {
   ConfigModel config();
   RaptorConfig<TripSchedule> raptorConfig();
+  GraphQLExecutionScheduler graphQLScheduler();
   Graph graph();
   TransitModel transitModel();
 
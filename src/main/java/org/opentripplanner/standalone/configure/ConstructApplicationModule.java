@@ -10,6 +10,7 @@ import org.opentripplanner.routing.graph.Graph;
 import org.opentripplanner.standalone.api.OtpServerRequestContext;
 import org.opentripplanner.standalone.config.RouterConfig;
 import org.opentripplanner.standalone.server.DefaultServerRequestContext;
+import org.opentripplanner.standalone.server.GraphQLExecutionScheduler;
 import org.opentripplanner.transit.raptor.configure.RaptorConfig;
 import org.opentripplanner.transit.service.TransitService;
 import org.opentripplanner.visualizer.GraphVisualizer;
@@ -21,6 +22,7 @@ public class ConstructApplicationModule {
   OtpServerRequestContext providesServerContext(
     RouterConfig routerConfig,
     RaptorConfig<TripSchedule> raptorConfig,
+    GraphQLExecutionScheduler graphQLScheduler,
     Graph graph,
     TransitService transitService,
     @Nullable TraverseVisitor traverseVisitor
@@ -28,6 +30,7 @@ public class ConstructApplicationModule {
     return DefaultServerRequestContext.create(
       routerConfig,
       raptorConfig,
+      graphQLScheduler,
       graph,
       transitService,
       Metrics.globalRegistry,
@@ -26,6 +26,7 @@ public class DefaultServerRequestContext implements OtpServerRequestContext {
   private final RouterConfig routerConfig;
   private final MeterRegistry meterRegistry;
   private final RaptorConfig<TripSchedule> raptorConfig;
+  private final GraphQLExecutionScheduler graphQLScheduler;
   public final Logger requestLogger;
   private final TileRendererManager tileRendererManager;
   public final TraverseVisitor traverseVisitor;
@@ -39,6 +40,7 @@ public class DefaultServerRequestContext implements OtpServerRequestContext {
     RouterConfig routerConfig,
     MeterRegistry meterRegistry,
     RaptorConfig<TripSchedule> raptorConfig,
+    GraphQLExecutionScheduler graphQLScheduler,
     Logger requestLogger,
     TileRendererManager tileRendererManager,
     TraverseVisitor traverseVisitor
@@ -48,6 +50,7 @@ public class DefaultServerRequestContext implements OtpServerRequestContext {
     this.routerConfig = routerConfig;
     this.meterRegistry = meterRegistry;
     this.raptorConfig = raptorConfig;
+    this.graphQLScheduler = graphQLScheduler;
     this.requestLogger = requestLogger;
     this.tileRendererManager = tileRendererManager;
     this.traverseVisitor = traverseVisitor;
@@ -59,6 +62,7 @@ public class DefaultServerRequestContext implements OtpServerRequestContext {
   public static DefaultServerRequestContext create(
     RouterConfig routerConfig,
     RaptorConfig<TripSchedule> raptorConfig,
+    GraphQLExecutionScheduler graphQLScheduler,
     Graph graph,
     TransitService transitService,
     MeterRegistry meterRegistry,
@@ -72,6 +76,7 @@ public class DefaultServerRequestContext implements OtpServerRequestContext {
       routerConfig,
       meterRegistry,
       raptorConfig,
+      graphQLScheduler,
       RequestLoggerFactory.createLogger(routerConfig.requestLogFile()),
       new TileRendererManager(graph, defaultRoutingPreferences),
       traverseVisitor
@@ -105,6 +110,11 @@ public class DefaultServerRequestContext implements OtpServerRequestContext {
     return raptorConfig;
   }
 
+  @Override
+  public GraphQLExecutionScheduler graphQLScheduler() {
+    return graphQLScheduler;
+  }
+
   @Override
   public Graph graph() {
     return graph;
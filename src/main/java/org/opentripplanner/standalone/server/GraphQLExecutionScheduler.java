@@ -0,0 +1,241 @@
+package org.opentripplanner.standalone.server;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Run the GraphQL requests of all APIs in one bounded thread pool. If all threads are busy, the
+ * requests wait in a bounded queue. When the queue is full, or an API has reached its limit of
+ * concurrent requests, the request is rejected with a {@link RejectedExecutionException}. The
+ * {@link org.opentripplanner.api.common.OTPExceptionMapper} maps this to the HTTP status 429, Too
+ * Many Requests, so a server under heavy load rejects requests fast instead of starting a thread
+ * for each of them.
+ * <p>
+ * The pool is monitored with Micrometer, this records the time the requests wait in the queue,
+ * the execution time and the number of active threads. In addition, the number of active requests
+ * and the number of rejected requests are recorded for each API.
+ * <p>
+ * The threads are daemon threads, but the scheduler should be shut down with the server, see
+ * {@link #shutdown()}.
+ */
+public class GraphQLExecutionScheduler {
+
+  private static final String POOL_NAME = "graphQLExecutor";
+
+  private final ExecutorService executor;
+
+  /** The undecorated pool, which owns the queue the cancelled tasks are removed from. */
+  private final ThreadPoolExecutor pool;
+
+  /**
+   * The max number of tasks of one batch running or waiting in the queue. When a task completes,
+   * its thread may not have taken the next task from the queue yet, so this is the queue size, or
+   * the number of threads if there is no queue.
+   */
+  private final int maxBatchTasksInFlight;
+
+  private final int maxConcurrentRequestsPerApi;
+  private final MeterRegistry meterRegistry;
+  private final Map<String, ApiLimiter> limiters = new ConcurrentHashMap<>();
+
+  public GraphQLExecutionScheduler(Parameters parameters, MeterRegistry meterRegistry) {
+    int threads = parameters.threadPoolSize() > 0
+      ? parameters.threadPoolSize()
+      : Runtime.getRuntime().availableProcessors();
+    BlockingQueue<Runnable> queue = parameters.queueSize() > 0
+      ? new ArrayBlockingQueue<>(parameters.queueSize())
+      : new SynchronousQueue<>();
+    this.pool =
+      new ThreadPoolExecutor(
+        threads,
+        threads,
+        0L,
+        TimeUnit.MILLISECONDS,
+        queue,
+        new ThreadFactoryBuilder().setNameFormat("GraphQLExecutor-%d").setDaemon(true).build()
+      );
+    this.executor =
+      ExecutorServiceMetrics.monitor(
+        meterRegistry,
+        pool,
+        POOL_NAME,
+        List.of(Tag.of("pool", POOL_NAME))
+      );
+    this.maxBatchTasksInFlight = parameters.queueSize() > 0 ? parameters.queueSize() : threads;
+    this.maxConcurrentRequestsPerApi = parameters.maxConcurrentRequestsPerApi();
+    this.meterRegistry = meterRegistry;
+  }
+
+  /**
+   * Run the task in the pool and wait for the result.
+   *
+   * @param api The name of the API, used to limit the number of concurrent requests per API.
+   * @throws RejectedExecutionException if the queue is full or the API has too many requests.
+   */
+  public <T> T execute(String api, Callable<T> task) {
+    try {
+      Future<T> result = invokeAll(api, List.of(task)).get(0);
+      return result.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw new RuntimeException(e.getCause());
+    }
+  }
+
+  /**
+   * Run the tasks in the pool and wait for all of them to complete. A batch with more tasks than
+   * the limit of the API, or than the queue can hold, is run in parts: no more tasks than that are
+   * running or queued at a time, and the next task is submitted when the earliest one completes.
+   * If a task is rejected, the tasks not completed are cancelled.
+   *
+   * @param api The name of the API, used to limit the number of concurrent requests per API.
+   * @return The futures of the tasks, in the same order as the tasks. All of them are done.
+   * @throws RejectedExecutionException if the queue is full or the API has too many requests.
+   */
+  public <T> List<Future<T>> invokeAll(String api, List<? extends Callable<T>> tasks)
+    throws InterruptedException {
+    ApiLimiter limiter = limiters.computeIfAbsent(api, ApiLimiter::new);
+    int maxInFlight = maxTasksInFlight(tasks.size());
+    if (!limiter.tryAcquire(maxInFlight)) {
+      limiter.rejected.increment();
+      throw new RejectedExecutionException(
+        "The " + api + " API has reached its limit of concurrent requests."
+      );
+    }
+    List<Future<T>> futures = new ArrayList<>(tasks.size());
+    try {
+      for (int i = 0; i < tasks.size(); ++i) {
+        if (i >= maxInFlight) {
+          await(futures.get(i - maxInFlight));
+        }
+        futures.add(executor.submit(tasks.get(i)));
+      }
+      for (Future<T> future : futures) {
+        await(future);
+      }
+      return futures;
+    } catch (RejectedExecutionException e) {
+      cancel(futures);
+      limiter.rejected.increment();
+      throw new RejectedExecutionException("The GraphQL request queue is full.", e);
+    } catch (InterruptedException e) {
+      cancel(futures);
+      throw e;
+    } finally {
+      limiter.release(maxInFlight);
+    }
+  }
+
+  /**
+   * Stop accepting new requests. The requests already accepted are completed.
+   */
+  public void shutdown() {
+    executor.shutdown();
+  }
+
+  private int maxTasksInFlight(int numberOfTasks) {
+    int max = Math.min(numberOfTasks, maxBatchTasksInFlight);
+    return maxConcurrentRequestsPerApi > 0 ? Math.min(max, maxConcurrentRequestsPerApi) : max;
+  }
+
+  private static void await(Future<?> future) throws InterruptedException {
+    try {
+      future.get();
+    } catch (ExecutionException | CancellationException ignore) {
+      // The caller gets the error from the future
+    }
+  }
+
+  /**
+   * Cancel the tasks, and remove the tasks not started from the queue. Otherwise, the cancelled
+   * tasks take up room in the bounded queue until a thread takes them, and new requests are
+   * rejected.
+   */
+  private void cancel(List<? extends Future<?>> futures) {
+    futures.forEach(it -> it.cancel(true));
+    pool.purge();
+  }
+
+  public interface Parameters {
+    /**
+     * The number of threads running GraphQL requests. If 0, the number of available processors is
+     * used.
+     */
+    int threadPoolSize();
+
+    /**
+     * The max number of requests waiting for a thread.
+     */
+    int queueSize();
+
+    /**
+     * The max number of requests running or waiting for each API, 0 means no limit.
+     */
+    int maxConcurrentRequestsPerApi();
+  }
+
+  /**
+   * Keep track of the number of active requests for one API.
+   */
+  private class ApiLimiter {
+
+    private final AtomicInteger active = new AtomicInteger();
+    private final Counter rejected;
+
+    private ApiLimiter(String api) {
+      List<Tag> tags = List.of(Tag.of("api", api));
+      Gauge
+        .builder("graphql.scheduler.active", active, AtomicInteger::get)
+        .description("The number of GraphQL requests running or waiting in the queue")
+        .tags(tags)
+        .register(meterRegistry);
+      this.rejected =
+        Counter
+          .builder("graphql.scheduler.rejected")
+          .description("The number of GraphQL requests rejected because of too many requests")
+          .tags(tags)
+          .register(meterRegistry);
+    }
+
+    private boolean tryAcquire(int n) {
+      while (true) {
+        int current = active.get();
+        if (maxConcurrentRequestsPerApi > 0 && current + n > maxConcurrentRequestsPerApi) {
+          return false;
+        }
+        if (active.compareAndSet(current, current + n)) {
+          return true;
+        }
+      }
+    }
+
+    private void release(int n) {
+      active.addAndGet(-n);
+    }
+  }
+}
@@ -18,18 +18,19 @@ import io.micrometer.core.instrument.binder.system.UptimeMetrics;
 import java.util.List;
 import java.util.concurrent.ForkJoinPool;
 import javax.inject.Inject;
-import org.opentripplanner.routing.algorithm.raptoradapter.transit.TripSchedule;
-import org.opentripplanner.transit.raptor.configure.RaptorConfig;
 import org.opentripplanner.transit.service.TransitModel;
 
 /**
  * This class is responsible for wiring up various metrics to micrometer, which we use for
  * performance logging, through the Actuator API.
+ * <p>
+ * The metrics for the Raptor thread pool are added when the pool is created, see
+ * {@link org.opentripplanner.standalone.config.configure.ConfigModule}.
  */
 public class MetricsLogging {
 
   @Inject
-  public MetricsLogging(TransitModel transitModel, RaptorConfig<TripSchedule> raptorConfig) {
+  public MetricsLogging(TransitModel transitModel) {
     new ClassLoaderMetrics().bindTo(Metrics.globalRegistry);
     new FileDescriptorMetrics().bindTo(Metrics.globalRegistry);
     new JvmCompilationMetrics().bindTo(Metrics.globalRegistry);
@@ -72,14 +73,5 @@ public class MetricsLogging {
       )
         .bindTo(Metrics.globalRegistry);
     }
-
-    if (raptorConfig.isMultiThreaded()) {
-      new ExecutorServiceMetrics(
-        raptorConfig.threadPool(),
-        "raptorHeuristics",
-        List.of(Tag.of("pool", "raptorHeuristics"))
-      )
-        .bindTo(Metrics.globalRegistry);
-    }
   }
 }
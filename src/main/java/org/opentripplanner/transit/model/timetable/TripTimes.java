@@ -417,6 +417,21 @@ public class TripTimes implements Serializable, Comparable<TripTimes> {
     return scheduledArrivalTimes.length;
   }
 
+  /**
+   * @return true if the vehicle departs at the same time as it arrives at every stop. This is
+   * cheap to check for scheduled trips without dwell times, since the deduplicated scheduled
+   * arrival and departure times are then the same array.
+   */
+  public boolean hasZeroDwellTimes() {
+    if (arrivalTimes == null) {
+      return (
+        scheduledArrivalTimes == scheduledDepartureTimes ||
+        Arrays.equals(scheduledArrivalTimes, scheduledDepartureTimes)
+      );
+    }
+    return Arrays.equals(arrivalTimes, departureTimes);
+  }
+
   /** Sort TripTimes based on first departure time. */
   @Override
   public int compareTo(final TripTimes other) {
@@ -25,6 +25,16 @@ public interface RaptorTuningParameters {
     return 0;
   }
 
+  /** see {@link org.opentripplanner.standalone.config.routerconfig.TransitRoutingConfig} **/
+  default SearchThreadPoolType searchThreadPoolType() {
+    return SearchThreadPoolType.FIXED;
+  }
+
+  /** see {@link org.opentripplanner.standalone.config.routerconfig.TransitRoutingConfig} **/
+  default int searchWindowPartitions() {
+    return 1;
+  }
+
   /**
    * Coefficients used to calculate raptor-search-window parameters dynamically  from heuristics.
    */
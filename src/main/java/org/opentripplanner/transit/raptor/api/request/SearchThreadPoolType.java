@@ -0,0 +1,19 @@
+package org.opentripplanner.transit.raptor.api.request;
+
+/**
+ * The type of thread pool used to run the parts of a search in parallel, see
+ * {@link RaptorTuningParameters#searchThreadPoolType()}.
+ */
+public enum SearchThreadPoolType {
+  /**
+   * A pool with a fixed number of threads and one shared FIFO task queue.
+   */
+  FIXED,
+
+  /**
+   * A work-stealing pool (a {@link java.util.concurrent.ForkJoinPool}) with one task queue per
+   * thread. Idle threads steal tasks from the busy ones, which reduce the contention on the task
+   * queue when many searches submit tasks at the same time.
+   */
+  WORK_STEALING,
+}
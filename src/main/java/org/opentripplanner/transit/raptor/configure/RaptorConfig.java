@@ -1,10 +1,15 @@
 package org.opentripplanner.transit.raptor.configure;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.UnaryOperator;
 import javax.annotation.Nullable;
 import org.opentripplanner.transit.raptor.api.request.RaptorRequest;
 import org.opentripplanner.transit.raptor.api.request.RaptorTuningParameters;
+import org.opentripplanner.transit.raptor.api.request.SearchThreadPoolType;
 import org.opentripplanner.transit.raptor.api.transit.CostCalculator;
 import org.opentripplanner.transit.raptor.api.transit.RaptorTransitDataProvider;
 import org.opentripplanner.transit.raptor.api.transit.RaptorTripSchedule;
@@ -18,6 +23,7 @@ import org.opentripplanner.transit.raptor.rangeraptor.internalapi.WorkerState;
 import org.opentripplanner.transit.raptor.rangeraptor.multicriteria.configure.McRangeRaptorConfig;
 import org.opentripplanner.transit.raptor.rangeraptor.standard.configure.StdRangeRaptorConfig;
 import org.opentripplanner.transit.raptor.rangeraptor.transit.RaptorSearchWindowCalculator;
+import org.opentripplanner.transit.raptor.util.CallerRunsTask;
 
 /**
  * This class is responsible for creating a new search and holding application scoped Raptor state.
@@ -29,12 +35,40 @@ import org.opentripplanner.transit.raptor.rangeraptor.transit.RaptorSearchWindow
  */
 public class RaptorConfig<T extends RaptorTripSchedule> {
 
+  /**
+   * The search-window is not split into parts with fewer Range Raptor iterations than this. The
+   * overhead of setting up a search, and the lost benefit of reusing the arrivals from the later
+   * iterations, makes it pointless to search very small parts in parallel.
+   */
+  private static final int MIN_ITERATIONS_PER_SEARCH_WINDOW_PART = 10;
+
   private final ExecutorService threadPool;
+
+  /** The undecorated thread pool, if it has a queue tasks can be removed from. */
+  @Nullable
+  private final ThreadPoolExecutor threadPoolQueueOwner;
+
   private final RaptorTuningParameters tuningParameters;
 
   public RaptorConfig(RaptorTuningParameters tuningParameters) {
+    this(tuningParameters, UnaryOperator.identity());
+  }
+
+  /**
+   * @param threadPoolDecorator applied to the thread pool when it is created, use it to add
+   *                            instrumentation like metrics to the pool.
+   */
+  public RaptorConfig(
+    RaptorTuningParameters tuningParameters,
+    UnaryOperator<ExecutorService> threadPoolDecorator
+  ) {
     this.tuningParameters = tuningParameters;
-    this.threadPool = createNewThreadPool(tuningParameters.searchThreadPoolSize());
+    ExecutorService pool = createNewThreadPool(
+      tuningParameters.searchThreadPoolType(),
+      tuningParameters.searchThreadPoolSize()
+    );
+    this.threadPool = pool == null ? null : threadPoolDecorator.apply(pool);
+    this.threadPoolQueueOwner = pool instanceof ThreadPoolExecutor executor ? executor : null;
   }
 
   public static <T extends RaptorTripSchedule> RaptorConfig<T> defaultConfigForTest() {
@@ -53,14 +87,28 @@ public class RaptorConfig<T extends RaptorTripSchedule> {
     return new StdRangeRaptorConfig<>(context).createSearch((s, w) -> createWorker(context, s, w));
   }
 
+  /**
+   * Create a multi-criteria worker. If enabled in the tuning parameters and allowed by the
+   * request, the search-window is split into parts, which are searched in parallel, see
+   * {@link RaptorTuningParameters#searchWindowPartitions()}.
+   */
   public Worker<T> createMcWorker(
     RaptorTransitDataProvider<T> transitData,
     RaptorRequest<T> request,
     Heuristics heuristics
   ) {
-    final SearchContext<T> context = context(transitData, request);
-    return new McRangeRaptorConfig<>(context)
-      .createWorker(heuristics, (s, w) -> createWorker(context, s, w));
+    List<RaptorRequest<T>> parts = splitSearchWindow(request);
+
+    if (parts.size() == 1) {
+      return createMcWorkerForRequest(transitData, request, heuristics);
+    }
+
+    List<Worker<T>> workers = new ArrayList<>(parts.size());
+    for (RaptorRequest<T> part : parts) {
+      workers.add(createMcWorkerForRequest(transitData, part, heuristics));
+    }
+    return new McRangeRaptorConfig<>(context(transitData, request))
+      .createParallelSearchWindowWorker(workers, this::submitCallerRunsTask);
   }
 
   public HeuristicSearch<T> createHeuristicSearch(
@@ -81,6 +129,14 @@ public class RaptorConfig<T extends RaptorTripSchedule> {
     return threadPool;
   }
 
+  /**
+   * Submit a task to the thread pool, which the calling thread can take back and run itself if it
+   * is not started by the pool, see {@link CallerRunsTask}.
+   */
+  public CallerRunsTask submitCallerRunsTask(Runnable task) {
+    return CallerRunsTask.submit(threadPool, threadPoolQueueOwner, task);
+  }
+
   public void shutdown() {
     if (threadPool != null) {
       threadPool.shutdown();
@@ -93,6 +149,84 @@ public class RaptorConfig<T extends RaptorTripSchedule> {
 
   /* private factory methods */
 
+  private Worker<T> createMcWorkerForRequest(
+    RaptorTransitDataProvider<T> transitData,
+    RaptorRequest<T> request,
+    Heuristics heuristics
+  ) {
+    final SearchContext<T> context = context(transitData, request);
+    return new McRangeRaptorConfig<>(context)
+      .createWorker(heuristics, (s, w) -> createWorker(context, s, w));
+  }
+
+  /**
+   * Split the search-window of the given request into consecutive parts, ordered by departure
+   * time, latest first. Together the parts cover exactly the same Range Raptor iterations as the
+   * original request. A list with only the given request is returned if the search-window should
+   * not be split.
+   * <p>
+   * The search-window is only split if the timetable is enabled. Without the timetable, the
+   * departure time is not a pareto criteria, and one worker drops the arrivals dominated by
+   * arrivals found in later iterations. The parts do not see the arrivals of the other parts, so
+   * they would return paths one worker does not.
+   */
+  private List<RaptorRequest<T>> splitSearchWindow(RaptorRequest<T> request) {
+    var searchParams = request.searchParams();
+    int step = tuningParameters.iterationDepartureStepInSeconds();
+
+    if (
+      !isMultiThreaded() ||
+      !request.runInParallel() ||
+      !request.searchDirection().isForward() ||
+      !searchParams.timetableEnabled() ||
+      !request.debug().stops().isEmpty() ||
+      !request.debug().path().isEmpty() ||
+      !searchParams.isEarliestDepartureTimeSet() ||
+      !searchParams.isSearchWindowSet()
+    ) {
+      return List.of(request);
+    }
+
+    int nIterations = searchParams.searchWindowInSeconds() / step;
+    int nParts = Math.min(
+      tuningParameters.searchWindowPartitions(),
+      nIterations / MIN_ITERATIONS_PER_SEARCH_WINDOW_PART
+    );
+
+    if (nParts < 2) {
+      return List.of(request);
+    }
+
+    // The iterations run from the end of the search-window and down to the
+    // earliest-departure-time, so the parts are aligned with the end of the search-window. A new
+    // part is only cut off if there is at least one iteration left for the last part.
+    int partLength = ((nIterations + nParts - 1) / nParts) * step;
+    int edt = searchParams.earliestDepartureTime();
+    int end = edt + searchParams.searchWindowInSeconds();
+
+    List<RaptorRequest<T>> parts = new ArrayList<>();
+    while (end - partLength - step >= edt) {
+      int start = end - partLength;
+      parts.add(withSearchWindow(request, start, end - start));
+      end = start;
+    }
+    parts.add(withSearchWindow(request, edt, end - edt));
+    return parts;
+  }
+
+  private RaptorRequest<T> withSearchWindow(
+    RaptorRequest<T> request,
+    int earliestDepartureTime,
+    int searchWindowInSeconds
+  ) {
+    return request
+      .mutate()
+      .searchParams()
+      .earliestDepartureTime(earliestDepartureTime)
+      .searchWindowInSeconds(searchWindowInSeconds)
+      .build();
+  }
+
   private Worker<T> createWorker(
     SearchContext<T> ctx,
     WorkerState<T> workerState,
@@ -113,7 +247,13 @@ public class RaptorConfig<T extends RaptorTripSchedule> {
   }
 
   @Nullable
-  private ExecutorService createNewThreadPool(int size) {
-    return size > 0 ? Executors.newFixedThreadPool(size) : null;
+  private static ExecutorService createNewThreadPool(SearchThreadPoolType type, int size) {
+    if (size <= 0) {
+      return null;
+    }
+    return switch (type) {
+      case FIXED -> Executors.newFixedThreadPool(size);
+      case WORK_STEALING -> Executors.newWorkStealingPool(size);
+    };
   }
 }
@@ -0,0 +1,159 @@
+package org.opentripplanner.transit.raptor.rangeraptor.multicriteria;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+import org.opentripplanner.transit.raptor.api.path.Path;
+import org.opentripplanner.transit.raptor.api.response.StopArrivals;
+import org.opentripplanner.transit.raptor.api.transit.RaptorTripSchedule;
+import org.opentripplanner.transit.raptor.rangeraptor.internalapi.Worker;
+import org.opentripplanner.transit.raptor.util.CallerRunsTask;
+import org.opentripplanner.transit.raptor.util.paretoset.ParetoComparator;
+import org.opentripplanner.transit.raptor.util.paretoset.ParetoSet;
+
+/**
+ * Run a multi-criteria Range Raptor search with the search-window split into consecutive parts.
+ * Each part is searched by its own worker, and the workers are run in parallel. The paths found
+ * are merged into one pareto set using the same criteria as the destination arrivals of a single
+ * worker.
+ * <p>
+ * A worker does not know about the arrivals found by the workers searching the later parts of
+ * the search-window, so the total amount of work increases. For the same reason the result is not
+ * guaranteed to be identical to the result of one worker iterating over the entire search-window,
+ * when the pareto criteria are relaxed (e.g. relaxed cost) or the destination arrivals are used to
+ * prune the search.
+ * <p>
+ * The benefit is the reduced response time, when there are idle threads available. Parts not yet
+ * started by the thread pool when the calling thread is done with its own part are run in the
+ * calling thread, so a busy pool does not make the search slower than searching the entire
+ * search-window in one thread.
+ *
+ * @param <T> The TripSchedule type defined by the user of the raptor API.
+ */
+public class ParallelSearchWindowWorker<T extends RaptorTripSchedule> implements Worker<T> {
+
+  private final List<Worker<T>> workers;
+  private final ParetoComparator<Path<T>> pathComparator;
+  private final Function<Runnable, CallerRunsTask> submitTask;
+
+  /**
+   * @param workers        one worker for each part of the search-window, ordered by the
+   *                       departure times they search, latest first. The last worker searches the
+   *                       part starting at the earliest-departure-time.
+   * @param pathComparator the pareto comparator used to merge the paths found by each worker.
+   * @param submitTask     submit a worker to the thread pool used to run all workers except the
+   *                       last, the last worker is run in the calling thread. Workers not started
+   *                       by the pool are also run in the calling thread.
+   */
+  public ParallelSearchWindowWorker(
+    List<Worker<T>> workers,
+    ParetoComparator<Path<T>> pathComparator,
+    Function<Runnable, CallerRunsTask> submitTask
+  ) {
+    if (workers.isEmpty()) {
+      throw new IllegalArgumentException("At least one worker is required.");
+    }
+    this.workers = List.copyOf(workers);
+    this.pathComparator = pathComparator;
+    this.submitTask = submitTask;
+  }
+
+  @Override
+  public void route() {
+    List<CallerRunsTask> tasks = new ArrayList<>();
+    try {
+      for (Worker<T> worker : workers.subList(0, workers.size() - 1)) {
+        tasks.add(submitTask.apply(worker::route));
+      }
+      workers.get(workers.size() - 1).route();
+
+      // Take the tasks in the reverse order of submission, the first tasks submitted are the ones
+      // most likely already started by the pool
+      for (int i = tasks.size() - 1; i >= 0; --i) {
+        tasks.get(i).runOrAwait();
+      }
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException re) {
+        throw re;
+      }
+      throw new IllegalStateException(
+        "Failed to search the search-window in parallel. Details: " + e.getMessage(),
+        e.getCause()
+      );
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while searching the search-window in parallel.");
+    } finally {
+      // If one of the workers fail, the others are not needed
+      for (CallerRunsTask task : tasks) {
+        task.cancel();
+      }
+    }
+  }
+
+  @Override
+  public Collection<Path<T>> paths() {
+    var paths = new ParetoSet<>(pathComparator);
+    for (Worker<T> worker : workers) {
+      paths.addAll(worker.paths());
+    }
+    return paths;
+  }
+
+  /**
+   * The stop arrivals of all workers merged, a stop is reached if it is reached by one of the
+   * workers, and the best values are the best found by any of the workers.
+   */
+  @Override
+  public StopArrivals stopArrivals() {
+    List<StopArrivals> arrivals = new ArrayList<>(workers.size());
+    for (Worker<T> worker : workers) {
+      arrivals.add(worker.stopArrivals());
+    }
+    return new MergedStopArrivals(arrivals);
+  }
+
+  private record MergedStopArrivals(List<StopArrivals> arrivals) implements StopArrivals {
+    @Override
+    public boolean reached(int stopIndex) {
+      return arrivals.stream().anyMatch(it -> it.reached(stopIndex));
+    }
+
+    @Override
+    public int bestArrivalTime(int stopIndex) {
+      return arrivals
+        .stream()
+        .filter(it -> it.reached(stopIndex))
+        .mapToInt(it -> it.bestArrivalTime(stopIndex))
+        .min()
+        .orElseThrow();
+    }
+
+    @Override
+    public boolean reachedByTransit(int stopIndex) {
+      return arrivals.stream().anyMatch(it -> it.reachedByTransit(stopIndex));
+    }
+
+    @Override
+    public int bestTransitArrivalTime(int stopIndex) {
+      return arrivals
+        .stream()
+        .filter(it -> it.reachedByTransit(stopIndex))
+        .mapToInt(it -> it.bestTransitArrivalTime(stopIndex))
+        .min()
+        .orElseThrow();
+    }
+
+    @Override
+    public int smallestNumberOfTransfers(int stopIndex) {
+      return arrivals
+        .stream()
+        .filter(it -> it.reachedByTransit(stopIndex))
+        .mapToInt(it -> it.smallestNumberOfTransfers(stopIndex))
+        .min()
+        .orElseThrow();
+    }
+  }
+}
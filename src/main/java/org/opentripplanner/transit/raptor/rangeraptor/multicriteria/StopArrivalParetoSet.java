@@ -1,5 +1,6 @@
 package org.opentripplanner.transit.raptor.rangeraptor.multicriteria;
 
+import java.util.Arrays;
 import java.util.List;
 import org.opentripplanner.transit.raptor.api.transit.RaptorAccessEgress;
 import org.opentripplanner.transit.raptor.api.transit.RaptorTripSchedule;
@@ -12,13 +13,37 @@ import org.opentripplanner.transit.raptor.util.paretoset.ParetoSetEventListenerC
 import org.opentripplanner.transit.raptor.util.paretoset.ParetoSetWithMarker;
 
 /**
- * A pareto optimal set of stop arrivals for a given stop.
+ * A pareto optimal set of stop arrivals for a given stop. The criteria are arrival-time,
+ * pareto-round and cost - less is better for all of them.
+ * <p>
+ * This set is the hot spot of the multi-criteria search, so instead of calling the comparator on
+ * the arrivals, the criteria are copied into an {@code int[]} when an arrival is added. The
+ * dominance check then only reads primitive values stored next to each other, without
+ * dereferencing the arrival objects. The behaviour, ordering and events are the same as for the
+ * {@link ParetoSetWithMarker}.
  *
  * @param <T> The TripSchedule type defined by the user of the raptor API.
  */
 class StopArrivalParetoSet<T extends RaptorTripSchedule>
   extends ParetoSetWithMarker<AbstractStopArrival<T>> {
 
+  private static final int INITIAL_CAPACITY = 16;
+
+  /** The number of criteria stored for each element */
+  private static final int N_CRITERIA = 3;
+
+  private static final int ARRIVAL_TIME = 0;
+  private static final int PARETO_ROUND = 1;
+  private static final int COST = 2;
+
+  /** The criteria of element {@code i} starts at index {@code i * N_CRITERIA} */
+  private int[] criteria = new int[INITIAL_CAPACITY * N_CRITERIA];
+
+  /** The criteria of the new value, set before it is compared with the elements */
+  private int arrivalTime;
+  private int paretoRound;
+  private int cost;
+
   /**
    * Use the factory methods in this class to create a new instance.
    */
@@ -59,4 +84,50 @@ class StopArrivalParetoSet<T extends RaptorTripSchedule>
 
     return new StopArrivalParetoSet<>(listener);
   }
+
+  @Override
+  protected void prepareNewValue(AbstractStopArrival<T> newValue) {
+    this.arrivalTime = newValue.arrivalTime();
+    this.paretoRound = newValue.paretoRound();
+    this.cost = newValue.cost();
+  }
+
+  @Override
+  protected boolean newValueDominanceExist(AbstractStopArrival<T> newValue, int index) {
+    final int k = index * N_CRITERIA;
+    // This is important with respect to performance. Using the short-circuit logical OR(||) is
+    // faster than bitwise inclusive OR(|) (even between boolean expressions)
+    return (
+      arrivalTime < criteria[k + ARRIVAL_TIME] ||
+      paretoRound < criteria[k + PARETO_ROUND] ||
+      cost < criteria[k + COST]
+    );
+  }
+
+  @Override
+  protected boolean elementDominanceExist(AbstractStopArrival<T> newValue, int index) {
+    final int k = index * N_CRITERIA;
+    return (
+      criteria[k + ARRIVAL_TIME] < arrivalTime ||
+      criteria[k + PARETO_ROUND] < paretoRound ||
+      criteria[k + COST] < cost
+    );
+  }
+
+  @Override
+  protected void notifyElementStored(int fromIndex, int toIndex) {
+    final int k = toIndex * N_CRITERIA;
+    if (fromIndex >= 0) {
+      System.arraycopy(criteria, fromIndex * N_CRITERIA, criteria, k, N_CRITERIA);
+    } else {
+      criteria[k + ARRIVAL_TIME] = arrivalTime;
+      criteria[k + PARETO_ROUND] = paretoRound;
+      criteria[k + COST] = cost;
+    }
+  }
+
+  @Override
+  protected void notifyCapacityIncreased(int capacity) {
+    criteria = Arrays.copyOf(criteria, capacity * N_CRITERIA);
+  }
 }
@@ -105,6 +105,14 @@ public abstract class AbstractStopArrival<T extends RaptorTripSchedule> implemen
     return cost;
   }
 
+  /**
+   * The round used when comparing arrivals, transits and transfers are counted as separate
+   * rounds. See the {@code paretoRound} field.
+   */
+  public final int paretoRound() {
+    return paretoRound;
+  }
+
   @Override
   public final AbstractStopArrival<T> previous() {
     return previous;
@@ -1,6 +1,8 @@
 package org.opentripplanner.transit.raptor.rangeraptor.multicriteria.configure;
 
+import java.util.List;
 import java.util.function.BiFunction;
+import java.util.function.Function;
 import org.opentripplanner.transit.raptor.api.transit.RaptorTripSchedule;
 import org.opentripplanner.transit.raptor.rangeraptor.context.SearchContext;
 import org.opentripplanner.transit.raptor.rangeraptor.internalapi.Heuristics;
@@ -10,9 +12,11 @@ import org.opentripplanner.transit.raptor.rangeraptor.internalapi.WorkerState;
 import org.opentripplanner.transit.raptor.rangeraptor.multicriteria.McRangeRaptorWorkerState;
 import org.opentripplanner.transit.raptor.rangeraptor.multicriteria.McStopArrivals;
 import org.opentripplanner.transit.raptor.rangeraptor.multicriteria.MultiCriteriaRoutingStrategy;
+import org.opentripplanner.transit.raptor.rangeraptor.multicriteria.ParallelSearchWindowWorker;
 import org.opentripplanner.transit.raptor.rangeraptor.multicriteria.heuristic.HeuristicsProvider;
 import org.opentripplanner.transit.raptor.rangeraptor.path.DestinationArrivalPaths;
 import org.opentripplanner.transit.raptor.rangeraptor.path.configure.PathConfig;
+import org.opentripplanner.transit.raptor.util.CallerRunsTask;
 
 /**
  * Configure and create multicriteria worker, state and child classes.
@@ -42,6 +46,18 @@ public class McRangeRaptorConfig<T extends RaptorTripSchedule> {
     return createWorker.apply(state, createTransitWorkerStrategy(state));
   }
 
+  /**
+   * Create a worker running the given workers in parallel. Each worker must search a part of the
+   * search-window of the request this config is created for, see
+   * {@link ParallelSearchWindowWorker}.
+   */
+  public Worker<T> createParallelSearchWindowWorker(
+    List<Worker<T>> workers,
+    Function<Runnable, CallerRunsTask> submitTask
+  ) {
+    return new ParallelSearchWindowWorker<>(workers, pathConfig.paretoComparator(true), submitTask);
+  }
+
   /* private factory methods */
 
   private RoutingStrategy<T> createTransitWorkerStrategy(McRangeRaptorWorkerState<T> state) {
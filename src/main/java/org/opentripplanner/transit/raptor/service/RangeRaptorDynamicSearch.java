@@ -8,7 +8,6 @@ import static org.opentripplanner.transit.raptor.service.HeuristicToRunResolver.
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 import org.opentripplanner.transit.raptor.api.request.RaptorRequest;
@@ -164,9 +163,11 @@ public class RangeRaptorDynamicSearch<T extends RaptorTripSchedule> {
       fwdHeuristics.withRequest(originalRequest);
       revHeuristics.withRequest(originalRequest);
 
-      Future<?> f = config.threadPool().submit(fwdHeuristics::run);
+      // The forward search is run in this thread if it is not started by the thread pool when
+      // the reverse search is done
+      var fwd = config.submitCallerRunsTask(fwdHeuristics::run);
       revHeuristics.run();
-      f.get();
+      fwd.runOrAwait();
       LOG.debug(
         "Route using RangeRaptor - " + "REVERSE and FORWARD heuristic search performed in parallel."
       );
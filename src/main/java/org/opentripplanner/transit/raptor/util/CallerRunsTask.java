@@ -0,0 +1,111 @@
+package org.opentripplanner.transit.raptor.util;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.annotation.Nullable;
+
+/**
+ * A task submitted to a thread pool, which the submitting thread can take back and run itself if
+ * no thread in the pool has started it yet. The task is run exactly once.
+ * <p>
+ * When the pool is busy, the tasks of a search would otherwise be queued behind the tasks of
+ * other searches, while the thread of the search is idle waiting for them. With this class a
+ * search never uses more than its own thread plus the pool threads that are available, and it
+ * never waits for a task which is still in the queue. A task taken back by the calling thread, or
+ * cancelled before it is started, is removed from the queue of the {@link ThreadPoolExecutor}
+ * running it, so the queue does not fill up with tasks which are noops.
+ */
+public final class CallerRunsTask implements Runnable {
+
+  @Nullable
+  private final ThreadPoolExecutor queueOwner;
+
+  private final Runnable task;
+  private final AtomicBoolean started = new AtomicBoolean(false);
+  private Future<?> future;
+
+  private CallerRunsTask(@Nullable ThreadPoolExecutor queueOwner, Runnable task) {
+    this.queueOwner = queueOwner;
+    this.task = task;
+  }
+
+  /**
+   * Submit the given task to the thread pool.
+   */
+  public static CallerRunsTask submit(ExecutorService threadPool, Runnable task) {
+    return submit(
+      threadPool,
+      threadPool instanceof ThreadPoolExecutor executor ? executor : null,
+      task
+    );
+  }
+
+  /**
+   * Submit the given task to the thread pool.
+   *
+   * @param queueOwner the executor queueing the tasks of the thread pool, if the pool is a
+   *                   decorator of a {@link ThreadPoolExecutor}. The task is removed from its
+   *                   queue if the task is taken back or cancelled. May be {@code null}.
+   */
+  public static CallerRunsTask submit(
+    ExecutorService threadPool,
+    @Nullable ThreadPoolExecutor queueOwner,
+    Runnable task
+  ) {
+    var it = new CallerRunsTask(queueOwner, task);
+    it.future = threadPool.submit(it);
+    return it;
+  }
+
+  /**
+   * Run the task in the calling thread if it is not started by the thread pool, if it is, wait for
+   * it to complete.
+   *
+   * @throws ExecutionException if the task failed - also if the task is run in the calling thread.
+   */
+  public void runOrAwait() throws ExecutionException, InterruptedException {
+    if (started.compareAndSet(false, true)) {
+      // Remove the task from the pool queue, it would be a noop anyway
+      removeFromQueue();
+      try {
+        task.run();
+      } catch (RuntimeException e) {
+        throw new ExecutionException(e);
+      }
+    } else {
+      future.get();
+    }
+  }
+
+  /**
+   * Make sure the task is not started if it is still in the queue, and interrupt it if it is
+   * running in the thread pool.
+   */
+  public void cancel() {
+    if (!started.getAndSet(true)) {
+      removeFromQueue();
+    } else {
+      future.cancel(true);
+    }
+  }
+
+  /**
+   * Called by the thread pool, the task is only run if not already taken by the calling thread.
+   */
+  @Override
+  public void run() {
+    if (started.compareAndSet(false, true)) {
+      task.run();
+    }
+  }
+
+  private void removeFromQueue() {
+    future.cancel(false);
+    if (queueOwner != null && future instanceof Runnable queued) {
+      queueOwner.remove(queued);
+    }
+  }
+}
@@ -20,6 +20,10 @@ import java.util.stream.Collectors;
  * {@code  [[1,7], [3,5], [5,3]] + [2,4] => [[1,7], [5,3], [2,4]]   -- less than dominates}
  * <p/>
  * No methods for removing elements like {@link #remove(Object)} are supported.
+ * <p/>
+ * The elements are compared with the comparator. A subclass can keep the criteria of the elements
+ * in a more compact form, and compare the new element with the elements by index instead, see
+ * {@link #prepareNewValue(Object)}.
  *
  * @param <T> the element type
  */
@@ -78,6 +82,8 @@ public class ParetoSet<T> extends AbstractCollection<T> {
 
   @Override
   public boolean add(T newValue) {
+    prepareNewValue(newValue);
+
     if (size == 0) {
       acceptAndAppendValue(newValue);
       return true;
@@ -93,10 +99,8 @@ public class ParetoSet<T> extends AbstractCollection<T> {
     boolean equivalentVectorExist = false;
 
     for (int i = 0; i < size; ++i) {
-      T it = elements[i];
-
-      boolean leftDominance = leftDominanceExist(newValue, it);
-      boolean rightDominance = rightDominanceExist(newValue, it);
+      boolean leftDominance = newValueDominanceExist(newValue, i);
+      boolean rightDominance = elementDominanceExist(newValue, i);
 
       if (leftDominance && rightDominance) {
         mutualDominanceExist = true;
@@ -105,7 +109,7 @@ public class ParetoSet<T> extends AbstractCollection<T> {
         return true;
       } else if (rightDominance) {
         goodElement = elements[i];
-        notifyElementRejected(newValue, it);
+        notifyElementRejected(newValue, elements[i]);
         return false;
       } else {
         equivalentVectorExist = true;
@@ -113,7 +117,6 @@ public class ParetoSet<T> extends AbstractCollection<T> {
     }
 
     if (mutualDominanceExist && !equivalentVectorExist) {
-      assertEnoughSpaceInSet();
       acceptAndAppendValue(newValue);
       return true;
     }
@@ -149,6 +152,7 @@ public class ParetoSet<T> extends AbstractCollection<T> {
     if (size == 0) {
       return true;
     }
+    prepareNewValue(newValue);
 
     // Quick shortcut, one element probably dominate most of the new elements
     if (goodElement != null && leftVectorDominatesRightVector(goodElement, newValue)) {
@@ -160,8 +164,8 @@ public class ParetoSet<T> extends AbstractCollection<T> {
     boolean equivalentVectorExist = false;
 
     for (int i = size - 1; i >= 0; --i) {
-      boolean leftDominance = leftDominanceExist(newValue, elements[i]);
-      boolean rightDominance = rightDominanceExist(newValue, elements[i]);
+      boolean leftDominance = newValueDominanceExist(newValue, i);
+      boolean rightDominance = elementDominanceExist(newValue, i);
 
       if (leftDominance && rightDominance) {
         if (equivalentVectorExist) {
@@ -211,6 +215,48 @@ public class ParetoSet<T> extends AbstractCollection<T> {
     // Noop
   }
 
+  /**
+   * Called before the new value is compared with the elements in the set. A subclass comparing
+   * the elements by index can read the criteria of the new value here. This method is empty, and
+   * only exist for subclasses to override it.
+   */
+  protected void prepareNewValue(T newValue) {
+    // Noop
+  }
+
+  /**
+   * At least one of the criteria of the new value dominates the corresponding criteria of the
+   * element at the given index.
+   */
+  protected boolean newValueDominanceExist(T newValue, int index) {
+    return comparator.leftDominanceExist(newValue, elements[index]);
+  }
+
+  /**
+   * At least one of the criteria of the element at the given index dominates the corresponding
+   * criteria of the new value.
+   */
+  protected boolean elementDominanceExist(T newValue, int index) {
+    return comparator.leftDominanceExist(elements[index], newValue);
+  }
+
+  /**
+   * Notify subclasses that the element at {@code fromIndex} is copied to {@code toIndex}, or that
+   * the new value is stored at {@code toIndex} if {@code fromIndex} is {@code -1}. This method is
+   * empty, and only exist for subclasses to override it.
+   */
+  protected void notifyElementStored(int fromIndex, int toIndex) {
+    // Noop
+  }
+
+  /**
+   * Notify subclasses that the capacity of the set is increased. This method is empty, and only
+   * exist for subclasses to override it.
+   */
+  protected void notifyCapacityIncreased(int capacity) {
+    // Noop
+  }
+
   /**
    * Return an iterable instance. This is made to be as FAST AS POSSIBLE, sacrificing thread-safety
    * and modifiable protection.
@@ -268,8 +314,9 @@ public class ParetoSet<T> extends AbstractCollection<T> {
     while (j < size) {
       notifyElementMoved(j, i);
       // Move next element(j) forward if it is not dominated by the new value
-      if (!leftVectorDominatesRightVector(newValue, elements[j])) {
+      if (!newValueDominates(newValue, j)) {
         elements[i] = elements[j];
+        notifyElementStored(j, i);
         ++i;
       } else {
         notifyElementDropped(elements[j], newValue);
@@ -280,32 +327,35 @@ public class ParetoSet<T> extends AbstractCollection<T> {
     notifyElementMoved(j, i);
     notifyElementAccepted(newValue);
     elements[i] = newValue;
+    notifyElementStored(-1, i);
     size = i + 1;
   }
 
   private boolean leftVectorDominatesRightVector(T left, T right) {
-    return leftDominanceExist(left, right) && !rightDominanceExist(left, right);
+    return (
+      comparator.leftDominanceExist(left, right) && !comparator.leftDominanceExist(right, left)
+    );
+  }
+
+  private boolean newValueDominates(T newValue, int index) {
+    return newValueDominanceExist(newValue, index) && !elementDominanceExist(newValue, index);
   }
 
   private void acceptAndAppendValue(T newValue) {
+    assertEnoughSpaceInSet();
     notifyElementAccepted(newValue);
-    elements[size++] = newValue;
+    elements[size] = newValue;
+    notifyElementStored(-1, size);
+    ++size;
   }
 
   private void assertEnoughSpaceInSet() {
     if (size == elements.length) {
       elements = Arrays.copyOf(elements, elements.length * 2);
+      notifyCapacityIncreased(elements.length);
     }
   }
 
-  private boolean leftDominanceExist(T left, T right) {
-    return comparator.leftDominanceExist(left, right);
-  }
-
-  private boolean rightDominanceExist(T left, T right) {
-    return comparator.leftDominanceExist(right, left);
-  }
-
   private void notifyElementAccepted(T newElement) {
     if (eventListener != null) {
       eventListener.notifyElementAccepted(newElement);
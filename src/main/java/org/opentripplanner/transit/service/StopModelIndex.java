@@ -4,7 +4,7 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 import org.locationtech.jts.geom.Envelope;
-import org.opentripplanner.common.geometry.HashGridSpatialIndex;
+import org.opentripplanner.common.geometry.PackedHilbertRTree;
 import org.opentripplanner.transit.model.site.AreaStop;
 import org.opentripplanner.transit.model.site.GroupStop;
 import org.opentripplanner.transit.model.site.MultiModalStation;
@@ -20,9 +20,9 @@ import org.opentripplanner.util.lang.CollectionsView;
  */
 class StopModelIndex {
 
-  private final HashGridSpatialIndex<RegularStop> regularStopSpatialIndex = new HashGridSpatialIndex<>();
+  private final PackedHilbertRTree<RegularStop> regularStopSpatialIndex;
   private final Map<Station, MultiModalStation> multiModalStationForStations = new HashMap<>();
-  private final HashGridSpatialIndex<AreaStop> locationIndex = new HashGridSpatialIndex<>();
+  private final PackedHilbertRTree<AreaStop> locationIndex;
   private final StopLocation[] stopsByIndex;
 
   /**
@@ -36,11 +36,12 @@ class StopModelIndex {
   ) {
     stopsByIndex = new StopLocation[StopLocation.indexCounter()];
 
+    PackedHilbertRTree.Builder<RegularStop> regularStopIndexBuilder = PackedHilbertRTree.of();
     var allStops = new CollectionsView<StopLocation>(stops, flexStops, groupStops);
     for (StopLocation it : allStops) {
       if (it instanceof RegularStop regularStop) {
         var envelope = new Envelope(it.getCoordinate().asJtsCoordinate());
-        regularStopSpatialIndex.insert(envelope, regularStop);
+        regularStopIndexBuilder.add(envelope, regularStop);
       }
       stopsByIndex[it.getIndex()] = it;
     }
@@ -50,13 +51,14 @@ class StopModelIndex {
         multiModalStationForStations.put(childStation, it);
       }
     }
+    PackedHilbertRTree.Builder<AreaStop> locationIndexBuilder = PackedHilbertRTree.of();
     for (AreaStop it : flexStops) {
-      locationIndex.insert(it.getGeometry().getEnvelopeInternal(), it);
+      locationIndexBuilder.add(it.getGeometry().getEnvelopeInternal(), it);
     }
 
-    // Trim the sizes of the indices
-    regularStopSpatialIndex.compact();
-    locationIndex.compact();
+    // The stops are never changed after indexing, so they are packed into immutable trees
+    regularStopSpatialIndex = regularStopIndexBuilder.build();
+    locationIndex = locationIndexBuilder.build();
   }
 
   /**
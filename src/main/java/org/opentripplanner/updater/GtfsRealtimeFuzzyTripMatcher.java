@@ -80,7 +80,7 @@ public class GtfsRealtimeFuzzyTripMatcher {
     return trip.toBuilder().setTripId(matchedTrip.getId().getId()).build();
   }
 
-  public synchronized Trip getTrip(
+  public Trip getTrip(
     Route route,
     Direction direction,
     int startTime,
@@ -34,6 +34,7 @@ import org.opentripplanner.model.StopTime;
 import org.opentripplanner.model.Timetable;
 import org.opentripplanner.model.TimetableSnapshot;
 import org.opentripplanner.model.TimetableSnapshotProvider;
+import org.opentripplanner.model.TripTimesPatch;
 import org.opentripplanner.model.UpdateError;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.mappers.TransitLayerUpdater;
 import org.opentripplanner.transit.model.basic.I18NString;
@@ -75,6 +76,12 @@ public class TimetableSnapshotSource implements TimetableSnapshotProvider {
    */
   private static final long MAX_ARRIVAL_DEPARTURE_TIME = 48 * 60 * 60;
 
+  /**
+   * Trip updates of smaller messages are prepared sequentially, the overhead of running
+   * them in parallel is larger than the gain.
+   */
+  private static final int MIN_UPDATES_PREPARED_IN_PARALLEL = 100;
+
   /**
    * The working copy of the timetable snapshot. Should not be visible to routing threads. Should
    * only be modified by a thread that holds a lock on {@link #bufferLock}. All public methods that
@@ -209,6 +216,18 @@ public class TimetableSnapshotSource implements TimetableSnapshotProvider {
       return UpdateResult.empty();
     }
 
+    // Resolve the trips and compute the updated TripTimes of scheduled trips before taking the
+    // lock, this is the expensive part of the update and does not read or modify the buffer.
+    LOG.debug("message contains {} trip updates", updates.size());
+    List<PreparedTripUpdate> preparedUpdates = (
+        updates.size() < MIN_UPDATES_PREPARED_IN_PARALLEL
+          ? updates.stream()
+          : updates.parallelStream()
+      )
+      .map(it -> prepareTripUpdate(fuzzyTripMatcher, backwardsDelayPropagationType, it, feedId))
+      .filter(Objects::nonNull)
+      .toList();
+
     // Acquire lock on buffer
     bufferLock.lock();
 
@@ -221,63 +240,24 @@ public class TimetableSnapshotSource implements TimetableSnapshotProvider {
         buffer.clear(feedId);
       }
 
-      LOG.debug("message contains {} trip updates", updates.size());
       int uIndex = 0;
-      for (TripUpdate tripUpdate : updates) {
-        if (!tripUpdate.hasTrip()) {
-          debug(feedId, "", "Missing TripDescriptor in gtfs-rt trip update: \n{}", tripUpdate);
-          continue;
-        }
-
-        if (fuzzyTripMatcher != null) {
-          final TripDescriptor trip = fuzzyTripMatcher.match(feedId, tripUpdate.getTrip());
-          tripUpdate = tripUpdate.toBuilder().setTrip(trip).build();
-        }
-
+      for (PreparedTripUpdate prepared : preparedUpdates) {
+        final TripUpdate tripUpdate = prepared.tripUpdate();
         final TripDescriptor tripDescriptor = tripUpdate.getTrip();
-
-        if (!tripDescriptor.hasTripId() || tripDescriptor.getTripId().isBlank()) {
-          debug(feedId, "", "No trip id found for gtfs-rt trip update: \n{}", tripUpdate);
-          continue;
-        }
-
-        FeedScopedId tripId = new FeedScopedId(feedId, tripUpdate.getTrip().getTripId());
-
-        LocalDate serviceDate;
-        if (tripDescriptor.hasStartDate()) {
-          try {
-            serviceDate = ServiceDateUtils.parseString(tripDescriptor.getStartDate());
-          } catch (final ParseException e) {
-            debug(
-              tripId,
-              "Failed to parse start date in gtfs-rt trip update: {}",
-              tripDescriptor.getStartDate()
-            );
-            continue;
-          }
-        } else {
-          // TODO: figure out the correct service date. For the special case that a trip
-          // starts for example at 40:00, yesterday would probably be a better guess.
-          serviceDate = LocalDate.now(timeZone);
-        }
+        final FeedScopedId tripId = prepared.tripId();
+        final LocalDate serviceDate = prepared.serviceDate();
 
         uIndex += 1;
         LOG.debug("trip update #{} ({} updates) :", uIndex, tripUpdate.getStopTimeUpdateCount());
         LOG.trace("{}", tripUpdate);
 
-        // Determine what kind of trip update this is
-        final TripDescriptor.ScheduleRelationship tripScheduleRelationship = determineTripScheduleRelationship(
-          tripDescriptor
-        );
+        final var tripScheduleRelationship = prepared.scheduleRelationship();
 
         Result<?, UpdateError> result =
           switch (tripScheduleRelationship) {
-            case SCHEDULED -> handleScheduledTrip(
-              tripUpdate,
-              tripId,
-              serviceDate,
-              backwardsDelayPropagationType
-            );
+            case SCHEDULED -> prepared.pattern() == null
+              ? handleScheduledTrip(tripUpdate, tripId, serviceDate, backwardsDelayPropagationType)
+              : applyScheduledTrip(prepared);
             case ADDED -> validateAndHandleAddedTrip(
               tripUpdate,
               tripDescriptor,
@@ -354,6 +334,96 @@ public class TimetableSnapshotSource implements TimetableSnapshotProvider {
     return updateResult;
   }
 
+  /**
+   * Resolve the trip and service date of a trip update, and for a trip update of a scheduled trip
+   * also compute the updated trip times. This does not use the buffer, so it can be done for many
+   * trip updates in parallel without holding the {@link #bufferLock}.
+   *
+   * @return the prepared update, or null if the trip update should be skipped
+   */
+  private PreparedTripUpdate prepareTripUpdate(
+    GtfsRealtimeFuzzyTripMatcher fuzzyTripMatcher,
+    BackwardsDelayPropagationType backwardsDelayPropagationType,
+    TripUpdate tripUpdate,
+    String feedId
+  ) {
+    if (!tripUpdate.hasTrip()) {
+      debug(feedId, "", "Missing TripDescriptor in gtfs-rt trip update: \n{}", tripUpdate);
+      return null;
+    }
+
+    if (fuzzyTripMatcher != null) {
+      final TripDescriptor trip = fuzzyTripMatcher.match(feedId, tripUpdate.getTrip());
+      tripUpdate = tripUpdate.toBuilder().setTrip(trip).build();
+    }
+
+    final TripDescriptor tripDescriptor = tripUpdate.getTrip();
+
+    if (!tripDescriptor.hasTripId() || tripDescriptor.getTripId().isBlank()) {
+      debug(feedId, "", "No trip id found for gtfs-rt trip update: \n{}", tripUpdate);
+      return null;
+    }
+
+    FeedScopedId tripId = new FeedScopedId(feedId, tripUpdate.getTrip().getTripId());
+
+    LocalDate serviceDate;
+    if (tripDescriptor.hasStartDate()) {
+      try {
+        serviceDate = ServiceDateUtils.parseString(tripDescriptor.getStartDate());
+      } catch (final ParseException e) {
+        debug(
+          tripId,
+          "Failed to parse start date in gtfs-rt trip update: {}",
+          tripDescriptor.getStartDate()
+        );
+        return null;
+      }
+    } else {
+      // TODO: figure out the correct service date. For the special case that a trip
+      // starts for example at 40:00, yesterday would probably be a better guess.
+      serviceDate = LocalDate.now(timeZone);
+    }
+
+    // Determine what kind of trip update this is
+    final TripDescriptor.ScheduleRelationship tripScheduleRelationship = determineTripScheduleRelationship(
+      tripDescriptor
+    );
+
+    // Only scheduled trips are prepared further, the other kinds depend on the trips and
+    // patterns added by earlier updates, and are handled in order under the lock.
+    if (
+      tripScheduleRelationship != TripDescriptor.ScheduleRelationship.SCHEDULED ||
+      tripUpdate.getStopTimeUpdateCount() < 1
+    ) {
+      return new PreparedTripUpdate(
+        tripUpdate,
+        tripId,
+        serviceDate,
+        tripScheduleRelationship,
+        null,
+        null
+      );
+    }
+
+    // If the pattern is not found the update is handled in order under the lock, the trip might
+    // be added by an earlier update in the same message
+    final TripPattern pattern = getPatternForTripId(tripId);
+    var updatedTripTimes = pattern == null
+      ? null
+      : pattern
+        .getScheduledTimetable()
+        .createUpdatedTripTimes(tripUpdate, timeZone, serviceDate, backwardsDelayPropagationType);
+
+    return new PreparedTripUpdate(
+      tripUpdate,
+      tripId,
+      serviceDate,
+      tripScheduleRelationship,
+      pattern,
+      updatedTripTimes
+    );
+  }
+
   private TimetableSnapshot getTimetableSnapshot(final boolean force) {
     final long now = System.currentTimeMillis();
     if (force || now - lastSnapshotTime > maxSnapshotFrequencyMs) {
@@ -409,15 +479,37 @@ public class TimetableSnapshotSource implements TimetableSnapshotProvider {
       return UpdateError.result(tripId, NO_UPDATES);
     }
 
-    // If this trip_id has been used for previously ADDED/MODIFIED trip message (e.g. when the sequence of stops has
-    // changed, and is now changing back to the originally scheduled one) cancel that previously created trip.
-    cancelPreviouslyAddedTrip(tripId, serviceDate);
-
     // Get new TripTimes based on scheduled timetable
     var result = pattern
       .getScheduledTimetable()
       .createUpdatedTripTimes(tripUpdate, timeZone, serviceDate, backwardsDelayPropagationType);
 
+    return applyScheduledTrip(
+      new PreparedTripUpdate(
+        tripUpdate,
+        tripId,
+        serviceDate,
+        TripDescriptor.ScheduleRelationship.SCHEDULED,
+        pattern,
+        result
+      )
+    );
+  }
+
+  /**
+   * Apply the trip times of a prepared trip update of a scheduled trip to the buffer.
+   */
+  private Result<?, UpdateError> applyScheduledTrip(PreparedTripUpdate prepared) {
+    final FeedScopedId tripId = prepared.tripId();
+    final LocalDate serviceDate = prepared.serviceDate();
+    final TripPattern pattern = prepared.pattern();
+
+    // If this trip_id has been used for previously ADDED/MODIFIED trip message (e.g. when the sequence of stops has
+    // changed, and is now changing back to the originally scheduled one) cancel that previously created trip.
+    cancelPreviouslyAddedTrip(tripId, serviceDate);
+
+    var result = prepared.updatedTripTimes();
+
     if (result.isFailure()) {
       return result;
     }
@@ -1063,4 +1155,17 @@ public class TimetableSnapshotSource implements TimetableSnapshotProvider {
     String m = "[feedId: %s, tripId: %s] %s".formatted(feedId, tripId, message);
     LOG.debug(m, params);
   }
+
+  /**
+   * A trip update with the resolved trip id and service date. For a scheduled trip the pattern
+   * and the updated trip times are computed in advance, if the pattern of the trip is found.
+   */
+  private record PreparedTripUpdate(
+    TripUpdate tripUpdate,
+    FeedScopedId tripId,
+    LocalDate serviceDate,
+    TripDescriptor.ScheduleRelationship scheduleRelationship,
+    TripPattern pattern,
+    Result<TripTimesPatch, UpdateError> updatedTripTimes
+  ) {}
 }
@@ -0,0 +1,127 @@
+package org.opentripplanner.util;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import graphql.ExecutionInput;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+import graphql.execution.preparsed.persisted.ApolloPersistedQuerySupport;
+import graphql.execution.preparsed.persisted.PersistedQueryCache;
+import graphql.execution.preparsed.persisted.PersistedQueryCacheMiss;
+import graphql.execution.preparsed.persisted.PersistedQuerySupport;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Cache the parsed and validated GraphQL documents, so the same query text is parsed and validated
+ * only once. The cache is bounded, the least recently used documents are evicted first. Documents
+ * with parse or validation errors are not cached.
+ * <p>
+ * Queries using the Apollo "automatic persisted queries" extension are also supported: a client
+ * can send the SHA-256 hash of a query in {@code extensions.persistedQuery.sha256Hash} instead of
+ * the query text, after the query has been sent once together with the hash.
+ * <p>
+ * The number of hits and misses are counted in the {@code graphql.document.cache} counter, with the
+ * tag {@code result} set to {@code hit} or {@code miss}.
+ * <p>
+ * The documents are validated against one schema, so each schema needs its own cache. The cache is
+ * thread-safe.
+ */
+public class GraphQLDocumentCache implements PreparsedDocumentProvider {
+
+  public static final int DEFAULT_MAX_SIZE = 1000;
+
+  private static final String METRIC_NAME = "graphql.document.cache";
+  private static final String PERSISTED_QUERY_KEY_PREFIX = "sha256:";
+
+  private final Cache<String, PreparsedDocumentEntry> cache;
+  private final PersistedQuerySupport persistedQuerySupport;
+  private final Counter hits;
+  private final Counter misses;
+
+  public GraphQLDocumentCache(int maxSize, MeterRegistry meterRegistry, Iterable<Tag> tags) {
+    this.cache = CacheBuilder.newBuilder().maximumSize(maxSize).build();
+    this.persistedQuerySupport = new ApolloPersistedQuerySupport(new HashCache());
+    this.hits = counter(meterRegistry, tags, "hit");
+    this.misses = counter(meterRegistry, tags, "miss");
+  }
+
+  /**
+   * Add the persisted query marker as the query text, if the query is missing and the request use
+   * a persisted query.
+   */
+  public static String queryOrPersistedQueryMarker(
+    String query,
+    Map<String, Object> extensions
+  ) {
+    if ((query == null || query.isBlank()) && isPersistedQuery(extensions)) {
+      return PersistedQuerySupport.PERSISTED_QUERY_MARKER;
+    }
+    return query;
+  }
+
+  public static boolean isPersistedQuery(Map<String, Object> extensions) {
+    return extensions != null && extensions.get("persistedQuery") instanceof Map;
+  }
+
+  @Override
+  public PreparsedDocumentEntry getDocument(
+    ExecutionInput executionInput,
+    Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidateFunction
+  ) {
+    if (isPersistedQuery(executionInput.getExtensions())) {
+      return persistedQuerySupport.getDocument(executionInput, parseAndValidateFunction);
+    }
+    return get(executionInput.getQuery(), () -> parseAndValidateFunction.apply(executionInput));
+  }
+
+  private PreparsedDocumentEntry get(
+    String key,
+    Supplier<PreparsedDocumentEntry> parseAndValidate
+  ) {
+    PreparsedDocumentEntry entry = cache.getIfPresent(key);
+    if (entry != null) {
+      hits.increment();
+      return entry;
+    }
+    misses.increment();
+    entry = parseAndValidate.get();
+    if (!entry.hasErrors()) {
+      cache.put(key, entry);
+    }
+    return entry;
+  }
+
+  private static Counter counter(MeterRegistry meterRegistry, Iterable<Tag> tags, String result) {
+    return Counter
+      .builder(METRIC_NAME)
+      .description("The number of GraphQL documents found in and missing from the cache")
+      .tags(Tags.of(tags).and("result", result))
+      .register(meterRegistry);
+  }
+
+  /**
+   * The persisted queries are stored in the same cache, using the hash as key. If the hash is not
+   * in the cache, the query text sent with the hash is parsed, or an error is returned if it is
+   * missing.
+   */
+  private class HashCache implements PersistedQueryCache {
+
+    @Override
+    public PreparsedDocumentEntry getPersistedQueryDocument(
+      Object persistedQueryId,
+      ExecutionInput executionInput,
+      PersistedQueryCacheMiss onCacheMiss
+    ) {
+      String query = executionInput.getQuery();
+      // The marker is only a placeholder for a missing query
+      String queryText = PersistedQuerySupport.PERSISTED_QUERY_MARKER.equals(query) ? null : query;
+      return get(PERSISTED_QUERY_KEY_PREFIX + persistedQueryId, () -> onCacheMiss.apply(queryText));
+    }
+  }
+}
@@ -0,0 +1,139 @@
+package org.opentripplanner.util.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read a file through a sequence of read-only memory-mapped regions instead of through
+ * {@code read(2)} system calls. The pages are served directly from the OS page cache, so several
+ * JVMs reading the same file on the same host share the same physical memory, and a file that
+ * was recently read is opened without touching the disk.
+ * <p>
+ * A single {@link MappedByteBuffer} is limited to {@link Integer#MAX_VALUE} bytes, so the file
+ * is mapped in regions of {@code regionSize} bytes. Only one region is referenced at a time, the
+ * previous region is released to the GC when the next one is mapped.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class MemoryMappedFileInputStream extends InputStream {
+
+  /** 1 GiB regions keep the number of mappings small, while staying below the 2 GiB limit. */
+  private static final int DEFAULT_REGION_SIZE = 1 << 30;
+
+  private final FileChannel channel;
+  private final long size;
+  private final int regionSize;
+
+  private MappedByteBuffer region;
+  private long regionStart = 0;
+
+  MemoryMappedFileInputStream(FileChannel channel, int regionSize) throws IOException {
+    if (regionSize <= 0) {
+      throw new IllegalArgumentException("Region size must be positive: " + regionSize);
+    }
+    this.channel = channel;
+    this.size = channel.size();
+    this.regionSize = regionSize;
+    this.region = map(0);
+  }
+
+  public static MemoryMappedFileInputStream open(File file) throws IOException {
+    return open(file, DEFAULT_REGION_SIZE);
+  }
+
+  static MemoryMappedFileInputStream open(File file, int regionSize) throws IOException {
+    var channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+    try {
+      return new MemoryMappedFileInputStream(channel, regionSize);
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  @Override
+  public int read() throws IOException {
+    if (!ensureRemaining()) {
+      return -1;
+    }
+    return region.get() & 0xFF;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    if (len == 0) {
+      return 0;
+    }
+    if (!ensureRemaining()) {
+      return -1;
+    }
+    int n = Math.min(len, region.remaining());
+    region.get(b, off, n);
+    return n;
+  }
+
+  @Override
+  public long skip(long n) throws IOException {
+    if (n <= 0 || !ensureRemaining()) {
+      return 0;
+    }
+    long pos = position();
+    long newPos = Math.min(size, pos + n);
+    if (newPos < regionStart + region.limit()) {
+      region.position((int) (newPos - regionStart));
+    } else {
+      region = map(newPos);
+    }
+    return newPos - pos;
+  }
+
+  @Override
+  public int available() {
+    if (region == null) {
+      return 0;
+    }
+    long remaining = size - position();
+    return (int) Math.min(Integer.MAX_VALUE, remaining);
+  }
+
+  @Override
+  public void close() throws IOException {
+    region = null;
+    channel.close();
+  }
+
+  /* private methods */
+
+  private long position() {
+    return regionStart + region.position();
+  }
+
+  /**
+   * Map the next region if the current one is exhausted.
+   * @return {@code false} if the end of the file is reached.
+   */
+  private boolean ensureRemaining() throws IOException {
+    if (region == null) {
+      throw new IOException("Stream closed");
+    }
+    if (region.hasRemaining()) {
+      return true;
+    }
+    long next = regionStart + region.limit();
+    if (next >= size) {
+      return false;
+    }
+    region = map(next);
+    return true;
+  }
+
+  private MappedByteBuffer map(long start) throws IOException {
+    this.regionStart = start;
+    long length = Math.min(regionSize, size - start);
+    return channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+  }
+}
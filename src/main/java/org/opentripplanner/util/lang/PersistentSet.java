@@ -0,0 +1,89 @@
+package org.opentripplanner.util.lang;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * An immutable set where each modification returns a new set, sharing all unchanged parts with
+ * the original. This is a thin wrapper around a {@link PersistentMap} mapping each element to
+ * itself, see it for the details.
+ */
+public final class PersistentSet<T> {
+
+  private static final PersistentSet<?> EMPTY = new PersistentSet<>(PersistentMap.empty());
+
+  private final PersistentMap<T, T> map;
+
+  private PersistentSet(PersistentMap<T, T> map) {
+    this.map = map;
+  }
+
+  @SuppressWarnings("unchecked")
+  public static <T> PersistentSet<T> empty() {
+    return (PersistentSet<T>) EMPTY;
+  }
+
+  public static <T> PersistentSet<T> of(Collection<? extends T> elements) {
+    return PersistentSet.<T>empty().addAll(elements);
+  }
+
+  public int size() {
+    return map.size();
+  }
+
+  public boolean isEmpty() {
+    return map.isEmpty();
+  }
+
+  public boolean contains(Object element) {
+    return map.containsKey(element);
+  }
+
+  /**
+   * Return a set with the given element added, or this set if it already contains the element.
+   */
+  public PersistentSet<T> add(T element) {
+    return map.containsKey(element) ? this : wrap(map.put(element, element));
+  }
+
+  public PersistentSet<T> addAll(Collection<? extends T> elements) {
+    PersistentMap<T, T> result = map;
+    for (T it : elements) {
+      if (!result.containsKey(it)) {
+        result = result.put(it, it);
+      }
+    }
+    return wrap(result);
+  }
+
+  /**
+   * Return a set without the given element, or this set if it does not contain the element.
+   */
+  public PersistentSet<T> remove(Object element) {
+    return wrap(map.remove(element));
+  }
+
+  public PersistentSet<T> removeAll(Collection<?> elements) {
+    PersistentMap<T, T> result = map;
+    for (Object it : elements) {
+      result = result.remove(it);
+    }
+    return wrap(result);
+  }
+
+  /**
+   * Return a read-only {@link Set} view of this set. The view does not copy the elements.
+   */
+  public Set<T> asSet() {
+    return map.asMap().keySet();
+  }
+
+  @Override
+  public String toString() {
+    return asSet().toString();
+  }
+
+  private PersistentSet<T> wrap(PersistentMap<T, T> newMap) {
+    return newMap == map ? this : new PersistentSet<>(newMap);
+  }
+}
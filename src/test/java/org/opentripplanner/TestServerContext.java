@@ -7,6 +7,7 @@ import org.opentripplanner.routing.graph.Graph;
 import org.opentripplanner.standalone.api.OtpServerRequestContext;
 import org.opentripplanner.standalone.config.RouterConfig;
 import org.opentripplanner.standalone.server.DefaultServerRequestContext;
+import org.opentripplanner.standalone.server.GraphQLExecutionScheduler;
 import org.opentripplanner.transit.raptor.configure.RaptorConfig;
 import org.opentripplanner.transit.service.DefaultTransitService;
 import org.opentripplanner.transit.service.TransitModel;
@@ -25,6 +26,10 @@ public class TestServerContext {
     DefaultServerRequestContext context = DefaultServerRequestContext.create(
       routerConfig,
       new RaptorConfig<>(routerConfig.raptorTuningParameters()),
+      new GraphQLExecutionScheduler(
+        routerConfig.graphQLSchedulerParameters(),
+        Metrics.globalRegistry
+      ),
       graph,
       new DefaultTransitService(transitModel),
       Metrics.globalRegistry,
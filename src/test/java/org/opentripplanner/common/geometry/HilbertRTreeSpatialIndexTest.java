@@ -0,0 +1,81 @@
+package org.opentripplanner.common.geometry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Set;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LineString;
+
+class HilbertRTreeSpatialIndexTest {
+
+  private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory();
+  private static final Envelope ALL = new Envelope(9.0, 11.0, 59.0, 61.0);
+
+  private static final Envelope A_ENV = new Envelope(10.0, 10.001, 60.0, 60.001);
+  private static final Envelope B_ENV = new Envelope(10.1, 10.101, 60.1, 60.101);
+
+  @Test
+  void insertRemoveAndCompact() {
+    var subject = new HilbertRTreeSpatialIndex<String>();
+    subject.insert(A_ENV, "A");
+    subject.insert(B_ENV, "B");
+
+    assertEquals(Set.of("A", "B"), Set.copyOf(subject.query(ALL)));
+    assertEquals(Set.of("A"), Set.copyOf(subject.query(A_ENV)));
+
+    subject.compact();
+    assertEquals(Set.of("A"), Set.copyOf(subject.query(A_ENV)));
+
+    // Change the packed tree with the overlay
+    LineString line = GEOMETRY_FACTORY.createLineString(
+      new Coordinate[] { new Coordinate(10.0, 60.0), new Coordinate(10.05, 60.05) }
+    );
+    subject.insert(line, "C");
+    assertTrue(subject.remove(A_ENV, "A"));
+    assertFalse(subject.remove(A_ENV, "A"));
+    assertFalse(subject.remove(A_ENV, "X"));
+
+    assertEquals(Set.of("C"), Set.copyOf(subject.query(A_ENV)));
+    assertEquals(Set.of("B", "C"), Set.copyOf(subject.query(ALL)));
+
+    subject.compact();
+    assertEquals(Set.of("B", "C"), Set.copyOf(subject.query(ALL)));
+    assertTrue(subject.remove(line.getEnvelopeInternal(), "C"));
+    assertEquals(Set.of("B"), Set.copyOf(subject.query(ALL)));
+  }
+
+  @Test
+  void removeItemInsertedAfterCompact() {
+    var subject = new HilbertRTreeSpatialIndex<String>();
+    subject.insert(A_ENV, "A");
+    subject.compact();
+    subject.insert(B_ENV, "B");
+
+    // Query before and after the remove, the overlay is indexed on the first query
+    assertEquals(Set.of("A", "B"), Set.copyOf(subject.query(ALL)));
+    assertTrue(subject.remove(B_ENV, "B"));
+    assertEquals(Set.of("A"), Set.copyOf(subject.query(ALL)));
+  }
+
+  @Test
+  void queryInParallelWhileTheOverlayIsIndexed() {
+    var subject = new HilbertRTreeSpatialIndex<String>();
+    subject.insert(A_ENV, "A");
+    subject.compact();
+    subject.insert(B_ENV, "B");
+
+    // The first queries race to index the overlay, all of them should see the inserted item
+    assertTrue(
+      IntStream
+        .range(0, 1000)
+        .parallel()
+        .allMatch(i -> Set.copyOf(subject.query(ALL)).equals(Set.of("A", "B")))
+    );
+  }
+}
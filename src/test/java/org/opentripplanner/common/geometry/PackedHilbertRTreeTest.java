@@ -0,0 +1,102 @@
+package org.opentripplanner.common.geometry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+
+class PackedHilbertRTreeTest {
+
+  @Test
+  void queryReturnsExactlyTheIntersectingItems() {
+    Random rand = new Random(42);
+    List<Envelope> envelopes = new ArrayList<>();
+    PackedHilbertRTree.Builder<Integer> builder = PackedHilbertRTree.of();
+    for (int i = 0; i < 5000; i++) {
+      // Half of the items are packed densely in a small area, and half spread out
+      double size = i % 2 == 0 ? 0.01 : 1.0;
+      Envelope envelope = randomEnvelope(rand, size, size / 100);
+      envelopes.add(envelope);
+      builder.add(envelope, i);
+    }
+    PackedHilbertRTree<Integer> subject = builder.build();
+
+    assertEquals(5000, subject.size());
+    for (int q = 0; q < 1000; q++) {
+      Envelope query = randomEnvelope(rand, q % 2 == 0 ? 0.01 : 1.0, 0.05);
+      Set<Integer> expected = new HashSet<>();
+      for (int i = 0; i < envelopes.size(); i++) {
+        if (envelopes.get(i).intersects(query)) {
+          expected.add(i);
+        }
+      }
+      List<Integer> result = subject.query(query);
+      assertEquals(expected.size(), result.size());
+      assertEquals(expected, Set.copyOf(result));
+    }
+  }
+
+  @Test
+  void smallAndEmptyTrees() {
+    PackedHilbertRTree<String> empty = PackedHilbertRTree.<String>of().build();
+    assertTrue(empty.isEmpty());
+    assertTrue(empty.query(new Envelope(-180, 180, -90, 90)).isEmpty());
+
+    PackedHilbertRTree<String> single = PackedHilbertRTree
+      .<String>of()
+      .add(new Envelope(new Coordinate(10, 60)), "A")
+      .add(new Envelope(), "Empty envelope")
+      .build();
+    assertEquals(1, single.size());
+    assertEquals(List.of("A"), single.query(new Envelope(9, 11, 59, 61)));
+    assertTrue(single.query(new Envelope(11, 12, 59, 61)).isEmpty());
+  }
+
+  @Test
+  void forEachReturnsTheEnvelopeOfEachItem() {
+    Random rand = new Random(7);
+    PackedHilbertRTree.Builder<Envelope> builder = PackedHilbertRTree.of();
+    for (int i = 0; i < 100; i++) {
+      Envelope envelope = randomEnvelope(rand, 1.0, 0.01);
+      builder.add(envelope, envelope);
+    }
+    List<Boolean> same = new ArrayList<>();
+    builder.build().forEach((envelope, item) -> same.add(envelope.equals(item)));
+
+    assertEquals(100, same.size());
+    assertEquals(Set.of(true), same.stream().collect(Collectors.toSet()));
+  }
+
+  @Test
+  void hilbertValuesOfNeighbouringCellsDifferByOne() {
+    // Walking along the curve, each step goes to a neighbouring cell
+    int n = 1 << 4;
+    int[][] cells = new int[n * n][];
+    int scale = (1 << 16) / n;
+    for (int x = 0; x < n; x++) {
+      for (int y = 0; y < n; y++) {
+        int h = PackedHilbertRTree.hilbert(x * scale, y * scale);
+        cells[Integer.divideUnsigned(h, scale * scale)] = new int[] { x, y };
+      }
+    }
+    for (int i = 1; i < cells.length; i++) {
+      int dx = Math.abs(cells[i][0] - cells[i - 1][0]);
+      int dy = Math.abs(cells[i][1] - cells[i - 1][1]);
+      assertEquals(1, dx + dy);
+    }
+  }
+
+  private static Envelope randomEnvelope(Random rand, double area, double maxSize) {
+    double x = 10.0 + rand.nextDouble() * area;
+    double y = 60.0 + rand.nextDouble() * area;
+    return new Envelope(x, x + rand.nextDouble() * maxSize, y, y + rand.nextDouble() * maxSize);
+  }
+}
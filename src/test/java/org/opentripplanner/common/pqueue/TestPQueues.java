@@ -133,4 +133,22 @@ public class TestPQueues {
       assertTrue(bh.empty());
     }
   }
+
+  @Test
+  public void testClear() {
+    BinHeap<Integer> bh = new BinHeap<>(20);
+    for (int i = 0; i < 30; i++) {
+      bh.insert(i, i);
+    }
+    bh.extract_min();
+    bh.clear();
+
+    assertTrue(bh.empty());
+    assertNull(bh.peek_min());
+    assertEquals(40, bh.getCapacity());
+
+    bh.insert(7, 7);
+    assertEquals(7, bh.extract_min());
+    assertTrue(bh.empty());
+  }
 }
@@ -0,0 +1,92 @@
+package org.opentripplanner.graph_builder.module.osm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.openstreetmap.model.OSMNode;
+
+class OsmNodeStoreTest {
+
+  private final OsmNodeStore subject = new OsmNodeStore();
+
+  @Test
+  void packedNodesKeepTheirCoordinates() {
+    // Coordinates as computed by the PBF parser, with the default granularity of 100
+    var node = node(7, 100L * 599133210 * .000000001, 100L * 107515830 * .000000001);
+    subject.add(node);
+
+    var result = subject.get(7);
+
+    assertEquals(node, result);
+    assertEquals(node.lat, result.lat);
+    assertEquals(node.lon, result.lon);
+    assertTrue(subject.contains(7));
+    assertFalse(subject.contains(8));
+    assertNull(subject.get(8));
+  }
+
+  @Test
+  void nodesWithTagsAreKeptAsObjects() {
+    var node = node(3, 1.0, 2.0);
+    node.addTag("highway", "traffic_signals");
+    subject.add(node);
+
+    assertSame(node, subject.get(3));
+  }
+
+  @Test
+  void nodesWhichCanNotBePackedAreKeptAsObjects() {
+    var virtualNode = node(-100000, 1.0, 2.0);
+    var preciseNode = node(5, 59.123456789, 10.0);
+    subject.add(virtualNode);
+    subject.add(preciseNode);
+
+    assertSame(virtualNode, subject.get(-100000));
+    assertSame(preciseNode, subject.get(5));
+  }
+
+  @Test
+  void nodesAddedOutOfOrderKeepTheFirstDuplicate() {
+    long[] ids = { 40, 10, 30, 20, 10, 50, 40, 25, 35, 15, 45, 5, 55, 1, 60, 2, 61, 3, 62, 4 };
+    for (int i = 0; i < ids.length; ++i) {
+      subject.add(node(ids[i], i, -i));
+    }
+
+    assertEquals(18, subject.size());
+    assertEquals(1.0, subject.get(10).lat);
+    assertEquals(0.0, subject.get(40).lat);
+    assertEquals(13.0, subject.get(1).lat);
+    assertEquals(-19.0, subject.get(4).lon);
+
+    // Adding more nodes after a lookup
+    subject.add(node(0, 1.5, 1.5));
+    subject.add(node(10, 2.5, 2.5));
+    assertEquals(19, subject.size());
+    assertEquals(1.5, subject.get(0).lat);
+    assertEquals(1.0, subject.get(10).lat);
+  }
+
+  @Test
+  void nodeWithTagsReplacesPackedDuplicate() {
+    subject.add(node(1, 1.0, 1.0));
+    subject.add(node(2, 2.0, 2.0));
+    var tagged = node(1, 1.0, 1.0);
+    tagged.addTag("barrier", "bollard");
+    subject.add(tagged);
+
+    assertEquals(2, subject.size());
+    assertSame(tagged, subject.get(1));
+  }
+
+  private static OSMNode node(long id, double lat, double lon) {
+    var node = new OSMNode();
+    node.setId(id);
+    node.lat = lat;
+    node.lon = lon;
+    return node;
+  }
+}
@@ -2,12 +2,18 @@ package org.opentripplanner.graph_builder.module.osm;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.opentripplanner.graph_builder.module.osm.WayPropertiesBuilder.withModes;
+import static org.opentripplanner.routing.edgetype.StreetTraversalPermission.ALL;
 import static org.opentripplanner.routing.edgetype.StreetTraversalPermission.CAR;
 import static org.opentripplanner.routing.edgetype.StreetTraversalPermission.NONE;
+import static org.opentripplanner.routing.edgetype.StreetTraversalPermission.PEDESTRIAN;
 
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.annotation.Nonnull;
 import org.junit.jupiter.api.Test;
+import org.opentripplanner.graph_builder.module.osm.specifier.BestMatchSpecifier;
 import org.opentripplanner.graph_builder.module.osm.specifier.ExactMatchSpecifier;
+import org.opentripplanner.graph_builder.module.osm.specifier.OsmSpecifier;
 import org.opentripplanner.graph_builder.module.osm.specifier.WayTestData;
 import org.opentripplanner.graph_builder.module.osm.tagmapping.OsmTagMapper;
 import org.opentripplanner.openstreetmap.model.OSMWithTags;
@@ -28,6 +34,106 @@ class WayPropertySetTest {
     assertEquals(NONE, wps.getDataForWay(tunnel).getPermission());
   }
 
+  @Test
+  void waysWithTheSameRelevantTagsShareTheMatch() {
+    WayPropertySet wps = wps();
+    var a = way("highway", "primary", "name", "A Street", "ref", "E6");
+    var b = way("highway", "primary", "name", "B Street", "ref", "E18");
+
+    assertEquals(CAR, wps.getDataForWay(a).getPermission());
+    assertEquals(CAR, wps.getDataForWay(b).getPermission());
+    assertEquals(ALL, wps.getDataForWay(way("highway", "footway")).getPermission());
+
+    var matches = new AtomicInteger();
+    var subject = new SpecifierMatcher<OsmSpecifier, Integer>(
+      List.of(new BestMatchSpecifier("highway=primary"), new BestMatchSpecifier("ref=*")),
+      it -> it,
+      (way, pickers) -> matches.incrementAndGet()
+    );
+
+    // The name is not matched on, and the ref only with a wildcard
+    assertEquals(1, subject.match(a));
+    assertEquals(1, subject.match(b));
+    assertEquals(1, subject.cacheSize());
+
+    assertEquals(2, subject.match(way("highway", "primary", "name", "A Street")));
+    assertEquals(3, subject.match(way("highway", "footway", "ref", "E6")));
+    assertEquals(3, subject.cacheSize());
+  }
+
+  @Test
+  void wildcardTagsAreMatchedOnValueIfAnotherSpecifierUsesTheValue() {
+    var matches = new AtomicInteger();
+    var subject = new SpecifierMatcher<OsmSpecifier, Integer>(
+      List.of(new BestMatchSpecifier("highway=*"), new BestMatchSpecifier("highway=primary")),
+      it -> it,
+      (way, pickers) -> matches.incrementAndGet()
+    );
+
+    assertEquals(1, subject.match(way("highway", "primary")));
+    assertEquals(2, subject.match(way("highway", "footway")));
+    assertEquals(2, subject.cacheSize());
+  }
+
+  @Test
+  void leftAndRightTags() {
+    WayPropertySet wps = wps();
+    wps.setProperties("cycleway=lane", withModes(ALL).bicycleSafety(0.5, 0.5));
+    var way = way("cycleway:right", "lane");
+
+    var result = wps.getDataForWay(way);
+
+    assertEquals(0.5, result.getBicycleSafetyFeatures().forward());
+    assertEquals(1.0, result.getBicycleSafetyFeatures().back());
+  }
+
+  @Test
+  void addingPickersResetsTheMatches() {
+    WayPropertySet wps = wps();
+    var way = way("highway", "residential", "maxspeed", "invalid");
+    assertEquals(ALL, wps.getDataForWay(way).getPermission());
+    assertEquals(wps.defaultSpeed, wps.getCarSpeedForWay(way, false));
+
+    wps.setProperties("highway=residential", withModes(PEDESTRIAN));
+    wps.setCarSpeed("highway=residential", 8.0f);
+
+    assertEquals(PEDESTRIAN, wps.getDataForWay(way).getPermission());
+    assertEquals(8.0f, wps.getCarSpeedForWay(way, false));
+  }
+
+  @Test
+  void specifierWithUnknownTagKeys() {
+    WayPropertySet wps = wps();
+    wps.setProperties(
+      new OsmSpecifier() {
+        @Override
+        public Scores matchScores(OSMWithTags way) {
+          return Scores.of(matchScore(way));
+        }
+
+        @Override
+        public int matchScore(OSMWithTags way) {
+          return way.getTags().size() > 1 ? 1000 : 0;
+        }
+      },
+      withModes(PEDESTRIAN)
+    );
+
+    assertEquals(CAR, wps.getDataForWay(way("highway", "primary")).getPermission());
+    assertEquals(
+      PEDESTRIAN,
+      wps.getDataForWay(way("highway", "primary", "name", "A Street")).getPermission()
+    );
+  }
+
+  private static OSMWithTags way(String... tags) {
+    var way = new OSMWithTags();
+    for (int i = 0; i < tags.length; i += 2) {
+      way.addTag(tags[i], tags[i + 1]);
+    }
+    return way;
+  }
+
   @Nonnull
   private static WayPropertySet wps() {
     var wps = new WayPropertySet();
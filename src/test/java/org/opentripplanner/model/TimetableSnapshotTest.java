@@ -5,6 +5,7 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.google.transit.realtime.GtfsRealtime.TripDescriptor;
@@ -259,6 +260,44 @@ public class TimetableSnapshotTest {
     assertFalse(resolver.isDirty());
   }
 
+  @Test
+  public void testCommittedSnapshotIsNotChangedByLaterUpdates() {
+    LocalDate today = LocalDate.now(timeZone);
+    LocalDate yesterday = today.minusDays(1);
+    TripPattern pattern = patternIndex.get(new FeedScopedId(feedId, "1.1"));
+
+    TripUpdate.Builder tripUpdateBuilder = TripUpdate.newBuilder();
+    tripUpdateBuilder.setTrip(
+      TripDescriptor
+        .newBuilder()
+        .setTripId("1.1")
+        .setScheduleRelationship(ScheduleRelationship.SCHEDULED)
+    );
+    var stopTimeUpdateBuilder = tripUpdateBuilder.addStopTimeUpdateBuilder(0);
+    stopTimeUpdateBuilder.setStopSequence(2);
+    stopTimeUpdateBuilder.setScheduleRelationship(
+      TripUpdate.StopTimeUpdate.ScheduleRelationship.SCHEDULED
+    );
+    stopTimeUpdateBuilder.setDeparture(TripUpdate.StopTimeEvent.newBuilder().setDelay(5).build());
+    TripUpdate tripUpdate = tripUpdateBuilder.build();
+
+    TimetableSnapshot resolver = new TimetableSnapshot();
+    updateResolver(resolver, pattern, tripUpdate, yesterday);
+    TimetableSnapshot snapshot = resolver.commit();
+    Timetable committed = snapshot.resolve(pattern, yesterday);
+    assertNotSame(pattern.getScheduledTimetable(), committed);
+
+    // Updates, purging and clearing the buffer do not leak into the committed snapshot
+    updateResolver(resolver, pattern, tripUpdate, today);
+    assertTrue(resolver.purgeExpiredData(yesterday));
+    assertSame(pattern.getScheduledTimetable(), resolver.resolve(pattern, yesterday));
+    resolver.clear(feedId);
+    assertSame(pattern.getScheduledTimetable(), resolver.resolve(pattern, today));
+
+    assertSame(committed, snapshot.resolve(pattern, yesterday));
+    assertSame(pattern.getScheduledTimetable(), snapshot.resolve(pattern, today));
+  }
+
   private Result<?, UpdateError> updateResolver(
     TimetableSnapshot resolver,
     TripPattern pattern,
@@ -0,0 +1,137 @@
+package org.opentripplanner.openstreetmap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.openstreetmap.osmosis.osmbinary.file.BlockInputStream;
+import org.opentripplanner.datastore.api.FileType;
+import org.opentripplanner.datastore.file.FileDataSource;
+import org.opentripplanner.graph_builder.ConfiguredDataSource;
+import org.opentripplanner.graph_builder.DataImportIssueStore;
+import org.opentripplanner.graph_builder.module.osm.OSMDatabase;
+import org.opentripplanner.graph_builder.module.osm.parameters.OsmDefaultParameters;
+import org.opentripplanner.graph_builder.module.osm.parameters.OsmExtractParametersBuilder;
+import org.opentripplanner.openstreetmap.model.OSMNode;
+import org.opentripplanner.openstreetmap.model.OSMRelation;
+import org.opentripplanner.openstreetmap.model.OSMWay;
+
+class OsmPbfReaderTest {
+
+  private static final String OSM_FILE =
+    "/org/opentripplanner/graph_builder/module/osm/NYC_small.osm.pbf";
+
+  private static final File FILE = new File(
+    URLDecoder.decode(
+      OsmPbfReaderTest.class.getResource(OSM_FILE).getPath(),
+      StandardCharsets.UTF_8
+    )
+  );
+
+  /**
+   * The entities read with the osmosis {@link BlockInputStream}, decoding the blocks one by one in
+   * the calling thread.
+   */
+  private static RecordingOSMDatabase expected;
+
+  @BeforeAll
+  static void readWithBlockInputStream() throws IOException {
+    expected = new RecordingOSMDatabase();
+    var parser = new OpenStreetMapParser(expected, provider(1, false));
+
+    readPhase(parser, OsmParserPhase.Relations);
+    expected.doneFirstPhaseRelations();
+    readPhase(parser, OsmParserPhase.Ways);
+    expected.doneSecondPhaseWays();
+    readPhase(parser, OsmParserPhase.Nodes);
+    expected.doneThirdPhaseNodes();
+
+    assertFalse(expected.nodes.isEmpty());
+    assertFalse(expected.ways.isEmpty());
+    assertFalse(expected.relations.isEmpty());
+  }
+
+  /**
+   * Reading the file with the {@link OsmPbfReader}, in parallel or with the decoded blocks
+   * retained, should give the same nodes, ways and relations as reading it with the osmosis
+   * {@link BlockInputStream}.
+   */
+  @ParameterizedTest
+  @CsvSource({ "1, false", "1, true", "2, false", "4, false", "4, true" })
+  void readSameEntitiesAsBlockInputStream(int threads, boolean cacheDecodedBlocks) {
+    var actual = new RecordingOSMDatabase();
+
+    provider(threads, cacheDecodedBlocks).readOSM(actual);
+
+    assertEquals(expected.relations, actual.relations);
+    assertEquals(expected.ways, actual.ways);
+    assertEquals(expected.nodes, actual.nodes);
+    assertEquals(expected.nodeCount(), actual.nodeCount());
+    assertEquals(expected.wayCount(), actual.wayCount());
+  }
+
+  private static void readPhase(OpenStreetMapParser parser, OsmParserPhase phase)
+    throws IOException {
+    parser.setPhase(phase);
+    try (InputStream in = new FileInputStream(FILE)) {
+      new BlockInputStream(in, parser).process();
+    }
+  }
+
+  private static OpenStreetMapProvider provider(int threads, boolean cacheDecodedBlocks) {
+    var dataSource = new FileDataSource(FILE, FileType.OSM);
+    return new OpenStreetMapProvider(
+      new ConfiguredDataSource<>(
+        dataSource,
+        new OsmExtractParametersBuilder().withSource(dataSource.uri()).build()
+      ),
+      new OsmDefaultParameters(),
+      false,
+      threads,
+      cacheDecodedBlocks
+    );
+  }
+
+  /**
+   * Record every entity handed to the database by the parser, in the order they are added.
+   */
+  private static class RecordingOSMDatabase extends OSMDatabase {
+
+    private final List<String> nodes = new ArrayList<>();
+    private final List<String> ways = new ArrayList<>();
+    private final List<String> relations = new ArrayList<>();
+
+    RecordingOSMDatabase() {
+      super(DataImportIssueStore.noopIssueStore(), Set.of());
+    }
+
+    @Override
+    public void addNode(OSMNode node) {
+      nodes.add(node.getId() + " " + node.lat + " " + node.lon + " " + node.getTags());
+      super.addNode(node);
+    }
+
+    @Override
+    public void addWay(OSMWay way) {
+      ways.add(way.getId() + " " + way.getNodeRefs() + " " + way.getTags());
+      super.addWay(way);
+    }
+
+    @Override
+    public void addRelation(OSMRelation relation) {
+      relations.add(relation.getId() + " " + relation.getMembers() + " " + relation.getTags());
+      super.addRelation(relation);
+    }
+  }
+}
@@ -0,0 +1,45 @@
+package org.opentripplanner.routing.algorithm.astar;
+
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class StateQueuePoolTest {
+
+  @Test
+  void queueIsReusedAfterRelease() {
+    var queue = StateQueuePool.acquire();
+    StateQueuePool.release(queue);
+
+    var reused = StateQueuePool.acquire();
+    StateQueuePool.release(reused);
+
+    assertSame(queue, reused);
+  }
+
+  @Test
+  void queueInUseIsNotHandedOutTwice() {
+    var queue = StateQueuePool.acquire();
+    var nested = StateQueuePool.acquire();
+    StateQueuePool.release(nested);
+    StateQueuePool.release(queue);
+
+    assertNotSame(queue, nested);
+  }
+
+  @Test
+  void largeQueueIsClearedAndDropped() {
+    var queue = StateQueuePool.acquire();
+    queue.resize(StateQueuePool.MAX_RETAINED_CAPACITY + 1);
+    queue.insert(null, 1.0);
+    StateQueuePool.release(queue);
+
+    var next = StateQueuePool.acquire();
+    StateQueuePool.release(next);
+
+    assertTrue(queue.empty());
+    assertNotSame(queue, next);
+  }
+}
@@ -0,0 +1,99 @@
+package org.opentripplanner.routing.algorithm.astar.landmark;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.routing.algorithm.GraphRoutingTest;
+import org.opentripplanner.routing.edgetype.StreetTraversalPermission;
+import org.opentripplanner.routing.graph.Graph;
+import org.opentripplanner.routing.vertextype.StreetVertex;
+
+class LandmarkTableBuilderTest extends GraphRoutingTest {
+
+  private Graph graph;
+  private StreetVertex A, B, C, D, E, F;
+
+  @BeforeEach
+  void setUp() {
+    var model = modelOf(
+      new Builder() {
+        @Override
+        public void build() {
+          // A line of streets with C closest to the center, and F not connected
+          A = intersection("A", 60.000, 10.0);
+          B = intersection("B", 60.001, 10.0);
+          C = intersection("C", 60.002, 10.0);
+          D = intersection("D", 60.003, 10.0);
+          E = intersection("E", 60.005, 10.0);
+          F = intersection("F", 60.0022, 10.1);
+
+          var all = StreetTraversalPermission.ALL;
+          var none = StreetTraversalPermission.NONE;
+          street(A, B, 100, all, all).forEach(it -> it.setCarSpeed(10f));
+          street(B, C, 100, all, all).forEach(it -> it.setCarSpeed(10f));
+          street(C, D, 100, all, all).forEach(it -> it.setCarSpeed(10f));
+          street(D, E, 250, all, all).forEach(it -> it.setCarSpeed(10f));
+          street(E, F, 100, none, none).forEach(it -> it.setCarSpeed(10f));
+        }
+      }
+    );
+    graph = model.graph();
+  }
+
+  @Test
+  void selectFarthestLandmarks() {
+    var subject = new LandmarkTableBuilder(graph.getVertices(), LandmarkMetric.CAR).build(3);
+
+    // E is farthest from the center, A is farthest from E, and D is farthest from both
+    assertEquals(3, subject.numberOfLandmarks());
+    assertEquals(E, subject.landmark(0));
+    assertEquals(A, subject.landmark(1));
+    assertEquals(D, subject.landmark(2));
+  }
+
+  @Test
+  void selectFewerLandmarksInSmallGraph() {
+    var subject = new LandmarkTableBuilder(graph.getVertices(), LandmarkMetric.CAR).build(10);
+
+    // All connected vertices are landmarks, but not F
+    assertEquals(5, subject.numberOfLandmarks());
+  }
+
+  @Test
+  void carDistances() {
+    var subject = new LandmarkTableBuilder(graph.getVertices(), LandmarkMetric.CAR).build(2);
+
+    // The driving time in seconds times ten
+    assertEquals(550, subject.toLandmark(0, subject.indexOf(A)));
+    assertEquals(350, subject.fromLandmark(0, subject.indexOf(C)));
+    assertEquals(0, subject.fromLandmark(0, subject.indexOf(E)));
+    assertEquals(200, subject.toLandmark(1, subject.indexOf(C)));
+    assertEquals(LandmarkTable.UNREACHED, subject.fromLandmark(0, subject.indexOf(F)));
+    assertEquals(LandmarkTable.UNREACHED, subject.toLandmark(1, subject.indexOf(F)));
+  }
+
+  @Test
+  void bicycleDistances() {
+    var subject = new LandmarkTableBuilder(graph.getVertices(), LandmarkMetric.BICYCLE).build(2);
+
+    // A lower bound of the bicycle distance in meters times ten. The distance is reduced by the
+    // greenway factor 0.66, since the safety factor is 1.0
+    assertEquals(E, subject.landmark(0));
+    assertEquals(3630, subject.toLandmark(0, subject.indexOf(A)));
+    assertEquals(2310, subject.fromLandmark(0, subject.indexOf(C)));
+  }
+
+  @Test
+  void verticesNotInTable() {
+    var subject = new LandmarkTableBuilder(graph.getVertices(), LandmarkMetric.CAR).build(1);
+
+    var temporary = new Builder() {
+      @Override
+      public void build() {}
+    }
+      .intersection("X", 60.0, 10.0);
+
+    assertEquals(LandmarkTable.NOT_IN_TABLE, subject.indexOf(temporary));
+  }
+}
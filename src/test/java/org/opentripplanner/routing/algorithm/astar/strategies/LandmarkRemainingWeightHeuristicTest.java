@@ -0,0 +1,162 @@
+package org.opentripplanner.routing.algorithm.astar.strategies;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.opentripplanner.routing.algorithm.GraphRoutingTest;
+import org.opentripplanner.routing.algorithm.astar.AStarBuilder;
+import org.opentripplanner.routing.algorithm.astar.landmark.LandmarkMetric;
+import org.opentripplanner.routing.algorithm.astar.landmark.LandmarkTableBuilder;
+import org.opentripplanner.routing.algorithm.astar.landmark.Landmarks;
+import org.opentripplanner.routing.api.request.RouteRequest;
+import org.opentripplanner.routing.api.request.StreetMode;
+import org.opentripplanner.routing.api.request.request.StreetRequest;
+import org.opentripplanner.routing.core.State;
+import org.opentripplanner.routing.edgetype.StreetTraversalPermission;
+import org.opentripplanner.routing.graph.Graph;
+import org.opentripplanner.routing.graph.Vertex;
+import org.opentripplanner.routing.location.TemporaryStreetLocation;
+import org.opentripplanner.routing.spt.GraphPath;
+import org.opentripplanner.routing.vertextype.StreetVertex;
+
+class LandmarkRemainingWeightHeuristicTest extends GraphRoutingTest {
+
+  private static final int SIZE = 6;
+
+  private Graph graph;
+  private Landmarks landmarks;
+  private TemporaryStreetLocation from;
+  private TemporaryStreetLocation to;
+
+  static List<Arguments> testCases() {
+    return List.of(
+      Arguments.of(StreetMode.CAR, false),
+      Arguments.of(StreetMode.CAR, true),
+      Arguments.of(StreetMode.BIKE, false),
+      Arguments.of(StreetMode.BIKE, true)
+    );
+  }
+
+  @BeforeEach
+  void setUp() {
+    var model = modelOf(
+      new Builder() {
+        @Override
+        public void build() {
+          // A grid with streets of varying length and speed, some streets are one-way for cars
+          StreetVertex[][] grid = new StreetVertex[SIZE][SIZE];
+          for (int i = 0; i < SIZE; ++i) {
+            for (int j = 0; j < SIZE; ++j) {
+              grid[i][j] = intersection("V" + i + "_" + j, 60.0 + i * 0.001, 10.0 + j * 0.002);
+            }
+          }
+          for (int i = 0; i < SIZE; ++i) {
+            for (int j = 0; j < SIZE; ++j) {
+              var reverse = (i * SIZE + j) % 4 == 1
+                ? StreetTraversalPermission.PEDESTRIAN_AND_BICYCLE
+                : StreetTraversalPermission.ALL;
+              float carSpeed = 10f + 5f * ((i + j) % 3);
+              if (i + 1 < SIZE) {
+                int length = 120 + 17 * ((i * 7 + j) % 5);
+                street(grid[i][j], grid[i + 1][j], length, StreetTraversalPermission.ALL, reverse)
+                  .forEach(it -> it.setCarSpeed(carSpeed));
+              }
+              if (j + 1 < SIZE) {
+                int length = 120 + 23 * ((i + j * 3) % 4);
+                street(grid[i][j], grid[i][j + 1], length, StreetTraversalPermission.ALL, reverse)
+                  .forEach(it -> it.setCarSpeed(carSpeed));
+              }
+            }
+          }
+          from = streetLocation("from", 60.0, 10.0, false);
+          link(from, grid[0][0]);
+          to = streetLocation("to", 60.005, 10.008, true);
+          link(grid[SIZE - 1][4], to);
+        }
+      }
+    );
+    graph = model.graph();
+    landmarks =
+      new Landmarks(
+        List.of(
+          new LandmarkTableBuilder(graph.getVertices(), LandmarkMetric.CAR).build(4),
+          new LandmarkTableBuilder(graph.getVertices(), LandmarkMetric.BICYCLE).build(4)
+        )
+      );
+  }
+
+  @ParameterizedTest
+  @MethodSource("testCases")
+  void sameResultAsEuclideanHeuristic(StreetMode mode, boolean arriveBy) {
+    var request = request(arriveBy);
+
+    GraphPath expected = route(request, mode, new EuclideanRemainingWeightHeuristic());
+    GraphPath result = route(request, mode, new LandmarkRemainingWeightHeuristic(landmarks));
+
+    assertEquals(expected.getWeight(), result.getWeight(), 0.01);
+    assertEquals(expected.getDuration(), result.getDuration());
+  }
+
+  @ParameterizedTest
+  @MethodSource("testCases")
+  void estimateIsLowerBoundAndBetterThanEuclidean(StreetMode mode, boolean arriveBy) {
+    var request = request(arriveBy);
+    GraphPath path = route(request, mode, new EuclideanRemainingWeightHeuristic());
+
+    var euclidean = new EuclideanRemainingWeightHeuristic();
+    var subject = new LandmarkRemainingWeightHeuristic(landmarks);
+    Set<Vertex> origin = Set.of(arriveBy ? to : from);
+    Set<Vertex> target = Set.of(arriveBy ? from : to);
+    euclidean.initialize(request, mode, origin, target);
+    subject.initialize(request, mode, origin, target);
+
+    boolean better = false;
+    double total = path.getWeight();
+    for (State s : path.states) {
+      // The states of an arriveBy path are in the order of the trip, not the search
+      double remaining = arriveBy ? s.getWeight() : total - s.getWeight();
+      double estimate = subject.estimateRemainingWeight(s);
+      assertTrue(estimate <= remaining + 1e-6, estimate + " > " + remaining);
+      better |= estimate > euclidean.estimateRemainingWeight(s);
+    }
+    assertTrue(better, "The landmark estimate should improve on the Euclidean estimate");
+  }
+
+  @Test
+  void fallBackToEuclideanForUnsupportedModes() {
+    var request = request(false);
+    var euclidean = new EuclideanRemainingWeightHeuristic();
+    var subject = new LandmarkRemainingWeightHeuristic(landmarks);
+    euclidean.initialize(request, StreetMode.WALK, Set.of(from), Set.of(to));
+    subject.initialize(request, StreetMode.WALK, Set.of(from), Set.of(to));
+
+    GraphPath path = route(request, StreetMode.WALK, euclidean);
+    for (State s : path.states) {
+      assertEquals(euclidean.estimateRemainingWeight(s), subject.estimateRemainingWeight(s));
+    }
+  }
+
+  private RouteRequest request(boolean arriveBy) {
+    var request = new RouteRequest();
+    request.setArriveBy(arriveBy);
+    return request;
+  }
+
+  private GraphPath route(RouteRequest request, StreetMode mode, RemainingWeightHeuristic h) {
+    var paths = new AStarBuilder(h, null)
+      .setRequest(request)
+      .setStreetRequest(new StreetRequest(mode))
+      .setFrom(from)
+      .setTo(to)
+      .getPathsToTarget();
+    assertEquals(1, paths.size());
+    return paths.get(0);
+  }
+}
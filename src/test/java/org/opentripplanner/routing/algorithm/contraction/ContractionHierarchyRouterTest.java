@@ -0,0 +1,261 @@
+package org.opentripplanner.routing.algorithm.contraction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.opentripplanner.common.TurnRestriction;
+import org.opentripplanner.common.TurnRestrictionType;
+import org.opentripplanner.graph_builder.module.StreetLinkerModule;
+import org.opentripplanner.model.GenericLocation;
+import org.opentripplanner.routing.algorithm.GraphRoutingTest;
+import org.opentripplanner.routing.api.request.RouteRequest;
+import org.opentripplanner.routing.api.request.StreetMode;
+import org.opentripplanner.routing.api.request.preference.RoutingPreferences;
+import org.opentripplanner.routing.core.TemporaryVerticesContainer;
+import org.opentripplanner.routing.core.TraverseMode;
+import org.opentripplanner.routing.core.TraverseModeSet;
+import org.opentripplanner.routing.edgetype.StreetEdge;
+import org.opentripplanner.routing.edgetype.StreetTraversalPermission;
+import org.opentripplanner.routing.edgetype.TemporaryPartialStreetEdge;
+import org.opentripplanner.routing.graph.Edge;
+import org.opentripplanner.routing.graph.Graph;
+import org.opentripplanner.routing.impl.GraphPathFinder;
+import org.opentripplanner.routing.spt.GraphPath;
+import org.opentripplanner.routing.vertextype.StreetVertex;
+
+class ContractionHierarchyRouterTest extends GraphRoutingTest {
+
+  private static final int SIZE = 6;
+  private static final StreetMode CAR = StreetMode.CAR;
+
+  private Graph graph;
+
+  static List<Arguments> testCases() {
+    return List.of(
+      Arguments.of(new GenericLocation(60.0005, 10.0), new GenericLocation(60.005, 10.009), false),
+      Arguments.of(new GenericLocation(60.0005, 10.0), new GenericLocation(60.005, 10.009), true),
+      Arguments.of(new GenericLocation(60.004, 10.007), new GenericLocation(60.0, 10.001), false),
+      Arguments.of(new GenericLocation(60.004, 10.007), new GenericLocation(60.0, 10.001), true),
+      Arguments.of(new GenericLocation(60.0025, 10.004), new GenericLocation(60.001, 10.0), false),
+      Arguments.of(new GenericLocation(60.0025, 10.004), new GenericLocation(60.001, 10.0), true)
+    );
+  }
+
+  @BeforeEach
+  void setUp() {
+    var model = modelOf(
+      new Builder() {
+        @Override
+        public void build() {
+          // A grid with streets of varying length and speed, some streets are one-way for cars
+          StreetVertex[][] grid = new StreetVertex[SIZE][SIZE];
+          for (int i = 0; i < SIZE; ++i) {
+            for (int j = 0; j < SIZE; ++j) {
+              grid[i][j] = intersection("V" + i + "_" + j, 60.0 + i * 0.001, 10.0 + j * 0.002);
+            }
+          }
+          for (int i = 0; i < SIZE; ++i) {
+            for (int j = 0; j < SIZE; ++j) {
+              var reverse = (i * SIZE + j) % 4 == 1
+                ? StreetTraversalPermission.PEDESTRIAN_AND_BICYCLE
+                : StreetTraversalPermission.ALL;
+              float carSpeed = 10f + 5f * ((i + j) % 3);
+              if (i + 1 < SIZE) {
+                int length = 120 + 17 * ((i * 7 + j) % 5);
+                street(grid[i][j], grid[i + 1][j], length, StreetTraversalPermission.ALL, reverse)
+                  .forEach(it -> it.setCarSpeed(carSpeed));
+              }
+              if (j + 1 < SIZE) {
+                int length = 120 + 23 * ((i + j * 3) % 4);
+                street(grid[i][j], grid[i][j + 1], length, StreetTraversalPermission.ALL, reverse)
+                  .forEach(it -> it.setCarSpeed(carSpeed));
+              }
+            }
+          }
+        }
+      }
+    );
+    graph = model.graph();
+    graph.hasStreets = true;
+    StreetLinkerModule.linkStreetsForTestOnly(graph, model.transitModel());
+  }
+
+  @ParameterizedTest
+  @MethodSource("testCases")
+  void sameWeightAsAStar(GenericLocation from, GenericLocation to, boolean arriveBy) {
+    var subject = new ContractionHierarchyRouter(buildHierarchy());
+    var request = request(from, to, arriveBy);
+
+    GraphPath expected = routeAStar(request);
+    GraphPath result = route(subject, request);
+
+    assertEquals(expected.getWeight(), result.getWeight(), 0.01);
+    assertEquals(expected.getDuration(), result.getDuration());
+    assertTrue(result.edges.stream().anyMatch(TemporaryPartialStreetEdge.class::isInstance));
+  }
+
+  @Test
+  void respectTurnRestrictions() {
+    var request = request(
+      new GenericLocation(60.0005, 10.0),
+      new GenericLocation(60.005, 10.009),
+      false
+    );
+
+    // Forbid the first turn of the fastest path
+    GraphPath path = route(new ContractionHierarchyRouter(buildHierarchy()), request);
+    List<StreetEdge> edges = path.edges
+      .stream()
+      .filter(StreetEdge.class::isInstance)
+      .map(StreetEdge.class::cast)
+      .map(it -> it instanceof TemporaryPartialStreetEdge p ? p.getParentEdge() : it)
+      .toList();
+    StreetEdge restrictedFrom = edges.get(0);
+    StreetEdge restrictedTo = edges.get(1);
+    restrictedFrom.addTurnRestriction(
+      new TurnRestriction(
+        restrictedFrom,
+        restrictedTo,
+        TurnRestrictionType.NO_TURN,
+        new TraverseModeSet(TraverseMode.CAR),
+        null
+      )
+    );
+
+    GraphPath expected = routeAStar(request);
+    GraphPath result = route(new ContractionHierarchyRouter(buildHierarchy()), request);
+
+    assertEquals(expected.getWeight(), result.getWeight(), 0.01);
+    assertTrue(result.getWeight() > path.getWeight());
+    assertFalse(containsTurn(result, restrictedFrom, restrictedTo));
+  }
+
+  /**
+   * The destination is close to A on the long street between A and B, and the origin is close to
+   * B. Reaching the destination from A has a large negative final weight, since the partial edge is
+   * much shorter than the street. The best path goes around through C to A, not along the street
+   * from B.
+   */
+  @Test
+  void negativeFinalWeightOfThePartialEdge() {
+    var model = modelOf(
+      new Builder() {
+        @Override
+        public void build() {
+          var a = intersection("A", 60.0, 10.0);
+          var b = intersection("B", 60.009, 10.0);
+          var c = intersection("C", 60.0045, 10.01);
+          var s = intersection("S", 60.0095, 10.0);
+          street(a, b, 1000, StreetTraversalPermission.ALL, StreetTraversalPermission.ALL);
+          street(b, c, 300, StreetTraversalPermission.ALL, StreetTraversalPermission.ALL);
+          street(c, a, 300, StreetTraversalPermission.ALL, StreetTraversalPermission.ALL);
+          street(s, b, 55, StreetTraversalPermission.ALL, StreetTraversalPermission.ALL);
+        }
+      }
+    );
+    graph = model.graph();
+    graph.hasStreets = true;
+    StreetLinkerModule.linkStreetsForTestOnly(graph, model.transitModel());
+    var request = request(
+      new GenericLocation(60.00925, 10.0),
+      new GenericLocation(60.0005, 10.0),
+      false
+    );
+
+    GraphPath expected = routeAStar(request);
+    GraphPath result = route(new ContractionHierarchyRouter(buildHierarchy()), request);
+
+    assertEquals(expected.getWeight(), result.getWeight(), 0.01);
+    assertTrue(result.edges.stream().anyMatch(it -> "BC street".equals(it.getDefaultName())));
+  }
+
+  @Test
+  void onlyApplicableForCarWithCompatiblePreferences() {
+    var subject = new ContractionHierarchyRouter(buildHierarchy());
+    var request = request(
+      new GenericLocation(60.0, 10.0),
+      new GenericLocation(60.005, 10.0),
+      false
+    );
+    assertTrue(subject.isApplicable(request));
+
+    request.withPreferences(p -> p.withCar(c -> c.withReluctance(4.0)));
+    assertFalse(subject.isApplicable(request));
+
+    request.withPreferences(p -> p.withStreet(s -> s.withTurnReluctance(2.0)));
+    assertTrue(subject.isApplicable(request));
+
+    request.journey().direct().setMode(StreetMode.BIKE);
+    assertFalse(subject.isApplicable(request));
+  }
+
+  @Test
+  void originAndDestinationOnTheSameEdge() {
+    var subject = new ContractionHierarchyRouter(buildHierarchy());
+    var request = request(
+      new GenericLocation(60.0002, 10.0),
+      new GenericLocation(60.0008, 10.0),
+      false
+    );
+    try (var temporaryVertices = new TemporaryVerticesContainer(graph, request, CAR, CAR)) {
+      var from = temporaryVertices.getFromVertices();
+      var to = temporaryVertices.getToVertices();
+      assertNull(subject.route(request, from, to));
+    }
+  }
+
+  private ContractionHierarchy buildHierarchy() {
+    return new ContractionHierarchyBuilder(new RoutingPreferences()).build(graph.getStreetEdges());
+  }
+
+  private RouteRequest request(GenericLocation from, GenericLocation to, boolean arriveBy) {
+    var request = new RouteRequest();
+    request.setFrom(from);
+    request.setTo(to);
+    request.setArriveBy(arriveBy);
+    request.journey().direct().setMode(CAR);
+    return request;
+  }
+
+  private GraphPath route(ContractionHierarchyRouter router, RouteRequest request) {
+    try (var temporaryVertices = new TemporaryVerticesContainer(graph, request, CAR, CAR)) {
+      var paths = router.route(
+        request,
+        temporaryVertices.getFromVertices(),
+        temporaryVertices.getToVertices()
+      );
+      assertNotNull(paths);
+      assertEquals(1, paths.size());
+      return paths.get(0);
+    }
+  }
+
+  private GraphPath routeAStar(RouteRequest request) {
+    try (var temporaryVertices = new TemporaryVerticesContainer(graph, request, CAR, CAR)) {
+      var paths = new GraphPathFinder(null, Duration.ofSeconds(5))
+        .graphPathFinderEntryPoint(request, temporaryVertices);
+      return paths.get(0);
+    }
+  }
+
+  private static boolean containsTurn(GraphPath path, StreetEdge from, StreetEdge to) {
+    Edge previous = null;
+    for (Edge e : path.edges) {
+      if (previous != null && previous.isEquivalentTo(from) && e.isEquivalentTo(to)) {
+        return true;
+      }
+      previous = e;
+    }
+    return false;
+  }
+}
@@ -0,0 +1,40 @@
+package org.opentripplanner.routing.algorithm.contraction;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import gnu.trove.map.hash.TIntIntHashMap;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.routing.api.request.preference.RoutingPreferences;
+import org.opentripplanner.routing.edgetype.StreetEdge;
+
+class ContractionHierarchyTest {
+
+  /**
+   * The best path reaches the target with the highest rank through a partial edge, so the final
+   * weight is close to minus the weight of the whole edge. The forward search settles the target
+   * with a weight above the best path found so far, through the other target, but the total is
+   * lower.
+   */
+  @Test
+  void negativeFinalWeight() {
+    var arcs = new ContractionHierarchy.ArcList();
+    arcs.add(0, 1, 100, ContractionHierarchy.NO_ARC, ContractionHierarchy.NO_ARC);
+    arcs.add(0, 2, 20, ContractionHierarchy.NO_ARC, ContractionHierarchy.NO_ARC);
+    arcs.add(2, 3, 1000, ContractionHierarchy.NO_ARC, ContractionHierarchy.NO_ARC);
+    var subject = new ContractionHierarchy(
+      new StreetEdge[4],
+      new int[] { 10, 100, 20, 1000 },
+      new int[] { 0, 1, 2, 3 },
+      arcs,
+      new RoutingPreferences()
+    );
+
+    var sources = new TIntIntHashMap();
+    sources.put(0, 0);
+    var targets = new TIntIntHashMap();
+    targets.put(1, 0);
+    targets.put(3, -1000);
+
+    assertArrayEquals(new int[] { 0, 2, 3 }, subject.route(sources, targets));
+  }
+}
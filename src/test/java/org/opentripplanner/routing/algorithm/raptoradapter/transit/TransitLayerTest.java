@@ -0,0 +1,126 @@
+package org.opentripplanner.routing.algorithm.raptoradapter.transit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.opentripplanner.model.StopTime;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.request.RaptorRequestPatternCache;
+import org.opentripplanner.transit.model._data.TransitModelForTest;
+import org.opentripplanner.transit.model.network.StopPattern;
+import org.opentripplanner.transit.model.network.TripPattern;
+import org.opentripplanner.transit.model.timetable.TripTimes;
+
+class TransitLayerTest {
+
+  private static final LocalDate DATE = LocalDate.of(2022, 11, 1);
+  private static final LocalDate OTHER_DATE = DATE.plusDays(1);
+
+  private static final TripPatternForDate A = tripPatternForDate("A");
+  private static final TripPatternForDate B = tripPatternForDate("B");
+  private static final TripPatternForDate C = tripPatternForDate("C");
+
+  @Test
+  void updateTripPatternsForDateDoesNotChangeTheOriginal() {
+    var original = transitLayer(Map.of(DATE, List.of(A, B)));
+    var copy = new TransitLayer(original);
+
+    copy.updateTripPatternsForDate(DATE, List.of(A), List.of(C));
+
+    assertEquals(Set.of(B, C), Set.copyOf(copy.getTripPatternsForDate(DATE)));
+    assertEquals(Set.of(A, B), Set.copyOf(original.getTripPatternsForDate(DATE)));
+  }
+
+  @Test
+  void updateIgnoresDatesNotInTheLayer() {
+    var subject = new TransitLayer(transitLayer(Map.of(DATE, List.of(A))));
+
+    subject.updateTripPatternsForDate(OTHER_DATE, List.of(), List.of(B));
+
+    assertTrue(subject.getTripPatternsForDate(OTHER_DATE).isEmpty());
+    assertEquals(Set.of(A), Set.copyOf(subject.getTripPatternsForDate(DATE)));
+  }
+
+  @Test
+  void withdrawnPatternIsRemovedFromTheStopIndex() {
+    var subject = new TransitLayer(
+      transitLayer(Map.of(DATE, List.of(A, B), OTHER_DATE, List.of(B)))
+    );
+    subject.getTripPatternsPerStop();
+
+    subject.updateTripPatternsForDate(DATE, List.of(A, B), List.of(C));
+
+    var index = subject.getTripPatternsPerStop();
+    assertArrayEquals(new int[0], index.patternsForStop(stopIndex(A)));
+    // B still runs on the other date
+    assertArrayEquals(new int[] { patternIndex(B) }, index.patternsForStop(stopIndex(B)));
+    assertArrayEquals(new int[] { patternIndex(C) }, index.patternsForStop(stopIndex(C)));
+  }
+
+  @Test
+  void patternIsRemovedFromTheStopIndexWhenWithdrawnFromTheLastDate() {
+    var subject = new TransitLayer(
+      transitLayer(Map.of(DATE, List.of(A), OTHER_DATE, List.of(A)))
+    );
+    subject.getTripPatternsPerStop();
+
+    subject.updateTripPatternsForDate(DATE, List.of(A), List.of());
+    // Removing it again from the same date does not change anything
+    subject.updateTripPatternsForDate(DATE, List.of(A), List.of());
+
+    var stop = stopIndex(A);
+    assertArrayEquals(
+      new int[] { patternIndex(A) },
+      subject.getTripPatternsPerStop().patternsForStop(stop)
+    );
+
+    subject.updateTripPatternsForDate(OTHER_DATE, List.of(A), List.of());
+
+    assertArrayEquals(new int[0], subject.getTripPatternsPerStop().patternsForStop(stop));
+  }
+
+  private static int stopIndex(TripPatternForDate tripPatternForDate) {
+    return tripPatternForDate.getTripPattern().stopIndex(0);
+  }
+
+  private static int patternIndex(TripPatternForDate tripPatternForDate) {
+    return tripPatternForDate.getTripPattern().patternIndex();
+  }
+
+  private static TransitLayer transitLayer(Map<LocalDate, List<TripPatternForDate>> patterns) {
+    return new TransitLayer(
+      patterns,
+      List.of(),
+      null,
+      null,
+      null,
+      null,
+      new RaptorRequestPatternCache(10),
+      null,
+      null,
+      null
+    );
+  }
+
+  private static TripPatternForDate tripPatternForDate(String id) {
+    var stopTime = new StopTime();
+    stopTime.setStop(TransitModelForTest.stopForTest("S" + id, 0, 0));
+    var pattern = TripPattern
+      .of(TransitModelForTest.id(id))
+      .withRoute(TransitModelForTest.route(id).build())
+      .withStopPattern(new StopPattern(List.of(stopTime)))
+      .build();
+    return new TripPatternForDate(
+      pattern.getRoutingTripPattern(),
+      List.of(Mockito.mock(TripTimes.class)),
+      List.of(),
+      DATE
+    );
+  }
+}
@@ -0,0 +1,110 @@
+package org.opentripplanner.routing.algorithm.raptoradapter.transit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.model.StopTime;
+import org.opentripplanner.transit.model._data.TransitModelForTest;
+import org.opentripplanner.transit.model.network.RoutingTripPattern;
+import org.opentripplanner.transit.model.network.StopPattern;
+import org.opentripplanner.transit.model.network.TripPattern;
+import org.opentripplanner.transit.model.site.RegularStop;
+
+class TripPatternsPerStopTest {
+
+  private static final RegularStop A = TransitModelForTest.stopForTest("A", 60.0, 10.0);
+  private static final RegularStop B = TransitModelForTest.stopForTest("B", 60.1, 10.1);
+  private static final RegularStop C = TransitModelForTest.stopForTest("C", 60.2, 10.2);
+
+  private static final RoutingTripPattern P1 = pattern("P1", A, B);
+  private static final RoutingTripPattern P2 = pattern("P2", B, C);
+  // A pattern visiting the same stop twice
+  private static final RoutingTripPattern P3 = pattern("P3", C, A, C);
+
+  private static final int STOP_COUNT = C.getIndex() + 1;
+
+  @Test
+  void indexAllPatterns() {
+    var subject = TripPatternsPerStop.of(List.of(P1, P2));
+
+    assertArrayEquals(sorted(P1), subject.patternsForStop(A.getIndex()));
+    assertArrayEquals(sorted(P1, P2), subject.patternsForStop(B.getIndex()));
+    assertArrayEquals(sorted(P2), subject.patternsForStop(C.getIndex()));
+  }
+
+  @Test
+  void addPatterns() {
+    var original = TripPatternsPerStop.of(List.of(P1, P2));
+
+    assertSame(original, original.addPatterns(List.of(P1)));
+
+    var subject = original.addPatterns(List.of(P2, P3));
+
+    assertArrayEquals(sorted(P1, P3), subject.patternsForStop(A.getIndex()));
+    assertArrayEquals(sorted(P1, P2), subject.patternsForStop(B.getIndex()));
+    assertArrayEquals(sorted(P2, P3), subject.patternsForStop(C.getIndex()));
+
+    // The original is not changed
+    assertArrayEquals(sorted(P1), original.patternsForStop(A.getIndex()));
+  }
+
+  @Test
+  void removePatterns() {
+    var original = TripPatternsPerStop.of(List.of(P1, P2, P3));
+
+    assertSame(original, original.removePatterns(List.of()));
+
+    var subject = original.removePatterns(List.of(P1, P3));
+
+    assertArrayEquals(sorted(), subject.patternsForStop(A.getIndex()));
+    assertArrayEquals(sorted(P2), subject.patternsForStop(B.getIndex()));
+    assertArrayEquals(sorted(P2), subject.patternsForStop(C.getIndex()));
+    assertSame(subject, subject.removePatterns(List.of(P1)));
+
+    // The original is not changed
+    assertArrayEquals(sorted(P1, P3), original.patternsForStop(A.getIndex()));
+  }
+
+  @Test
+  void filter() {
+    var subject = TripPatternsPerStop.of(List.of(P1, P2, P3));
+    var active = new BitSet();
+    active.set(P2.patternIndex());
+    active.set(P3.patternIndex());
+
+    var result = subject.filter(active, STOP_COUNT + 1);
+
+    assertEquals(STOP_COUNT + 1, result.size());
+    assertArrayEquals(sorted(P3), result.get(A.getIndex()));
+    assertArrayEquals(sorted(P2), result.get(B.getIndex()));
+    assertArrayEquals(sorted(P2, P3), result.get(C.getIndex()));
+    assertArrayEquals(new int[0], result.get(STOP_COUNT));
+  }
+
+  private static int[] sorted(RoutingTripPattern... patterns) {
+    return Stream.of(patterns).mapToInt(RoutingTripPattern::patternIndex).sorted().toArray();
+  }
+
+  private static RoutingTripPattern pattern(String id, RegularStop... stops) {
+    var stopTimes = Stream
+      .of(stops)
+      .map(s -> {
+        var st = new StopTime();
+        st.setStop(s);
+        return st;
+      })
+      .toList();
+
+    return TripPattern
+      .of(TransitModelForTest.id(id))
+      .withRoute(TransitModelForTest.route("1").build())
+      .withStopPattern(new StopPattern(stopTimes))
+      .build()
+      .getRoutingTripPattern();
+  }
+}
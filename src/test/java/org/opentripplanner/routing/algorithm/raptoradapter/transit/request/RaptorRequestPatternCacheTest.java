@@ -0,0 +1,74 @@
+package org.opentripplanner.routing.algorithm.raptoradapter.transit.request;
+
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.request.RaptorRequestPatternCache.RequestPatterns;
+import org.opentripplanner.routing.api.request.preference.WheelchairPreferences;
+import org.opentripplanner.transit.model.basic.MainAndSubMode;
+import org.opentripplanner.transit.model.basic.TransitMode;
+
+class RaptorRequestPatternCacheTest {
+
+  private static final ZonedDateTime TIME_ZERO = LocalDate
+    .of(2022, 10, 1)
+    .atStartOfDay(ZoneId.of("Europe/Oslo"));
+
+  private final RaptorRequestPatternCache subject = new RaptorRequestPatternCache(5);
+
+  @Test
+  void sameFilterAndDateShareEntry() {
+    var first = get(subject, TIME_ZERO, filter(TransitMode.BUS));
+
+    assertSame(first, get(subject, TIME_ZERO, filter(TransitMode.BUS)));
+    assertNotSame(first, get(subject, TIME_ZERO, filter(TransitMode.RAIL)));
+    assertNotSame(first, get(subject, TIME_ZERO.plusDays(1), filter(TransitMode.BUS)));
+  }
+
+  @Test
+  void emptyCopy() {
+    var first = get(subject, TIME_ZERO, filter(TransitMode.BUS));
+
+    assertNotSame(first, get(subject.emptyCopy(), TIME_ZERO, filter(TransitMode.BUS)));
+  }
+
+  @Test
+  void disabled() {
+    var disabled = new RaptorRequestPatternCache(0);
+    var first = get(disabled, TIME_ZERO, filter(TransitMode.BUS));
+
+    assertNotSame(first, get(disabled, TIME_ZERO, filter(TransitMode.BUS)));
+  }
+
+  private static RequestPatterns get(
+    RaptorRequestPatternCache cache,
+    ZonedDateTime transitSearchTimeZero,
+    TransitDataProviderFilter filter
+  ) {
+    return cache.get(
+      transitSearchTimeZero,
+      1,
+      1,
+      filter,
+      () -> new RequestPatterns(List.of(), List.of())
+    );
+  }
+
+  private static TransitDataProviderFilter filter(TransitMode mode) {
+    return new RouteRequestTransitDataProviderFilter(
+      false,
+      false,
+      WheelchairPreferences.DEFAULT,
+      false,
+      List.of(new MainAndSubMode(mode)),
+      Set.of(),
+      Set.of()
+    );
+  }
+}
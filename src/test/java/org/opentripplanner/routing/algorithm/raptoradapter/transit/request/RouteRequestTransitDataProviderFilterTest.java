@@ -2,6 +2,7 @@ package org.opentripplanner.routing.algorithm.raptoradapter.transit.request;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.time.LocalDate;
@@ -501,6 +502,35 @@ public class RouteRequestTransitDataProviderFilterTest {
     assertFalse(filter.tripTimesPredicate(failingTripTimes5));
   }
 
+  @Test
+  public void testEqualsAndHashCode() {
+    var subject = createFilter(List.of(new MainAndSubMode(TransitMode.BUS)), Set.of(TRIP_ID));
+    var same = createFilter(List.of(new MainAndSubMode(TransitMode.BUS)), Set.of(TRIP_ID));
+
+    assertEquals(subject, same);
+    assertEquals(subject.hashCode(), same.hashCode());
+    assertNotEquals(
+      subject,
+      createFilter(List.of(new MainAndSubMode(TransitMode.RAIL)), Set.of(TRIP_ID))
+    );
+    assertNotEquals(subject, createFilter(List.of(new MainAndSubMode(TransitMode.BUS)), Set.of()));
+  }
+
+  private RouteRequestTransitDataProviderFilter createFilter(
+    List<MainAndSubMode> modes,
+    Set<FeedScopedId> bannedTrips
+  ) {
+    return new RouteRequestTransitDataProviderFilter(
+      false,
+      false,
+      DEFAULT_ACCESSIBILITY,
+      false,
+      modes,
+      Set.of(),
+      bannedTrips
+    );
+  }
+
   private boolean validateModesOnTripTimes(
     Collection<MainAndSubMode> allowedModes,
     TripTimes tripTimes
@@ -0,0 +1,102 @@
+package org.opentripplanner.routing.algorithm.raptoradapter.transit.request;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.model.StopTime;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.TripPatternForDate;
+import org.opentripplanner.transit.model._data.TransitModelForTest;
+import org.opentripplanner.transit.model.framework.Deduplicator;
+import org.opentripplanner.transit.model.network.RoutingTripPattern;
+import org.opentripplanner.transit.model.network.StopPattern;
+import org.opentripplanner.transit.model.network.TripPattern;
+import org.opentripplanner.transit.model.timetable.TripTimes;
+
+class TripPatternForDatesTest {
+
+  private static final LocalDate DATE = LocalDate.of(2022, 11, 1);
+  private static final int DAY = 24 * 3600;
+
+  private final Deduplicator deduplicator = new Deduplicator();
+
+  @Test
+  void timesWithoutDwellTimes() {
+    var a = tripTimes("A", 0, 100, 200);
+    var b = tripTimes("B", 0, 300, 400);
+    assertTrue(a.hasZeroDwellTimes());
+
+    var subject = tripPatternForDates(List.of(a), List.of(b));
+
+    assertEquals(2, subject.numberOfTripSchedules());
+    assertEquals(100, subject.arrivalTime(0, 0));
+    assertEquals(200, subject.departureTime(1, 0));
+    assertEquals(DAY + 300, subject.departureTime(0, 1));
+    assertEquals(DAY + 400, subject.getArrivalTimes(1).applyAsInt(1));
+    assertEquals(DAY + 400, subject.getTripSchedule(1).departure(1));
+  }
+
+  @Test
+  void timesWithDwellTimes() {
+    var a = tripTimes("A", 0, 100, 200);
+    var b = tripTimes("B", 30, 300, 400);
+    assertFalse(b.hasZeroDwellTimes());
+
+    var subject = tripPatternForDates(List.of(a, b), List.of());
+
+    assertEquals(100, subject.departureTime(0, 0));
+    assertEquals(300, subject.arrivalTime(0, 1));
+    assertEquals(330, subject.departureTime(0, 1));
+    assertEquals(330, subject.getDepartureTimes(0).applyAsInt(1));
+    assertEquals(400, subject.getTripSchedule(1).arrival(1));
+    assertEquals(430, subject.getTripSchedule(1).departure(1));
+  }
+
+  private TripPatternForDates tripPatternForDates(
+    List<TripTimes> firstDay,
+    List<TripTimes> secondDay
+  ) {
+    RoutingTripPattern pattern = TripPattern
+      .of(TransitModelForTest.id("P"))
+      .withRoute(TransitModelForTest.route("R").build())
+      .withStopPattern(new StopPattern(stopTimes("A", 0, 0, 0)))
+      .build()
+      .getRoutingTripPattern();
+
+    List<TripPatternForDate> dates = new ArrayList<>();
+    dates.add(new TripPatternForDate(pattern, firstDay, List.of(), DATE));
+    if (!secondDay.isEmpty()) {
+      dates.add(new TripPatternForDate(pattern, secondDay, List.of(), DATE.plusDays(1)));
+    }
+    return new TripPatternForDates(
+      pattern,
+      dates.toArray(TripPatternForDate[]::new),
+      new int[] { 0, DAY },
+      null,
+      null
+    );
+  }
+
+  private TripTimes tripTimes(String id, int dwellTime, int... arrivalTimes) {
+    return new TripTimes(
+      TransitModelForTest.trip(id).build(),
+      stopTimes(id, dwellTime, arrivalTimes),
+      deduplicator
+    );
+  }
+
+  private static List<StopTime> stopTimes(String tripId, int dwellTime, int... arrivalTimes) {
+    var trip = TransitModelForTest.trip(tripId).build();
+    List<StopTime> stopTimes = new ArrayList<>();
+    for (int i = 0; i < arrivalTimes.length; i++) {
+      var stopTime = TransitModelForTest.stopTime(trip, i, arrivalTimes[i]);
+      stopTime.setDepartureTime(arrivalTimes[i] + dwellTime);
+      stopTimes.add(stopTime);
+    }
+    return stopTimes;
+  }
+}
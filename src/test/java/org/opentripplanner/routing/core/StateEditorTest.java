@@ -2,9 +2,14 @@ package org.opentripplanner.routing.core;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.junit.jupiter.api.Test;
+import org.opentripplanner.routing.graph.SimpleConcreteEdge;
+import org.opentripplanner.routing.graph.SimpleConcreteVertex;
 
 public class StateEditorTest {
 
@@ -47,4 +52,26 @@ public class StateEditorTest {
 
     assertNull(stateEditor.makeState(), "Infinity weight increment");
   }
+
+  @Test
+  public final void testStateDataIsSharedIfUnchanged() {
+    var a = new SimpleConcreteVertex(null, "A", 60.0, 10.0);
+    var b = new SimpleConcreteVertex(null, "B", 60.1, 10.1);
+    var c = new SimpleConcreteVertex(null, "C", 60.2, 10.2);
+    var s0 = new State(a, AStarRequest.of().build());
+
+    var editor = s0.edit(new SimpleConcreteEdge(a, b));
+    editor.setVehicleParked(false, TraverseMode.WALK);
+    editor.setFromState(s0);
+    var s1 = editor.makeState();
+
+    assertSame(s0.stateData, s1.stateData);
+
+    editor = s1.edit(new SimpleConcreteEdge(b, c));
+    editor.setVehicleParked(true, TraverseMode.WALK);
+    var s2 = editor.makeState();
+
+    assertNotSame(s1.stateData, s2.stateData);
+    assertTrue(s2.isVehicleParked());
+  }
 }
@@ -0,0 +1,64 @@
+package org.opentripplanner.routing.graph;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class SerializedGraphObjectTest {
+
+  private final Graph graph = new Graph();
+  private final Vertex a = new SimpleConcreteVertex(graph, "A", 60.0, 10.0);
+  private final Vertex b = new SimpleConcreteVertex(graph, "B", 60.1, 10.1);
+  private final Vertex c = new SimpleConcreteVertex(graph, "C", 60.2, 10.2);
+  private final Edge ab = new SimpleConcreteEdge(a, b);
+  private final Edge ac = new SimpleConcreteEdge(a, c);
+  private final Edge ba = new SimpleConcreteEdge(b, a);
+  private final Edge cb = new SimpleConcreteEdge(c, b);
+
+  @Test
+  void reconstructEdgeLists() {
+    var edges = List.of(ab, ac, ba, cb);
+    initEdgeLists();
+
+    SerializedGraphObject.reconstructEdgeLists(graph.getVertices(), edges);
+
+    assertEquals(List.of(ab, ac), List.copyOf(a.getOutgoing()));
+    assertEquals(List.of(ba), List.copyOf(a.getIncoming()));
+    assertEquals(List.of(ba), List.copyOf(b.getOutgoing()));
+    assertEquals(List.of(ab, cb), List.copyOf(b.getIncoming()));
+    assertEquals(List.of(cb), List.copyOf(c.getOutgoing()));
+    assertEquals(List.of(ac), List.copyOf(c.getIncoming()));
+  }
+
+  @Test
+  void reconstructEdgeListsWithVertexNotInGraph() {
+    var other = new SimpleConcreteVertex(null, "X", 60.3, 10.3);
+    var ax = new SimpleConcreteEdge(a, other);
+    var edges = List.<Edge>of(ab, ax);
+    initEdgeLists();
+
+    SerializedGraphObject.reconstructEdgeLists(graph.getVertices(), edges);
+
+    assertEquals(List.of(ab, ax), List.copyOf(a.getOutgoing()));
+    assertEquals(List.of(ab), List.copyOf(b.getIncoming()));
+  }
+
+  @Test
+  void reconstructEdgeListsWithRepeatedEdge() {
+    var edges = List.of(ab, ac, ab, ba, ab);
+    initEdgeLists();
+
+    SerializedGraphObject.reconstructEdgeLists(graph.getVertices(), edges);
+
+    assertEquals(List.of(ab, ac), List.copyOf(a.getOutgoing()));
+    assertEquals(List.of(ba), List.copyOf(a.getIncoming()));
+    assertEquals(List.of(ab), List.copyOf(b.getIncoming()));
+  }
+
+  private void initEdgeLists() {
+    for (Vertex v : graph.getVertices()) {
+      v.initEdgeLists();
+    }
+  }
+}
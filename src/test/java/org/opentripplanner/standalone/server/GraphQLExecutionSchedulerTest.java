@@ -0,0 +1,219 @@
+package org.opentripplanner.standalone.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class GraphQLExecutionSchedulerTest {
+
+  private static final String API = "test";
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final CountDownLatch started = new CountDownLatch(1);
+  private final CountDownLatch release = new CountDownLatch(1);
+  private final ExecutorService client = Executors.newCachedThreadPool();
+  private final List<GraphQLExecutionScheduler> schedulers = new ArrayList<>();
+
+  @AfterEach
+  void tearDown() {
+    release.countDown();
+    client.shutdownNow();
+    schedulers.forEach(GraphQLExecutionScheduler::shutdown);
+  }
+
+  @Test
+  void execute() {
+    var subject = scheduler(2, 10, 0);
+
+    assertEquals("A", subject.execute(API, () -> "A"));
+    var e = assertThrows(
+      IllegalStateException.class,
+      () ->
+        subject.execute(
+          API,
+          () -> {
+            throw new IllegalStateException("Failed");
+          }
+        )
+    );
+    assertEquals("Failed", e.getMessage());
+  }
+
+  @Test
+  void invokeAll() throws Exception {
+    var subject = scheduler(2, 10, 0);
+
+    List<Callable<Integer>> tasks = List.of(() -> 1, () -> 2, () -> 3);
+    List<Future<Integer>> result = subject.invokeAll(API, tasks);
+
+    assertEquals(3, result.size());
+    assertTrue(result.stream().allMatch(Future::isDone));
+    assertEquals(List.of(1, 2, 3), result.stream().map(this::get).toList());
+    assertEquals(0, active(API));
+  }
+
+  @Test
+  void rejectWhenQueueIsFull() throws Exception {
+    var subject = scheduler(1, 0, 0);
+    var blocked = blockOneRequest(subject, API);
+
+    assertThrows(RejectedExecutionException.class, () -> subject.execute("other", () -> "B"));
+    assertEquals(1, rejected("other"));
+
+    release.countDown();
+    assertEquals("A", blocked.get(5, TimeUnit.SECONDS));
+    assertEquals(0, active(API));
+    assertEquals(0, active("other"));
+  }
+
+  @Test
+  void rejectWhenApiHasTooManyRequests() throws Exception {
+    var subject = scheduler(4, 10, 2);
+    var blocked = blockOneRequest(subject, API);
+
+    // Two tasks exceed the limit of the API, while other APIs are not affected
+    List<Callable<String>> tasks = List.of(() -> "B", () -> "C");
+    assertThrows(RejectedExecutionException.class, () -> subject.invokeAll(API, tasks));
+    assertEquals(2, subject.invokeAll("other", tasks).size());
+    assertEquals(1, rejected(API));
+    assertEquals(1, active(API));
+
+    release.countDown();
+    assertEquals("A", blocked.get(5, TimeUnit.SECONDS));
+    assertEquals(2, subject.invokeAll(API, tasks).size());
+  }
+
+  @Test
+  void runBatchLargerThanTheApiLimit() throws Exception {
+    var subject = scheduler(4, 10, 2);
+
+    List<Callable<Integer>> tasks = List.of(() -> 1, () -> 2, () -> 3, () -> 4, () -> 5);
+    List<Future<Integer>> result = subject.invokeAll(API, tasks);
+
+    assertEquals(List.of(1, 2, 3, 4, 5), result.stream().map(this::get).toList());
+    assertEquals(0, rejected(API));
+    assertEquals(0, active(API));
+  }
+
+  @Test
+  void runBatchLargerThanThePoolAndQueue() throws Exception {
+    var subject = scheduler(1, 1, 0);
+
+    List<Callable<Integer>> tasks = List.of(() -> 1, () -> 2, () -> 3, () -> 4, () -> 5);
+    List<Future<Integer>> result = subject.invokeAll(API, tasks);
+
+    assertEquals(List.of(1, 2, 3, 4, 5), result.stream().map(this::get).toList());
+    assertEquals(0, active(API));
+  }
+
+  @Test
+  void removeCancelledTasksFromTheQueue() throws Exception {
+    var subject = scheduler(1, 2, 0);
+    var blocked = blockOneRequest(subject, API);
+    var waiting = client.submit(() -> subject.execute(API, () -> "B"));
+    awaitQueued(1);
+
+    // The first task is queued, and cancelled when the second is rejected
+    List<Callable<String>> tasks = List.of(() -> "C", () -> "D");
+    assertThrows(RejectedExecutionException.class, () -> subject.invokeAll("other", tasks));
+    assertEquals(1, queued());
+
+    release.countDown();
+    assertEquals("A", blocked.get(5, TimeUnit.SECONDS));
+    assertEquals("B", waiting.get(5, TimeUnit.SECONDS));
+    assertEquals(2, subject.invokeAll("other", tasks).size());
+  }
+
+  @Test
+  void shutdown() {
+    var subject = scheduler(1, 0, 0);
+    subject.shutdown();
+
+    assertThrows(RejectedExecutionException.class, () -> subject.execute(API, () -> "A"));
+  }
+
+  private GraphQLExecutionScheduler scheduler(int threads, int queueSize, int maxPerApi) {
+    var scheduler = new GraphQLExecutionScheduler(
+      new GraphQLExecutionScheduler.Parameters() {
+        @Override
+        public int threadPoolSize() {
+          return threads;
+        }
+
+        @Override
+        public int queueSize() {
+          return queueSize;
+        }
+
+        @Override
+        public int maxConcurrentRequestsPerApi() {
+          return maxPerApi;
+        }
+      },
+      registry
+    );
+    schedulers.add(scheduler);
+    return scheduler;
+  }
+
+  /**
+   * Start a request which blocks until released, and wait for it to start.
+   */
+  private Future<String> blockOneRequest(GraphQLExecutionScheduler subject, String api)
+    throws InterruptedException {
+    var future = client.submit(() ->
+      subject.execute(
+        api,
+        () -> {
+          started.countDown();
+          release.await();
+          return "A";
+        }
+      )
+    );
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+    return future;
+  }
+
+  private double active(String api) {
+    return registry.get("graphql.scheduler.active").tag("api", api).gauge().value();
+  }
+
+  private void awaitQueued(int n) throws InterruptedException {
+    long end = System.currentTimeMillis() + 5000;
+    while (queued() < n && System.currentTimeMillis() < end) {
+      Thread.sleep(10);
+    }
+    assertEquals(n, queued());
+  }
+
+  private double queued() {
+    return registry.get("executor.queued").tag("name", "graphQLExecutor").gauge().value();
+  }
+
+  private double rejected(String api) {
+    return registry.get("graphql.scheduler.rejected").tag("api", api).counter().count();
+  }
+
+  private <T> T get(Future<T> future) {
+    try {
+      return future.get();
+    } catch (InterruptedException | ExecutionException e) {
+      throw new RuntimeException(e);
+    }
+  }
+}
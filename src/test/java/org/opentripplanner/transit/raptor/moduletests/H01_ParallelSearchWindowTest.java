@@ -0,0 +1,116 @@
+package org.opentripplanner.transit.raptor.moduletests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.opentripplanner.transit.raptor._data.api.PathUtils.pathsToString;
+import static org.opentripplanner.transit.raptor._data.transit.TestRoute.route;
+import static org.opentripplanner.transit.raptor._data.transit.TestTripSchedule.schedule;
+import static org.opentripplanner.util.time.DurationUtils.durationInSeconds;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.transit.raptor.RaptorService;
+import org.opentripplanner.transit.raptor._data.RaptorTestConstants;
+import org.opentripplanner.transit.raptor._data.transit.TestAccessEgress;
+import org.opentripplanner.transit.raptor._data.transit.TestTransitData;
+import org.opentripplanner.transit.raptor._data.transit.TestTripSchedule;
+import org.opentripplanner.transit.raptor.api.request.Optimization;
+import org.opentripplanner.transit.raptor.api.request.RaptorProfile;
+import org.opentripplanner.transit.raptor.api.request.RaptorRequestBuilder;
+import org.opentripplanner.transit.raptor.api.request.RaptorTuningParameters;
+import org.opentripplanner.transit.raptor.configure.RaptorConfig;
+
+/**
+ * FEATURE UNDER TEST
+ * <p>
+ * Raptor should return the same paths when the search-window of a multi-criteria search is split
+ * into parts searched in parallel, as when the entire search-window is searched by one worker.
+ */
+public class H01_ParallelSearchWindowTest implements RaptorTestConstants {
+
+  private final TestTransitData data = new TestTransitData();
+  private final RaptorRequestBuilder<TestTripSchedule> requestBuilder = new RaptorRequestBuilder<>();
+  private final RaptorConfig<TestTripSchedule> parallelConfig = new RaptorConfig<>(
+    new RaptorTuningParameters() {
+      @Override
+      public int searchThreadPoolSize() {
+        return 2;
+      }
+
+      @Override
+      public int searchWindowPartitions() {
+        return 3;
+      }
+    }
+  );
+
+  @BeforeEach
+  public void setup() {
+    data.withRoutes(
+      route("R1", STOP_A, STOP_B, STOP_C)
+        .withTimetable(
+          schedule("0:05 0:15 0:25"),
+          schedule("0:20 0:30 0:40"),
+          schedule("0:35 0:45 0:55"),
+          schedule("0:50 1:00 1:10")
+        ),
+      route("R2", STOP_A, STOP_C)
+        .withTimetable(schedule("0:12 0:30"), schedule("0:44 1:02"), schedule("0:58 1:16"))
+    );
+    requestBuilder
+      .profile(RaptorProfile.MULTI_CRITERIA)
+      .enableOptimization(Optimization.PARALLEL)
+      .searchParams()
+      .addAccessPaths(TestAccessEgress.walk(STOP_A, D1m))
+      .addEgressPaths(TestAccessEgress.walk(STOP_C, D1m))
+      .earliestDepartureTime(T00_00)
+      .searchWindowInSeconds(durationInSeconds("1h"))
+      .timetableEnabled(true);
+
+    ModuleTestDebugLogging.setupDebugLogging(data, requestBuilder);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    parallelConfig.shutdown();
+  }
+
+  @Test
+  public void multiCriteria() {
+    var request = requestBuilder.build();
+
+    var expected = new RaptorService<>(RaptorConfig.<TestTripSchedule>defaultConfigForTest())
+      .route(request, data);
+    var actual = new RaptorService<>(parallelConfig).route(request, data);
+
+    assertEquals(7, expected.paths().size());
+    assertEquals(pathsToString(expected), pathsToString(actual));
+
+    for (int stop : new int[] { STOP_A, STOP_B, STOP_C }) {
+      var expectedArrivals = expected.getArrivals();
+      var actualArrivals = actual.getArrivals();
+      assertTrue(actualArrivals.reached(stop));
+      assertEquals(expectedArrivals.bestArrivalTime(stop), actualArrivals.bestArrivalTime(stop));
+    }
+    assertEquals(
+      expected.getArrivals().bestTransitArrivalTime(STOP_C),
+      actual.getArrivals().bestTransitArrivalTime(STOP_C)
+    );
+  }
+
+  /**
+   * The search-window is not split without the timetable, the departure time is then not a pareto
+   * criteria and the parts could return paths one worker drops.
+   */
+  @Test
+  public void multiCriteriaWithoutTimetable() {
+    var request = requestBuilder.searchParams().timetableEnabled(false).build();
+
+    var expected = new RaptorService<>(RaptorConfig.<TestTripSchedule>defaultConfigForTest())
+      .route(request, data);
+    var actual = new RaptorService<>(parallelConfig).route(request, data);
+
+    assertEquals(pathsToString(expected), pathsToString(actual));
+  }
+}
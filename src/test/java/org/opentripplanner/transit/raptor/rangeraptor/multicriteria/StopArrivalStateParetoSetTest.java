@@ -3,6 +3,7 @@ package org.opentripplanner.transit.raptor.rangeraptor.multicriteria;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import java.util.Arrays;
+import java.util.stream.StreamSupport;
 import org.junit.jupiter.api.Test;
 import org.opentripplanner.transit.raptor._data.transit.TestAccessEgress;
 import org.opentripplanner.transit.raptor._data.transit.TestTransfer;
@@ -123,6 +124,39 @@ public class StopArrivalStateParetoSetTest {
     assertStopsInSet(STOP_1, STOP_4);
   }
 
+  @Test
+  public void testElementsAfterMarker() {
+    subject.add(newTransferStopState(ROUND_1, STOP_1, 10, ANY));
+    subject.add(newTransferStopState(ROUND_2, STOP_2, 8, ANY));
+    subject.markAtEndOfSet();
+
+    assertStopsAfterMarker();
+
+    // Drop STOP_2 and move STOP_1 to the first position
+    subject.add(newTransferStopState(ROUND_2, STOP_3, 7, ANY));
+    assertStopsInSet(STOP_1, STOP_3);
+    assertStopsAfterMarker(STOP_3);
+
+    subject.markAtEndOfSet();
+    subject.add(newTransferStopState(ROUND_1, STOP_4, 9, ANY));
+    assertStopsInSet(STOP_3, STOP_4);
+    assertStopsAfterMarker(STOP_4);
+  }
+
+  @Test
+  public void testSetGrowsBeyondInitialCapacity() {
+    // Each arrival is better on arrival-time and worse on cost, so all of them are kept
+    int n = 40;
+    for (int i = 0; i < n; ++i) {
+      subject.add(newTransferStopState(ROUND_1, i, 1000 - i, 10 + i));
+    }
+    assertEquals(n, subject.size());
+
+    // Dominates all elements except the first 5
+    subject.add(newTransferStopState(ROUND_1, n, 1000 - n, 15));
+    assertStopsInSet(0, 1, 2, 3, 4, n);
+  }
+
   private static AccessStopArrival<RaptorTripSchedule> newAccessStopState(
     int stop,
     int accessDurationInSeconds,
@@ -171,6 +205,15 @@ public class StopArrivalStateParetoSetTest {
     }
   }
 
+  private void assertStopsAfterMarker(int... expStopIndexes) {
+    int[] result = StreamSupport
+      .stream(subject.elementsAfterMarker().spliterator(), false)
+      .mapToInt(AbstractStopArrival::stop)
+      .sorted()
+      .toArray();
+    assertEquals(Arrays.toString(expStopIndexes), Arrays.toString(result), "Stop indexes");
+  }
+
   private void assertStopsInSet(int... expStopIndexes) {
     int[] result = subject.stream().mapToInt(AbstractStopArrival::stop).sorted().toArray();
     assertEquals(Arrays.toString(expStopIndexes), Arrays.toString(result), "Stop indexes");
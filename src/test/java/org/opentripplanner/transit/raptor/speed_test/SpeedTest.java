@@ -24,11 +24,16 @@ import org.opentripplanner.standalone.api.OtpServerRequestContext;
 import org.opentripplanner.standalone.config.BuildConfig;
 import org.opentripplanner.standalone.config.RouterConfig;
 import org.opentripplanner.standalone.server.DefaultServerRequestContext;
+import org.opentripplanner.standalone.server.GraphQLExecutionScheduler;
 import org.opentripplanner.transit.raptor.configure.RaptorConfig;
 import org.opentripplanner.transit.raptor.speed_test.model.SpeedTestProfile;
+import org.opentripplanner.transit.raptor.speed_test.model.baseline.BaselineComparison;
+import org.opentripplanner.transit.raptor.speed_test.model.baseline.BaselineCsvFileIO;
+import org.opentripplanner.transit.raptor.speed_test.model.baseline.PerformanceResultCollector;
 import org.opentripplanner.transit.raptor.speed_test.model.testcase.CsvFileIO;
 import org.opentripplanner.transit.raptor.speed_test.model.testcase.TestCase;
 import org.opentripplanner.transit.raptor.speed_test.model.testcase.TestCaseInput;
+import org.opentripplanner.transit.raptor.speed_test.model.timer.AllocationMeter;
 import org.opentripplanner.transit.raptor.speed_test.model.timer.SpeedTestTimer;
 import org.opentripplanner.transit.raptor.speed_test.options.SpeedTestCmdLineOpts;
 import org.opentripplanner.transit.raptor.speed_test.options.SpeedTestConfig;
@@ -58,6 +63,8 @@ public class SpeedTest {
   private final Map<SpeedTestProfile, List<Integer>> workerResults = new HashMap<>();
   private final Map<SpeedTestProfile, List<Integer>> totalResults = new HashMap<>();
   private final CsvFileIO tcIO;
+  private final BaselineCsvFileIO baselineIO;
+  private final PerformanceResultCollector performanceResults = new PerformanceResultCollector();
   private SpeedTestProfile routeProfile;
 
   private SpeedTest(SpeedTestCmdLineOpts opts) {
@@ -69,6 +76,7 @@ public class SpeedTest {
     this.buildConfig = model.buildConfig();
 
     this.tcIO = new CsvFileIO(opts.rootDir(), TRAVEL_SEARCH_FILENAME, config.feedId);
+    this.baselineIO = new BaselineCsvFileIO(opts.rootDir(), TRAVEL_SEARCH_FILENAME);
 
     // Read Test-case definitions and expected results from file
     this.testCaseInputs = filterTestCases(opts, tcIO.readTestCasesFromFile());
@@ -78,6 +86,10 @@ public class SpeedTest {
       DefaultServerRequestContext.create(
         routerConfig,
         new RaptorConfig<>(routerConfig.raptorTuningParameters()),
+        new GraphQLExecutionScheduler(
+          routerConfig.graphQLSchedulerParameters(),
+          timer.getRegistry()
+        ),
         graph,
         new DefaultTransitService(transitModel),
         timer.getRegistry(),
@@ -180,10 +192,51 @@ public class SpeedTest {
     timer.globalCount("jvm_used_memory", runtime.totalMemory() - runtime.freeMemory());
 
     timer.finishUp();
+    serverContext.graphQLScheduler().shutdown();
+
+    if (opts.regression()) {
+      compareWithBaseline();
+    }
 
     System.err.println("\nSpeedTest done! " + projectInfo().getVersionString());
   }
 
+  /**
+   * Write the performance results, and compare them with the baseline if it exists. Throws an
+   * exception if a test case regressed, or if the runs of a test case did not return the same
+   * itineraries, so the SpeedTest exits with an error code.
+   */
+  private void compareWithBaseline() {
+    var results = performanceResults.results();
+    baselineIO.writeResults(results);
+    List<String> regressions = new ArrayList<>(performanceResults.unstableResults());
+
+    if (baselineIO.baselineExist()) {
+      var comparison = BaselineComparison.compare(
+        baselineIO.readBaseline(),
+        results,
+        opts.maxTimeIncreasePercent(),
+        opts.maxAllocationIncreasePercent()
+      );
+      System.err.println("\n" + ResultPrinter.headerLine("BASELINE COMPARISON"));
+      System.err.println(comparison.report());
+      regressions.addAll(comparison.regressions());
+    } else {
+      System.err.println(
+        "\nINFO - No baseline found, rename the results file to '" +
+        baselineIO.baselineFile().getName() +
+        "' to use it as baseline."
+      );
+    }
+
+    if (!regressions.isEmpty()) {
+      throw new OtpAppException(
+        "The SpeedTest regressed compared with the baseline, or is not stable:\n\t" +
+        String.join("\n\t", regressions)
+      );
+    }
+  }
+
   /* Run a single test with all testcases */
   private void runSingleTest(int sample, int nSamples) {
     List<TestCase> testCases = createNewSetOfTestCases();
@@ -241,7 +294,11 @@ public class SpeedTest {
         getTimeZoneId()
       );
       var routingRequest = speedTestRequest.toRouteRequest();
+      long allocatedBytes = AllocationMeter.currentThreadAllocatedBytes();
       RoutingResponse routingResponse = serverContext.routingService().route(routingRequest);
+      if (allocatedBytes != AllocationMeter.NOT_SUPPORTED) {
+        allocatedBytes = AllocationMeter.currentThreadAllocatedBytes() - allocatedBytes;
+      }
 
       var times = routingResponse.getDebugTimingAggregator().finishedRendering();
 
@@ -249,8 +306,14 @@ public class SpeedTest {
         int totalTime = nanosToMillisecond(times.totalTime);
         int transitTime = nanosToMillisecond(times.transitRouterTime);
 
-        // assert throws Exception on failure
-        testCase.assertResult(routingResponse.getTripPlan().itineraries, transitTime, totalTime);
+        try {
+          // assert throws Exception on failure
+          testCase.assertResult(routingResponse.getTripPlan().itineraries, transitTime, totalTime);
+        } finally {
+          // Record the performance also if the result is not as expected, the baseline comparison
+          // reports changes in the result
+          performanceResults.add(routeProfile, testCase, totalTime, allocatedBytes);
+        }
 
         // Report success
         ResultPrinter.printResultOk(testCase, opts.verbose());
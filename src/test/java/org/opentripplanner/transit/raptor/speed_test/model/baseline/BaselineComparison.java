@@ -0,0 +1,128 @@
+package org.opentripplanner.transit.raptor.speed_test.model.baseline;
+
+import static org.opentripplanner.framework.text.Table.Align.Center;
+import static org.opentripplanner.framework.text.Table.Align.Left;
+import static org.opentripplanner.framework.text.Table.Align.Right;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.opentripplanner.framework.text.Table;
+import org.opentripplanner.framework.text.TableBuilder;
+
+/**
+ * Compare the performance results of a run with a baseline. A test case run with a profile
+ * regresses if:
+ * <ul>
+ *   <li>The itineraries found are not the same, the result checksums differ.</li>
+ *   <li>The median or the 90th percentile routing time increases more than the given percentage,
+ *   and more than {@link #MIN_TIME_INCREASE_MS}. Very short times vary a lot in percent, so a few
+ *   milliseconds are always accepted.</li>
+ *   <li>The median number of bytes allocated increases more than the given percentage.</li>
+ * </ul>
+ * Test cases which are not in both the baseline and the results are reported, but do not regress.
+ */
+public class BaselineComparison {
+
+  static final int MIN_TIME_INCREASE_MS = 5;
+
+  private static final String OK = "OK";
+  private static final String FAILED = "FAILED";
+  private static final String NA = "N/A";
+
+  private final double maxTimeIncrease;
+  private final double maxAllocationIncrease;
+  private final TableBuilder table = Table
+    .of()
+    .withAlights(Left, Left, Right, Right, Right, Center, Left)
+    .withHeaders("TC", "Profile", "P50 ms", "P90 ms", "Alloc kB", "Status", "Regressions");
+  private final List<String> regressions = new ArrayList<>();
+
+  private BaselineComparison(int maxTimeIncreasePercent, int maxAllocationIncreasePercent) {
+    this.maxTimeIncrease = 1.0 + maxTimeIncreasePercent / 100.0;
+    this.maxAllocationIncrease = 1.0 + maxAllocationIncreasePercent / 100.0;
+  }
+
+  public static BaselineComparison compare(
+    Collection<PerformanceResult> baseline,
+    Collection<PerformanceResult> results,
+    int maxTimeIncreasePercent,
+    int maxAllocationIncreasePercent
+  ) {
+    var comparison = new BaselineComparison(maxTimeIncreasePercent, maxAllocationIncreasePercent);
+    Map<String, PerformanceResult> baselineByKey = baseline
+      .stream()
+      .collect(Collectors.toMap(PerformanceResult::key, Function.identity()));
+
+    for (PerformanceResult it : results) {
+      comparison.compare(baselineByKey.remove(it.key()), it);
+    }
+    for (PerformanceResult it : baselineByKey.values()) {
+      comparison.compare(it, null);
+    }
+    return comparison;
+  }
+
+  /** At least one test case regressed. */
+  public boolean failed() {
+    return !regressions.isEmpty();
+  }
+
+  /** A description of each regression, like: "TC 1 mc_destination: P90 320 ms > 250 ms". */
+  public List<String> regressions() {
+    return regressions;
+  }
+
+  /** A table with the baseline and the new result of each test case. */
+  public String report() {
+    return table.toString();
+  }
+
+  private void compare(PerformanceResult expected, PerformanceResult actual) {
+    if (expected == null || actual == null) {
+      var it = expected == null ? actual : expected;
+      String reason = expected == null ? "Not in baseline" : "Not run";
+      table.addRow(it.testCaseId(), it.profile(), "", "", "", NA, reason);
+      return;
+    }
+    List<String> errors = new ArrayList<>();
+
+    if (!expected.checksum().equals(actual.checksum())) {
+      errors.add("The itineraries have changed");
+    }
+    checkTime("P50", expected.p50Ms(), actual.p50Ms(), errors);
+    checkTime("P90", expected.p90Ms(), actual.p90Ms(), errors);
+
+    long expAlloc = expected.allocatedBytes();
+    long actAlloc = actual.allocatedBytes();
+    if (expAlloc >= 0 && actAlloc >= 0 && actAlloc > expAlloc * maxAllocationIncrease) {
+      errors.add(String.format("Alloc %d kB > %d kB", actAlloc / 1024, expAlloc / 1024));
+    }
+
+    table.addRow(
+      actual.testCaseId(),
+      actual.profile(),
+      diff(expected.p50Ms(), actual.p50Ms()),
+      diff(expected.p90Ms(), actual.p90Ms()),
+      diff(expAlloc / 1024, actAlloc / 1024),
+      errors.isEmpty() ? OK : FAILED,
+      String.join(", ", errors)
+    );
+    for (String error : errors) {
+      regressions.add("TC " + actual.testCaseId() + " " + actual.profile() + ": " + error);
+    }
+  }
+
+  private void checkTime(String label, int expected, int actual, List<String> errors) {
+    if (actual > expected * maxTimeIncrease && actual - expected > MIN_TIME_INCREASE_MS) {
+      errors.add(String.format("%s %d ms > %d ms", label, actual, expected));
+    }
+  }
+
+  private static String diff(long expected, long actual) {
+    return expected + " -> " + actual;
+  }
+}
@@ -0,0 +1,124 @@
+package org.opentripplanner.transit.raptor.speed_test.model.baseline;
+
+import com.csvreader.CsvReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.opentripplanner.transit.raptor.speed_test.model.SpeedTestProfile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class is responsible for reading the performance baseline and writing the performance
+ * results to CSV files. The results file has the same format as the baseline, so it can be renamed
+ * and used as the baseline for the next runs.
+ */
+public class BaselineCsvFileIO {
+
+  private static final Logger LOG = LoggerFactory.getLogger(BaselineCsvFileIO.class);
+
+  private static final char CSV_DELIMITER = ',';
+  private static final String[] HEADERS = {
+    "tcId",
+    "profile",
+    "samples",
+    "p50",
+    "p90",
+    "max",
+    "allocatedBytes",
+    "checksum",
+  };
+
+  private final File baselineFile;
+  private final File resultsFile;
+
+  public BaselineCsvFileIO(File dir, String testSetName) {
+    baselineFile = new File(dir, testSetName + "-baseline.csv");
+    resultsFile = new File(dir, testSetName + "-baseline-results.csv");
+  }
+
+  public File baselineFile() {
+    return baselineFile;
+  }
+
+  public boolean baselineExist() {
+    return baselineFile.exists();
+  }
+
+  public List<PerformanceResult> readBaseline() {
+    List<PerformanceResult> results = new ArrayList<>();
+    if (!baselineExist()) {
+      return results;
+    }
+    try {
+      var csvReader = new CsvReader(
+        baselineFile.getAbsolutePath(),
+        CSV_DELIMITER,
+        StandardCharsets.UTF_8
+      );
+      csvReader.readHeaders();
+
+      while (csvReader.readRecord()) {
+        if (csvReader.getRawRecord().startsWith("#")) {
+          continue;
+        }
+        try {
+          results.add(
+            new PerformanceResult(
+              csvReader.get("tcId"),
+              SpeedTestProfile.valueOf(csvReader.get("profile")),
+              Integer.parseInt(csvReader.get("samples")),
+              Integer.parseInt(csvReader.get("p50")),
+              Integer.parseInt(csvReader.get("p90")),
+              Integer.parseInt(csvReader.get("max")),
+              Long.parseLong(csvReader.get("allocatedBytes")),
+              csvReader.get("checksum")
+            )
+          );
+        } catch (RuntimeException e) {
+          throw new IllegalStateException(
+            e.getMessage() + ". Line: " + csvReader.getRawRecord(),
+            e
+          );
+        }
+      }
+      return results;
+    } catch (IOException e) {
+      throw new IllegalStateException(e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Write the results to a CSV file. This file can be renamed and used as the baseline.
+   */
+  public void writeResults(List<PerformanceResult> results) {
+    try (PrintWriter out = new PrintWriter(resultsFile, StandardCharsets.UTF_8)) {
+      out.println(String.join(String.valueOf(CSV_DELIMITER), HEADERS));
+      for (PerformanceResult it : results) {
+        out.println(
+          String.join(
+            String.valueOf(CSV_DELIMITER),
+            it.testCaseId(),
+            it.profile().name(),
+            Integer.toString(it.samples()),
+            Integer.toString(it.p50Ms()),
+            Integer.toString(it.p90Ms()),
+            Integer.toString(it.maxMs()),
+            Long.toString(it.allocatedBytes()),
+            it.checksum()
+          )
+        );
+      }
+      System.err.println(
+        "\nINFO - New CSV file with performance results is saved to '" +
+        resultsFile.getAbsolutePath() +
+        "'."
+      );
+    } catch (Exception e) {
+      LOG.error("Failed to store performance results: " + e.getMessage(), e);
+    }
+  }
+}
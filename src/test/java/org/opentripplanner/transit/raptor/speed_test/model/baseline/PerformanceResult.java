@@ -0,0 +1,35 @@
+package org.opentripplanner.transit.raptor.speed_test.model.baseline;
+
+import org.opentripplanner.transit.raptor.speed_test.model.SpeedTestProfile;
+
+/**
+ * The measured performance of a test case run with a profile, aggregated over all samples.
+ *
+ * @param samples        The number of times the test case was run, the JIT warm-up is not included.
+ * @param p50Ms          The median total routing time in milliseconds.
+ * @param p90Ms          The 90th percentile of the total routing time in milliseconds.
+ * @param maxMs          The maximum total routing time in milliseconds.
+ * @param allocatedBytes The median number of bytes allocated by the routing request, or
+ *                       {@code -1} if the JVM does not support measuring it.
+ * @param checksum       A checksum of the itineraries found, used to detect changes in the result.
+ *                       If the runs returned different itineraries, all checksums separated by '|'.
+ */
+public record PerformanceResult(
+  String testCaseId,
+  SpeedTestProfile profile,
+  int samples,
+  int p50Ms,
+  int p90Ms,
+  int maxMs,
+  long allocatedBytes,
+  String checksum
+) {
+  /** The test case id and the profile, this identifies the result in the baseline. */
+  String key() {
+    return key(testCaseId, profile);
+  }
+
+  static String key(String testCaseId, SpeedTestProfile profile) {
+    return testCaseId + " " + profile.name();
+  }
+}
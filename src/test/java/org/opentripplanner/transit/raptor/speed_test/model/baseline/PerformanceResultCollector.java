@@ -0,0 +1,108 @@
+package org.opentripplanner.transit.raptor.speed_test.model.baseline;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.opentripplanner.transit.raptor.speed_test.model.SpeedTestProfile;
+import org.opentripplanner.transit.raptor.speed_test.model.testcase.TestCase;
+
+/**
+ * Collect the routing time and the allocated bytes of each test case run, and aggregate them into
+ * a {@link PerformanceResult} for each test case and profile.
+ */
+public class PerformanceResultCollector {
+
+  private final Map<String, Samples> samples = new LinkedHashMap<>();
+
+  /**
+   * Add the measurements and the result checksum of a single test case run. All runs of a test
+   * case with the same profile are expected to return the same result, see
+   * {@link #unstableResults()}.
+   */
+  public void add(
+    SpeedTestProfile profile,
+    TestCase testCase,
+    int totalTimeMs,
+    long allocatedBytes
+  ) {
+    samples
+      .computeIfAbsent(
+        PerformanceResult.key(testCase.id(), profile),
+        k -> new Samples(testCase.id(), profile)
+      )
+      .add(totalTimeMs, allocatedBytes, testCase.resultChecksum());
+  }
+
+  /**
+   * The aggregated results. If the runs of a test case returned different results, the checksum
+   * of the result is all the different checksums, separated by '|'.
+   */
+  public List<PerformanceResult> results() {
+    return samples.values().stream().map(Samples::toResult).toList();
+  }
+
+  /**
+   * A description of each test case and profile where the runs did not return the same
+   * itineraries, like: "TC 1 mc_destination: The itineraries differ between runs".
+   */
+  public List<String> unstableResults() {
+    return samples
+      .values()
+      .stream()
+      .filter(it -> it.checksums.size() > 1)
+      .map(it ->
+        "TC " + it.testCaseId + " " + it.profile + ": The itineraries differ between runs"
+      )
+      .toList();
+  }
+
+  /**
+   * Return the nearest-rank percentile of the given values, the values must be sorted.
+   */
+  static long percentile(long[] sortedValues, double percentile) {
+    int rank = (int) Math.ceil(percentile * sortedValues.length);
+    return sortedValues[Math.max(rank, 1) - 1];
+  }
+
+  private static final class Samples {
+
+    private final String testCaseId;
+    private final SpeedTestProfile profile;
+    private final List<Long> times = new ArrayList<>();
+    private final List<Long> allocatedBytes = new ArrayList<>();
+    private final Set<String> checksums = new LinkedHashSet<>();
+
+    private Samples(String testCaseId, SpeedTestProfile profile) {
+      this.testCaseId = testCaseId;
+      this.profile = profile;
+    }
+
+    void add(int timeMs, long allocatedBytes, String checksum) {
+      this.times.add((long) timeMs);
+      this.allocatedBytes.add(allocatedBytes);
+      this.checksums.add(checksum);
+    }
+
+    PerformanceResult toResult() {
+      long[] t = sorted(times);
+      long[] a = sorted(allocatedBytes);
+      return new PerformanceResult(
+        testCaseId,
+        profile,
+        t.length,
+        (int) percentile(t, 0.5),
+        (int) percentile(t, 0.9),
+        (int) t[t.length - 1],
+        percentile(a, 0.5),
+        String.join("|", checksums)
+      );
+    }
+
+    private static long[] sorted(List<Long> values) {
+      return values.stream().mapToLong(Long::longValue).sorted().toArray();
+    }
+  }
+}
@@ -56,6 +56,13 @@ public record TestCase(TestCaseDefinition definition, TestCaseResults results) {
     return results.totalTimeMs();
   }
 
+  /**
+   * A checksum of the itineraries found, see {@link TestCaseResults#checksum()}.
+   */
+  public String resultChecksum() {
+    return results.checksum();
+  }
+
   /**
    * The test case is not run or no itineraries found.
    */
@@ -1,8 +1,10 @@
 package org.opentripplanner.transit.raptor.speed_test.model.testcase;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.zip.CRC32;
 import org.opentripplanner.model.plan.Itinerary;
 import org.opentripplanner.routing.util.DiffEntry;
 import org.opentripplanner.routing.util.DiffTool;
@@ -84,6 +86,32 @@ class TestCaseResults {
     return actual;
   }
 
+  /**
+   * A checksum of the actual results, used to detect changes in the results without storing them.
+   * The number of transfers, duration, start and end time, routes and stops are included, and the
+   * cost unless the cost is skipped. The order of the results does not matter.
+   */
+  String checksum() {
+    var crc = new CRC32();
+    actual
+      .stream()
+      .map(it ->
+        String.join(
+          ";",
+          String.valueOf(it.nTransfers),
+          String.valueOf(it.duration.toSeconds()),
+          skipCost ? "" : String.valueOf(it.cost),
+          String.valueOf(it.startTime),
+          String.valueOf(it.endTime),
+          String.join("|", it.routes),
+          String.join("|", it.stops)
+        )
+      )
+      .sorted()
+      .forEach(it -> crc.update((it + "\n").getBytes(StandardCharsets.UTF_8)));
+    return Long.toHexString(crc.getValue());
+  }
+
   private TestStatus resolveStatus() {
     if (matchedResults.isEmpty()) {
       return TestStatus.NA;
@@ -0,0 +1,38 @@
+package org.opentripplanner.transit.raptor.speed_test.model.timer;
+
+import com.sun.management.ThreadMXBean;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Measure the number of bytes allocated by the current thread, using the HotSpot extension of the
+ * {@link java.lang.management.ThreadMXBean}. Allocations done by other threads, like the parallel
+ * routing if the {@code ParallelRouting} feature is enabled, are not included.
+ */
+public class AllocationMeter {
+
+  /** Returned if the JVM does not support measuring the allocated bytes. */
+  public static final long NOT_SUPPORTED = -1;
+
+  private static final ThreadMXBean THREAD_MX_BEAN = threadMXBean();
+
+  private AllocationMeter() {}
+
+  /**
+   * The total number of bytes allocated by the current thread so far, or {@link #NOT_SUPPORTED}.
+   * Call this before and after the measured code, and subtract.
+   */
+  public static long currentThreadAllocatedBytes() {
+    return THREAD_MX_BEAN == null ? NOT_SUPPORTED : THREAD_MX_BEAN.getCurrentThreadAllocatedBytes();
+  }
+
+  private static ThreadMXBean threadMXBean() {
+    if (
+      ManagementFactory.getThreadMXBean() instanceof ThreadMXBean bean &&
+      bean.isThreadAllocatedMemorySupported()
+    ) {
+      bean.setThreadAllocatedMemoryEnabled(true);
+      return bean;
+    }
+    return null;
+  }
+}
@@ -25,6 +25,9 @@ public class SpeedTestCmdLineOpts {
   private static final String SKIP_COST = "0";
   private static final String DEBUG_STOPS = "S";
   private static final String DEBUG_PATH = "P";
+  private static final String REGRESSION = "R";
+  private static final String MAX_TIME_INCREASE = "L";
+  private static final String MAX_ALLOCATION_INCREASE = "A";
   private static final boolean OPTION_UNKNOWN_THEN_FAIL = false;
 
   private CommandLine cmd;
@@ -106,6 +109,18 @@ public class SpeedTestCmdLineOpts {
     return cmd.hasOption(GROUP_RESULTS_BY_CATEGORY);
   }
 
+  public boolean regression() {
+    return cmd.hasOption(REGRESSION);
+  }
+
+  public int maxTimeIncreasePercent() {
+    return Integer.parseInt(cmd.getOptionValue(MAX_TIME_INCREASE, "20"));
+  }
+
+  public int maxAllocationIncreasePercent() {
+    return Integer.parseInt(cmd.getOptionValue(MAX_ALLOCATION_INCREASE, "10"));
+  }
+
   List<String> parseCSVList(String opt) {
     return cmd.hasOption(opt)
       ? Arrays.asList(cmd.getOptionValue(opt).split("\\s*,\\s*"))
@@ -168,6 +183,32 @@ public class SpeedTestCmdLineOpts {
     );
 
     options.addOption(SKIP_COST, "skipCost", false, "Skip cost when comparing results.");
+
+    // Regression options
+    options.addOption(
+      REGRESSION,
+      "regression",
+      false,
+      "Write the routing time percentiles, allocated bytes and a result checksum for each " +
+      "test-case and profile to the '<test-set>-baseline-results.csv' file. If the " +
+      "'<test-set>-baseline.csv' file exists, compare the results with it and fail if a " +
+      "test-case regresses."
+    );
+    options.addOption(
+      MAX_TIME_INCREASE,
+      "maxTimeIncrease",
+      true,
+      "The max increase in percent of the median and 90th percentile routing time compared " +
+      "with the baseline. Default is 20."
+    );
+    options.addOption(
+      MAX_ALLOCATION_INCREASE,
+      "maxAllocationIncrease",
+      true,
+      "The max increase in percent of the allocated bytes compared with the baseline. " +
+      "Default is 10."
+    );
+
     // Debug options
     options.addOption(DEBUG_STOPS, "debugStops", true, "A coma separated list of stops to debug.");
     options.addOption(
@@ -0,0 +1,138 @@
+package org.opentripplanner.transit.raptor.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class CallerRunsTaskTest {
+
+  private final ThreadPoolExecutor threadPool = new ThreadPoolExecutor(
+    1,
+    1,
+    0L,
+    TimeUnit.MILLISECONDS,
+    new LinkedBlockingQueue<>()
+  );
+  private final CountDownLatch blockPool = new CountDownLatch(1);
+
+  @AfterEach
+  void tearDown() {
+    blockPool.countDown();
+    threadPool.shutdownNow();
+  }
+
+  @Test
+  void runInCallerThreadIfNotStartedByPool() throws Exception {
+    occupyThreadPool();
+    var counter = new AtomicInteger();
+    var thread = new AtomicReference<Thread>();
+
+    var subject = CallerRunsTask.submit(
+      threadPool,
+      () -> {
+        counter.incrementAndGet();
+        thread.set(Thread.currentThread());
+      }
+    );
+    subject.runOrAwait();
+
+    assertSame(Thread.currentThread(), thread.get());
+
+    // Let the pool pick up the task, it should not run again
+    blockPool.countDown();
+    threadPool.submit(() -> {}).get();
+    assertEquals(1, counter.get());
+  }
+
+  @Test
+  void awaitTaskStartedByPool() throws Exception {
+    var started = new CountDownLatch(1);
+    var thread = new AtomicReference<Thread>();
+
+    var subject = CallerRunsTask.submit(
+      threadPool,
+      () -> {
+        started.countDown();
+        thread.set(Thread.currentThread());
+      }
+    );
+    started.await();
+    subject.runOrAwait();
+
+    assertNotSame(Thread.currentThread(), thread.get());
+  }
+
+  @Test
+  void failureInCallerThreadIsThrownAsExecutionException() {
+    occupyThreadPool();
+    var error = new IllegalStateException("Failed");
+
+    var subject = CallerRunsTask.submit(
+      threadPool,
+      () -> {
+        throw error;
+      }
+    );
+    var e = assertThrows(ExecutionException.class, subject::runOrAwait);
+
+    assertSame(error, e.getCause());
+  }
+
+  @Test
+  void cancelTaskNotStarted() throws Exception {
+    occupyThreadPool();
+    var counter = new AtomicInteger();
+
+    var subject = CallerRunsTask.submit(threadPool, counter::incrementAndGet);
+    subject.cancel();
+
+    blockPool.countDown();
+    threadPool.submit(() -> {}).get();
+    assertEquals(0, counter.get());
+  }
+
+  @Test
+  void taskTakenBackIsRemovedFromTheQueue() throws Exception {
+    occupyThreadPool();
+
+    var run = CallerRunsTask.submit(threadPool, () -> {});
+    var cancelled = CallerRunsTask.submit(threadPool, () -> {});
+    assertEquals(2, threadPool.getQueue().size());
+
+    run.runOrAwait();
+    cancelled.cancel();
+
+    assertTrue(threadPool.getQueue().isEmpty());
+  }
+
+  @Test
+  void taskTakenBackIsRemovedFromTheQueueOfDecoratedPool() throws Exception {
+    occupyThreadPool();
+    var decorated = Executors.unconfigurableExecutorService(threadPool);
+
+    var subject = CallerRunsTask.submit(decorated, threadPool, () -> {});
+    subject.runOrAwait();
+
+    assertTrue(threadPool.getQueue().isEmpty());
+  }
+
+  private void occupyThreadPool() {
+    threadPool.submit(() -> {
+      blockPool.await();
+      return null;
+    });
+  }
+}
@@ -20,6 +20,7 @@ import com.google.transit.realtime.GtfsRealtime.TripUpdate.StopTimeUpdate;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -219,6 +220,54 @@ public class TimetableSnapshotSourceTest {
     assertEquals(RealTimeState.SCHEDULED, forToday.getTripTimes(tripIndex2).getRealTimeState());
   }
 
+  /**
+   * Large messages are prepared in parallel, but the updates must still be applied in the order
+   * of the message.
+   */
+  @Test
+  public void testHandleManyDelayedTripsInOrder() {
+    final FeedScopedId tripId = new FeedScopedId(feedId, "1.1");
+    final Trip trip = transitModel.getTransitModelIndex().getTripForId().get(tripId);
+    final TripPattern pattern = transitModel.getTransitModelIndex().getPatternForTrip().get(trip);
+    final int tripIndex = pattern.getScheduledTimetable().getTripIndex(tripId);
+
+    final List<TripUpdate> tripUpdates = IntStream
+      .rangeClosed(1, 500)
+      .mapToObj(delay -> {
+        final TripUpdate.Builder tripUpdateBuilder = TripUpdate.newBuilder();
+        tripUpdateBuilder
+          .getTripBuilder()
+          .setTripId("1.1")
+          .setScheduleRelationship(TripDescriptor.ScheduleRelationship.SCHEDULED);
+        final StopTimeUpdate.Builder stopTimeUpdateBuilder = tripUpdateBuilder.addStopTimeUpdateBuilder();
+        stopTimeUpdateBuilder.setScheduleRelationship(StopTimeUpdate.ScheduleRelationship.SCHEDULED);
+        stopTimeUpdateBuilder.setStopSequence(2);
+        stopTimeUpdateBuilder.getArrivalBuilder().setDelay(delay);
+        stopTimeUpdateBuilder.getDepartureBuilder().setDelay(delay);
+        return tripUpdateBuilder.build();
+      })
+      .toList();
+
+    var updater = new TimetableSnapshotSource(
+      TimetableSnapshotSourceParameters.DEFAULT,
+      transitModel
+    );
+
+    var result = updater.applyTripUpdates(
+      TRIP_MATCHER_NOOP,
+      REQUIRED_NO_DATA,
+      fullDataset,
+      tripUpdates,
+      feedId
+    );
+
+    assertEquals(500, result.successful());
+
+    final Timetable forToday = updater.getTimetableSnapshot().resolve(pattern, serviceDate);
+    assertEquals(500, forToday.getTripTimes(tripIndex).getArrivalDelay(1));
+    assertEquals(500, forToday.getTripTimes(tripIndex).getDepartureDelay(1));
+  }
+
   /**
    * This test just asserts that invalid trip ids don't throw an exception and are ignored instead
    */
@@ -0,0 +1,117 @@
+package org.opentripplanner.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import graphql.ExecutionInput;
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class GraphQLDocumentCacheTest {
+
+  private static final String QUERY = "{ hello }";
+  private static final String HASH =
+    "001c3174e099bd72b729d0c0a529ba9f5a740c446e2a6e1d71b283cb84ec3065";
+
+  private static final GraphQLSchema SCHEMA = new SchemaGenerator()
+    .makeExecutableSchema(
+      new SchemaParser().parse("type Query { hello: String }"),
+      RuntimeWiring
+        .newRuntimeWiring()
+        .type("Query", b -> b.dataFetcher("hello", env -> "world"))
+        .build()
+    );
+
+  private SimpleMeterRegistry registry;
+  private GraphQL graphQL;
+
+  @BeforeEach
+  void setUp() {
+    registry = new SimpleMeterRegistry();
+    var subject = new GraphQLDocumentCache(10, registry, List.of());
+    graphQL = GraphQL.newGraphQL(SCHEMA).preparsedDocumentProvider(subject).build();
+  }
+
+  @Test
+  void cacheParsedDocument() {
+    assertHello(execute(QUERY, Map.of()));
+    assertHello(execute(QUERY, Map.of()));
+    assertHello(execute(QUERY, Map.of()));
+
+    assertEquals(1, count("miss"));
+    assertEquals(2, count("hit"));
+  }
+
+  @Test
+  void doNotCacheInvalidDocument() {
+    assertFalse(execute("{ unknown }", Map.of()).getErrors().isEmpty());
+    assertFalse(execute("{ unknown }", Map.of()).getErrors().isEmpty());
+
+    assertEquals(2, count("miss"));
+    assertEquals(0, count("hit"));
+  }
+
+  @Test
+  void persistedQuery() {
+    // The hash is not known and no query is sent
+    var result = execute(null, persistedQueryExtensions());
+    assertEquals(1, result.getErrors().size());
+    assertEquals("PersistedQueryNotFound", result.getErrors().get(0).getMessage());
+
+    // Send the query together with the hash, then the hash only
+    assertHello(execute(QUERY, persistedQueryExtensions()));
+    assertHello(execute(null, persistedQueryExtensions()));
+
+    assertEquals(1, count("hit"));
+  }
+
+  @Test
+  void queryOrPersistedQueryMarker() {
+    assertEquals(QUERY, GraphQLDocumentCache.queryOrPersistedQueryMarker(QUERY, Map.of()));
+    assertEquals(
+      QUERY,
+      GraphQLDocumentCache.queryOrPersistedQueryMarker(QUERY, persistedQueryExtensions())
+    );
+    assertEquals(
+      "PersistedQueryMarker",
+      GraphQLDocumentCache.queryOrPersistedQueryMarker(null, persistedQueryExtensions())
+    );
+    assertTrue(GraphQLDocumentCache.isPersistedQuery(persistedQueryExtensions()));
+    assertFalse(GraphQLDocumentCache.isPersistedQuery(Map.of("persistedQuery", "x")));
+    assertFalse(GraphQLDocumentCache.isPersistedQuery(null));
+  }
+
+  private ExecutionResult execute(String query, Map<String, Object> extensions) {
+    return graphQL.execute(
+      ExecutionInput
+        .newExecutionInput()
+        .query(GraphQLDocumentCache.queryOrPersistedQueryMarker(query, extensions))
+        .extensions(new HashMap<>(extensions))
+        .build()
+    );
+  }
+
+  private double count(String result) {
+    return registry.get("graphql.document.cache").tag("result", result).counter().count();
+  }
+
+  private static Map<String, Object> persistedQueryExtensions() {
+    return Map.of("persistedQuery", Map.of("version", 1, "sha256Hash", HASH));
+  }
+
+  private static void assertHello(ExecutionResult result) {
+    assertTrue(result.getErrors().isEmpty(), () -> result.getErrors().toString());
+    assertEquals(Map.of("hello", "world"), result.getData());
+  }
+}
@@ -0,0 +1,87 @@
+package org.opentripplanner.util.io;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class MemoryMappedFileInputStreamTest {
+
+  private static final int REGION_SIZE = 7;
+
+  private File file;
+  private byte[] content;
+
+  @BeforeEach
+  void setup() throws IOException {
+    file = File.createTempFile("MemoryMappedFileInputStreamTest", ".bin");
+    content = new byte[50];
+    for (int i = 0; i < content.length; i++) {
+      content[i] = (byte) (200 + i);
+    }
+    Files.write(file.toPath(), content);
+  }
+
+  @AfterEach
+  void teardown() {
+    //noinspection ResultOfMethodCallIgnored
+    file.delete();
+  }
+
+  @Test
+  void readAllBytesAcrossRegions() throws IOException {
+    try (var in = MemoryMappedFileInputStream.open(file, REGION_SIZE)) {
+      assertEquals(content.length, in.available());
+      assertArrayEquals(content, in.readAllBytes());
+      assertEquals(0, in.available());
+      assertEquals(-1, in.read());
+    }
+  }
+
+  @Test
+  void readSingleBytes() throws IOException {
+    try (var in = MemoryMappedFileInputStream.open(file, REGION_SIZE)) {
+      for (byte b : content) {
+        assertEquals(b & 0xFF, in.read());
+      }
+      assertEquals(-1, in.read());
+    }
+  }
+
+  @Test
+  void readDoesNotSpanRegions() throws IOException {
+    try (var in = MemoryMappedFileInputStream.open(file, REGION_SIZE)) {
+      byte[] buffer = new byte[20];
+      assertEquals(REGION_SIZE, in.read(buffer, 0, buffer.length));
+      assertEquals(content[REGION_SIZE - 1], buffer[REGION_SIZE - 1]);
+    }
+  }
+
+  @Test
+  void skip() throws IOException {
+    try (var in = MemoryMappedFileInputStream.open(file, REGION_SIZE)) {
+      assertEquals(3, in.skip(3));
+      assertEquals(content[3] & 0xFF, in.read());
+      // Skip into the middle of the third region
+      assertEquals(12, in.skip(12));
+      assertEquals(content[16] & 0xFF, in.read());
+      // Skip past the end
+      assertEquals(content.length - 17, in.skip(1000));
+      assertEquals(-1, in.read());
+    }
+  }
+
+  @Test
+  void emptyFile() throws IOException {
+    Files.write(file.toPath(), new byte[0]);
+    try (var in = MemoryMappedFileInputStream.open(file)) {
+      assertEquals(0, in.available());
+      assertEquals(-1, in.read());
+    }
+  }
+}
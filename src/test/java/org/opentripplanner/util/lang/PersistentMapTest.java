@@ -0,0 +1,102 @@
+package org.opentripplanner.util.lang;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class PersistentMapTest {
+
+  @Test
+  void putAndGet() {
+    PersistentMap<String, Integer> empty = PersistentMap.empty();
+    var a = empty.put("A", 1);
+    var ab = a.put("B", 2);
+
+    assertTrue(empty.isEmpty());
+    assertEquals(1, a.size());
+    assertEquals(2, ab.size());
+    assertEquals(1, ab.get("A"));
+    assertEquals(2, ab.get("B"));
+    assertNull(a.get("B"));
+    assertNull(ab.get("C"));
+    assertFalse(ab.containsKey("C"));
+  }
+
+  @Test
+  void previousVersionsAreNotChanged() {
+    var v1 = PersistentMap.<String, Integer>empty().put("A", 1).put("B", 2);
+    var v2 = v1.put("A", 3).remove("B");
+
+    assertEquals(Map.of("A", 1, "B", 2), v1.asMap());
+    assertEquals(Map.of("A", 3), v2.asMap());
+  }
+
+  @Test
+  void unchangedMapIsReturnedAsIs() {
+    Integer one = 1;
+    var map = PersistentMap.<String, Integer>empty().put("A", one);
+
+    assertSame(map, map.put("A", one));
+    assertSame(map, map.remove("B"));
+    assertSame(map, map.removeIf((k, v) -> k.equals("B")));
+  }
+
+  @Test
+  void removeIf() {
+    var map = PersistentMap.<String, Integer>empty().put("A", 1).put("B", 2).put("C", 3);
+
+    assertEquals(Map.of("B", 2), map.removeIf((k, v) -> v != 2).asMap());
+  }
+
+  @Test
+  void hashCollisions() {
+    var a = new Key("A", 7);
+    var b = new Key("B", 7);
+    var c = new Key("C", 7);
+    var d = new Key("D", 8);
+
+    var map = PersistentMap.<Key, String>empty().put(a, "a").put(b, "b").put(c, "c").put(d, "d");
+
+    assertEquals(4, map.size());
+    assertEquals(Map.of(a, "a", b, "b", c, "c", d, "d"), map.asMap());
+    var removed = map.remove(b).remove(d);
+    assertEquals(Map.of(a, "a", c, "c"), removed.asMap());
+    assertEquals(Map.of(), removed.remove(a).remove(c).asMap());
+  }
+
+  @Test
+  void sameContentAsHashMap() {
+    var random = new Random(42);
+    var expected = new HashMap<Integer, Integer>();
+    var map = PersistentMap.<Integer, Integer>empty();
+
+    for (int i = 0; i < 20_000; ++i) {
+      int key = random.nextInt(5_000) * 31;
+      if (random.nextInt(4) == 0) {
+        expected.remove(key);
+        map = map.remove(key);
+      } else {
+        expected.put(key, i);
+        map = map.put(key, i);
+      }
+    }
+
+    assertEquals(expected.size(), map.size());
+    assertEquals(expected, map.asMap());
+    assertEquals(expected.size(), map.asMap().entrySet().stream().count());
+  }
+
+  private record Key(String name, int hash) {
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+}